@@ -0,0 +1,110 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.bench;
+
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarNominal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic data sets used by benchmarks. All data sets are generated with a fixed
+ * seed, thus all runs of a benchmark with the same parameters work on the same data.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42;
+
+    /**
+     * Builds a frame with numeric normal features named {@code x1..xn}.
+     */
+    static Frame numeric(int rows, int cols) {
+        RandomSource.setSeed(SEED);
+        Normal normal = Normal.std();
+        List<Var> vars = new ArrayList<>();
+        for (int i = 1; i <= cols; i++) {
+            vars.add(VarDouble.from(rows, normal::sampleNext).name("x" + i));
+        }
+        return SolidFrame.byVars(vars);
+    }
+
+    /**
+     * Builds a classification frame with numeric features named {@code x1..xn} and a nominal
+     * target {@code y} with the given number of levels, which depends on the first two features.
+     */
+    static Frame classification(int rows, int cols, int levels) {
+        Frame df = numeric(rows, cols);
+        String[] labels = new String[levels];
+        for (int i = 0; i < levels; i++) {
+            labels[i] = "c" + i;
+        }
+        VarNominal y = VarNominal.from(rows, row -> {
+            double score = df.getDouble(row, 0) + (cols > 1 ? df.getDouble(row, 1) : 0) + RandomSource.nextDouble() - 0.5;
+            int level = (int) Math.floor((Math.tanh(score) + 1) / 2 * levels);
+            return labels[Math.min(levels - 1, Math.max(0, level))];
+        }, labels).name("y");
+        return df.bindVars(y);
+    }
+
+    /**
+     * Builds a frame with a nominal key {@code key} with given cardinality and a numeric variable {@code value}.
+     */
+    static Frame grouped(int rows, int cardinality) {
+        RandomSource.setSeed(SEED);
+        String[] labels = new String[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+            labels[i] = "k" + i;
+        }
+        VarNominal key = VarNominal.from(rows, row -> labels[RandomSource.nextInt(cardinality)], labels).name("key");
+        VarDouble value = VarDouble.from(rows, RandomSource::nextDouble).name("value");
+        return SolidFrame.byVars(key, value);
+    }
+
+    static int[] ints(int size) {
+        RandomSource.setSeed(SEED);
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = RandomSource.nextInt();
+        }
+        return array;
+    }
+
+    static double[] doubles(int size) {
+        RandomSource.setSeed(SEED);
+        double[] array = new double[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = RandomSource.nextDouble();
+        }
+        return array;
+    }
+
+    private BenchmarkData() {
+    }
+}
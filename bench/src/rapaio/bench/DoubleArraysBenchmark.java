@@ -0,0 +1,94 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.util.collection.DoubleArrays;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reductions, element wise operations and sorting of double arrays.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DoubleArraysBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private double[] a;
+    private double[] b;
+
+    @Setup
+    public void setup() {
+        a = BenchmarkData.doubles(size);
+        b = Arrays.copyOf(a, size);
+        DoubleArrays.mult(b, 0, 0.5, size);
+    }
+
+    @Benchmark
+    public double sum() {
+        return DoubleArrays.sum(a, 0, size);
+    }
+
+    @Benchmark
+    public double mean() {
+        return DoubleArrays.mean(a, 0, size);
+    }
+
+    @Benchmark
+    public double variance() {
+        return DoubleArrays.variance(a, 0, size);
+    }
+
+    @Benchmark
+    public double[] add() {
+        double[] c = Arrays.copyOf(a, size);
+        DoubleArrays.add(c, 0, b, 0, size);
+        return c;
+    }
+
+    @Benchmark
+    public double[] quickSort() {
+        double[] c = Arrays.copyOf(a, size);
+        DoubleArrays.quickSort(c);
+        return c;
+    }
+}
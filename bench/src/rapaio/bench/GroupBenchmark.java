@@ -0,0 +1,75 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.data.Frame;
+import rapaio.data.Group;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group by a nominal key followed by aggregations on a numeric variable.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    @Param({"10", "1000"})
+    private int cardinality;
+
+    private Frame df;
+
+    @Setup
+    public void setup() {
+        df = BenchmarkData.grouped(rows, cardinality);
+    }
+
+    @Benchmark
+    public Group groupBy() {
+        return Group.from(df, "key");
+    }
+
+    @Benchmark
+    public Frame groupByAggregate() {
+        return Group.from(df, "key").aggregate(Group.count("value"), Group.mean("value")).toFrame();
+    }
+}
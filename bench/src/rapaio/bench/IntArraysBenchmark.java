@@ -0,0 +1,91 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.util.collection.IntArrays;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting of int arrays. Each invocation sorts a fresh copy of the same random array,
+ * the copy cost being included in the measurement.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntArraysBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private int[] source;
+
+    @Setup
+    public void setup() {
+        source = BenchmarkData.ints(size);
+    }
+
+    @Benchmark
+    public int[] quickSort() {
+        int[] array = Arrays.copyOf(source, size);
+        IntArrays.quickSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] quickSortComparator() {
+        int[] array = Arrays.copyOf(source, size);
+        IntArrays.quickSort(array, Integer::compare);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelQuickSort() {
+        int[] array = Arrays.copyOf(source, size);
+        IntArrays.parallelQuickSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] quickSortIndirect() {
+        int[] perm = IntArrays.newSeq(0, size);
+        IntArrays.quickSortIndirect(perm, source);
+        return perm;
+    }
+}
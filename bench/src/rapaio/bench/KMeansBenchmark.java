@@ -0,0 +1,73 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.ml.clustering.kmeans.KMeans;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting of k-means clustering on numeric features. The random seed is
+ * reset before each fit, thus each fit has the same initialization.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KMeansBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    @Param({"5", "20"})
+    private int k;
+
+    private Frame df;
+
+    @Setup
+    public void setup() {
+        df = BenchmarkData.numeric(rows, 10);
+    }
+
+    @Benchmark
+    public KMeans fit() {
+        RandomSource.setSeed(BenchmarkData.SEED);
+        return KMeans.newModel().k.set(k).runs.set(20).fit(df);
+    }
+}
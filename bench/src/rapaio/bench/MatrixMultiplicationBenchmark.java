@@ -0,0 +1,88 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rapaio.core.RandomSource;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.decomposition.MatrixMultiplication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Square dense matrix products using {@link MatrixMultiplication} algorithms
+ * and the default {@link DMatrix#dot(DMatrix)} implementation.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatrixMultiplicationBenchmark {
+
+    @Param({"64", "256", "512"})
+    private int n;
+
+    private DMatrix a;
+    private DMatrix b;
+
+    @Setup
+    public void setup() {
+        RandomSource.setSeed(BenchmarkData.SEED);
+        a = DMatrix.random(MType.RDENSE, n, n);
+        b = DMatrix.random(MType.RDENSE, n, n);
+    }
+
+    @Benchmark
+    public DMatrix dot() {
+        return a.dot(b);
+    }
+
+    @Benchmark
+    public DMatrix ikjParallel() {
+        return MatrixMultiplication.ikjParallel(a, b);
+    }
+
+    @Benchmark
+    public DMatrix tiled() {
+        return MatrixMultiplication.tiledAlgorithm(a, b);
+    }
+
+    @Benchmark
+    public DMatrix strassen() {
+        return MatrixMultiplication.strassen(a, b, 64);
+    }
+}
@@ -24,12 +24,20 @@ package rapaio.core;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
 
 /**
  * Random number producer used by rapaio facilities. Currently the implementation is a wrapper
  * over standard Java {@link Random}.
  * <p>
  * In order to have a reproducible analysis you can use same seed in code ({@link #setSeed(long)}).
+ * <p>
+ * Parallel tasks should not share the same generator, since the results would depend on
+ * thread scheduling. Before forking, a task creates independent streams with {@link #split(int)},
+ * which are derived deterministically from the current generator. Each parallel task runs
+ * with its own stream through {@link #callWith(SplittableRandom, Supplier)}, and all calls
+ * to this class made from the task thread are served by that stream.
  *
  * @author Aurelian Tutuianu
  */
@@ -39,17 +47,23 @@ public final class RandomSource implements Serializable {
     private static final long serialVersionUID = -1201316989986445607L;
 
     private static final Random rand = new Random();
+    private static final ThreadLocal<Random> taskRandom = new ThreadLocal<>();
 
     private RandomSource() {
     }
 
+    private static Random current() {
+        Random r = taskRandom.get();
+        return r == null ? rand : r;
+    }
+
     /**
      * Set seed of random number generator
      *
      * @param seed seed
      */
     public static void setSeed(long seed) {
-        rand.setSeed(seed);
+        current().setSeed(seed);
     }
 
     /**
@@ -58,19 +72,129 @@ public final class RandomSource implements Serializable {
      * {@code 1.0} from this random number generator's sequence.
      */
     public static double nextDouble() {
-        return rand.nextDouble();
+        return current().nextDouble();
     }
 
     public static int nextInt() {
-        return rand.nextInt();
+        return current().nextInt();
     }
 
     public static int nextInt(int n) {
-        return rand.nextInt(n);
+        return current().nextInt(n);
+    }
+
+    public static long nextLong() {
+        return current().nextLong();
     }
 
     public static Random getRandom() {
-        return rand;
+        return current();
+    }
+
+    /**
+     * Builds independent random streams, one for each parallel task. The streams
+     * are split from a generator seeded from the current random sequence, thus
+     * with the same seed the same streams are produced.
+     *
+     * @param n number of streams
+     * @return array of independent random streams
+     */
+    public static SplittableRandom[] split(int n) {
+        SplittableRandom root = new SplittableRandom(current().nextLong());
+        SplittableRandom[] streams = new SplittableRandom[n];
+        for (int i = 0; i < n; i++) {
+            streams[i] = root.split();
+        }
+        return streams;
     }
-}
 
+    /**
+     * Runs a task with the given random stream. While the task runs, all calls to this
+     * class made from the current thread use the given stream. The previous stream of
+     * the thread is restored after the task completes.
+     *
+     * @param stream random stream
+     * @param task   task to run
+     * @param <T>    type of the task result
+     * @return task result
+     */
+    public static <T> T callWith(SplittableRandom stream, Supplier<T> task) {
+        Random previous = taskRandom.get();
+        taskRandom.set(new SplitRandom(stream));
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                taskRandom.remove();
+            } else {
+                taskRandom.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs a task with the given random stream.
+     *
+     * @param stream random stream
+     * @param task   task to run
+     * @see #callWith(SplittableRandom, Supplier)
+     */
+    public static void runWith(SplittableRandom stream, Runnable task) {
+        callWith(stream, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Adapter which exposes a {@link SplittableRandom} as a {@link Random}.
+     */
+    private static final class SplitRandom extends Random {
+
+        @Serial
+        private static final long serialVersionUID = 4163262316580318476L;
+
+        private transient SplittableRandom split;
+
+        SplitRandom(SplittableRandom split) {
+            super(0);
+            this.split = split;
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            // called also from the super constructor
+            split = new SplittableRandom(seed);
+        }
+
+        @Override
+        protected int next(int bits) {
+            return split.nextInt() >>> (32 - bits);
+        }
+
+        @Override
+        public int nextInt() {
+            return split.nextInt();
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return split.nextInt(bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return split.nextLong();
+        }
+
+        @Override
+        public double nextDouble() {
+            return split.nextDouble();
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return split.nextBoolean();
+        }
+    }
+}
@@ -63,6 +63,10 @@ public class CorrPearson extends AbstractCorrelation {
 
     private CorrPearson(Var[] vars, String[] names) {
         super(vars, names);
+        if (vars.length >= CorrelationMatrix.MIN_VARS) {
+            CorrelationMatrix.fillPearson(vars, d);
+            return;
+        }
         for (int i = 0; i < vars.length; i++) {
             d.set(i, i, 1);
             for (int j = i + 1; j < vars.length; j++) {
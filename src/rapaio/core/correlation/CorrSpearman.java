@@ -58,6 +58,10 @@ public class CorrSpearman extends AbstractCorrelation {
 
     private CorrSpearman(Var[] vars, String[] names) {
         super(vars, names);
+        if (vars.length >= CorrelationMatrix.MIN_VARS) {
+            CorrelationMatrix.fillSpearman(vars, d);
+            return;
+        }
         Mapping map = Mapping.wrap(IntStream.range(0, rowCount)
                 .filter(row -> {
                     for (Var var : vars) {
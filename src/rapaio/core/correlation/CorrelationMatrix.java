@@ -0,0 +1,321 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.core.correlation;
+
+import rapaio.core.tools.DistanceMatrix;
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.math.linear.dense.DMatrixDense;
+import rapaio.math.linear.dense.DMatrixDenseC;
+import rapaio.math.linear.dense.DMatrixDenseR;
+import rapaio.util.collection.DoubleArrays;
+import rapaio.util.collection.IntArrays;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Computes correlation and covariance matrices for all pairs of variables at once.
+ * <p>
+ * Each variable is standardized once into a column of a dense block, with zeros in place
+ * of missing values, and all cross products are computed with parallel blocked dense
+ * matrix products {@code Z'Z}. If there are missing values, products with the masks of
+ * non missing values give the number of pairwise complete rows and the pairwise sums
+ * and sums of squares, thus each pair uses only the rows where both values are available,
+ * as {@link CorrPearson} and {@link rapaio.core.stat.Covariance} do.
+ * <p>
+ * Spearman correlation ranks each variable once on the rows which are complete
+ * for all variables, as {@link CorrSpearman} does, and computes Pearson correlation on ranks.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public final class CorrelationMatrix {
+
+    /**
+     * Correlation objects built from at least this number of variables use this engine
+     * instead of computing each pair independently.
+     */
+    static final int MIN_VARS = 16;
+
+    private CorrelationMatrix() {
+    }
+
+    public static DistanceMatrix pearson(Frame df) {
+        return pearson(df.varStream().toArray(Var[]::new));
+    }
+
+    public static DistanceMatrix pearson(Var... vars) {
+        DistanceMatrix d = DistanceMatrix.empty(names(vars));
+        fillPearson(vars, d);
+        return d;
+    }
+
+    public static DistanceMatrix spearman(Frame df) {
+        return spearman(df.varStream().toArray(Var[]::new));
+    }
+
+    public static DistanceMatrix spearman(Var... vars) {
+        DistanceMatrix d = DistanceMatrix.empty(names(vars));
+        fillSpearman(vars, d);
+        return d;
+    }
+
+    /**
+     * Sample covariance matrix, computed for each pair on pairwise complete rows.
+     * Pairs with less than two complete rows have NaN covariance.
+     *
+     * @param df frame with numeric variables
+     * @return covariance matrix
+     */
+    public static DistanceMatrix covariance(Frame df) {
+        return covariance(df.varStream().toArray(Var[]::new));
+    }
+
+    public static DistanceMatrix covariance(Var... vars) {
+        DistanceMatrix d = DistanceMatrix.empty(names(vars));
+        Moments moments = new Moments(vars);
+        for (int i = 0; i < vars.length; i++) {
+            for (int j = 0; j <= i; j++) {
+                d.set(i, j, moments.covariance(i, j));
+            }
+        }
+        return d;
+    }
+
+    static void fillPearson(Var[] vars, DistanceMatrix d) {
+        Moments moments = new Moments(vars);
+        for (int i = 0; i < vars.length; i++) {
+            d.set(i, i, 1);
+            for (int j = 0; j < i; j++) {
+                d.set(i, j, moments.correlation(i, j));
+            }
+        }
+    }
+
+    static void fillSpearman(Var[] vars, DistanceMatrix d) {
+        int rows = checkSizes(vars);
+        int[] complete = IntStream.range(0, rows).filter(row -> {
+            for (Var var : vars) {
+                if (var.isMissing(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }).toArray();
+        double[][] ranks = new double[vars.length][];
+        IntStream.range(0, vars.length).parallel().forEach(i -> ranks[i] = ranks(vars[i], complete));
+        Moments moments = new Moments(ranks, complete.length);
+        for (int i = 0; i < vars.length; i++) {
+            d.set(i, i, 1);
+            for (int j = 0; j < i; j++) {
+                d.set(i, j, moments.correlation(i, j));
+            }
+        }
+    }
+
+    /**
+     * Average ranks, starting from 1, of the values from the given rows.
+     */
+    private static double[] ranks(Var var, int[] rows) {
+        int len = rows.length;
+        double[] values = new double[len];
+        for (int i = 0; i < len; i++) {
+            values[i] = var.getDouble(rows[i]);
+        }
+        int[] index = IntArrays.newSeq(0, len);
+        DoubleArrays.quickSortIndirect(index, values, 0, len);
+        double[] ranks = new double[len];
+        int start = 0;
+        while (start < len) {
+            int end = start;
+            while (end < len - 1 && values[index[end]] == values[index[end + 1]]) {
+                end++;
+            }
+            double value = 1 + (start + end) / 2.;
+            for (int j = start; j <= end; j++) {
+                ranks[index[j]] = value;
+            }
+            start = end + 1;
+        }
+        return ranks;
+    }
+
+    private static String[] names(Var[] vars) {
+        return Arrays.stream(vars).map(Var::name).toArray(String[]::new);
+    }
+
+    private static int checkSizes(Var[] vars) {
+        for (int i = 1; i < vars.length; i++) {
+            if (vars[i - 1].size() != vars[i].size()) {
+                throw new IllegalArgumentException("Variables does not have the same size.");
+            }
+        }
+        return vars.length == 0 ? 0 : vars[0].size();
+    }
+
+    /**
+     * Pairwise cross products of standardized columns.
+     */
+    private static final class Moments {
+
+        private final int rows;
+        private final double[] sd;
+        private final boolean missing;
+
+        // cross products of standardized values
+        private final double[][] p;
+
+        // pairwise complete counts, sums and sums of squares, available only with missing values
+        private double[][] n;
+        private double[][] s;
+        private double[][] q;
+
+        Moments(Var[] vars) {
+            this(columns(vars), checkSizes(vars));
+        }
+
+        /**
+         * Builds moments from columns, missing values being NaN.
+         */
+        Moments(double[][] columns, int rows) {
+            int len = columns.length;
+            this.rows = rows;
+            this.sd = new double[len];
+            this.missing = Arrays.stream(columns).parallel().anyMatch(x -> {
+                for (int r = 0; r < rows; r++) {
+                    if (Double.isNaN(x[r])) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+            double[][] masks = null;
+            if (missing) {
+                masks = new double[len][rows];
+                for (int i = 0; i < len; i++) {
+                    for (int r = 0; r < rows; r++) {
+                        masks[i][r] = Double.isNaN(columns[i][r]) ? 0 : 1;
+                    }
+                }
+            }
+
+            // standardize in place, missing values become zeros
+            IntStream.range(0, len).parallel().forEach(i -> {
+                double[] x = columns[i];
+                int count = 0;
+                double sum = 0;
+                for (int r = 0; r < rows; r++) {
+                    if (!Double.isNaN(x[r])) {
+                        sum += x[r];
+                        count++;
+                    }
+                }
+                double m = count == 0 ? 0 : sum / count;
+                double ss = 0;
+                for (int r = 0; r < rows; r++) {
+                    if (!Double.isNaN(x[r])) {
+                        ss += (x[r] - m) * (x[r] - m);
+                    }
+                }
+                double dev = count > 1 ? Math.sqrt(ss / (count - 1)) : 0;
+                double scale = dev > 0 ? 1 / dev : 1;
+                for (int r = 0; r < rows; r++) {
+                    x[r] = Double.isNaN(x[r]) ? 0 : (x[r] - m) * scale;
+                }
+                sd[i] = dev > 0 ? dev : 1;
+            });
+
+            DMatrixDenseC z = new DMatrixDenseC(rows, len, columns);
+            this.p = product(z, z);
+            if (missing) {
+                double[][] squares = new double[len][rows];
+                IntStream.range(0, len).parallel().forEach(i -> {
+                    for (int r = 0; r < rows; r++) {
+                        squares[i][r] = columns[i][r] * columns[i][r];
+                    }
+                });
+                DMatrixDenseC m = new DMatrixDenseC(rows, len, masks);
+                this.n = product(m, m);
+                this.s = product(z, m);
+                this.q = product(new DMatrixDenseC(rows, len, squares), m);
+            }
+        }
+
+        private static double[][] columns(Var[] vars) {
+            int rows = checkSizes(vars);
+            double[][] columns = new double[vars.length][];
+            IntStream.range(0, vars.length).parallel().forEach(i -> {
+                double[] x = new double[rows];
+                for (int r = 0; r < rows; r++) {
+                    x[r] = vars[i].isMissing(r) ? Double.NaN : vars[i].getDouble(r);
+                }
+                columns[i] = x;
+            });
+            return columns;
+        }
+
+        /**
+         * Computes {@code a'b} for column major matrices, with a parallel dense product.
+         */
+        private static double[][] product(DMatrixDenseC a, DMatrixDenseC b) {
+            DMatrixDenseR at = new DMatrixDenseR(a.colCount(), a.rowCount(), a.getElements());
+            return ((DMatrixDense) at.dot(b)).getElements();
+        }
+
+        /**
+         * Covariance of standardized values for pairwise complete rows, together
+         * with variances of both variables on the same rows.
+         *
+         * @return array with covariance and the two variances, or null if there are less than two rows
+         */
+        private double[] standardized(int i, int j) {
+            if (!missing) {
+                if (rows < 2) {
+                    return null;
+                }
+                return new double[] {p[i][j] / (rows - 1), p[i][i] / (rows - 1), p[j][j] / (rows - 1)};
+            }
+            double count = n[i][j];
+            if (count < 2) {
+                return null;
+            }
+            double cov = (p[i][j] - s[i][j] * s[j][i] / count) / (count - 1);
+            double vi = (q[i][j] - s[i][j] * s[i][j] / count) / (count - 1);
+            double vj = (q[j][i] - s[j][i] * s[j][i] / count) / (count - 1);
+            return new double[] {cov, vi, vj};
+        }
+
+        double correlation(int i, int j) {
+            double[] m = standardized(i, j);
+            if (m == null || m[1] <= 0 || m[2] <= 0) {
+                return Double.NaN;
+            }
+            return Math.max(-1, Math.min(1, m[0] / Math.sqrt(m[1] * m[2])));
+        }
+
+        double covariance(int i, int j) {
+            double[] m = standardized(i, j);
+            return m == null ? Double.NaN : m[0] * sd[i] * sd[j];
+        }
+    }
+}
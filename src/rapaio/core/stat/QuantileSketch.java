@@ -0,0 +1,397 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.core.stat;
+
+import rapaio.core.RandomSource;
+import rapaio.data.Var;
+import rapaio.util.collection.DoubleArrays;
+import rapaio.util.collection.IntArrays;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Mergeable streaming quantile sketch with bounded memory, which implements the
+ * KLL algorithm of Karnin, Lang and Liberty (Optimal Quantile Approximation in Streams, 2016).
+ * <p>
+ * Values are kept in a hierarchy of buffers. A value from level {@code h} stands for
+ * {@code 2^h} values of the stream. When the buffers are full, a level is sorted and
+ * every second value, starting from a random offset, is promoted to the next level, while
+ * the others are discarded. Capacities decrease geometrically from the top level down,
+ * so the sketch retains at most about {@code 3k} values, regardless of the stream size.
+ * <p>
+ * Sketches can be updated value by value and merged, thus they can be built on chunks
+ * of data in parallel. The estimated quantiles are values from the stream whose rank
+ * differs from the requested one by at most {@link #normalizedRankError()} times the
+ * stream size, with high probability. Minimum and maximum values are exact.
+ * <p>
+ * Missing values (NaN) are ignored.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public class QuantileSketch {
+
+    /**
+     * Default size parameter, which gives a normalized rank error of about 1.3%.
+     */
+    public static final int DEFAULT_K = 200;
+
+    /**
+     * Number of rows of a variable processed by a single parallel task.
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private static final int MIN_CAPACITY = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    public static QuantileSketch empty() {
+        return empty(DEFAULT_K);
+    }
+
+    public static QuantileSketch empty(int k) {
+        return new QuantileSketch(k, RandomSource.nextLong());
+    }
+
+    public static QuantileSketch of(Var var) {
+        return of(var, DEFAULT_K);
+    }
+
+    /**
+     * Builds a sketch from the non missing values of a variable. Chunks of the variable
+     * are sketched in parallel and merged in order.
+     *
+     * @param var variable
+     * @param k   size parameter of the sketch
+     * @return sketch of the variable values
+     */
+    public static QuantileSketch of(Var var, int k) {
+        int blocks = Math.max(1, (var.size() + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        long[] seeds = Arrays.stream(RandomSource.split(blocks)).mapToLong(SplittableRandom::nextLong).toArray();
+        QuantileSketch[] sketches = IntStream.range(0, blocks).parallel().mapToObj(block -> {
+            QuantileSketch sketch = new QuantileSketch(k, seeds[block]);
+            int end = Math.min(var.size(), (block + 1) * BLOCK_SIZE);
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                if (!var.isMissing(i)) {
+                    sketch.update(var.getDouble(i));
+                }
+            }
+            return sketch;
+        }).toArray(QuantileSketch[]::new);
+        for (int i = 1; i < sketches.length; i++) {
+            sketches[0].merge(sketches[i]);
+        }
+        return sketches[0];
+    }
+
+    private final int k;
+    private final SplittableRandom random;
+
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    private double[][] levels;
+    private int[] sizes;
+    private int levelCount;
+    private int retained;
+    private int totalCapacity;
+
+    // sorted view of retained values, built on demand
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+
+    private QuantileSketch(int k, long seed) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("Sketch size parameter must be at least " + MIN_CAPACITY + ".");
+        }
+        this.k = k;
+        this.random = new SplittableRandom(seed);
+        this.levels = new double[1][];
+        this.sizes = new int[1];
+        this.levels[0] = new double[k];
+        this.levelCount = 1;
+        this.totalCapacity = capacity(0);
+    }
+
+    /**
+     * @return size parameter of the sketch
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * @return number of non missing values seen by the sketch
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return number of values retained by the sketch
+     */
+    public int retained() {
+        return retained;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Normalized rank error of the estimated quantiles, which holds with 99% confidence for
+     * a single query. It depends only on the size parameter and uses the empirical constants
+     * published for KLL sketches with the same capacity schedule.
+     *
+     * @return normalized rank error
+     */
+    public double normalizedRankError() {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * Adds a value to the sketch, missing values are ignored.
+     *
+     * @param x value to be added
+     * @return sketch instance
+     */
+    public QuantileSketch update(double x) {
+        if (Double.isNaN(x)) {
+            return this;
+        }
+        if (count == 0) {
+            min = x;
+            max = x;
+        } else {
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+        count++;
+        append(0, x);
+        retained++;
+        if (retained > totalCapacity) {
+            compress();
+        }
+        sortedValues = null;
+        return this;
+    }
+
+    /**
+     * Adds all non missing values of a variable.
+     *
+     * @param var variable with values to be added
+     * @return sketch instance
+     */
+    public QuantileSketch update(Var var) {
+        for (int i = 0; i < var.size(); i++) {
+            if (!var.isMissing(i)) {
+                update(var.getDouble(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Merges the values of another sketch into this one. The other sketch is not changed.
+     *
+     * @param other sketch to be merged, it must have the same size parameter
+     * @return sketch instance
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a sketch with itself.");
+        }
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches with different size parameters.");
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        while (levelCount < other.levelCount) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levelCount; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        retained += other.retained;
+        compress();
+        sortedValues = null;
+        return this;
+    }
+
+    /**
+     * Estimates a quantile as the smallest retained value whose estimated rank
+     * is at least {@code p * count}.
+     *
+     * @param p percentile, a value in {@code [0,1]}
+     * @return estimated quantile, or NaN if the sketch is empty
+     */
+    public double quantile(double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("Percentile must be in interval [0,1].");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (p == 0) {
+            return min;
+        }
+        if (p == 1) {
+            return max;
+        }
+        buildSortedView();
+        double target = p * count;
+        int pos = 0;
+        int hi = sortedValues.length - 1;
+        while (pos < hi) {
+            int mid = (pos + hi) >>> 1;
+            if (cumulativeWeights[mid] >= target) {
+                hi = mid;
+            } else {
+                pos = mid + 1;
+            }
+        }
+        return sortedValues[pos];
+    }
+
+    public double[] quantiles(double... percentiles) {
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            values[i] = quantile(percentiles[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Estimates the normalized rank of a value, which is the fraction
+     * of the stream values less than or equal with the given value.
+     *
+     * @param x value
+     * @return estimated normalized rank, or NaN if the sketch is empty
+     */
+    public double rank(double x) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        buildSortedView();
+        int pos = Arrays.binarySearch(sortedValues, x);
+        if (pos >= 0) {
+            while (pos + 1 < sortedValues.length && sortedValues[pos + 1] == x) {
+                pos++;
+            }
+        } else {
+            pos = -pos - 2;
+        }
+        return pos < 0 ? 0 : (double) cumulativeWeights[pos] / count;
+    }
+
+    private void buildSortedView() {
+        if (sortedValues != null) {
+            return;
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int pos = 0;
+        for (int h = 0; h < levelCount; h++) {
+            System.arraycopy(levels[h], 0, values, pos, sizes[h]);
+            Arrays.fill(weights, pos, pos + sizes[h], 1L << h);
+            pos += sizes[h];
+        }
+        int[] index = IntArrays.newSeq(0, retained);
+        DoubleArrays.quickSortIndirect(index, values, 0, retained);
+        double[] sorted = new double[retained];
+        long[] cumulative = new long[retained];
+        long sum = 0;
+        for (int i = 0; i < retained; i++) {
+            sorted[i] = values[index[i]];
+            sum += weights[index[i]];
+            cumulative[i] = sum;
+        }
+        cumulativeWeights = cumulative;
+        sortedValues = sorted;
+    }
+
+    private int capacity(int level) {
+        int depth = levelCount - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levelCount + 1);
+        sizes = Arrays.copyOf(sizes, levelCount + 1);
+        levels[levelCount] = new double[MIN_CAPACITY];
+        levelCount++;
+        totalCapacity = 0;
+        for (int h = 0; h < levelCount; h++) {
+            totalCapacity += capacity(h);
+        }
+    }
+
+    private void append(int level, double x) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], 2 * levels[level].length);
+        }
+        levels[level][sizes[level]++] = x;
+    }
+
+    private void compress() {
+        while (retained > totalCapacity) {
+            // some level is over its capacity since their sum is exceeded
+            int level = 0;
+            while (sizes[level] < capacity(level)) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    /**
+     * Sorts a level and promotes every second value to the next level.
+     * If the level has an odd number of values, the smallest one remains.
+     */
+    private void compact(int level) {
+        if (level + 1 == levelCount) {
+            addLevel();
+        }
+        double[] buffer = levels[level];
+        int size = sizes[level];
+        Arrays.sort(buffer, 0, size);
+        int keep = size & 1;
+        int offset = keep + (random.nextBoolean() ? 1 : 0);
+        for (int i = offset; i < size; i += 2) {
+            append(level + 1, buffer[i]);
+        }
+        sizes[level] = keep;
+        retained -= (size - keep) / 2;
+    }
+}
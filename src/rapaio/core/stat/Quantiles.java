@@ -41,6 +41,9 @@ import static rapaio.printer.Format.floatFlex;
  * <p>
  * Default type is R-7, but is can be changed.
  * <p>
+ * Type {@link Type#SKETCH} does not sort the values, it estimates quantiles
+ * with a {@link QuantileSketch}, using bounded memory and a single parallel pass.
+ * <p>
  * <p>
  * For further reference see:
  * http://en.wikipedia.org/wiki/Quantile
@@ -73,6 +76,13 @@ public class Quantiles implements Printable {
 
     private double[] compute(final Var var) {
 
+        if (type == Type.SKETCH) {
+            QuantileSketch sketch = QuantileSketch.of(var);
+            completeCount = (int) sketch.count();
+            missingCount = var.size() - completeCount;
+            return sketch.quantiles(percentiles);
+        }
+
         double[] x = new double[var.size()];
         completeCount = 0;
         for (int i = 0; i < x.length; i++) {
@@ -162,6 +172,10 @@ public class Quantiles implements Printable {
 
     public enum Type {
         R7,
-        R8
+        R8,
+        /**
+         * Approximate quantiles estimated with a {@link QuantileSketch} of default size.
+         */
+        SKETCH
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import rapaio.printer.Printer;
+import rapaio.printer.TextTable;
+import rapaio.printer.opt.POption;
+
+import java.io.Serial;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Base class for variables which stores their values outside the java heap, into a {@link PagedBuffer}.
+ * Each row uses a fixed number of bytes and row values are stored contiguously.
+ * <p>
+ * Variables backed by direct memory buffers can grow without copying the whole content,
+ * while variables backed by mapped file regions have a fixed capacity.
+ * <p>
+ * Off heap variables are serialized as their on heap counterparts.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+abstract class AbstractOffHeapVar extends AbstractVar {
+
+    @Serial
+    private static final long serialVersionUID = -3326520387404717313L;
+
+    protected final transient PagedBuffer buffer;
+    protected final int rowBytes;
+    protected int rows;
+
+    protected AbstractOffHeapVar(PagedBuffer buffer, int rows, int rowBytes) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Illegal row count: " + rows);
+        }
+        if ((long) rows * rowBytes > buffer.byteSize()) {
+            throw new IllegalArgumentException("Buffer is too small for " + rows + " rows.");
+        }
+        this.buffer = buffer;
+        this.rowBytes = rowBytes;
+        this.rows = rows;
+    }
+
+    /**
+     * @return buffer which stores the values of the variable
+     */
+    public PagedBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    private void ensureRows(int minRows) {
+        buffer.ensureCapacity((long) minRows * rowBytes);
+    }
+
+    @Override
+    public void addRows(int rowCount) {
+        ensureRows(rows + rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            setMissing(rows + i);
+        }
+        rows += rowCount;
+    }
+
+    @Override
+    public void removeRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row index out of bounds: " + row);
+        }
+        buffer.move((long) (row + 1) * rowBytes, (long) row * rowBytes, (long) (rows - row - 1) * rowBytes);
+        rows--;
+    }
+
+    @Override
+    public void clearRows() {
+        rows = 0;
+    }
+
+    @Override
+    public void addInt(int value) {
+        ensureRows(rows + 1);
+        setInt(rows, value);
+        rows++;
+    }
+
+    @Override
+    public void addLong(long value) {
+        ensureRows(rows + 1);
+        setLong(rows, value);
+        rows++;
+    }
+
+    @Override
+    public void addDouble(double value) {
+        ensureRows(rows + 1);
+        setDouble(rows, value);
+        rows++;
+    }
+
+    @Override
+    public void addLabel(String value) {
+        ensureRows(rows + 1);
+        setLabel(rows, value);
+        rows++;
+    }
+
+    @Override
+    public void addMissing() {
+        ensureRows(rows + 1);
+        setMissing(rows);
+        rows++;
+    }
+
+    @Override
+    public List<String> levels() {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void setLevels(String... dict) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void addInstant(Instant value) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void setInstant(int row, Instant value) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public Instant getInstant(int row) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public Var newInstance(int rows) {
+        return type().newInstance(rows);
+    }
+
+    @Serial
+    protected Object writeReplace() {
+        return copy();
+    }
+
+    @Override
+    protected int toStringDisplayValueCount() {
+        return 12;
+    }
+
+    @Override
+    protected void textTablePutValue(TextTable tt, int i, int j, int row, Printer printer, POption<?>[] options) {
+        tt.textCenter(i, j, getLabel(row));
+    }
+}
@@ -31,11 +31,14 @@ import rapaio.data.group.function.GroupFunNUnique;
 import rapaio.data.group.function.GroupFunSkewness;
 import rapaio.data.group.function.GroupFunStd;
 import rapaio.data.group.function.GroupFunSum;
+import rapaio.data.mapping.ArrayMapping;
 import rapaio.printer.Printable;
 import rapaio.printer.Printer;
 import rapaio.printer.TextTable;
 import rapaio.printer.opt.POption;
-import rapaio.util.collection.Int2IntOpenHashMap;
+import rapaio.util.collection.IntArrayList;
+import rapaio.util.collection.IntArrays;
+import rapaio.util.collection.Long2IntOpenHashMap;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,6 +47,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * GroupBy index structure which indexes rows from a data frame using unique
@@ -159,21 +163,31 @@ public class Group implements Printable {
     // other than pk var names from source frame
     private final List<String> featureNamesList;
 
+    // number of groups
+    private final int groupCount;
+
     // maps rows to group ids
-    private final Int2IntOpenHashMap rowToGroupId = new Int2IntOpenHashMap();
+    private final int[] rowGroupIds;
+
+    // unique ids of key values for each group, stored in consecutive blocks of length equal with the number of keys
+    private final int[] groupKeys;
+
+    // rows of each group, group rows are stored contiguously in order of group ids
+    private final int[] groupRows;
 
-    // map group ids to indexes from the last level of the tree
-    private final HashMap<Integer, IndexNode> groupIdToLastLevelIndex = new HashMap<>();
+    // start position in groupRows for each group id, with an additional end position
+    private final int[] groupStart;
 
     // sorted group ids
-    private VarInt sortedGroupIds = VarInt.empty();
+    private final VarInt sortedGroupIds;
+
+    // map group ids to indexes from the last level of the tree, built on request
+    private HashMap<Integer, IndexNode> groupIdToLastLevelIndex;
 
     private Group(Frame df, List<String> groupVarNames) {
         this.df = df;
         this.pkNamesList = groupVarNames;
         HashSet<String> pkVarNamesSet = new HashSet<>(pkNamesList);
-        List<Unique> groupByUniques =
-                this.pkNamesList.stream().map(varName -> Unique.of(df.rvar(varName), true)).collect(Collectors.toList());
         this.featureNamesList = new ArrayList<>();
         for (String varName : df.varNames()) {
             if (pkVarNamesSet.contains(varName)) {
@@ -181,56 +195,184 @@ public class Group implements Printable {
             }
             featureNamesList.add(varName);
         }
-        IndexNode root = new IndexNode(null, "", "", -1, -1);
 
-        //populate rows
-        int groupId = 0;
-        for (int i = 0; i < df.rowCount(); i++) {
-            IndexNode node = root;
-            for (int j = 0; j < pkNamesList.size(); j++) {
-                String levelName = pkNamesList.get(j);
-                String levelValue = df.getLabel(i, levelName);
-                int levelUniqueId = groupByUniques.get(j).idByRow(i);
-                IndexNode child = node.getChildNode(levelUniqueId);
-                if (child == null) {
-                    if (j != pkNamesList.size() - 1) {
-                        child = new IndexNode(node, levelName, levelValue, levelUniqueId, -1);
-                    } else {
-                        child = new IndexNode(node, levelName, levelValue, levelUniqueId, groupId);
-                        child.addRow(i);
-                        rowToGroupId.put(i, groupId);
-                        groupIdToLastLevelIndex.put(groupId, child);
-                        groupId++;
-                    }
-                    node.addNode(child);
-                    node = child;
-                } else {
-                    node = child;
-                    if (j == pkNamesList.size() - 1) {
-                        child.addRow(i);
-                        rowToGroupId.put(i, child.getGroupId());
-                    }
-                }
+        // encode composite keys as mixed radix numbers of unique ids, when the
+        // range of codes does not fit into a long the codes are made dense first
+
+        int rowCount = df.rowCount();
+        int keyCount = pkNamesList.size();
+        int[][] keyIds = new int[keyCount][];
+        long[] codes = new long[rowCount];
+        long radix = 1;
+        for (int j = 0; j < keyCount; j++) {
+            int[] ids = new int[rowCount];
+            int size = Math.max(1, sortedKeyIds(df.rvar(pkNamesList.get(j)), ids));
+            keyIds[j] = ids;
+            if (radix > Long.MAX_VALUE / size) {
+                radix = denseCodes(codes, null, null);
+            }
+            IntStream.range(0, rowCount).parallel().forEach(i -> codes[i] = codes[i] * size + ids[i]);
+            radix *= size;
+        }
+
+        // group ids are given in the order of first appearance
+
+        rowGroupIds = new int[rowCount];
+        IntArrayList firstRows = new IntArrayList();
+        groupCount = denseCodes(codes, rowGroupIds, firstRows);
+
+        groupKeys = new int[groupCount * keyCount];
+        for (int i = 0; i < groupCount; i++) {
+            for (int j = 0; j < keyCount; j++) {
+                groupKeys[i * keyCount + j] = keyIds[j][firstRows.getInt(i)];
             }
         }
 
-        // sort group ids
-        List<int[]> groupUniqueIds = new ArrayList<>();
-        for (int i = 0; i < getGroupCount(); i++) {
-            groupUniqueIds.add(groupIdToLastLevelIndex.get(i).getLevelIds(new int[pkNamesList.size() + 1]));
-            sortedGroupIds.addInt(i);
+        // rows of each group, in ascending order
+
+        groupStart = new int[groupCount + 1];
+        for (int groupId : rowGroupIds) {
+            groupStart[groupId + 1]++;
+        }
+        for (int i = 0; i < groupCount; i++) {
+            groupStart[i + 1] += groupStart[i];
+        }
+        groupRows = new int[rowCount];
+        int[] positions = Arrays.copyOf(groupStart, groupCount);
+        for (int i = 0; i < rowCount; i++) {
+            groupRows[positions[rowGroupIds[i]]++] = i;
         }
-        sortedGroupIds = (VarInt) sortedGroupIds.op().sort((i1, i2) -> {
-            int[] gui1 = groupUniqueIds.get(i1);
-            int[] gui2 = groupUniqueIds.get(i2);
-            for (int i = 0; i < gui1.length; i++) {
-                int comp = Integer.compare(gui1[i], gui2[i]);
+
+        // sort group ids by unique ids of keys, in the order of key variables
+
+        int[] sorted = IntArrays.newSeq(0, groupCount);
+        IntArrays.quickSort(sorted, 0, groupCount, (i1, i2) -> {
+            for (int j = 0; j < keyCount; j++) {
+                int comp = Integer.compare(groupKeys[i1 * keyCount + j], groupKeys[i2 * keyCount + j]);
                 if (comp != 0) {
                     return comp;
                 }
             }
             return 0;
         });
+        sortedGroupIds = VarInt.wrap(sorted);
+    }
+
+    /**
+     * Computes for each row an id of the key value, such that the order of ids is the order
+     * of sorted unique values, as they are sorted by {@link Unique}.
+     *
+     * @param var key variable
+     * @param ids array where ids are stored
+     * @return upper bound of ids
+     */
+    private static int sortedKeyIds(Var var, int[] ids) {
+        int len = var.size();
+        switch (var.type()) {
+            case INT, BINARY -> {
+                int[] values = new int[len];
+                for (int i = 0; i < len; i++) {
+                    values[i] = var.getInt(i);
+                }
+                int[] unique = Arrays.copyOf(values, len);
+                Arrays.parallelSort(unique);
+                int count = 0;
+                for (int i = 0; i < len; i++) {
+                    if (i == 0 || unique[i] != unique[count - 1]) {
+                        unique[count++] = unique[i];
+                    }
+                }
+                int size = count;
+                IntStream.range(0, len).parallel().forEach(i -> ids[i] = Arrays.binarySearch(unique, 0, size, values[i]));
+                return size;
+            }
+            case DOUBLE -> {
+                double[] values = new double[len];
+                for (int i = 0; i < len; i++) {
+                    values[i] = var.getDouble(i);
+                }
+                double[] unique = Arrays.copyOf(values, len);
+                Arrays.parallelSort(unique);
+                int count = 0;
+                for (int i = 0; i < len; i++) {
+                    if (i == 0 || Double.compare(unique[i], unique[count - 1]) != 0) {
+                        unique[count++] = unique[i];
+                    }
+                }
+                int size = count;
+                IntStream.range(0, len).parallel().forEach(i -> ids[i] = Arrays.binarySearch(unique, 0, size, values[i]));
+                return size;
+            }
+            case NOMINAL -> {
+                // missing level first, than levels in lexicographic order
+                List<String> levels = var.levels();
+                Integer[] order = new Integer[levels.size()];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, 1, order.length, (i1, i2) -> levels.get(i1).compareTo(levels.get(i2)));
+                int[] rank = new int[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    rank[order[i]] = i;
+                }
+                for (int i = 0; i < len; i++) {
+                    ids[i] = rank[var.getInt(i)];
+                }
+                return rank.length;
+            }
+            case STRING -> {
+                HashMap<String, Integer> map = new HashMap<>();
+                for (int i = 0; i < len; i++) {
+                    ids[i] = map.computeIfAbsent(var.getLabel(i), key -> map.size());
+                }
+                List<String> labels = new ArrayList<>(map.keySet());
+                labels.sort((v1, v2) -> {
+                    boolean nan1 = "?".equals(v1);
+                    boolean nan2 = "?".equals(v2);
+                    if (!(nan1 || nan2)) {
+                        return v1.compareTo(v2);
+                    }
+                    return nan1 ? (nan2 ? 0 : -1) : 1;
+                });
+                int[] rank = new int[labels.size()];
+                for (int i = 0; i < labels.size(); i++) {
+                    rank[map.get(labels.get(i))] = i;
+                }
+                for (int i = 0; i < len; i++) {
+                    ids[i] = rank[ids[i]];
+                }
+                return rank.length;
+            }
+            default -> throw new IllegalArgumentException("Cannot group by variable of type: " + var.type().code() + ".");
+        }
+    }
+
+    /**
+     * Replaces codes with dense ids given in order of first appearance, using an open addressing hash table.
+     *
+     * @param codes     codes to be replaced
+     * @param ids       if not null, stores dense ids here, otherwise codes are replaced with ids
+     * @param firstRows if not null, collects the first row for each id
+     * @return number of distinct codes
+     */
+    private static int denseCodes(long[] codes, int[] ids, IntArrayList firstRows) {
+        Long2IntOpenHashMap map = new Long2IntOpenHashMap();
+        int count = 0;
+        for (int i = 0; i < codes.length; i++) {
+            int id = map.putIfAbsent(codes[i], count);
+            if (id == Long2IntOpenHashMap.MISSING) {
+                id = count++;
+                if (firstRows != null) {
+                    firstRows.add(i);
+                }
+            }
+            if (ids != null) {
+                ids[i] = id;
+            } else {
+                codes[i] = id;
+            }
+        }
+        return count;
     }
 
     /**
@@ -247,7 +389,39 @@ public class Group implements Printable {
         return featureNamesList;
     }
 
-    public HashMap<Integer, IndexNode> getGroupIdToLastLevelIndex() {
+    /**
+     * Builds on first request the prefix tree of key values, where the last level nodes
+     * corresponds to groups.
+     *
+     * @return map from group ids to the nodes of the last level of prefix tree
+     */
+    public synchronized HashMap<Integer, IndexNode> getGroupIdToLastLevelIndex() {
+        if (groupIdToLastLevelIndex != null) {
+            return groupIdToLastLevelIndex;
+        }
+        HashMap<Integer, IndexNode> index = new HashMap<>();
+        IndexNode root = new IndexNode(null, "", "", -1, -1);
+        int keyCount = pkNamesList.size();
+        for (int groupId = 0; groupId < groupCount; groupId++) {
+            int firstRow = groupRows[groupStart[groupId]];
+            IndexNode node = root;
+            for (int j = 0; j < keyCount; j++) {
+                int levelUniqueId = groupKeys[groupId * keyCount + j];
+                IndexNode child = node.getChildNode(levelUniqueId);
+                if (child == null) {
+                    String levelName = pkNamesList.get(j);
+                    child = new IndexNode(node, levelName, df.getLabel(firstRow, levelName), levelUniqueId,
+                            j == keyCount - 1 ? groupId : -1);
+                    node.addNode(child);
+                }
+                node = child;
+            }
+            for (int i = groupStart[groupId]; i < groupStart[groupId + 1]; i++) {
+                node.addRow(groupRows[i]);
+            }
+            index.put(groupId, node);
+        }
+        groupIdToLastLevelIndex = index;
         return groupIdToLastLevelIndex;
     }
 
@@ -263,14 +437,48 @@ public class Group implements Printable {
      * @return list of rows from that group
      */
     public Mapping getRowsForGroupId(int groupId) {
-        return groupIdToLastLevelIndex.get(groupId).rows;
+        return new ArrayMapping(groupRows, groupStart[groupId], groupStart[groupId + 1]);
+    }
+
+    /**
+     * @param row row number
+     * @return group id of the given row
+     */
+    public int getGroupId(int row) {
+        return rowGroupIds[row];
+    }
+
+    /**
+     * Rows of all groups, where the rows of a group are stored contiguously and
+     * the groups are stored in the order of group ids. The returned array must not be modified.
+     *
+     * @return array of rows
+     */
+    public int[] getGroupRows() {
+        return groupRows;
+    }
+
+    /**
+     * @param groupId group identifier
+     * @return start position of group rows in {@link #getGroupRows()}
+     */
+    public int getGroupStart(int groupId) {
+        return groupStart[groupId];
+    }
+
+    /**
+     * @param groupId group identifier
+     * @return end position (exclusive) of group rows in {@link #getGroupRows()}
+     */
+    public int getGroupEnd(int groupId) {
+        return groupStart[groupId + 1];
     }
 
     /**
      * @return count of groups
      */
     public int getGroupCount() {
-        return groupIdToLastLevelIndex.size();
+        return groupCount;
     }
 
     /**
@@ -373,7 +581,7 @@ public class Group implements Printable {
         StringBuilder sb = new StringBuilder();
         sb.append("GroupBy{");
         sb.append("keys:[").append(String.join(",", pkNamesList)).append("], ");
-        sb.append("group count:").append(groupIdToLastLevelIndex.size()).append(", ");
+        sb.append("group count:").append(groupCount).append(", ");
         sb.append("row count:").append(df.rowCount());
         sb.append("}");
         return sb.toString();
@@ -387,7 +595,7 @@ public class Group implements Printable {
         StringBuilder sb = new StringBuilder();
 
         sb.append("group by: ").append(String.join(", ", pkNamesList)).append("\n");
-        sb.append("group count: ").append(groupIdToLastLevelIndex.size()).append("\n\n");
+        sb.append("group count: ").append(groupCount).append("\n\n");
 
         TextTable tt = TextTable.empty(40 + 1, pkNamesList.size() + featureNamesList.size() + 2, 1, pkNamesList.size() + 2);
 
@@ -411,14 +619,14 @@ public class Group implements Printable {
         // populate rows
         Mapping rows = Mapping.empty();
         for (int groupId : sortedGroupIds) {
-            rows.addAll(groupIdToLastLevelIndex.get(groupId).rows.iterator());
+            rows.addAll(getRowsForGroupId(groupId).iterator());
         }
 
         for (int i = 0; i < 30; i++) {
             int r = rows.get(i);
             fillRowData(tt, i, r);
         }
-        IndexNode _node = groupIdToLastLevelIndex.get(0);
+        IndexNode _node = getGroupIdToLastLevelIndex().get(0);
         List<String> _groupValues = _node.getLevelValues();
         for (int j = 0; j < _groupValues.size(); j++) {
             tt.textLeft(31, j + 1, "...");
@@ -435,8 +643,8 @@ public class Group implements Printable {
     }
 
     private void fillRowData(TextTable tt, int i, int r) {
-        int groupId = rowToGroupId.get(r);
-        IndexNode node = groupIdToLastLevelIndex.get(groupId);
+        int groupId = rowGroupIds[r];
+        IndexNode node = getGroupIdToLastLevelIndex().get(groupId);
         List<String> groupValues = node.getLevelValues();
         for (int j = 0; j < groupValues.size(); j++) {
             tt.textLeft(i + 1, j + 1, groupValues.get(j));
@@ -452,7 +660,7 @@ public class Group implements Printable {
         StringBuilder sb = new StringBuilder();
 
         sb.append("group by: ").append(String.join(", ", pkNamesList)).append("\n");
-        sb.append("group count: ").append(groupIdToLastLevelIndex.size()).append("\n\n");
+        sb.append("group count: ").append(groupCount).append("\n\n");
 
         TextTable tt = TextTable.empty(df.rowCount() + 1, pkNamesList.size() + featureNamesList.size() + 2, 1, pkNamesList.size() + 2);
 
@@ -473,7 +681,7 @@ public class Group implements Printable {
         int pos = 1;
         for (int groupId : sortedGroupIds) {
 
-            IndexNode node = groupIdToLastLevelIndex.get(groupId);
+            IndexNode node = getGroupIdToLastLevelIndex().get(groupId);
             List<String> groupValues = node.getLevelValues();
             for (int row : node.rows) {
 
@@ -535,9 +743,8 @@ public class Group implements Printable {
             Frame df = group.getFrame();
             Mapping rows = Mapping.empty();
             VarInt sortedGroupIds = group.getSortedGroupIds();
-            var groupIndex = group.getGroupIdToLastLevelIndex();
             for (int sortedGroupId : sortedGroupIds) {
-                rows.add(groupIndex.get(sortedGroupId).getRows().get(0));
+                rows.add(group.groupRows[group.groupStart[sortedGroupId]]);
             }
             Frame result = df.mapRows(rows).mapVars(group.getGroupByNameList()).copy();
             result = result.bindVars(aggregateDf.mapRows(Mapping.wrap(sortedGroupIds))).copy();
@@ -0,0 +1,222 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Byte storage addressed by long offsets and split into pages, each page being a {@link ByteBuffer}
+ * which lives outside the java heap. Since a single buffer is limited to 2^31 bytes,
+ * splitting the storage into pages allows storing columns larger than that.
+ * <p>
+ * A paged buffer is either a mapped file region, which has a fixed size, or it is allocated
+ * as direct memory. Direct buffers can grow; when the storage is larger than a page, the growth
+ * adds new pages and existing pages are not copied.
+ * <p>
+ * Values are stored in little endian order. Page sizes are powers of two, thus values
+ * stored at offsets aligned to their size never span two pages.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class PagedBuffer {
+
+    static final int DEFAULT_PAGE_SHIFT = 30;
+
+    /**
+     * Maps a region of a file into memory. The content of the file is loaded
+     * lazily by the operating system when it is accessed.
+     *
+     * @param channel  file channel
+     * @param mode     map mode, read only or read write
+     * @param position position in file where the region starts
+     * @param size     size of the region in bytes
+     * @return paged buffer backed by mapped file region
+     * @throws IOException if the region cannot be mapped
+     */
+    public static PagedBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size) throws IOException {
+        return map(channel, mode, position, size, DEFAULT_PAGE_SHIFT);
+    }
+
+    /**
+     * Allocates a buffer in direct memory.
+     *
+     * @param size initial size of the buffer in bytes
+     * @return paged buffer backed by direct memory
+     */
+    public static PagedBuffer allocate(long size) {
+        return allocate(size, DEFAULT_PAGE_SHIFT);
+    }
+
+    static PagedBuffer allocate(long size, int pageShift) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Buffer size cannot be negative.");
+        }
+        PagedBuffer buffer = new PagedBuffer(new ByteBuffer[0], pageShift, 0, true);
+        buffer.ensureCapacity(size);
+        return buffer;
+    }
+
+    static PagedBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size, int pageShift) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Buffer size cannot be negative.");
+        }
+        long pageSize = 1L << pageShift;
+        int count = (int) ((size + pageSize - 1) >>> pageShift);
+        ByteBuffer[] pages = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << pageShift;
+            pages[i] = channel.map(mode, position + start, Math.min(pageSize, size - start)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new PagedBuffer(pages, pageShift, size, false);
+    }
+
+    private ByteBuffer[] pages;
+    private final int shift;
+    private final long mask;
+    private long size;
+    private final boolean direct;
+
+    private PagedBuffer(ByteBuffer[] pages, int shift, long size, boolean direct) {
+        this.pages = pages;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.size = size;
+        this.direct = direct;
+    }
+
+    /**
+     * @return size of the storage in bytes
+     */
+    public long byteSize() {
+        return size;
+    }
+
+    /**
+     * @return true if the buffer is allocated in direct memory, false if it is a mapped file region
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Grows the buffer, if needed, to have at least the given size. While the buffer fits into a single
+     * page the size is at least doubled and the content is copied, after that full pages are added.
+     * Mapped buffers cannot grow.
+     *
+     * @param minSize minimum size in bytes
+     */
+    public void ensureCapacity(long minSize) {
+        if (minSize <= size) {
+            return;
+        }
+        if (!direct) {
+            throw new OperationNotAvailableException("Mapped buffers cannot grow.");
+        }
+        long pageSize = 1L << shift;
+        if (minSize <= pageSize) {
+            long newSize = Math.min(pageSize, Math.max(minSize, size << 1));
+            ByteBuffer page = ByteBuffer.allocateDirect((int) newSize).order(ByteOrder.LITTLE_ENDIAN);
+            if (pages.length > 0) {
+                page.put(pages[0].duplicate().clear());
+            }
+            pages = new ByteBuffer[]{page};
+            size = newSize;
+            return;
+        }
+        int count = (int) ((minSize + pageSize - 1) >>> shift);
+        ByteBuffer[] newPages = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            if (i < pages.length && pages[i].capacity() == pageSize) {
+                newPages[i] = pages[i];
+                continue;
+            }
+            newPages[i] = ByteBuffer.allocateDirect((int) pageSize).order(ByteOrder.LITTLE_ENDIAN);
+            if (i < pages.length) {
+                newPages[i].put(pages[i].duplicate().clear());
+            }
+        }
+        pages = newPages;
+        size = (long) count << shift;
+    }
+
+    /**
+     * Copies bytes inside the buffer. Source and destination regions can overlap.
+     *
+     * @param from source offset
+     * @param to   destination offset
+     * @param len  number of bytes to copy
+     */
+    public void move(long from, long to, long len) {
+        if (from > to) {
+            for (long i = 0; i < len; i++) {
+                putByte(to + i, getByte(from + i));
+            }
+        } else {
+            for (long i = len - 1; i >= 0; i--) {
+                putByte(to + i, getByte(from + i));
+            }
+        }
+    }
+
+    public byte getByte(long offset) {
+        return pages[(int) (offset >>> shift)].get((int) (offset & mask));
+    }
+
+    public void putByte(long offset, byte value) {
+        pages[(int) (offset >>> shift)].put((int) (offset & mask), value);
+    }
+
+    public short getShort(long offset) {
+        return pages[(int) (offset >>> shift)].getShort((int) (offset & mask));
+    }
+
+    public void putShort(long offset, short value) {
+        pages[(int) (offset >>> shift)].putShort((int) (offset & mask), value);
+    }
+
+    public int getInt(long offset) {
+        return pages[(int) (offset >>> shift)].getInt((int) (offset & mask));
+    }
+
+    public void putInt(long offset, int value) {
+        pages[(int) (offset >>> shift)].putInt((int) (offset & mask), value);
+    }
+
+    public long getLong(long offset) {
+        return pages[(int) (offset >>> shift)].getLong((int) (offset & mask));
+    }
+
+    public void putLong(long offset, long value) {
+        pages[(int) (offset >>> shift)].putLong((int) (offset & mask), value);
+    }
+
+    public double getDouble(long offset) {
+        return pages[(int) (offset >>> shift)].getDouble((int) (offset & mask));
+    }
+
+    public void putDouble(long offset, double value) {
+        pages[(int) (offset >>> shift)].putDouble((int) (offset & mask), value);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.io.Serial;
+
+/**
+ * Binary variable which stores its values outside the java heap, into a {@link PagedBuffer}.
+ * Each value uses one byte which is 0 for false, 1 for true and -1 for missing values.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class VarBinaryOffHeap extends AbstractOffHeapVar {
+
+    /**
+     * Builds a binary variable over the given buffer.
+     *
+     * @param buffer buffer which contains the values
+     * @param rows   number of rows
+     * @return new instance of off heap binary variable
+     */
+    public static VarBinaryOffHeap wrap(PagedBuffer buffer, int rows) {
+        return new VarBinaryOffHeap(buffer, rows);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -1542388829036431095L;
+
+    private VarBinaryOffHeap(PagedBuffer buffer, int rows) {
+        super(buffer, rows, Byte.BYTES);
+    }
+
+    @Override
+    public VarBinaryOffHeap name(String name) {
+        return (VarBinaryOffHeap) super.name(name);
+    }
+
+    @Override
+    public VarType type() {
+        return VarType.BINARY;
+    }
+
+    @Override
+    public int getInt(int row) {
+        byte value = buffer.getByte(row);
+        return value < 0 ? VarInt.MISSING_VALUE : value;
+    }
+
+    @Override
+    public void setInt(int row, int value) {
+        buffer.putByte(row, (byte) (value == 1 || value == 0 ? value : -1));
+    }
+
+    @Override
+    public double getDouble(int row) {
+        byte value = buffer.getByte(row);
+        return value < 0 ? VarDouble.MISSING_VALUE : value;
+    }
+
+    @Override
+    public void setDouble(int row, double value) {
+        setInt(row, value == 1.0 ? 1 : value == 0.0 ? 0 : -1);
+    }
+
+    @Override
+    public long getLong(int row) {
+        byte value = buffer.getByte(row);
+        return value < 0 ? VarLong.MISSING_VALUE : value;
+    }
+
+    @Override
+    public void setLong(int row, long value) {
+        setInt(row, value == 1 ? 1 : value == 0 ? 0 : -1);
+    }
+
+    @Override
+    public String getLabel(int row) {
+        byte value = buffer.getByte(row);
+        return value < 0 ? VarNominal.MISSING_VALUE : (value == 0 ? "0" : "1");
+    }
+
+    @Override
+    public void setLabel(int row, String value) {
+        if (VarNominal.MISSING_VALUE.equals(value)) {
+            setMissing(row);
+            return;
+        }
+        if ("true".equalsIgnoreCase(value) || "1".equals(value)) {
+            setInt(row, 1);
+            return;
+        }
+        if ("false".equalsIgnoreCase(value) || "0".equals(value)) {
+            setInt(row, 0);
+            return;
+        }
+        throw new IllegalArgumentException(
+                String.format("The value %s could not be converted to a binary value", value));
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return buffer.getByte(row) < 0;
+    }
+
+    @Override
+    public void setMissing(int row) {
+        buffer.putByte(row, (byte) -1);
+    }
+
+    @Override
+    protected String toStringClassName() {
+        return "VarBinaryOffHeap";
+    }
+
+    @Override
+    protected int toStringDisplayValueCount() {
+        return 18;
+    }
+}
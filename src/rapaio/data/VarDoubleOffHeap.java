@@ -0,0 +1,203 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import rapaio.data.ops.DVarOp;
+import rapaio.data.ops.DefaultDVarOp;
+import rapaio.printer.Printer;
+import rapaio.printer.TextTable;
+import rapaio.printer.opt.POption;
+
+import java.io.Serial;
+import java.text.DecimalFormat;
+
+/**
+ * Double variable which stores its values outside the java heap, into a {@link PagedBuffer}.
+ * Each value uses 8 bytes and missing values are stored as {@link Double#NaN}.
+ * <p>
+ * Values are not stored on java heap, thus large variables does not put pressure on garbage collection.
+ * Since storage is split into pages, the variable can grow without copying all the values.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class VarDoubleOffHeap extends AbstractOffHeapVar {
+
+    /**
+     * @return new empty double variable of size 0 allocated in direct memory
+     */
+    public static VarDoubleOffHeap empty() {
+        return empty(0);
+    }
+
+    /**
+     * Builds a double variable allocated in direct memory with all values set missing.
+     *
+     * @param rows size of the variable
+     * @return new instance of off heap double variable
+     */
+    public static VarDoubleOffHeap empty(int rows) {
+        return fill(rows, VarDouble.MISSING_VALUE);
+    }
+
+    /**
+     * Builds a double variable allocated in direct memory with all values set to a given value.
+     *
+     * @param rows size of the variable
+     * @param fill fill value
+     * @return new instance of off heap double variable
+     */
+    public static VarDoubleOffHeap fill(int rows, double fill) {
+        VarDoubleOffHeap var = new VarDoubleOffHeap(PagedBuffer.allocate((long) rows * Double.BYTES), rows);
+        for (int i = 0; i < rows; i++) {
+            var.setDouble(i, fill);
+        }
+        return var;
+    }
+
+    /**
+     * Builds a double variable allocated in direct memory with values copied from a source variable.
+     *
+     * @param source source variable
+     * @return new instance of off heap double variable
+     */
+    public static VarDoubleOffHeap copy(Var source) {
+        VarDoubleOffHeap var = new VarDoubleOffHeap(PagedBuffer.allocate((long) source.size() * Double.BYTES), source.size());
+        for (int i = 0; i < source.size(); i++) {
+            if (source.isMissing(i)) {
+                var.setMissing(i);
+            } else {
+                var.setDouble(i, source.getDouble(i));
+            }
+        }
+        return var.name(source.name());
+    }
+
+    /**
+     * Builds a double variable over the given buffer.
+     *
+     * @param buffer buffer which contains the values
+     * @param rows   number of rows
+     * @return new instance of off heap double variable
+     */
+    public static VarDoubleOffHeap wrap(PagedBuffer buffer, int rows) {
+        return new VarDoubleOffHeap(buffer, rows);
+    }
+
+    @Serial
+    private static final long serialVersionUID = 5165478394462364531L;
+
+    private VarDoubleOffHeap(PagedBuffer buffer, int rows) {
+        super(buffer, rows, Double.BYTES);
+    }
+
+    @Override
+    public VarDoubleOffHeap name(String name) {
+        return (VarDoubleOffHeap) super.name(name);
+    }
+
+    @Override
+    public VarType type() {
+        return VarType.DOUBLE;
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return buffer.getDouble((long) row << 3);
+    }
+
+    @Override
+    public void setDouble(int row, double value) {
+        buffer.putDouble((long) row << 3, value);
+    }
+
+    @Override
+    public int getInt(int row) {
+        return (int) Math.rint(getDouble(row));
+    }
+
+    @Override
+    public void setInt(int row, int value) {
+        setDouble(row, value);
+    }
+
+    @Override
+    public long getLong(int row) {
+        return (long) Math.rint(getDouble(row));
+    }
+
+    @Override
+    public void setLong(int row, long value) {
+        setDouble(row, value);
+    }
+
+    @Override
+    public String getLabel(int row) {
+        return isMissing(row) ? VarNominal.MISSING_VALUE : String.valueOf(getDouble(row));
+    }
+
+    @Override
+    public void setLabel(int row, String value) {
+        if (VarNominal.MISSING_VALUE.equals(value)) {
+            setMissing(row);
+            return;
+        }
+        if ("Inf".equals(value)) {
+            setDouble(row, Double.POSITIVE_INFINITY);
+            return;
+        }
+        if ("-Inf".equals(value)) {
+            setDouble(row, Double.NEGATIVE_INFINITY);
+            return;
+        }
+        setDouble(row, Double.parseDouble(value));
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return Double.isNaN(getDouble(row));
+    }
+
+    @Override
+    public void setMissing(int row) {
+        setDouble(row, VarDouble.MISSING_VALUE);
+    }
+
+    @Override
+    public DVarOp<VarDoubleOffHeap> op() {
+        return new DefaultDVarOp<>(this, VarDoubleOffHeap::copy);
+    }
+
+    @Override
+    protected String toStringClassName() {
+        return "VarDoubleOffHeap";
+    }
+
+    @Override
+    protected void textTablePutValue(TextTable tt, int i, int j, int row, Printer printer, POption<?>[] options) {
+        if (isMissing(row)) {
+            tt.textCenter(i, j, "?");
+        } else {
+            DecimalFormat format = printer.getOptions().bind(options).floatFormat();
+            tt.floatString(i, j, format.format(getDouble(row)));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import rapaio.data.ops.DVarOp;
+import rapaio.data.ops.DefaultDVarOp;
+
+import java.io.Serial;
+
+/**
+ * Integer variable which stores its values outside the java heap, into a {@link PagedBuffer}.
+ * Each value uses 4 bytes and missing values are stored as {@link VarInt#MISSING_VALUE}.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class VarIntOffHeap extends AbstractOffHeapVar {
+
+    /**
+     * @return new empty integer variable of size 0 allocated in direct memory
+     */
+    public static VarIntOffHeap empty() {
+        return empty(0);
+    }
+
+    /**
+     * Builds an integer variable allocated in direct memory with all values set missing.
+     *
+     * @param rows size of the variable
+     * @return new instance of off heap integer variable
+     */
+    public static VarIntOffHeap empty(int rows) {
+        return fill(rows, VarInt.MISSING_VALUE);
+    }
+
+    /**
+     * Builds an integer variable allocated in direct memory with all values set to a given value.
+     *
+     * @param rows size of the variable
+     * @param fill fill value
+     * @return new instance of off heap integer variable
+     */
+    public static VarIntOffHeap fill(int rows, int fill) {
+        VarIntOffHeap var = new VarIntOffHeap(PagedBuffer.allocate((long) rows * Integer.BYTES), rows);
+        for (int i = 0; i < rows; i++) {
+            var.setInt(i, fill);
+        }
+        return var;
+    }
+
+    /**
+     * Builds an integer variable allocated in direct memory with values copied from a source variable.
+     *
+     * @param source source variable
+     * @return new instance of off heap integer variable
+     */
+    public static VarIntOffHeap copy(Var source) {
+        VarIntOffHeap var = new VarIntOffHeap(PagedBuffer.allocate((long) source.size() * Integer.BYTES), source.size());
+        for (int i = 0; i < source.size(); i++) {
+            if (source.isMissing(i)) {
+                var.setMissing(i);
+            } else {
+                var.setInt(i, source.getInt(i));
+            }
+        }
+        return var.name(source.name());
+    }
+
+    /**
+     * Builds an integer variable over the given buffer.
+     *
+     * @param buffer buffer which contains the values
+     * @param rows   number of rows
+     * @return new instance of off heap integer variable
+     */
+    public static VarIntOffHeap wrap(PagedBuffer buffer, int rows) {
+        return new VarIntOffHeap(buffer, rows);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -6218311717958914394L;
+
+    private VarIntOffHeap(PagedBuffer buffer, int rows) {
+        super(buffer, rows, Integer.BYTES);
+    }
+
+    @Override
+    public VarIntOffHeap name(String name) {
+        return (VarIntOffHeap) super.name(name);
+    }
+
+    @Override
+    public VarType type() {
+        return VarType.INT;
+    }
+
+    @Override
+    public int getInt(int row) {
+        return buffer.getInt((long) row << 2);
+    }
+
+    @Override
+    public void setInt(int row, int value) {
+        buffer.putInt((long) row << 2, value);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return isMissing(row) ? VarDouble.MISSING_VALUE : getInt(row);
+    }
+
+    @Override
+    public void setDouble(int row, double value) {
+        setInt(row, Double.isNaN(value) ? VarInt.MISSING_VALUE : (int) Math.rint(value));
+    }
+
+    @Override
+    public long getLong(int row) {
+        return getInt(row);
+    }
+
+    @Override
+    public void setLong(int row, long value) {
+        setInt(row, Math.toIntExact(value));
+    }
+
+    @Override
+    public String getLabel(int row) {
+        return isMissing(row) ? VarNominal.MISSING_VALUE : String.valueOf(getInt(row));
+    }
+
+    @Override
+    public void setLabel(int row, String value) {
+        if (VarNominal.MISSING_VALUE.equals(value)) {
+            setMissing(row);
+            return;
+        }
+        setInt(row, Integer.parseInt(value));
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return getInt(row) == VarInt.MISSING_VALUE;
+    }
+
+    @Override
+    public void setMissing(int row) {
+        setInt(row, VarInt.MISSING_VALUE);
+    }
+
+    @Override
+    public DVarOp<VarIntOffHeap> op() {
+        return new DefaultDVarOp<>(this, VarIntOffHeap::copy);
+    }
+
+    @Override
+    protected String toStringClassName() {
+        return "VarIntOffHeap";
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.io.Serial;
+
+/**
+ * Long variable which stores its values outside the java heap, into a {@link PagedBuffer}.
+ * Each value uses 8 bytes and missing values are stored as {@link VarLong#MISSING_VALUE}.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class VarLongOffHeap extends AbstractOffHeapVar {
+
+    /**
+     * Builds a long variable over the given buffer.
+     *
+     * @param buffer buffer which contains the values
+     * @param rows   number of rows
+     * @return new instance of off heap long variable
+     */
+    public static VarLongOffHeap wrap(PagedBuffer buffer, int rows) {
+        return new VarLongOffHeap(buffer, rows);
+    }
+
+    @Serial
+    private static final long serialVersionUID = 2764512939874126517L;
+
+    private VarLongOffHeap(PagedBuffer buffer, int rows) {
+        super(buffer, rows, Long.BYTES);
+    }
+
+    @Override
+    public VarLongOffHeap name(String name) {
+        return (VarLongOffHeap) super.name(name);
+    }
+
+    @Override
+    public VarType type() {
+        return VarType.LONG;
+    }
+
+    @Override
+    public long getLong(int row) {
+        return buffer.getLong((long) row << 3);
+    }
+
+    @Override
+    public void setLong(int row, long value) {
+        buffer.putLong((long) row << 3, value);
+    }
+
+    @Override
+    public int getInt(int row) {
+        return (int) getLong(row);
+    }
+
+    @Override
+    public void setInt(int row, int value) {
+        setLong(row, value);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return isMissing(row) ? VarDouble.MISSING_VALUE : getLong(row);
+    }
+
+    @Override
+    public void setDouble(int row, double value) {
+        setLong(row, Double.isNaN(value) ? VarLong.MISSING_VALUE : (long) Math.rint(value));
+    }
+
+    @Override
+    public String getLabel(int row) {
+        return isMissing(row) ? VarNominal.MISSING_VALUE : String.valueOf(getLong(row));
+    }
+
+    @Override
+    public void setLabel(int row, String value) {
+        if (VarNominal.MISSING_VALUE.equals(value)) {
+            setMissing(row);
+            return;
+        }
+        setLong(row, Long.parseLong(value));
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return getLong(row) == VarLong.MISSING_VALUE;
+    }
+
+    @Override
+    public void setMissing(int row) {
+        setLong(row, VarLong.MISSING_VALUE);
+    }
+
+    @Override
+    protected String toStringClassName() {
+        return "VarLongOffHeap";
+    }
+}
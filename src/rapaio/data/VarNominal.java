@@ -105,6 +105,28 @@ public final class VarNominal extends AbstractVar {
         return nominal;
     }
 
+    /**
+     * Builds a nominal variable as a wrapper over a given array of level indexes.
+     * Dictionary must start with missing value label, must not contain duplicates,
+     * and each index must be a valid position in the dictionary.
+     *
+     * @param dict    term levels, including missing value label on the first position
+     * @param indexes given array of level indexes
+     * @return new variable instance of nominal type
+     */
+    public static VarNominal wrap(List<String> dict, short[] indexes) {
+        if (dict.isEmpty() || !MISSING_VALUE.equals(dict.get(0))) {
+            throw new IllegalArgumentException("Dictionary must start with missing value label.");
+        }
+        VarNominal nominal = VarNominal.empty(0, dict.subList(1, dict.size()));
+        if (nominal.dict.size() != dict.size()) {
+            throw new IllegalArgumentException("Dictionary must not contain duplicate labels.");
+        }
+        nominal.data = indexes;
+        nominal.rows = indexes.length;
+        return nominal;
+    }
+
     public static VarNominal copy(String... values) {
         VarNominal nominal = VarNominal.empty();
         for (String value : values)
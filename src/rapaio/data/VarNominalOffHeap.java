@@ -0,0 +1,189 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Nominal variable which stores its level indexes outside the java heap, into a {@link PagedBuffer}.
+ * Each index uses 2 bytes, as in {@link VarNominal}, and the dictionary of levels is kept on heap.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class VarNominalOffHeap extends AbstractOffHeapVar {
+
+    /**
+     * Builds a nominal variable over the given buffer of level indexes.
+     *
+     * @param buffer buffer which contains the level indexes
+     * @param rows   number of rows
+     * @param levels term levels, without missing label
+     * @return new instance of off heap nominal variable
+     */
+    public static VarNominalOffHeap wrap(PagedBuffer buffer, int rows, List<String> levels) {
+        return new VarNominalOffHeap(buffer, rows, levels);
+    }
+
+    @Serial
+    private static final long serialVersionUID = 8012993360611543236L;
+
+    private ArrayList<String> dict;
+    private HashMap<String, Short> reverse;
+
+    private VarNominalOffHeap(PagedBuffer buffer, int rows, List<String> levels) {
+        super(buffer, rows, Short.BYTES);
+        dict = new ArrayList<>();
+        reverse = new HashMap<>();
+        dict.add(VarNominal.MISSING_VALUE);
+        reverse.put(VarNominal.MISSING_VALUE, (short) 0);
+        for (String level : levels) {
+            if (!reverse.containsKey(level)) {
+                reverse.put(level, (short) dict.size());
+                dict.add(level);
+            }
+        }
+    }
+
+    @Override
+    public VarNominalOffHeap name(String name) {
+        return (VarNominalOffHeap) super.name(name);
+    }
+
+    @Override
+    public VarType type() {
+        return VarType.NOMINAL;
+    }
+
+    @Override
+    public int getInt(int row) {
+        return buffer.getShort((long) row << 1);
+    }
+
+    @Override
+    public void setInt(int row, int value) {
+        if (value < 0 || value >= dict.size()) {
+            throw new IllegalArgumentException("Invalid value for nominal index.");
+        }
+        buffer.putShort((long) row << 1, (short) value);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return getInt(row);
+    }
+
+    @Override
+    public void setDouble(int row, double value) {
+        setInt(row, (int) Math.rint(value));
+    }
+
+    @Override
+    public long getLong(int row) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public void setLong(int row, long value) {
+        throw new OperationNotAvailableException();
+    }
+
+    @Override
+    public String getLabel(int row) {
+        return dict.get(getInt(row));
+    }
+
+    @Override
+    public void setLabel(int row, String value) {
+        Short index = reverse.get(value);
+        if (index == null) {
+            if (dict.size() == Short.MAX_VALUE - 1) {
+                throw new IllegalStateException("Cannot add new label since dictionary achieved it's maximum size.");
+            }
+            index = (short) dict.size();
+            dict.add(value);
+            reverse.put(value, index);
+        }
+        buffer.putShort((long) row << 1, index);
+    }
+
+    @Override
+    public List<String> levels() {
+        return dict;
+    }
+
+    @Override
+    public void setLevels(String... dict) {
+        List<String> oldDict = this.dict;
+        if (dict.length > 0 && !dict[0].equals(VarNominal.MISSING_VALUE)) {
+            String[] newDict = new String[dict.length + 1];
+            newDict[0] = VarNominal.MISSING_VALUE;
+            System.arraycopy(dict, 0, newDict, 1, dict.length);
+            dict = newDict;
+        }
+        if (oldDict.size() > dict.length) {
+            throw new IllegalArgumentException("new levels does not contains all old labels");
+        }
+
+        this.dict = new ArrayList<>();
+        this.reverse = new HashMap<>(dict.length);
+        this.dict.add(VarNominal.MISSING_VALUE);
+        this.reverse.put(VarNominal.MISSING_VALUE, (short) 0);
+
+        short[] pos = new short[oldDict.size()];
+        for (int i = 0; i < dict.length; i++) {
+            String term = dict[i];
+            if (!reverse.containsKey(term)) {
+                this.dict.add(term);
+                this.reverse.put(term, (short) this.reverse.size());
+            }
+            if (i < oldDict.size()) {
+                pos[i] = this.reverse.get(term);
+            }
+        }
+        for (int i = 0; i < rows; i++) {
+            buffer.putShort((long) i << 1, pos[getInt(i)]);
+        }
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return getInt(row) == 0;
+    }
+
+    @Override
+    public void setMissing(int row) {
+        buffer.putShort((long) row << 1, (short) 0);
+    }
+
+    @Override
+    public Var newInstance(int rows) {
+        return VarNominal.empty(rows, levels());
+    }
+
+    @Override
+    protected String toStringClassName() {
+        return "VarNominalOffHeap";
+    }
+}
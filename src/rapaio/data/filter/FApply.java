@@ -22,7 +22,9 @@
 package rapaio.data.filter;
 
 import rapaio.data.Frame;
+import rapaio.data.Var;
 import rapaio.data.VarRange;
+import rapaio.data.VarType;
 import rapaio.data.stream.FSpot;
 import rapaio.util.function.Double2DoubleFunction;
 import rapaio.util.function.Int2IntFunction;
@@ -36,7 +38,7 @@ import java.util.function.Function;
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/15/14.
  */
-public class FApply extends AbstractFFilter {
+public class FApply extends AbstractFFilter implements FFilterElementwise {
 
     public static FApply onSpot(Consumer<FSpot> consumer, VarRange varRange) {
         return new FApply(Type.SPOT, consumer, F_DOUBLE, F_INT, F_STRING, varRange);
@@ -123,6 +125,16 @@ public class FApply extends AbstractFFilter {
         return df;
     }
 
+    @Override
+    public boolean isElementwise() {
+        return type == Type.DOUBLE;
+    }
+
+    @Override
+    public Double2DoubleFunction elementFunction(Var var) {
+        return var.type() == VarType.DOUBLE ? doubleFunction : null;
+    }
+
     private enum Type {
         SPOT,
         DOUBLE,
@@ -0,0 +1,52 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.data.filter;
+
+import rapaio.data.Var;
+import rapaio.util.function.Double2DoubleFunction;
+
+/**
+ * Frame filter which transforms each value of the selected variables independently
+ * from the other values. Such filters can be fused by {@link FFilterSequence#lazy(FFilter...)}
+ * into a single pass over the data.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public interface FFilterElementwise extends FFilter {
+
+    /**
+     * @return true if the filter, as configured, transforms only values of the variables from its domain
+     */
+    default boolean isElementwise() {
+        return true;
+    }
+
+    /**
+     * Builds the function which gives the transformed value for each value of a variable.
+     * It is called only for fitted filters and for variables from the filter domain.
+     *
+     * @param var variable from the filter domain
+     * @return element-wise transformation, or null if the variable cannot be transformed element-wise
+     */
+    Double2DoubleFunction elementFunction(Var var);
+}
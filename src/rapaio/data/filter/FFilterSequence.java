@@ -22,28 +22,57 @@
 package rapaio.data.filter;
 
 import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.util.function.Double2DoubleFunction;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
+ * Applies a sequence of frame filters, each filter transforming the output of the previous one.
+ * <p>
+ * A lazy sequence fuses consecutive element-wise filters ({@link FFilterElementwise}).
+ * The values of each transformed variable are read once, all the fused transformations
+ * are applied on blocks of rows in parallel, and only the final values are materialized
+ * into new variables. Unlike the eager sequence, the fused filters do not alter the variables
+ * of the input frame. The other filters are applied as usual, and a run of element-wise filters
+ * is applied eagerly if it meets a variable which cannot be transformed element-wise,
+ * like a variable which is not double.
+ * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/21/20.
  */
 public class FFilterSequence implements FFilter {
 
     public static FFilterSequence of(FFilter... filters) {
-        return new FFilterSequence(filters);
+        return new FFilterSequence(false, filters);
+    }
+
+    public static FFilterSequence lazy(FFilter... filters) {
+        return new FFilterSequence(true, filters);
     }
 
     @Serial
     private static final long serialVersionUID = -4180868104157224336L;
+    private static final int BLOCK_SIZE = 4096;
+
+    private final boolean lazy;
     private final List<FFilter> filters;
     private String[] varNames = new String[0];
 
-    private FFilterSequence(FFilter... filterArray) {
-        filters = Arrays.asList(filterArray);
+    private FFilterSequence(boolean lazy, FFilter... filterArray) {
+        this.lazy = lazy;
+        this.filters = Arrays.asList(filterArray);
+    }
+
+    public boolean isLazy() {
+        return lazy;
     }
 
     @Override
@@ -52,7 +81,7 @@ public class FFilterSequence implements FFilter {
         for (int i = 0; i < filterArray.length; i++) {
             filterArray[i] = filters.get(i).newInstance();
         }
-        return new FFilterSequence(filterArray);
+        return new FFilterSequence(lazy, filterArray);
     }
 
     @Override
@@ -73,9 +102,92 @@ public class FFilterSequence implements FFilter {
     @Override
     public Frame apply(Frame df) {
         var result = df;
-        for (var filter : filters) {
-            result = filter.apply(result);
+        if (!lazy) {
+            for (var filter : filters) {
+                result = filter.apply(result);
+            }
+            return result;
+        }
+        int start = 0;
+        while (start < filters.size()) {
+            int end = start;
+            List<FFilterElementwise> run = new ArrayList<>();
+            while (end < filters.size() && filters.get(end) instanceof FFilterElementwise filter && filter.isElementwise()) {
+                run.add(filter);
+                end++;
+            }
+            if (run.isEmpty()) {
+                result = filters.get(start).apply(result);
+                start++;
+            } else {
+                result = applyFused(result, run);
+                start = end;
+            }
         }
         return result;
     }
+
+    private Frame applyFused(Frame df, List<FFilterElementwise> run) {
+        List<Set<String>> domains = new ArrayList<>();
+        for (var filter : run) {
+            domains.add(new HashSet<>(Arrays.asList(filter.varNames())));
+        }
+
+        // collect the chain of transformations for each variable
+        Var[] vars = new Var[df.varCount()];
+        Double2DoubleFunction[][] chains = new Double2DoubleFunction[df.varCount()][];
+        List<Integer> transformed = new ArrayList<>();
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = df.rvar(i);
+            List<Double2DoubleFunction> chain = new ArrayList<>();
+            for (int j = 0; j < run.size(); j++) {
+                if (!domains.get(j).contains(vars[i].name())) {
+                    continue;
+                }
+                Double2DoubleFunction fun = run.get(j).elementFunction(vars[i]);
+                if (fun == null) {
+                    Frame result = df;
+                    for (var filter : run) {
+                        result = filter.apply(result);
+                    }
+                    return result;
+                }
+                chain.add(fun);
+            }
+            if (!chain.isEmpty()) {
+                chains[i] = chain.toArray(Double2DoubleFunction[]::new);
+                transformed.add(i);
+            }
+        }
+        if (transformed.isEmpty()) {
+            return df;
+        }
+
+        // single pass over blocks of rows for each transformed variable
+        int rows = df.rowCount();
+        int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        double[][] values = new double[vars.length][];
+        for (int index : transformed) {
+            values[index] = new double[rows];
+        }
+        IntStream.range(0, transformed.size() * blocks).parallel().forEach(task -> {
+            int index = transformed.get(task / blocks);
+            int from = (task % blocks) * BLOCK_SIZE;
+            int to = Math.min(rows, from + BLOCK_SIZE);
+            Var var = vars[index];
+            double[] out = values[index];
+            for (int r = from; r < to; r++) {
+                out[r] = var.getDouble(r);
+            }
+            for (Double2DoubleFunction fun : chains[index]) {
+                for (int r = from; r < to; r++) {
+                    out[r] = fun.applyAsDouble(out[r]);
+                }
+            }
+        });
+        for (int index : transformed) {
+            vars[index] = VarDouble.wrap(values[index]).name(vars[index].name());
+        }
+        return SolidFrame.byVars(rows, vars);
+    }
 }
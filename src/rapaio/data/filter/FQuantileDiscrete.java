@@ -21,6 +21,7 @@
 
 package rapaio.data.filter;
 
+import rapaio.core.stat.Quantiles;
 import rapaio.data.BoundFrame;
 import rapaio.data.Frame;
 import rapaio.data.Var;
@@ -37,6 +38,20 @@ import java.util.Map;
 public class FQuantileDiscrete extends AbstractFFilter {
 
     public static FQuantileDiscrete split(VarRange varRange, int k) {
+        return split(varRange, k, Quantiles.Type.R7);
+    }
+
+    /**
+     * Splits each variable into k intervals with equal probabilities, quantiles being
+     * computed with the given type. Type {@link Quantiles.Type#SKETCH} estimates quantiles
+     * without sorting, which is useful for large frames.
+     *
+     * @param varRange variables to be discretized
+     * @param k        number of intervals
+     * @param type     quantiles type
+     * @return filter instance
+     */
+    public static FQuantileDiscrete split(VarRange varRange, int k, Quantiles.Type type) {
         if (k <= 1) {
             throw new IllegalArgumentException("Frame quantile discrete filter allows only splits greater than 1.");
         }
@@ -45,37 +60,43 @@ public class FQuantileDiscrete extends AbstractFFilter {
         for (int i = 0; i < p.length; i++) {
             p[i] = step * (i + 1);
         }
-        return new FQuantileDiscrete(p, varRange);
+        return new FQuantileDiscrete(type, p, varRange);
     }
 
     public static FQuantileDiscrete on(VarRange varRange, double... p) {
+        return on(varRange, Quantiles.Type.R7, p);
+    }
+
+    public static FQuantileDiscrete on(VarRange varRange, Quantiles.Type type, double... p) {
         if (p.length < 1) {
             throw new IllegalArgumentException("Frame quantile discrete filter requires at least one probability.");
         }
-        return new FQuantileDiscrete(p, varRange);
+        return new FQuantileDiscrete(type, p, varRange);
     }
 
     @Serial
     private static final long serialVersionUID = -2447577449010618416L;
 
     private final Map<String, VQuantileDiscrete> filters = new HashMap<>();
+    private final Quantiles.Type type;
     private final double[] p;
 
-    private FQuantileDiscrete(double[] p, VarRange varRange) {
+    private FQuantileDiscrete(Quantiles.Type type, double[] p, VarRange varRange) {
         super(varRange);
+        this.type = type;
         this.p = Arrays.copyOf(p, p.length);
     }
 
     @Override
     public FQuantileDiscrete newInstance() {
-        return new FQuantileDiscrete(p, varRange);
+        return new FQuantileDiscrete(type, p, varRange);
     }
 
     @Override
     public void coreFit(Frame df) {
         filters.clear();
         for (String varName : varNames) {
-            VQuantileDiscrete filter = VQuantileDiscrete.with(p);
+            VQuantileDiscrete filter = VQuantileDiscrete.with(type, p);
             filter.fit(df.rvar(varName));
             filters.put(varName, filter);
         }
@@ -22,7 +22,10 @@
 package rapaio.data.filter;
 
 import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarType;
 import rapaio.data.VarRange;
+import rapaio.util.function.Double2DoubleFunction;
 
 import java.io.Serial;
 import java.util.HashMap;
@@ -44,7 +47,7 @@ import java.util.Map;
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 1/30/15.
  */
-public class FStandardize extends AbstractFFilter {
+public class FStandardize extends AbstractFFilter implements FFilterElementwise {
 
     public static FStandardize on(VarRange varRange) {
         return new FStandardize(varRange);
@@ -82,4 +85,13 @@ public class FStandardize extends AbstractFFilter {
         }
         return df;
     }
+
+    @Override
+    public Double2DoubleFunction elementFunction(Var var) {
+        VStandardize filter = filters.get(var.name());
+        if (filter == null || !filter.isActive()) {
+            return x -> x;
+        }
+        return var.type() == VarType.DOUBLE ? filter::transform : null;
+    }
 }
@@ -25,6 +25,8 @@ import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarRange;
+import rapaio.data.VarType;
+import rapaio.util.function.Double2DoubleFunction;
 
 import java.io.Serial;
 import java.util.Arrays;
@@ -37,7 +39,7 @@ import java.util.stream.Collectors;
  * <p>
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/5/14.
  */
-public class FToDouble extends AbstractFFilter {
+public class FToDouble extends AbstractFFilter implements FFilterElementwise {
 
     public static FToDouble on(VarRange varRange) {
         return new FToDouble(varRange);
@@ -72,4 +74,10 @@ public class FToDouble extends AbstractFFilter {
         }
         return SolidFrame.byVars(df.rowCount(), vars);
     }
+
+    @Override
+    public Double2DoubleFunction elementFunction(Var var) {
+        // double variables keep their values, the other types needs a conversion
+        return var.type() == VarType.DOUBLE ? x -> x : null;
+    }
 }
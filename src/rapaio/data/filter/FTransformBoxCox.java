@@ -22,14 +22,17 @@
 package rapaio.data.filter;
 
 import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.data.VarType;
 import rapaio.data.VarRange;
+import rapaio.util.function.Double2DoubleFunction;
 
 import java.io.Serial;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> at 12/15/14.
  */
-public class FTransformBoxCox extends AbstractFFilter {
+public class FTransformBoxCox extends AbstractFFilter implements FFilterElementwise {
 
     public static FTransformBoxCox on(double lambda, double shift, String... varNames) {
         return new FTransformBoxCox(lambda, shift, VarRange.of(varNames));
@@ -64,4 +67,9 @@ public class FTransformBoxCox extends AbstractFFilter {
         }
         return df;
     }
+
+    @Override
+    public Double2DoubleFunction elementFunction(Var var) {
+        return var.type() == VarType.DOUBLE ? bct::transform : null;
+    }
 }
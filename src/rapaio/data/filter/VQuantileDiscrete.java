@@ -44,6 +44,19 @@ import java.util.function.Predicate;
 public class VQuantileDiscrete implements VFilter {
 
     public static VQuantileDiscrete split(int k) {
+        return split(k, Quantiles.Type.R7);
+    }
+
+    /**
+     * Splits into k intervals with equal probabilities, quantiles being computed
+     * with the given type. Type {@link Quantiles.Type#SKETCH} estimates quantiles
+     * without sorting, which is useful for large variables.
+     *
+     * @param k    number of intervals
+     * @param type quantiles type
+     * @return filter instance
+     */
+    public static VQuantileDiscrete split(int k, Quantiles.Type type) {
         if (k <= 1) {
             throw new IllegalArgumentException("Number of parts k: " + k + " of the split " +
                     "must be greater than 1.");
@@ -53,14 +66,18 @@ public class VQuantileDiscrete implements VFilter {
         for (int i = 0; i < qp.length; i++) {
             qp[i] = step * (i + 1);
         }
-        return new VQuantileDiscrete(qp);
+        return new VQuantileDiscrete(type, qp);
     }
 
     public static VQuantileDiscrete with(double... qp) {
+        return with(Quantiles.Type.R7, qp);
+    }
+
+    public static VQuantileDiscrete with(Quantiles.Type type, double... qp) {
         if (qp.length < 1) {
             throw new IllegalArgumentException("Number of quantiles must be positive.");
         }
-        return new VQuantileDiscrete(qp);
+        return new VQuantileDiscrete(type, qp);
     }
 
 
@@ -69,10 +86,12 @@ public class VQuantileDiscrete implements VFilter {
 
     private final List<String> dict = new ArrayList<>();
     private final Map<String, Predicate<Double>> predicates = new HashMap<>();
+    private final Quantiles.Type type;
     private final double[] qp;
     private double[] qv;
 
-    private VQuantileDiscrete(double... qp) {
+    private VQuantileDiscrete(Quantiles.Type type, double... qp) {
+        this.type = type;
         this.qp = qp;
     }
 
@@ -81,7 +100,7 @@ public class VQuantileDiscrete implements VFilter {
         if (!var.type().isNumeric()) {
             return this;
         }
-        qv = Quantiles.of(var, qp).values();
+        qv = Quantiles.of(var, type, qp).values();
 
         // first interval
 
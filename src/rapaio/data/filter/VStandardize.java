@@ -77,12 +77,22 @@ public class VStandardize implements VFilter {
         if (Math.abs(sd) < 1e-20)
             return var;
         for (int i = 0; i < var.size(); i++) {
-            double x = var.getDouble(i);
-            var.setDouble(i, (x - mean) / sd);
+            var.setDouble(i, transform(var.getDouble(i)));
         }
         return var;
     }
 
+    /**
+     * @return true if the fitted standardization changes the values
+     */
+    boolean isActive() {
+        return Math.abs(sd) >= 1e-20;
+    }
+
+    double transform(double x) {
+        return (x - mean) / sd;
+    }
+
     @Override
     public String toContent(Printer printer, POption<?>... options) {
         return toString();
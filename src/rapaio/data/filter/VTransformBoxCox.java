@@ -61,17 +61,19 @@ public class VTransformBoxCox implements VFilter {
 
     @Override
     public Var apply(Var var) {
-        if (lambda == 0)
-            for (int i = 0; i < var.size(); i++) {
-                var.setDouble(i, Math.log(var.getDouble(i) + shift));
-            }
-        else
-            for (int i = 0; i < var.size(); i++) {
-                var.setDouble(i, (Math.pow(var.getDouble(i) + shift, lambda) - 1) / lambda);
-            }
+        for (int i = 0; i < var.size(); i++) {
+            var.setDouble(i, transform(var.getDouble(i)));
+        }
         return var;
     }
 
+    double transform(double x) {
+        if (lambda == 0) {
+            return Math.log(x + shift);
+        }
+        return (Math.pow(x + shift, lambda) - 1) / lambda;
+    }
+
     @Override
     public String toContent(Printer printer, POption<?>... options) {
         return "VTransformBoxCox(lambda=" + Format.floatFlex(lambda) + ", shift:" + Format.floatFlex(shift) + ")";
@@ -28,10 +28,13 @@ import rapaio.data.Var;
 import rapaio.data.VarBinary;
 import rapaio.data.VarDouble;
 import rapaio.data.VarInt;
+import rapaio.data.VarString;
+import rapaio.data.VarType;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 2/20/19.
@@ -54,14 +57,10 @@ public abstract class DefaultSingleGroupFun extends DefaultGroupFun {
     @Override
     public List<Var> compute(Group group) {
         List<Var> result = new ArrayList<>();
-        VarInt ids = group.getSortedGroupIds();
         for (String varName : varNames) {
             Var aggregate = buildVar(group, varName);
             int index = group.getFrame().varIndex(varName);
-            for (int i = 0; i < ids.size(); i++) {
-                int groupId = ids.getInt(i);
-                updateSingle(aggregate, groupId, group.getFrame(), index, group.getRowsForGroupId(groupId));
-            }
+            aggregate(group, aggregate, index);
             if (normalizeLevel < 0) {
                 result.add(aggregate);
                 continue;
@@ -75,6 +74,41 @@ public abstract class DefaultSingleGroupFun extends DefaultGroupFun {
         return result;
     }
 
+    /**
+     * Computes aggregated values for all groups. Groups are independent, thus
+     * they are aggregated in parallel, each aggregated value being computed with
+     * {@link #updateSingle(Var, int, Frame, int, Mapping)}.
+     * <p>
+     * Only double, int and long variables store values by index and can be written concurrently.
+     * For the other types, like nominal variables with a shared dictionary or binary variables
+     * with shared bit words, values are computed in parallel into an int or string variable
+     * and copied afterwards sequentially.
+     *
+     * @param group     group by data structure
+     * @param aggregate variable which stores aggregated values, indexed by group ids
+     * @param varIndex  index of aggregated variable
+     */
+    protected void aggregate(Group group, Var aggregate, int varIndex) {
+        int count = group.getGroupCount();
+        Var target = switch (aggregate.type()) {
+            case DOUBLE, INT, LONG -> aggregate;
+            case BINARY -> VarInt.empty(count);
+            default -> VarString.empty(count);
+        };
+        IntStream.range(0, count).parallel()
+                .forEach(groupId -> updateSingle(target, groupId, group.getFrame(), varIndex, group.getRowsForGroupId(groupId)));
+        if (target == aggregate) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (aggregate.type() == VarType.BINARY) {
+                aggregate.setInt(i, target.getInt(i));
+            } else {
+                aggregate.setLabel(i, target.getLabel(i));
+            }
+        }
+    }
+
     private Var normalize(Group group, Var agg) {
         int count = group.getGroupCount();
 
@@ -0,0 +1,127 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.data.group.function;
+
+import rapaio.core.stat.OnlineStat;
+import rapaio.data.Frame;
+import rapaio.data.Group;
+import rapaio.data.Mapping;
+import rapaio.data.Var;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Group function which computes aggregated values from online statistics.
+ * <p>
+ * The rows of all groups are split into chunks of consecutive rows which are
+ * processed in parallel. Each chunk accumulates an {@link OnlineStat} for each
+ * group it contains. Groups which are not fully contained in a chunk are completed
+ * by merging the partial statistics of chunks, in chunk order.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public abstract class DefaultStatGroupFun extends DefaultSingleGroupFun {
+
+    /**
+     * Number of rows processed by a chunk. Groups smaller than chunk size which
+     * are fully contained in a chunk are aggregated in a single sequential pass.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    public DefaultStatGroupFun(String name, int normalizeLevel, List<String> varNames) {
+        super(name, normalizeLevel, varNames);
+    }
+
+    /**
+     * Stores aggregated value computed from the online statistics of a group.
+     *
+     * @param aggregate    aggregated variable
+     * @param aggregateRow group id
+     * @param stat         online statistics of the non missing values of the group
+     */
+    public abstract void updateStat(Var aggregate, int aggregateRow, OnlineStat stat);
+
+    @Override
+    public void updateSingle(Var aggregate, int aggregateRow, Frame df, int varIndex, Mapping rows) {
+        Var var = df.rvar(varIndex);
+        OnlineStat stat = OnlineStat.empty();
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rows.get(i);
+            if (!var.isMissing(row)) {
+                stat.update(var.getDouble(row));
+            }
+        }
+        updateStat(aggregate, aggregateRow, stat);
+    }
+
+    @Override
+    protected void aggregate(Group group, Var aggregate, int varIndex) {
+        Var var = group.getFrame().rvar(varIndex);
+        int[] rows = group.getGroupRows();
+        int chunks = (rows.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // complete groups are stored directly, partial states are returned for merge
+        List<List<Partial>> partials = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> aggregateChunk(group, aggregate, var, rows,
+                        chunk * CHUNK_SIZE, Math.min(rows.length, (chunk + 1) * CHUNK_SIZE)))
+                .collect(Collectors.toList());
+
+        HashMap<Integer, OnlineStat> merged = new HashMap<>();
+        for (List<Partial> chunkPartials : partials) {
+            for (Partial partial : chunkPartials) {
+                merged.merge(partial.groupId, partial.stat, OnlineStat::update);
+            }
+        }
+        merged.forEach((groupId, stat) -> updateStat(aggregate, groupId, stat));
+    }
+
+    private List<Partial> aggregateChunk(Group group, Var aggregate, Var var, int[] rows, int start, int end) {
+        List<Partial> partials = new ArrayList<>(2);
+        int pos = start;
+        while (pos < end) {
+            int groupId = group.getGroupId(rows[pos]);
+            int groupEnd = Math.min(end, group.getGroupEnd(groupId));
+            OnlineStat stat = OnlineStat.empty();
+            for (int i = pos; i < groupEnd; i++) {
+                int row = rows[i];
+                if (!var.isMissing(row)) {
+                    stat.update(var.getDouble(row));
+                }
+            }
+            if (pos == group.getGroupStart(groupId) && groupEnd == group.getGroupEnd(groupId)) {
+                updateStat(aggregate, groupId, stat);
+            } else {
+                partials.add(new Partial(groupId, stat));
+            }
+            pos = groupEnd;
+        }
+        return partials;
+    }
+
+    private record Partial(int groupId, OnlineStat stat) {
+    }
+}
@@ -22,9 +22,7 @@
 package rapaio.data.group.function;
 
 import rapaio.core.stat.OnlineStat;
-import rapaio.data.Frame;
 import rapaio.data.Group;
-import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 
@@ -33,7 +31,7 @@ import java.util.List;
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/10/18.
  */
-public class GroupFunSum extends DefaultSingleGroupFun {
+public class GroupFunSum extends DefaultStatGroupFun {
 
     public GroupFunSum(int normalizeLevel, List<String> varNames) {
         super("sum", normalizeLevel, varNames);
@@ -45,17 +43,9 @@ public class GroupFunSum extends DefaultSingleGroupFun {
     }
 
     @Override
-    public void updateSingle(Var aggregate, int aggregateRow, Frame df, int varIndex, Mapping rows) {
-        OnlineStat os = OnlineStat.empty();
-        for (int row : rows) {
-            if (df.isMissing(row, varIndex)) {
-                continue;
-            }
-            os.update(df.getDouble(row, varIndex));
+    public void updateStat(Var aggregate, int aggregateRow, OnlineStat stat) {
+        if (stat.n() > 0) {
+            aggregate.setDouble(aggregateRow, stat.sum());
         }
-        if (os.n() == 0)
-            return;
-        aggregate.setDouble(aggregateRow, os.sum());
     }
 }
-
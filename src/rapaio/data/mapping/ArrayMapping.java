@@ -67,7 +67,6 @@ public final class ArrayMapping implements Mapping {
 
     @Override
     public void add(int value) {
-        data.ensureCapacity(data.size() + 1);
         this.data.add(value);
     }
 
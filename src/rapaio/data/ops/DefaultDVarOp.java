@@ -28,15 +28,30 @@ import rapaio.util.IntComparator;
 import rapaio.util.collection.IntArrays;
 import rapaio.util.function.Double2DoubleFunction;
 
+import java.util.function.Function;
+
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/5/19.
  */
 public final class DefaultDVarOp<T extends Var> implements DVarOp<T> {
 
     private final T source;
+    private final Function<Var, T> copy;
 
+    @SuppressWarnings("unchecked")
     public DefaultDVarOp(T source) {
+        this(source, var -> (T) var.copy());
+    }
+
+    /**
+     * Builds operations for a variable which copies the results of sorting with a given function.
+     *
+     * @param source source variable
+     * @param copy   function which builds a copy of the sorted variable with the same type as the source
+     */
+    public DefaultDVarOp(T source, Function<Var, T> copy) {
         this.source = source;
+        this.copy = copy;
     }
 
     @Override
@@ -163,15 +178,13 @@ public final class DefaultDVarOp<T extends Var> implements DVarOp<T> {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public T sort(IntComparator comparator) {
-        return (T) source.fapply(VRefSort.from(comparator)).copy();
+        return copy.apply(source.fapply(VRefSort.from(comparator)));
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public T sort(boolean asc) {
-        return (T) source.fapply(VRefSort.from(source.refComparator(asc))).copy();
+        return copy.apply(source.fapply(VRefSort.from(source.refComparator(asc))));
     }
 
     @Override
@@ -37,21 +37,34 @@ public class FFPCA extends AbstractFFilter {
     private static final long serialVersionUID = 2797285371357486124L;
 
     final BiFunction<DVector, DMatrix, Integer> kFun;
+    final int components;
     private PCA pca;
 
     public FFPCA(BiFunction<DVector, DMatrix, Integer> kFun, VarRange varRange) {
+        this(0, kFun, varRange);
+    }
+
+    /**
+     * Builds a PCA filter which computes only the first principal components.
+     *
+     * @param components number of computed principal components, 0 for all components
+     * @param kFun       function which selects the number of used components
+     * @param varRange   input variables
+     */
+    public FFPCA(int components, BiFunction<DVector, DMatrix, Integer> kFun, VarRange varRange) {
         super(varRange);
+        this.components = components;
         this.kFun = kFun;
     }
 
     @Override
     public FFPCA newInstance() {
-        return new FFPCA(kFun, varRange);
+        return new FFPCA(components, kFun, varRange);
     }
 
     @Override
     public void coreFit(Frame df) {
-        pca = PCA.newModel();
+        pca = PCA.newModel().components.set(components);
         pca.fit(df.mapVars(varNames));
     }
 
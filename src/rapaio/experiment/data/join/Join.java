@@ -22,6 +22,7 @@
 package rapaio.experiment.data.join;
 
 import rapaio.core.SamplingTools;
+import rapaio.data.BoundFrame;
 import rapaio.data.Frame;
 import rapaio.data.Mapping;
 import rapaio.data.SolidFrame;
@@ -29,6 +30,7 @@ import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarInt;
 import rapaio.data.VarRange;
+import rapaio.util.collection.IntArrays;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,6 +38,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/17/18.
@@ -93,8 +97,6 @@ public class Join {
         OUTER
     }
 
-    private static final String SEP = "_";
-
     private final Frame dfLeft;
     private final Frame dfRight;
     private final List<String> leftVarNames;
@@ -103,14 +105,6 @@ public class Join {
     private final List<String> rightRemainVarNames;
     private final Type type;
 
-    // artifacts
-    private final HashMap<String, Integer> idMap;
-    private final HashMap<Integer, Mapping> leftIdToRows;
-    private final HashMap<Integer, Mapping> rightIdToRows;
-    private final HashMap<Integer, String> leftRowToId;
-    private final HashMap<Integer, String> rightRowToId;
-
-
     private Join(Frame dfLeft, Frame dfRight, VarRange leftKeys, VarRange rightKeys, Type type) {
         this.dfLeft = dfLeft;
         this.dfRight = dfRight;
@@ -119,188 +113,328 @@ public class Join {
         this.rightVarNames = rightKeys.parseVarNames(dfRight);
         this.rightRemainVarNames = rightKeys.parseInverseVarNames(dfRight);
         this.type = type;
-
-        this.idMap = new HashMap<>();
-        this.leftIdToRows = new HashMap<>();
-        this.rightIdToRows = new HashMap<>();
-        this.leftRowToId = new HashMap<>();
-        this.rightRowToId = new HashMap<>();
     }
 
+    /**
+     * Hash join. Key columns are encoded as primitive long values, a hash table with key ids
+     * is built on the smaller frame and the rows of the larger frame are probed in parallel.
+     * The result frame is a view over the two input frames, through row mappings. Rows
+     * without a match are mapped to an additional row with missing values.
+     * <p>
+     * Output rows are grouped by key, keys are in the order of first appearance in the left
+     * frame and after that in the right frame.
+     */
     private Frame join() {
         validateKeys();
+        if (type != Type.LEFT && type != Type.RIGHT) {
+            throw new IllegalArgumentException("Join type not implemented");
+        }
 
-        process(idMap, leftIdToRows, leftRowToId, dfLeft, leftVarNames);
-        process(idMap, rightIdToRows, rightRowToId, dfRight, rightVarNames);
-
-        return switch (type) {
-            case LEFT -> leftJoin();
-            case RIGHT -> rightJoin();
-            default -> throw new IllegalArgumentException("Join type not implemented");
-        };
-    }
+        long[][] leftCols = new long[leftVarNames.size()][];
+        long[][] rightCols = new long[rightVarNames.size()][];
+        for (int i = 0; i < leftVarNames.size(); i++) {
+            encodeKeys(dfLeft.rvar(leftVarNames.get(i)), dfRight.rvar(rightVarNames.get(i)), leftCols, rightCols, i);
+        }
 
-    private Frame leftJoin() {
+        // build on the smaller frame, probe the larger one
+
+        int leftCount = dfLeft.rowCount();
+        int rightCount = dfRight.rowCount();
+        boolean buildLeft = leftCount <= rightCount;
+        long[][] buildCols = buildLeft ? leftCols : rightCols;
+        long[][] probeCols = buildLeft ? rightCols : leftCols;
+        int[] leftIds = new int[leftCount];
+        int[] rightIds = new int[rightCount];
+        int[] buildIds = buildLeft ? leftIds : rightIds;
+        int[] probeIds = buildLeft ? rightIds : leftIds;
+
+        KeyTable table = new KeyTable(buildCols, buildIds.length);
+        for (int i = 0; i < buildIds.length; i++) {
+            buildIds[i] = table.add(i);
+        }
+        IntStream.range(0, probeIds.length).parallel().forEach(i -> probeIds[i] = table.find(probeCols, i));
 
-        List<Var> keyVars = new ArrayList<>();
-        List<Var> leftVars = new ArrayList<>();
-        List<Var> rightVars = new ArrayList<>();
+        // probe keys without match receive their own ids
 
-        for (String varName : leftVarNames) {
-            keyVars.add(dfLeft.rvar(varName).newInstance(0).name(varName));
-        }
-        for (String varName : leftRemainVarNames) {
-            leftVars.add(dfLeft.rvar(varName).newInstance(0).name(varName));
+        int unmatched = 0;
+        for (int id : probeIds) {
+            if (id < 0) {
+                unmatched++;
+            }
         }
-        for (String varName : rightRemainVarNames) {
-            rightVars.add(dfRight.rvar(varName).newInstance(0).name(varName));
+        int keyCount = table.size();
+        if (unmatched > 0) {
+            KeyTable extra = new KeyTable(probeCols, unmatched);
+            for (int i = 0; i < probeIds.length; i++) {
+                if (probeIds[i] < 0) {
+                    probeIds[i] = keyCount + extra.add(i);
+                }
+            }
+            keyCount += extra.size();
         }
 
-        for (int id = 0; id < idMap.size(); id++) {
-            Mapping leftRows = leftIdToRows.get(id);
-            Mapping rightRows = rightIdToRows.get(id);
+        // rows of each key, for both frames
 
-            if (leftRows == null || leftRows.isEmpty()) {
-                continue;
-            }
+        int[] leftStart = new int[keyCount + 1];
+        int[] leftRows = groupRows(leftIds, leftStart);
+        int[] rightStart = new int[keyCount + 1];
+        int[] rightRows = groupRows(rightIds, rightStart);
+
+        // keys in order of first appearance
 
-            if (rightRows == null || rightRows.isEmpty()) {
-                for (int i = 0; i < leftVarNames.size(); i++) {
-                    appendValues(dfLeft, leftVarNames.get(i), leftRows, keyVars.get(i));
+        int[] order = new int[keyCount];
+        int len = 0;
+        boolean[] seen = new boolean[keyCount];
+        for (int[] ids : new int[][]{leftIds, rightIds}) {
+            for (int id : ids) {
+                if (!seen[id]) {
+                    seen[id] = true;
+                    order[len++] = id;
                 }
-                for (int i = 0; i < leftRemainVarNames.size(); i++) {
-                    appendValues(dfLeft, leftRemainVarNames.get(i), leftRows, leftVars.get(i));
+            }
+        }
+
+        // outer rows are the rows of the frame from which all rows are kept
+
+        boolean left = type == Type.LEFT;
+        int[] outerStart = left ? leftStart : rightStart;
+        int[] outerRows = left ? leftRows : rightRows;
+        int[] innerStart = left ? rightStart : leftStart;
+        int[] innerRows = left ? rightRows : leftRows;
+        int innerMissing = left ? rightCount : leftCount;
+
+        int[] offsets = new int[keyCount + 1];
+        long total = 0;
+        boolean hasMissing = false;
+        for (int i = 0; i < keyCount; i++) {
+            int key = order[i];
+            int outer = outerStart[key + 1] - outerStart[key];
+            int inner = innerStart[key + 1] - innerStart[key];
+            hasMissing |= outer > 0 && inner == 0;
+            offsets[i] = (int) total;
+            total += (long) outer * Math.max(1, inner);
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Join result has too many rows.");
+            }
+        }
+        offsets[keyCount] = (int) total;
+
+        int[] leftMap = new int[(int) total];
+        int[] rightMap = new int[(int) total];
+        int[] outerMap = left ? leftMap : rightMap;
+        int[] innerMap = left ? rightMap : leftMap;
+        IntStream.range(0, keyCount).parallel().forEach(i -> {
+            int key = order[i];
+            int pos = offsets[i];
+            if (innerStart[key] == innerStart[key + 1]) {
+                for (int j = outerStart[key]; j < outerStart[key + 1]; j++) {
+                    outerMap[pos] = outerRows[j];
+                    innerMap[pos] = innerMissing;
+                    pos++;
                 }
-                for (int i = 0; i < rightRemainVarNames.size(); i++) {
-                    appendMissing(leftRows.size(), rightVars.get(i));
+                return;
+            }
+            // for a left join all left rows are repeated for each right row,
+            // for a right join all right rows are repeated for each left row
+            if (left) {
+                for (int r = innerStart[key]; r < innerStart[key + 1]; r++) {
+                    for (int l = outerStart[key]; l < outerStart[key + 1]; l++) {
+                        leftMap[pos] = outerRows[l];
+                        rightMap[pos] = innerRows[r];
+                        pos++;
+                    }
                 }
             } else {
-                for (int rightRow : rightRows) {
-                    for (int i = 0; i < leftVarNames.size(); i++) {
-                        appendValues(dfLeft, leftVarNames.get(i), leftRows, keyVars.get(i));
-                    }
-                    for (int i = 0; i < leftRemainVarNames.size(); i++) {
-                        appendValues(dfLeft, leftRemainVarNames.get(i), leftRows, leftVars.get(i));
-                    }
-                    for (int i = 0; i < rightRemainVarNames.size(); i++) {
-                        appendValue(dfRight, rightRemainVarNames.get(i), rightRow, leftRows.size(), rightVars.get(i));
+                for (int l = innerStart[key]; l < innerStart[key + 1]; l++) {
+                    for (int r = outerStart[key]; r < outerStart[key + 1]; r++) {
+                        leftMap[pos] = innerRows[l];
+                        rightMap[pos] = outerRows[r];
+                        pos++;
                     }
                 }
             }
-        }
-        List<Var> allVars = new ArrayList<>();
-        allVars.addAll(keyVars);
-        allVars.addAll(leftVars);
-        allVars.addAll(rightVars);
-        return SolidFrame.byVars(allVars);
-    }
-
-    private Frame rightJoin() {
+        });
 
-        List<Var> keyVars = new ArrayList<>();
-        List<Var> leftVars = new ArrayList<>();
-        List<Var> rightVars = new ArrayList<>();
+        // result is a view over input frames
 
-        for (String varName : rightVarNames) {
-            keyVars.add(dfRight.rvar(varName).newInstance(0).name(varName));
-        }
-        for (String varName : leftRemainVarNames) {
-            leftVars.add(dfLeft.rvar(varName).newInstance(0).name(varName));
-        }
-        for (String varName : rightRemainVarNames) {
-            rightVars.add(dfRight.rvar(varName).newInstance(0).name(varName));
+        List<Frame> frames = new ArrayList<>();
+        if (left) {
+            List<String> outerNames = new ArrayList<>(leftVarNames);
+            outerNames.addAll(leftRemainVarNames);
+            frames.add(dfLeft.mapVars(outerNames).mapRows(Mapping.wrap(leftMap)));
+            if (!rightRemainVarNames.isEmpty()) {
+                frames.add(withMissingRow(dfRight.mapVars(rightRemainVarNames), hasMissing).mapRows(Mapping.wrap(rightMap)));
+            }
+        } else {
+            List<String> outerNames = new ArrayList<>(rightVarNames);
+            outerNames.addAll(rightRemainVarNames);
+            frames.add(dfRight.mapVars(outerNames).mapRows(Mapping.wrap(rightMap)));
+            if (!leftRemainVarNames.isEmpty()) {
+                frames.add(withMissingRow(dfLeft.mapVars(leftRemainVarNames), hasMissing).mapRows(Mapping.wrap(leftMap)));
+            }
         }
+        return BoundFrame.byVars(frames.toArray(Frame[]::new));
+    }
 
-        for (int id = 0; id < idMap.size(); id++) {
-            Mapping leftRows = leftIdToRows.get(id);
-            Mapping rightRows = rightIdToRows.get(id);
-
-            if (rightRows == null || rightRows.isEmpty()) {
-                continue;
+    /**
+     * Encodes values of a pair of key variables as long values, such that equal keys have equal codes.
+     * Numeric variables are encoded through their values, while other variables are encoded through
+     * a dictionary of labels shared by both variables. Missing values are equal to each other.
+     */
+    private static void encodeKeys(Var leftVar, Var rightVar, long[][] leftCols, long[][] rightCols, int col) {
+        switch (leftVar.type()) {
+            case BINARY, INT -> {
+                leftCols[col] = encode(leftVar, row -> leftVar.isMissing(row) ? Long.MIN_VALUE : leftVar.getInt(row));
+                rightCols[col] = encode(rightVar, row -> rightVar.isMissing(row) ? Long.MIN_VALUE : rightVar.getInt(row));
             }
-
-            if (leftRows == null || leftRows.isEmpty()) {
-                for (int i = 0; i < rightVarNames.size(); i++) {
-                    appendValues(dfRight, rightVarNames.get(i), rightRows, keyVars.get(i));
-                }
-                for (int i = 0; i < rightRemainVarNames.size(); i++) {
-                    appendValues(dfRight, rightRemainVarNames.get(i), rightRows, rightVars.get(i));
-                }
-                for (int i = 0; i < leftRemainVarNames.size(); i++) {
-                    appendMissing(rightRows.size(), leftVars.get(i));
+            case LONG -> {
+                leftCols[col] = encode(leftVar, row -> leftVar.isMissing(row) ? Long.MIN_VALUE : leftVar.getLong(row));
+                rightCols[col] = encode(rightVar, row -> rightVar.isMissing(row) ? Long.MIN_VALUE : rightVar.getLong(row));
+            }
+            case DOUBLE -> {
+                leftCols[col] = encode(leftVar, row -> Double.doubleToLongBits(leftVar.getDouble(row)));
+                rightCols[col] = encode(rightVar, row -> Double.doubleToLongBits(rightVar.getDouble(row)));
+            }
+            case NOMINAL -> {
+                // level indexes are translated through the labels of levels
+                HashMap<String, Integer> dictionary = new HashMap<>();
+                long[] leftCodes = levelCodes(leftVar.levels(), dictionary);
+                long[] rightCodes = levelCodes(rightVar.levels(), dictionary);
+                leftCols[col] = encode(leftVar, row -> leftCodes[leftVar.getInt(row)]);
+                rightCols[col] = encode(rightVar, row -> rightCodes[rightVar.getInt(row)]);
+            }
+            default -> {
+                HashMap<String, Integer> dictionary = new HashMap<>();
+                leftCols[col] = new long[leftVar.size()];
+                for (int i = 0; i < leftVar.size(); i++) {
+                    leftCols[col][i] = dictionary.computeIfAbsent(leftVar.getLabel(i), label -> dictionary.size());
                 }
-            } else {
-                for (int leftRow : leftRows) {
-                    for (int i = 0; i < rightVarNames.size(); i++) {
-                        appendValues(dfRight, rightVarNames.get(i), rightRows, keyVars.get(i));
-                    }
-                    for (int i = 0; i < rightRemainVarNames.size(); i++) {
-                        appendValues(dfRight, rightRemainVarNames.get(i), rightRows, rightVars.get(i));
-                    }
-                    for (int i = 0; i < leftRemainVarNames.size(); i++) {
-                        appendValue(dfLeft, leftRemainVarNames.get(i), leftRow, rightRows.size(), leftVars.get(i));
-                    }
+                rightCols[col] = new long[rightVar.size()];
+                for (int i = 0; i < rightVar.size(); i++) {
+                    rightCols[col][i] = dictionary.computeIfAbsent(rightVar.getLabel(i), label -> dictionary.size());
                 }
             }
         }
-        List<Var> allVars = new ArrayList<>();
-        allVars.addAll(keyVars);
-        allVars.addAll(rightVars);
-        allVars.addAll(leftVars);
-        return SolidFrame.byVars(allVars);
     }
 
-    private void appendValues(Frame src, String varName, Mapping rows, Var dst) {
-        int varIndex = src.varIndex(varName);
-        for (int row : rows) {
-            appendValue(src, varIndex, row, dst);
+    private static long[] encode(Var var, IntToLongFunction fun) {
+        long[] codes = new long[var.size()];
+        IntStream.range(0, codes.length).parallel().forEach(i -> codes[i] = fun.applyAsLong(i));
+        return codes;
+    }
+
+    private static long[] levelCodes(List<String> levels, HashMap<String, Integer> dictionary) {
+        long[] codes = new long[levels.size()];
+        for (int i = 0; i < levels.size(); i++) {
+            codes[i] = dictionary.computeIfAbsent(levels.get(i), label -> dictionary.size());
         }
+        return codes;
     }
 
-    private void appendMissing(int times, Var dst) {
-        for (int i = 0; i < times; i++) {
-            dst.addMissing();
+    /**
+     * Stores the rows grouped by ids, in ascending order of rows for each id.
+     */
+    private static int[] groupRows(int[] ids, int[] start) {
+        for (int id : ids) {
+            start[id + 1]++;
         }
+        for (int i = 1; i < start.length; i++) {
+            start[i] += start[i - 1];
+        }
+        int[] rows = new int[ids.length];
+        int[] pos = Arrays.copyOf(start, start.length - 1);
+        for (int i = 0; i < ids.length; i++) {
+            rows[pos[ids[i]]++] = i;
+        }
+        return rows;
     }
 
-    private void appendValue(Frame src, String varName, int row, int times, Var dst) {
-        int varIndex = src.varIndex(varName);
-        for (int i = 0; i < times; i++) {
-            appendValue(src, varIndex, row, dst);
+    /**
+     * Adds a row with missing values at the end of the frame, used to map rows without a match.
+     */
+    private static Frame withMissingRow(Frame df, boolean needed) {
+        if (!needed) {
+            return df;
         }
+        List<Var> vars = new ArrayList<>();
+        for (int i = 0; i < df.varCount(); i++) {
+            Var var = df.rvar(i).newInstance(1).name(df.varName(i));
+            var.setMissing(0);
+            vars.add(var);
+        }
+        return df.bindRows(SolidFrame.byVars(vars));
     }
 
-    private void appendValue(Frame src, int varIndex, int row, Var dst) {
-        if (src.isMissing(row, varIndex)) {
-            dst.addMissing();
-            return;
+    /**
+     * Open addressing hash table which gives dense ids to the distinct composite keys of the rows
+     * of a frame, ids being given in the order in which the keys were added.
+     */
+    private static final class KeyTable {
+
+        private final long[][] cols;
+        private final int[] slots;
+        private final int[] keyRows;
+        private final int mask;
+        private int size;
+
+        KeyTable(long[][] cols, int capacity) {
+            this.cols = cols;
+            int len = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+            this.slots = IntArrays.newFill(len, -1);
+            this.keyRows = new int[capacity];
+            this.mask = len - 1;
         }
-        switch (dst.type()) {
-            case BINARY, INT -> {
-                dst.addInt(src.getInt(row, varIndex));
-                return;
+
+        int size() {
+            return size;
+        }
+
+        int add(int row) {
+            int pos = hash(cols, row) & mask;
+            while (true) {
+                int id = slots[pos];
+                if (id < 0) {
+                    slots[pos] = size;
+                    keyRows[size] = row;
+                    return size++;
+                }
+                if (equal(cols, keyRows[id], cols, row)) {
+                    return id;
+                }
+                pos = (pos + 1) & mask;
             }
-            case DOUBLE -> {
-                dst.addDouble(src.getDouble(row, varIndex));
-                return;
+        }
+
+        int find(long[][] other, int row) {
+            int pos = hash(other, row) & mask;
+            while (true) {
+                int id = slots[pos];
+                if (id < 0) {
+                    return -1;
+                }
+                if (equal(cols, keyRows[id], other, row)) {
+                    return id;
+                }
+                pos = (pos + 1) & mask;
             }
-            default -> dst.addLabel(src.getLabel(row, varIndex));
         }
-    }
 
-    private void process(HashMap<String, Integer> idMap,
-                         HashMap<Integer, Mapping> idToRows, HashMap<Integer, String> rowToId, Frame df, List<String> varNames) {
-        for (int i = 0; i < df.rowCount(); i++) {
-            StringBuilder sb = new StringBuilder();
-            for (int k = 0; k < varNames.size(); k++) {
-                sb.append(k).append(SEP).append(df.getLabel(i, varNames.get(k))).append(SEP);
+        private static int hash(long[][] cols, int row) {
+            long h = 0;
+            for (long[] col : cols) {
+                h = (h ^ col[row]) * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 29;
+            }
+            return (int) (h ^ (h >>> 32));
+        }
+
+        private static boolean equal(long[][] cols1, int row1, long[][] cols2, int row2) {
+            for (int i = 0; i < cols1.length; i++) {
+                if (cols1[i][row1] != cols2[i][row2]) {
+                    return false;
+                }
             }
-            String key = sb.toString();
-            idMap.putIfAbsent(key, idMap.size());
-            int id = idMap.get(key);
-            idToRows.putIfAbsent(id, Mapping.empty());
-            idToRows.get(id).add(i);
-            rowToId.put(i, key);
+            return true;
         }
     }
 
@@ -42,6 +42,42 @@ public interface RowPredicate extends Serializable {
      */
     boolean test(int row, Frame df);
 
+    /**
+     * Primitive description of the predicate, used to compile tree models into flat arrays.
+     * Custom predicates which cannot be described in this way return {@code null}.
+     *
+     * @return predicate description or null
+     */
+    default Spec spec() {
+        return null;
+    }
+
+    /**
+     * Kind of test performed by a predicate.
+     */
+    enum Op {
+        ALL,
+        NUM_LESS_EQUAL,
+        NUM_LESS,
+        NUM_GREATER_EQUAL,
+        NUM_GREATER,
+        BIN_EQUAL,
+        BIN_NOT_EQUAL,
+        NOM_EQUAL,
+        NOM_NOT_EQUAL
+    }
+
+    /**
+     * Primitive description of a predicate: the kind of test, the test variable name
+     * and the value to compare with. For binary tests the value is 1 for true and 0 for false,
+     * for nominal tests the label is used.
+     */
+    record Spec(Op op, String testName, double testValue, String testLabel) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = -2271850413874411254L;
+    }
+
     static RowPredicate all() {
         return new All();
     }
@@ -89,6 +125,11 @@ final class All implements RowPredicate {
         return true;
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.ALL, null, Double.NaN, null);
+    }
+
     @Override
     public String toString() {
         return "all";
@@ -105,6 +146,11 @@ record NumLessEqual(String testName, double testValue) implements RowPredicate {
         return df.getDouble(row, testName) <= testValue;
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.NUM_LESS_EQUAL, testName, testValue, null);
+    }
+
     @Override
     public String toString() {
         return testName + "<=" + Format.floatFlex(testValue);
@@ -123,6 +169,11 @@ record NumGreaterEqual(String testName, double testValue) implements RowPredicat
         return df.getDouble(row, testName) >= testValue;
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.NUM_GREATER_EQUAL, testName, testValue, null);
+    }
+
     @Override
     public String toString() {
         return testName + ">=" + Format.floatFlex(testValue);
@@ -142,6 +193,11 @@ record NumLess(String testName, double testValue) implements RowPredicate {
         return value < testValue;
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.NUM_LESS, testName, testValue, null);
+    }
+
     @Override
     public String toString() {
         return testName + "<" + Format.floatFlex(testValue);
@@ -161,6 +217,11 @@ record NumGreater(String testName, double testValue) implements RowPredicate {
         return value > testValue;
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.NUM_GREATER, testName, testValue, null);
+    }
+
     @Override
     public String toString() {
         return testName + ">" + Format.floatFlex(testValue);
@@ -179,6 +240,11 @@ record BinaryEqual(String testName, boolean testValue) implements RowPredicate {
         return df.getInt(row, testName) == (testValue ? 1 : 0);
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.BIN_EQUAL, testName, testValue ? 1 : 0, null);
+    }
+
     @Override
     public String toString() {
         return testName + "=" + (testValue ? 1 : 0);
@@ -197,6 +263,11 @@ record BinaryNotEqual(String testName, boolean testValue) implements RowPredicat
         return df.getInt(row, testName) != (testValue ? 1 : 0);
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.BIN_NOT_EQUAL, testName, testValue ? 1 : 0, null);
+    }
+
     @Override
     public String toString() {
         return testName + "!=" + (testValue ? 1 : 0);
@@ -215,6 +286,11 @@ record NominalEqual(String testName, String testValue) implements RowPredicate {
         return df.getLabel(row, testName).equals(testValue);
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.NOM_EQUAL, testName, Double.NaN, testValue);
+    }
+
     @Override
     public String toString() {
         return testName + "='" + testValue + "'";
@@ -233,6 +309,11 @@ record NominalNotEqual(String testName, String testValue) implements RowPredicat
         return !df.getLabel(row, testName).equals(testValue);
     }
 
+    @Override
+    public Spec spec() {
+        return new Spec(Op.NOM_NOT_EQUAL, testName, Double.NaN, testValue);
+    }
+
     @Override
     public String toString() {
         return testName + "!='" + testValue + "'";
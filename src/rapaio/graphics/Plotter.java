@@ -23,6 +23,7 @@ package rapaio.graphics;
 
 import rapaio.core.distributions.Distribution;
 import rapaio.core.distributions.empirical.KFunc;
+import rapaio.core.stat.Quantiles;
 import rapaio.core.tools.DistanceMatrix;
 import rapaio.core.tools.GridData;
 import rapaio.data.Frame;
@@ -47,6 +48,7 @@ import rapaio.graphics.opt.GOptionPch;
 import rapaio.graphics.opt.GOptionPoints;
 import rapaio.graphics.opt.GOptionPosition;
 import rapaio.graphics.opt.GOptionProb;
+import rapaio.graphics.opt.GOptionQuantiles;
 import rapaio.graphics.opt.GOptionSort;
 import rapaio.graphics.opt.GOptionStacked;
 import rapaio.graphics.opt.GOptionSz;
@@ -375,6 +377,10 @@ public final class Plotter {
         return new GOptionHorizontal(horizontal);
     }
 
+    public static GOptionQuantiles quantiles(Quantiles.Type type) {
+        return new GOptionQuantiles(type);
+    }
+
     public static GOptionLabels labels(String... labels) {
         return new GOptionLabels(labels);
     }
@@ -0,0 +1,48 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.graphics.opt;
+
+import rapaio.core.stat.Quantiles;
+
+import java.io.Serial;
+
+/**
+ * Type of quantiles computed by artists which draw quantiles, like box plots.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public record GOptionQuantiles(Quantiles.Type type) implements GOption<Quantiles.Type> {
+
+    @Serial
+    private static final long serialVersionUID = 4113542981627207419L;
+
+    @Override
+    public void bind(GOptions opts) {
+        opts.setQuantiles(this);
+    }
+
+    @Override
+    public Quantiles.Type apply(GOptions opts) {
+        return type;
+    }
+}
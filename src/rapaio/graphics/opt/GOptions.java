@@ -21,6 +21,7 @@
 
 package rapaio.graphics.opt;
 
+import rapaio.core.stat.Quantiles;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarInt;
@@ -60,6 +61,7 @@ public class GOptions implements Serializable {
         defaults.top = new GOptionTop(Integer.MAX_VALUE);
         defaults.sort = new GOptionSort(0);
         defaults.horizontal = new GOptionHorizontal(false);
+        defaults.quantiles = new GOptionQuantiles(Quantiles.Type.R7);
         defaults.widths = new GOptionWidths(new double[]{-1});
         defaults.heights = new GOptionHeights(new double[]{-1});
         defaults.labels = new GOptionLabels(new String[]{""});
@@ -85,6 +87,7 @@ public class GOptions implements Serializable {
     private GOptionTop top;
     private GOptionSort sort;
     private GOptionHorizontal horizontal;
+    private GOptionQuantiles quantiles;
     private GOptionWidths widths;
     private GOptionHeights heights;
     private GOptionLabels labels;
@@ -114,6 +117,7 @@ public class GOptions implements Serializable {
                 top,
                 sort,
                 horizontal,
+                quantiles,
                 widths,
                 heights,
                 labels,
@@ -336,6 +340,17 @@ public class GOptions implements Serializable {
         this.horizontal = horizontal;
     }
 
+    public Quantiles.Type getQuantiles() {
+        if (quantiles == null) {
+            return parent != null ? parent.getQuantiles() : defaults.quantiles.apply(this);
+        }
+        return quantiles.apply(this);
+    }
+
+    public void setQuantiles(GOptionQuantiles quantiles) {
+        this.quantiles = quantiles;
+    }
+
     public Sizes getWidths() {
         if (widths == null) {
             return parent != null ? parent.getWidths() : defaults.widths.apply(this);
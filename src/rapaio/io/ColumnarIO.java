@@ -0,0 +1,253 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import rapaio.data.Frame;
+import rapaio.data.PagedBuffer;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarBinaryOffHeap;
+import rapaio.data.VarDoubleOffHeap;
+import rapaio.data.VarIntOffHeap;
+import rapaio.data.VarLongOffHeap;
+import rapaio.data.VarNominalOffHeap;
+import rapaio.data.VarType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar binary file format for frames.
+ * <p>
+ * The file starts with a header which contains the number of rows, variable names, types,
+ * nominal levels and the position of each column block. Each variable is stored into a
+ * contiguous block aligned at 8 bytes, with fixed size little endian values:
+ * doubles (8 bytes), ints (4 bytes), longs (8 bytes), binary values (1 byte, -1 for missing)
+ * and nominal level indexes (2 bytes).
+ * <p>
+ * A stored file is restored by mapping column blocks into memory, thus restoring is done in constant
+ * time, values are loaded lazily by the operating system when they are accessed and are not copied
+ * on java heap. Restored variables are read only, a modifiable frame can be obtained with {@link Frame#copy()}.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public final class ColumnarIO {
+
+    private static final int MAGIC = 0x4c4f4352;
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final List<VarType> TYPES = List.of(VarType.DOUBLE, VarType.INT, VarType.LONG, VarType.BINARY, VarType.NOMINAL);
+
+    private ColumnarIO() {
+    }
+
+    public static void storeToFile(Frame df, String file) throws IOException {
+        storeToFile(df, new File(file));
+    }
+
+    /**
+     * Stores a frame in columnar format. Supported variable types are double, int, long, binary and nominal.
+     *
+     * @param df   frame to be stored
+     * @param file destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void storeToFile(Frame df, File file) throws IOException {
+        for (Var var : df.varList()) {
+            rowBytes(var.type());
+        }
+        byte[] header = header(df, new long[df.varCount()]);
+        long[] offsets = new long[df.varCount()];
+        long position = align(header.length);
+        for (int i = 0; i < df.varCount(); i++) {
+            offsets[i] = position;
+            position = align(position + (long) df.rowCount() * rowBytes(df.rvar(i).type()));
+        }
+        header = header(df, offsets);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, ByteBuffer.wrap(header), 0);
+            ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < df.varCount(); i++) {
+                Var var = df.rvar(i);
+                long pos = offsets[i];
+                block.clear();
+                for (int row = 0; row < df.rowCount(); row++) {
+                    if (block.remaining() < Long.BYTES) {
+                        block.flip();
+                        pos += write(channel, block, pos);
+                        block.clear();
+                    }
+                    switch (var.type()) {
+                        case DOUBLE -> block.putDouble(var.getDouble(row));
+                        case INT -> block.putInt(var.getInt(row));
+                        case LONG -> block.putLong(var.getLong(row));
+                        case BINARY -> block.put((byte) (var.isMissing(row) ? -1 : var.getInt(row)));
+                        default -> block.putShort((short) var.getInt(row));
+                    }
+                }
+                block.flip();
+                pos += write(channel, block, pos);
+            }
+        }
+    }
+
+    public static Frame restoreFromFile(String file) throws IOException {
+        return restoreFromFile(new File(file));
+    }
+
+    /**
+     * Restores a frame stored in columnar format. Column blocks are mapped into memory and
+     * are not read until values are accessed.
+     *
+     * @param file source file
+     * @return frame with off heap read only variables
+     * @throws IOException if the file cannot be read or it is not a columnar file
+     */
+    public static Frame restoreFromFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            read(channel, prefix, 0);
+            if (prefix.getInt(0) != MAGIC) {
+                throw new IOException("File is not in columnar format: " + file.getAbsolutePath());
+            }
+            if (prefix.getInt(4) != VERSION) {
+                throw new IOException("Unsupported columnar format version: " + prefix.getInt(4));
+            }
+            ByteBuffer header = ByteBuffer.allocate(prefix.getInt(8)).order(ByteOrder.LITTLE_ENDIAN);
+            read(channel, header, 0);
+            header.position(12);
+
+            int rows = header.getInt();
+            int varCount = header.getInt();
+            List<Var> vars = new ArrayList<>(varCount);
+            for (int i = 0; i < varCount; i++) {
+                VarType type = TYPES.get(header.get());
+                String name = getString(header);
+                long offset = header.getLong();
+                long bytes = (long) rows * rowBytes(type);
+                if (bytes > 0 && offset + bytes > channel.size()) {
+                    throw new IOException("Columnar file is truncated: " + file.getAbsolutePath());
+                }
+                PagedBuffer buffer = PagedBuffer.map(channel, FileChannel.MapMode.READ_ONLY, offset, bytes);
+                Var var = switch (type) {
+                    case DOUBLE -> VarDoubleOffHeap.wrap(buffer, rows);
+                    case INT -> VarIntOffHeap.wrap(buffer, rows);
+                    case LONG -> VarLongOffHeap.wrap(buffer, rows);
+                    case BINARY -> VarBinaryOffHeap.wrap(buffer, rows);
+                    default -> {
+                        int levelCount = header.getInt();
+                        List<String> levels = new ArrayList<>(levelCount);
+                        for (int j = 0; j < levelCount; j++) {
+                            levels.add(getString(header));
+                        }
+                        yield VarNominalOffHeap.wrap(buffer, rows, levels);
+                    }
+                };
+                vars.add(var.name(name));
+            }
+            return SolidFrame.byVars(rows, vars);
+        }
+    }
+
+    private static int rowBytes(VarType type) {
+        return switch (type) {
+            case DOUBLE, LONG -> 8;
+            case INT -> 4;
+            case NOMINAL -> 2;
+            case BINARY -> 1;
+            default -> throw new IllegalArgumentException("Variable type " + type.name() + " is not supported by columnar format.");
+        };
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static byte[] header(Frame df, long[] offsets) {
+        List<byte[]> names = new ArrayList<>();
+        List<List<byte[]>> levels = new ArrayList<>();
+        int size = 20;
+        for (Var var : df.varList()) {
+            byte[] name = var.name().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 1 + 4 + name.length + 8;
+            List<byte[]> varLevels = new ArrayList<>();
+            if (var.type() == VarType.NOMINAL) {
+                size += 4;
+                for (String level : var.levels().subList(1, var.levels().size())) {
+                    byte[] bytes = level.getBytes(StandardCharsets.UTF_8);
+                    varLevels.add(bytes);
+                    size += 4 + bytes.length;
+                }
+            }
+            levels.add(varLevels);
+        }
+        ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(size);
+        header.putInt(df.rowCount()).putInt(df.varCount());
+        for (int i = 0; i < df.varCount(); i++) {
+            header.put((byte) TYPES.indexOf(df.rvar(i).type()));
+            header.putInt(names.get(i).length).put(names.get(i));
+            header.putLong(offsets[i]);
+            if (df.rvar(i).type() == VarType.NOMINAL) {
+                header.putInt(levels.get(i).size());
+                for (byte[] level : levels.get(i)) {
+                    header.putInt(level.length).put(level);
+                }
+            }
+        }
+        return header.array();
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int len = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return len;
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of columnar file.");
+            }
+            position += read;
+        }
+    }
+}
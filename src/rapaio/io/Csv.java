@@ -127,6 +127,17 @@ public class Csv extends ParamSet<Csv> {
             "skipCols", "Skip rows predicate used to filter columns to be read");
     public final ValueParam<Frame, Csv> template = new ValueParam<>(this, null,
             "template", "Optional frame templated used to define variable names and type for reading", obj -> true);
+    /**
+     * Number of threads used by {@link #readParallel(File)}. Negative values means
+     * all available processors.
+     */
+    public final ValueParam<Integer, Csv> poolSize = new ValueParam<>(this, -1,
+            "poolSize", "Number of threads used for parallel reading, negative values means all available processors", x -> x != 0);
+    /**
+     * Number of rows used by {@link #readParallel(File)} to infer variable types.
+     */
+    public final ValueParam<Integer, Csv> sampleRows = new ValueParam<>(this, 10_000,
+            "sampleRows", "Number of rows used to infer variable types at parallel reading", x -> x > 0);
 
     public Frame read(File file) {
         try {
@@ -136,6 +147,49 @@ public class Csv extends ParamSet<Csv> {
         }
     }
 
+    /**
+     * Reads a csv file using multiple threads. The file is split into byte ranges at line boundaries
+     * which are parsed in parallel into primitive buffers. Variable types are inferred from the first
+     * {@link #sampleRows} rows and are upgraded if later rows contains values which does not fit.
+     * <p>
+     * Quoted values cannot span multiple lines and the file is decoded as UTF-8. If row filtering is used
+     * ({@link #startRow}, {@link #endRow}, {@link #skipRows}), if the separator or escape characters are
+     * not ascii or if variable types other than binary, int, long, double, nominal and string are requested,
+     * the file is read sequentially with {@link #read(File)}.
+     *
+     * @param file csv file
+     * @return parsed frame
+     */
+    public Frame readParallel(File file) {
+        if (!canReadParallel()) {
+            return read(file);
+        }
+        int threads = poolSize.get() < 0 ? Runtime.getRuntime().availableProcessors() : poolSize.get();
+        try {
+            return new ParallelCsvReader(this, threads, ParallelCsvReader.DEFAULT_CHUNK_BYTES).read(file);
+        } catch (IOException e) {
+            throw new RuntimeException("error at reading file: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    public Frame readParallel(String fileName) {
+        return readParallel(new File(fileName));
+    }
+
+    private boolean canReadParallel() {
+        if (startRow.get() != 0 || endRow.get() != Integer.MAX_VALUE || !skipRows.hasDefaultValue()) {
+            return false;
+        }
+        if (separatorChar.get() > 127 || escapeChar.get() > 127) {
+            return false;
+        }
+        if (!ParallelCsvReader.SUPPORTED_TYPES.containsAll(defaultTypes.get())
+                || !ParallelCsvReader.SUPPORTED_TYPES.containsAll(types.get().keySet())) {
+            return false;
+        }
+        return template.get() == null || template.get().varStream().allMatch(v -> ParallelCsvReader.SUPPORTED_TYPES.contains(v.type()));
+    }
+
     public Frame readGz(File file) {
         try {
             return read(new GZIPInputStream(new FileInputStream(file)));
@@ -214,27 +268,7 @@ public class Csv extends ParamSet<Csv> {
                         names.add("V" + (i + 1));
                     }
                     for (String colName : names) {
-                        if (template.get() != null) {
-                            String[] vn = template.get().varNames();
-                            boolean found = false;
-                            for (String name : vn) {
-                                if (name.equals(colName)) {
-                                    found = true;
-                                    break;
-                                }
-                            }
-                            if (found) {
-                                varSlots.add(new VarSlot(this, template.get().rvar(colName), 0));
-                                continue;
-                            }
-                        }
-                        VarType type = types.getReverseKey(colName);
-                        if (type != null) {
-                            varSlots.add(new VarSlot(this, type, 0));
-                        } else {
-                            // default type
-                            varSlots.add(new VarSlot(this, 0));
-                        }
+                        varSlots.add(newSlot(colName));
                     }
                 }
 
@@ -262,6 +296,12 @@ public class Csv extends ParamSet<Csv> {
                     varSlots.get(i).addValue(row.get(i));
                 }
             }
+            if (first) {
+                // no data lines, variables are built from header names only
+                for (String colName : names) {
+                    varSlots.add(newSlot(colName));
+                }
+            }
         }
         List<Var> variables = new ArrayList<>();
         for (int i = 0; i < varSlots.size(); i++) {
@@ -271,6 +311,15 @@ public class Csv extends ParamSet<Csv> {
         return SolidFrame.byVars(rows - startRow.get(), variables);
     }
 
+    private VarSlot newSlot(String colName) {
+        if (template.get() != null && Arrays.asList(template.get().varNames()).contains(colName)) {
+            return new VarSlot(this, template.get().rvar(colName), 0);
+        }
+        VarType type = types.getReverseKey(colName);
+        // default type if not specified
+        return type != null ? new VarSlot(this, type, 0) : new VarSlot(this, 0);
+    }
+
     public List<String> parseLine(String line) {
         List<String> data = new ArrayList<>();
         int start = 0;
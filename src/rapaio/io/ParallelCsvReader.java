@@ -0,0 +1,836 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarBinary;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarLong;
+import rapaio.data.VarNominal;
+import rapaio.data.VarString;
+import rapaio.data.VarType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Parallel csv file reader used by {@link Csv#readParallel(File)}.
+ * <p>
+ * The file is split into byte ranges which ends at line boundaries and each range is parsed
+ * by a separate task directly into primitive buffers, which are concatenated at the end
+ * into a solid frame. Column types are inferred from a sample of rows with exception free checks
+ * which follows the parsing rules of each variable type. If a range contains values which are
+ * not accepted by the inferred type of a column, the column type is upgraded to the next
+ * default type and the file is parsed again.
+ * <p>
+ * Lines are separated by {@code \n} or {@code \r\n} and quoted values cannot contain line separators.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+final class ParallelCsvReader {
+
+    static final List<VarType> SUPPORTED_TYPES = List.of(
+            VarType.BINARY, VarType.INT, VarType.LONG, VarType.DOUBLE, VarType.NOMINAL, VarType.STRING);
+
+    static final long DEFAULT_CHUNK_BYTES = 64L << 20;
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final int SCAN_BLOCK = 1 << 16;
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final Csv csv;
+    private final int threads;
+    private final long chunkBytes;
+    private final byte separator;
+    private final byte escape;
+    private final boolean strip;
+    private final byte[][] naValues;
+    private final List<VarType> defaults;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<VarType> types = new ArrayList<>();
+    private final List<Integer> autoIndexes = new ArrayList<>();
+    private final List<List<String>> initialLevels = new ArrayList<>();
+
+    ParallelCsvReader(Csv csv, int threads, long chunkBytes) {
+        this.csv = csv;
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+        this.separator = (byte) csv.separatorChar.get().charValue();
+        this.escape = (byte) csv.escapeChar.get().charValue();
+        this.strip = csv.stripSpaces.get();
+        // missing label is parsed as missing by all variable types, as sequential reader does
+        this.naValues = Stream.concat(csv.naValues.get().stream(), Stream.of(VarNominal.MISSING_VALUE))
+                .distinct().map(s -> s.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        this.defaults = csv.defaultTypes.get();
+    }
+
+    Frame read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = 0;
+            if (csv.header.get()) {
+                if (size == 0) {
+                    return null;
+                }
+                dataStart = nextLineStart(channel, 0, size);
+                byte[] headerBytes = readRange(channel, 0, dataStart);
+                int len = headerBytes.length;
+                while (len > 0 && (headerBytes[len - 1] == '\n' || headerBytes[len - 1] == '\r')) {
+                    len--;
+                }
+                names.addAll(csv.parseLine(new String(headerBytes, 0, len, StandardCharsets.UTF_8)));
+            }
+            defineColumns(names.size());
+            if (dataStart >= size) {
+                return assemble(List.of());
+            }
+            List<long[]> ranges = splitRanges(channel, dataStart, size);
+
+            // infer types from a sample of rows from the first range
+
+            byte[] first = readRange(channel, ranges.get(0)[0], ranges.get(0)[1]);
+            int sampleEnd = 0;
+            for (int i = 0; i < csv.sampleRows.get() && sampleEnd < first.length; i++) {
+                int eol = indexOf(first, (byte) '\n', sampleEnd, first.length);
+                sampleEnd = eol < 0 ? first.length : eol + 1;
+            }
+            while (true) {
+                Chunk sample = new ChunkParser(first, 0, sampleEnd).call();
+                if (!update(List.of(sample))) {
+                    break;
+                }
+            }
+
+            // parse all ranges until no type upgrade is needed
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                while (true) {
+                    List<Callable<Chunk>> tasks = new ArrayList<>();
+                    for (long[] range : ranges) {
+                        tasks.add(() -> {
+                            byte[] buff = readRange(channel, range[0], range[1]);
+                            return new ChunkParser(buff, 0, buff.length).call();
+                        });
+                    }
+                    List<Chunk> chunks = new ArrayList<>();
+                    for (Future<Chunk> future : pool.invokeAll(tasks)) {
+                        chunks.add(future.get());
+                    }
+                    if (!update(chunks)) {
+                        return assemble(chunks);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("parallel csv reading was interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                if (e.getCause() instanceof IOException ioe) {
+                    throw ioe;
+                }
+                throw new RuntimeException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private List<long[]> splitRanges(FileChannel channel, long start, long size) throws IOException {
+        long len = size - start;
+        long step = Math.max(1, Math.min(chunkBytes, Math.max(len / threads + 1, MIN_CHUNK_BYTES)));
+        List<long[]> ranges = new ArrayList<>();
+        long pos = start;
+        while (pos < size) {
+            long end = Math.min(size, pos + step);
+            if (end < size) {
+                end = nextLineStart(channel, end - 1, size);
+            }
+            if (end - pos > Integer.MAX_VALUE - 16) {
+                throw new IllegalArgumentException("Csv line is too large to be read in parallel.");
+            }
+            ranges.add(new long[]{pos, end});
+            pos = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * @return position after the first new line character found starting from given position, or size if not found
+     */
+    private static long nextLineStart(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(SCAN_BLOCK);
+        while (pos < size) {
+            bb.clear();
+            int read = channel.read(bb, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (bb.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private static byte[] readRange(FileChannel channel, long start, long end) throws IOException {
+        byte[] buff = new byte[(int) (end - start)];
+        ByteBuffer bb = ByteBuffer.wrap(buff);
+        long pos = start;
+        while (bb.hasRemaining()) {
+            int read = channel.read(bb, pos);
+            if (read < 0) {
+                throw new IOException("unexpected end of file at position " + pos);
+            }
+            pos += read;
+        }
+        return buff;
+    }
+
+    private static int indexOf(byte[] buff, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buff[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void defineColumns(int count) {
+        Frame template = csv.template.get();
+        for (int i = types.size(); i < count; i++) {
+            String name = i < names.size() ? names.get(i) : "V" + (i + 1);
+            if (i >= names.size()) {
+                names.add(name);
+            }
+            if (template != null && Arrays.asList(template.varNames()).contains(name)) {
+                Var var = template.rvar(name);
+                types.add(var.type());
+                autoIndexes.add(-1);
+                initialLevels.add(var.type() == VarType.NOMINAL ? var.levels() : List.of());
+                continue;
+            }
+            VarType type = csv.types.getReverseKey(name);
+            types.add(type == null ? defaults.get(0) : type);
+            autoIndexes.add(type == null ? 0 : -1);
+            initialLevels.add(List.of());
+        }
+    }
+
+    /**
+     * Applies the type upgrades and new columns found at parsing.
+     *
+     * @return true if the layout of columns has changed, false otherwise
+     */
+    private boolean update(List<Chunk> chunks) {
+        boolean changed = false;
+        int count = types.size();
+        for (Chunk chunk : chunks) {
+            count = Math.max(count, chunk.tokens);
+            for (int i = 0; i < chunk.upgrades.length; i++) {
+                if (chunk.upgrades[i] > autoIndexes.get(i)) {
+                    autoIndexes.set(i, chunk.upgrades[i]);
+                    types.set(i, defaults.get(chunk.upgrades[i]));
+                    changed = true;
+                }
+            }
+        }
+        if (count > types.size()) {
+            defineColumns(count);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private Frame assemble(List<Chunk> chunks) {
+        int rows = 0;
+        for (Chunk chunk : chunks) {
+            rows += chunk.rows;
+        }
+        List<Var> vars = new ArrayList<>();
+        for (int c = 0; c < types.size(); c++) {
+            Var var = switch (types.get(c)) {
+                case BINARY -> {
+                    VarBinary bin = VarBinary.empty(rows);
+                    int pos = 0;
+                    for (Chunk chunk : chunks) {
+                        byte[] values = (byte[]) chunk.buffers[c];
+                        for (int i = 0; i < chunk.rows; i++) {
+                            if (values[i] >= 0) {
+                                bin.setInt(pos + i, values[i]);
+                            }
+                        }
+                        pos += chunk.rows;
+                    }
+                    yield bin;
+                }
+                case INT -> {
+                    int[] values = new int[rows];
+                    int pos = 0;
+                    for (Chunk chunk : chunks) {
+                        System.arraycopy(chunk.buffers[c], 0, values, pos, chunk.rows);
+                        pos += chunk.rows;
+                    }
+                    yield VarInt.wrap(values);
+                }
+                case LONG -> {
+                    long[] values = new long[rows];
+                    int pos = 0;
+                    for (Chunk chunk : chunks) {
+                        System.arraycopy(chunk.buffers[c], 0, values, pos, chunk.rows);
+                        pos += chunk.rows;
+                    }
+                    yield VarLong.wrap(values);
+                }
+                case DOUBLE -> {
+                    double[] values = new double[rows];
+                    int pos = 0;
+                    for (Chunk chunk : chunks) {
+                        System.arraycopy(chunk.buffers[c], 0, values, pos, chunk.rows);
+                        pos += chunk.rows;
+                    }
+                    yield VarDouble.wrap(values);
+                }
+                case NOMINAL -> assembleNominal(chunks, c, rows);
+                default -> {
+                    List<String> values = new ArrayList<>(rows);
+                    for (Chunk chunk : chunks) {
+                        values.addAll(Arrays.asList((String[]) chunk.buffers[c]).subList(0, chunk.rows));
+                    }
+                    yield VarString.wrap(values);
+                }
+            };
+            vars.add(var.name(names.get(c)));
+        }
+        return SolidFrame.byVars(rows, vars);
+    }
+
+    private Var assembleNominal(List<Chunk> chunks, int c, int rows) {
+        // levels are merged in chunk order, which is the order of first appearance in file
+        List<String> levels = new ArrayList<>();
+        HashMap<String, Integer> index = new HashMap<>();
+        levels.add(VarNominal.MISSING_VALUE);
+        index.put(VarNominal.MISSING_VALUE, 0);
+        for (String level : initialLevels.get(c)) {
+            if (!index.containsKey(level)) {
+                index.put(level, levels.size());
+                levels.add(level);
+            }
+        }
+        for (Chunk chunk : chunks) {
+            for (String level : chunk.levels.get(c)) {
+                if (!index.containsKey(level)) {
+                    index.put(level, levels.size());
+                    levels.add(level);
+                }
+            }
+        }
+        if (levels.size() >= Short.MAX_VALUE - 1) {
+            throw new IllegalStateException("Cannot add new label since dictionary achieved it's maximum size.");
+        }
+        short[] values = new short[rows];
+        int pos = 0;
+        for (Chunk chunk : chunks) {
+            // chunk codes are positions in chunk levels, shifted by one, with 0 for missing values
+            List<String> local = chunk.levels.get(c);
+            short[] remap = new short[local.size() + 1];
+            for (int i = 0; i < local.size(); i++) {
+                remap[i + 1] = (short) index.get(local.get(i)).intValue();
+            }
+            int[] codes = (int[]) chunk.buffers[c];
+            for (int i = 0; i < chunk.rows; i++) {
+                values[pos + i] = remap[codes[i]];
+            }
+            pos += chunk.rows;
+        }
+        VarNominal nom = VarNominal.wrap(levels, values);
+        return nom;
+    }
+
+    /**
+     * Parsed content of a byte range.
+     */
+    private static final class Chunk {
+        int rows;
+        int tokens;
+        Object[] buffers;
+        List<List<String>> levels;
+        int[] upgrades;
+    }
+
+    /**
+     * Parses a byte range into primitive buffers. Instances are confined to a single thread.
+     */
+    private final class ChunkParser implements Callable<Chunk> {
+
+        private final byte[] buff;
+        private final int from;
+        private final int to;
+
+        private final VarType[] colTypes;
+        private final int[] colAuto;
+        private final List<HashMap<String, Integer>> dicts = new ArrayList<>();
+
+        // current token
+        private byte[] tokBuff;
+        private int tokOff;
+        private int tokLen;
+        private String tokStr;
+
+        // parsed values
+        private long longValue;
+        private double doubleValue;
+
+        ChunkParser(byte[] buff, int from, int to) {
+            this.buff = buff;
+            this.from = from;
+            this.to = to;
+            this.colTypes = types.toArray(VarType[]::new);
+            this.colAuto = autoIndexes.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        @Override
+        public Chunk call() {
+            int capacity = 0;
+            for (int i = from; i < to; i++) {
+                if (buff[i] == '\n') {
+                    capacity++;
+                }
+            }
+            if (to > from && buff[to - 1] != '\n') {
+                capacity++;
+            }
+
+            Chunk chunk = new Chunk();
+            chunk.buffers = new Object[colTypes.length];
+            chunk.levels = new ArrayList<>(colTypes.length);
+            chunk.upgrades = new int[colTypes.length];
+            Arrays.fill(chunk.upgrades, -1);
+            dicts.clear();
+            for (int c = 0; c < colTypes.length; c++) {
+                chunk.buffers[c] = switch (colTypes[c]) {
+                    case BINARY -> new byte[capacity];
+                    case INT -> new int[capacity];
+                    case LONG -> new long[capacity];
+                    case DOUBLE -> new double[capacity];
+                    case NOMINAL -> new int[capacity];
+                    default -> new String[capacity];
+                };
+                chunk.levels.add(new ArrayList<>());
+                dicts.add(new HashMap<>());
+            }
+
+            int pos = from;
+            int row = 0;
+            while (pos < to) {
+                int eol = indexOf(buff, (byte) '\n', pos, to);
+                int end = eol < 0 ? to : eol;
+                if (end > pos && buff[end - 1] == '\r') {
+                    end--;
+                }
+                parseLine(chunk, row++, pos, end);
+                pos = eol < 0 ? to : eol + 1;
+            }
+            chunk.rows = row;
+            return chunk;
+        }
+
+        /**
+         * Splits a line into tokens following the same rules as {@link Csv#parseLine(String)}.
+         */
+        private void parseLine(Chunk chunk, int row, int start, int len) {
+            int col = 0;
+            int colNum = 0;
+            while (start < len) {
+                int end = start;
+                boolean inQuotas = false;
+                while (end < len) {
+                    byte ch = buff[end++];
+                    if (!inQuotas && ch == '"') {
+                        inQuotas = true;
+                        continue;
+                    }
+                    if (inQuotas && ch == escape && end < len && buff[end] == '"') {
+                        end++;
+                        continue;
+                    }
+                    if (inQuotas && ch == '"') {
+                        if (escape == '"' && end < len && buff[end] == '"') {
+                            end++;
+                            continue;
+                        }
+                        inQuotas = false;
+                        continue;
+                    }
+                    if (!inQuotas && ch == separator) {
+                        end--;
+                        break;
+                    }
+                }
+                if (!csv.skipCols.get().test(colNum)) {
+                    if (col < colTypes.length) {
+                        token(start, end);
+                        store(chunk, col, row);
+                    }
+                    col++;
+                }
+                start = end + 1;
+                colNum++;
+            }
+            chunk.tokens = Math.max(chunk.tokens, col);
+            for (int c = col; c < colTypes.length; c++) {
+                storeMissing(chunk, c, row);
+            }
+        }
+
+        /**
+         * Prepares the cleaned value of a token. Plain ascii tokens without quotes are not copied,
+         * all other tokens are cleaned by {@link Csv#clean(String)}.
+         */
+        private void token(int start, int end) {
+            boolean plain = true;
+            for (int i = start; i < end; i++) {
+                if (buff[i] == '"' || buff[i] < 0) {
+                    plain = false;
+                    break;
+                }
+            }
+            if (plain) {
+                if (strip) {
+                    while (start < end && Character.isWhitespace(buff[start])) {
+                        start++;
+                    }
+                    while (end > start && Character.isWhitespace(buff[end - 1])) {
+                        end--;
+                    }
+                }
+                tokBuff = buff;
+                tokOff = start;
+                tokLen = end - start;
+                tokStr = null;
+            } else {
+                tokStr = csv.clean(new String(buff, start, end - start, StandardCharsets.UTF_8));
+                tokBuff = tokStr.getBytes(StandardCharsets.UTF_8);
+                tokOff = 0;
+                tokLen = tokBuff.length;
+            }
+        }
+
+        private String tokenString() {
+            if (tokStr == null) {
+                tokStr = new String(tokBuff, tokOff, tokLen, StandardCharsets.ISO_8859_1);
+            }
+            return tokStr;
+        }
+
+        private boolean isMissingToken() {
+            for (byte[] na : naValues) {
+                if (na.length == tokLen && Arrays.equals(na, 0, na.length, tokBuff, tokOff, tokOff + tokLen)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void store(Chunk chunk, int c, int row) {
+            if (isMissingToken()) {
+                storeMissing(chunk, c, row);
+                return;
+            }
+            boolean valid = switch (colTypes[c]) {
+                case BINARY -> {
+                    int value = parseBinary();
+                    ((byte[]) chunk.buffers[c])[row] = (byte) value;
+                    yield value >= 0;
+                }
+                case INT -> {
+                    boolean ok = parseLong() && longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE;
+                    ((int[]) chunk.buffers[c])[row] = ok ? (int) longValue : VarInt.MISSING_VALUE;
+                    yield ok;
+                }
+                case LONG -> {
+                    boolean ok = parseLong();
+                    ((long[]) chunk.buffers[c])[row] = ok ? longValue : VarLong.MISSING_VALUE;
+                    yield ok;
+                }
+                case DOUBLE -> {
+                    boolean ok = parseDouble();
+                    ((double[]) chunk.buffers[c])[row] = ok ? doubleValue : VarDouble.MISSING_VALUE;
+                    yield ok;
+                }
+                case NOMINAL -> {
+                    String label = tokenString();
+                    Integer code = dicts.get(c).get(label);
+                    if (code == null) {
+                        chunk.levels.get(c).add(label);
+                        code = chunk.levels.get(c).size();
+                        dicts.get(c).put(label, code);
+                    }
+                    ((int[]) chunk.buffers[c])[row] = code;
+                    yield true;
+                }
+                default -> {
+                    ((String[]) chunk.buffers[c])[row] = tokenString();
+                    yield true;
+                }
+            };
+            if (valid) {
+                return;
+            }
+            if (colAuto[c] >= 0) {
+                for (int i = colAuto[c] + 1; i < defaults.size(); i++) {
+                    if (accepts(defaults.get(i))) {
+                        chunk.upgrades[c] = Math.max(chunk.upgrades[c], i);
+                        return;
+                    }
+                }
+            }
+            throw new IllegalArgumentException(String.format("Could not parse value %s in type %s.", tokenString(), colTypes[c]));
+        }
+
+        private void storeMissing(Chunk chunk, int c, int row) {
+            switch (colTypes[c]) {
+                case BINARY -> ((byte[]) chunk.buffers[c])[row] = -1;
+                case INT -> ((int[]) chunk.buffers[c])[row] = VarInt.MISSING_VALUE;
+                case LONG -> ((long[]) chunk.buffers[c])[row] = VarLong.MISSING_VALUE;
+                case DOUBLE -> ((double[]) chunk.buffers[c])[row] = VarDouble.MISSING_VALUE;
+                case NOMINAL -> ((int[]) chunk.buffers[c])[row] = 0;
+                default -> ((String[]) chunk.buffers[c])[row] = VarString.MISSING_VALUE;
+            }
+        }
+
+        private boolean accepts(VarType type) {
+            return switch (type) {
+                case BINARY -> parseBinary() >= 0;
+                case INT -> parseLong() && longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE;
+                case LONG -> parseLong();
+                case DOUBLE -> parseDouble();
+                default -> true;
+            };
+        }
+
+        /**
+         * Follows the rules of {@link VarBinary#addLabel(String)}.
+         *
+         * @return 1 for true, 0 for false and -1 if the token is not a binary value
+         */
+        private int parseBinary() {
+            if (tokLen == 1) {
+                return tokBuff[tokOff] == '1' ? 1 : tokBuff[tokOff] == '0' ? 0 : -1;
+            }
+            if (equalsIgnoreCase("true")) {
+                return 1;
+            }
+            return equalsIgnoreCase("false") ? 0 : -1;
+        }
+
+        private boolean equalsIgnoreCase(String value) {
+            if (tokLen != value.length()) {
+                return false;
+            }
+            for (int i = 0; i < tokLen; i++) {
+                if (Character.toLowerCase(tokBuff[tokOff + i]) != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean equalsAt(int pos, int end, String value) {
+            if (end - pos != value.length()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (tokBuff[pos + i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Follows the rules of {@link Long#parseLong(String)} for decimal values.
+         */
+        private boolean parseLong() {
+            int i = tokOff;
+            int end = tokOff + tokLen;
+            if (i == end) {
+                return false;
+            }
+            boolean negative = false;
+            if (tokBuff[i] == '-' || tokBuff[i] == '+') {
+                negative = tokBuff[i] == '-';
+                if (++i == end) {
+                    return false;
+                }
+            }
+            long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+            long multmin = limit / 10;
+            long result = 0;
+            for (; i < end; i++) {
+                int digit = tokBuff[i] - '0';
+                if (digit < 0 || digit > 9 || result < multmin) {
+                    return false;
+                }
+                result *= 10;
+                if (result < limit + digit) {
+                    return false;
+                }
+                result -= digit;
+            }
+            longValue = negative ? result : -result;
+            return true;
+        }
+
+        /**
+         * Follows the rules of {@link VarDouble#addLabel(String)} and the decimal format of
+         * {@link Double#parseDouble(String)}. Values with at most 15 significant digits and
+         * no exponent are computed directly, the others are delegated to {@link Double#parseDouble(String)}.
+         */
+        private boolean parseDouble() {
+            int i = tokOff;
+            int end = tokOff + tokLen;
+            if (equalsAt(i, end, "Inf")) {
+                doubleValue = Double.POSITIVE_INFINITY;
+                return true;
+            }
+            if (equalsAt(i, end, "-Inf")) {
+                doubleValue = Double.NEGATIVE_INFINITY;
+                return true;
+            }
+            while (i < end && (tokBuff[i] & 0xff) <= ' ') {
+                i++;
+            }
+            while (end > i && (tokBuff[end - 1] & 0xff) <= ' ') {
+                end--;
+            }
+            if (i == end) {
+                return false;
+            }
+            int start = i;
+            boolean negative = false;
+            if (tokBuff[i] == '-' || tokBuff[i] == '+') {
+                negative = tokBuff[i] == '-';
+                i++;
+            }
+            if (equalsAt(i, end, "NaN")) {
+                doubleValue = Double.NaN;
+                return true;
+            }
+            if (equalsAt(i, end, "Infinity")) {
+                doubleValue = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+                return true;
+            }
+
+            long mantissa = 0;
+            int significant = 0;
+            int fraction = 0;
+            int digits = 0;
+            boolean exact = true;
+            boolean dot = false;
+            for (; i < end; i++) {
+                byte ch = tokBuff[i];
+                if (ch == '.' && !dot) {
+                    dot = true;
+                    continue;
+                }
+                int digit = ch - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                digits++;
+                if (significant > 0 || digit > 0) {
+                    significant++;
+                }
+                if (significant > 15) {
+                    exact = false;
+                    continue;
+                }
+                mantissa = mantissa * 10 + digit;
+                if (dot) {
+                    fraction++;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (i < end && (tokBuff[i] == 'e' || tokBuff[i] == 'E')) {
+                exact = false;
+                i++;
+                if (i < end && (tokBuff[i] == '-' || tokBuff[i] == '+')) {
+                    i++;
+                }
+                int expDigits = 0;
+                while (i < end && tokBuff[i] >= '0' && tokBuff[i] <= '9') {
+                    i++;
+                    expDigits++;
+                }
+                if (expDigits == 0) {
+                    return false;
+                }
+            }
+            if (i < end && (tokBuff[i] == 'f' || tokBuff[i] == 'F' || tokBuff[i] == 'd' || tokBuff[i] == 'D')) {
+                exact = false;
+                i++;
+            }
+            if (i != end) {
+                return false;
+            }
+            if (exact && fraction < POW10.length) {
+                double value = mantissa / POW10[fraction];
+                doubleValue = negative ? -value : value;
+            } else {
+                doubleValue = Double.parseDouble(new String(tokBuff, start, end - start, StandardCharsets.ISO_8859_1));
+            }
+            return true;
+        }
+    }
+}
@@ -30,6 +30,8 @@ import rapaio.math.linear.dense.DMatrixDense;
 import rapaio.math.linear.dense.DMatrixDenseC;
 import rapaio.math.linear.dense.DMatrixDenseR;
 import rapaio.math.linear.dense.DVectorDense;
+import rapaio.math.linear.sparse.DMatrixSparseC;
+import rapaio.math.linear.sparse.DMatrixSparseR;
 import rapaio.printer.Printable;
 import rapaio.util.NotImplementedException;
 import rapaio.util.function.Double2DoubleFunction;
@@ -55,6 +57,8 @@ public interface DMatrix extends Serializable, Printable {
             case BASE -> new DMatrixBase(rows, cols);
             case RDENSE -> new DMatrixDenseR(rows, cols);
             case CDENSE -> new DMatrixDenseC(rows, cols);
+            case RSPARSE -> new DMatrixSparseR(rows, cols);
+            case CSPARSE -> new DMatrixSparseC(rows, cols);
             default -> throw new NotImplementedException();
         };
     }
@@ -97,6 +101,8 @@ public interface DMatrix extends Serializable, Printable {
         DMatrix m = empty(type, rows, cols);
         switch (type) {
             case BASE:
+            case RSPARSE:
+            case CSPARSE:
                 if (fill != 0) {
                     for (int i = 0; i < m.rowCount(); i++) {
                         for (int j = 0; j < m.colCount(); j++) {
@@ -132,6 +138,12 @@ public interface DMatrix extends Serializable, Printable {
      * @return new matrix filled with value
      */
     static DMatrix fill(MType type, int rows, int cols, IntInt2DoubleBiFunction fun) {
+        if (type == MType.RSPARSE) {
+            return DMatrixSparseR.from(rows, cols, fun);
+        }
+        if (type == MType.CSPARSE) {
+            return DMatrixSparseC.from(rows, cols, fun);
+        }
         DMatrix m = empty(type, rows, cols);
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
@@ -259,6 +271,9 @@ public interface DMatrix extends Serializable, Printable {
     static DMatrix copy(MType type, Frame df) {
         int rows = df.rowCount();
         int cols = df.varCount();
+        if (type == MType.RSPARSE || type == MType.CSPARSE) {
+            return fill(type, rows, cols, (r, c) -> df.getDouble(r, c));
+        }
         DMatrix m = empty(type, rows, cols);
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
@@ -275,6 +290,9 @@ public interface DMatrix extends Serializable, Printable {
     static DMatrix copy(MType type, Var... vars) {
         int rows = vars[0].size();
         int cols = vars.length;
+        if (type == MType.RSPARSE || type == MType.CSPARSE) {
+            return fill(type, rows, cols, (r, c) -> vars[c].getDouble(r));
+        }
         DMatrix m = empty(type, rows, cols);
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
@@ -25,6 +25,7 @@ import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.math.linear.dense.DVectorDense;
 import rapaio.math.linear.dense.DVectorMap;
+import rapaio.math.linear.sparse.DVectorSparse;
 import rapaio.printer.Printable;
 import rapaio.util.collection.DoubleArrays;
 import rapaio.util.function.Double2DoubleFunction;
@@ -107,6 +108,9 @@ public interface DVector extends Serializable, Printable {
         if (type == VType.DENSE) {
             return new DVectorDense(n, DoubleArrays.newFill(n, fill));
         }
+        if (type == VType.SPARSE) {
+            return fill == 0 ? new DVectorSparse(n) : DVectorSparse.from(new DVectorDense(n, DoubleArrays.newFill(n, fill)));
+        }
         throw new IllegalArgumentException();
     }
 
@@ -22,6 +22,7 @@
 package rapaio.math.linear;
 
 import rapaio.math.linear.decomposition.CholeskyDecomposition;
+import rapaio.math.linear.decomposition.EigenDecompLanczos;
 import rapaio.math.linear.decomposition.EigenDecompStatistics;
 import rapaio.math.linear.decomposition.EigenDecompStrategy;
 
@@ -71,6 +72,23 @@ public final class Linear {
         return eigenDecompStrategy.getEigenDecomp(s, maxRuns, tol);
     }
 
+    /**
+     * Computes only the largest {@code k} eigen values and vectors of a symmetric matrix,
+     * sorted descending by eigen values.
+     *
+     * @param s       symmetric matrix
+     * @param k       number of eigen pairs
+     * @param maxRuns maximum number of iterations
+     * @param tol     tolerance
+     * @return eigen values and vectors
+     */
+    public static EigenPair eigenDecomp(DMatrix s, int k, int maxRuns, double tol) {
+
+        EigenDecompStrategy eigenDecompStrategy = new EigenDecompLanczos(k);
+
+        return eigenDecompStrategy.getEigenDecomp(s, maxRuns, tol);
+    }
+
     public static DMatrix pdPower(DMatrix s, double power, int maxRuns, double tol) {
         EigenPair eigenPair = eigenDecomp(s, maxRuns, tol);
         DMatrix U = eigenPair.vectors();
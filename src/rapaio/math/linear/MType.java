@@ -28,5 +28,7 @@ public enum MType {
     BASE,
     RDENSE,
     CDENSE,
-    MAP
+    MAP,
+    RSPARSE,
+    CSPARSE
 }
@@ -24,9 +24,13 @@ package rapaio.math.linear.decomposition;
 
 import rapaio.math.linear.DMatrix;
 import rapaio.math.linear.MType;
+import rapaio.math.linear.dense.DMatrixDense;
+import rapaio.math.linear.dense.DMatrixDenseR;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * Cholesky Decomposition.
@@ -35,16 +39,29 @@ import java.io.Serializable;
  * <p>
  * If the matrix is not symmetric or positive definite, the constructor returns a partial decomposition and sets an internal
  * flag that may be queried by the {@link #isSPD()} method.
+ * <p>
+ * Square dense matrices with more than {@link #BLOCK_SIZE} rows are decomposed with a blocked
+ * right looking algorithm. For each block of {@link #BLOCK_SIZE} columns the diagonal block is
+ * factorized, the rows below are solved in parallel and the trailing matrix is updated
+ * with a parallel dense matrix product.
  */
 public class CholeskyDecomposition implements Serializable {
 
     public static CholeskyDecomposition from(DMatrix a) {
+        if (a instanceof DMatrixDense && a.rowCount() == a.colCount() && a.rowCount() > BLOCK_SIZE) {
+            return new CholeskyDecomposition(a, BLOCK_SIZE);
+        }
         return new CholeskyDecomposition(a);
     }
 
     @Serial
     private static final long serialVersionUID = -3047433451986241586L;
 
+    /**
+     * Number of columns of a block in the blocked algorithm.
+     */
+    static final int BLOCK_SIZE = 64;
+
     /**
      * Array for internal storage of decomposition.
      */
@@ -98,6 +115,92 @@ public class CholeskyDecomposition implements Serializable {
         }
     }
 
+    /**
+     * Blocked Cholesky algorithm for symmetric and positive definite square matrix.
+     * The lower triangle of A is copied into the factor storage and overwritten in place.
+     *
+     * @param A         Square, symmetric matrix.
+     * @param blockSize number of columns of a block
+     */
+    private CholeskyDecomposition(DMatrix A, int blockSize) {
+        n = A.rowCount();
+        l = new double[n][n];
+
+        boolean[] asymmetric = new boolean[n];
+        IntStream.range(0, n).parallel().forEach(j -> {
+            double[] row = l[j];
+            for (int k = 0; k < j; k++) {
+                row[k] = A.get(j, k);
+                if (A.get(k, j) != row[k]) {
+                    asymmetric[j] = true;
+                }
+            }
+            row[j] = A.get(j, j);
+        });
+        boolean spd = true;
+        for (boolean flag : asymmetric) {
+            spd &= !flag;
+        }
+
+        for (int k = 0; k < n; k += blockSize) {
+            int end = Math.min(n, k + blockSize);
+
+            // factorize diagonal block
+            for (int j = k; j < end; j++) {
+                double[] Lrowj = l[j];
+                double d = 0.0;
+                for (int c = k; c < j; c++) {
+                    double[] Lrowc = l[c];
+                    double s = 0.0;
+                    for (int i = k; i < c; i++) {
+                        s += Lrowc[i] * Lrowj[i];
+                    }
+                    Lrowj[c] = s = (Lrowj[c] - s) / Lrowc[c];
+                    d = d + s * s;
+                }
+                d = Lrowj[j] - d;
+                if (d <= 0.0) {
+                    spd = false;
+                }
+                Lrowj[j] = Math.sqrt(Math.max(d, 0.0));
+            }
+            if (end == n) {
+                break;
+            }
+
+            // solve rows below diagonal block
+            int fk = k;
+            IntStream.range(end, n).parallel().forEach(r -> {
+                double[] Lrowr = l[r];
+                for (int c = fk; c < end; c++) {
+                    double[] Lrowc = l[c];
+                    double s = 0.0;
+                    for (int i = fk; i < c; i++) {
+                        s += Lrowc[i] * Lrowr[i];
+                    }
+                    Lrowr[c] = (Lrowr[c] - s) / Lrowc[c];
+                }
+            });
+
+            // update trailing matrix with L21 * L21'
+            int len = n - end;
+            double[][] panel = new double[len][];
+            for (int r = 0; r < len; r++) {
+                panel[r] = Arrays.copyOfRange(l[end + r], k, end);
+            }
+            DMatrixDenseR l21 = new DMatrixDenseR(len, end - k, panel);
+            double[][] prod = ((DMatrixDense) l21.dot(l21.t())).getElements();
+            IntStream.range(0, len).parallel().forEach(r -> {
+                double[] Lrowr = l[end + r];
+                double[] Prowr = prod[r];
+                for (int c = 0; c <= r; c++) {
+                    Lrowr[end + c] -= Prowr[c];
+                }
+            });
+        }
+        isspd = spd && A.colCount() == n;
+    }
+
 
 //    /**
 //     * Array for internal storage of right triangular decomposition.
@@ -0,0 +1,231 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.math.linear.decomposition;
+
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.math.linear.EigenPair;
+import rapaio.math.linear.dense.DMatrixDense;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the largest k eigen values and vectors of a symmetric matrix using the
+ * Lanczos algorithm with full reorthogonalization.
+ * <p>
+ * The Krylov basis is extended one vector at a time and the eigen values of the small
+ * tridiagonal projection (the Ritz values) are computed periodically. The iterations stop
+ * when the residuals of the top k Ritz pairs are below the tolerance relative to the
+ * largest Ritz value, when the maximum number of runs is reached or when the basis spans
+ * the whole space. Only matrix vector products with the input matrix are needed, thus it is
+ * much faster than a full decomposition when k is small compared with the matrix size.
+ * <p>
+ * The start vector and the new directions needed when an invariant subspace is found are
+ * drawn from a generator with a fixed seed, as in ARPACK.
+ * <p>
+ * Eigen values are sorted descending, eigen vectors are stored as columns in the same order.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public class EigenDecompLanczos extends EigenDecompStrategy {
+
+    /**
+     * Lowest relative tolerance which can be reached with double precision.
+     */
+    private static final double MIN_TOL = 1e-12;
+
+    /**
+     * Number of rows of a matrix vector product computed by a single parallel task.
+     */
+    private static final int ROW_BLOCK = 256;
+
+    private static final long SEED = 42;
+
+    private final int k;
+
+    public EigenDecompLanczos(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Number of eigen pairs must be positive.");
+        }
+        this.k = k;
+    }
+
+    @Override
+    public EigenPair getEigenDecomp(DMatrix s, int maxRuns, double tol) {
+        int n = s.rowCount();
+        if (s.colCount() != n) {
+            throw new IllegalArgumentException("Matrix must be square.");
+        }
+        int len = Math.min(k, n);
+        int maxDim = Math.min(n, Math.max(maxRuns, 2 * len));
+        double threshold = Math.max(tol, MIN_TOL);
+        int checkStep = Math.max(1, len / 2);
+
+        double[][] q = new double[maxDim][];
+        double[] alpha = new double[maxDim];
+        double[] beta = new double[maxDim];
+        SplittableRandom random = new SplittableRandom(SEED);
+        q[0] = randomUnit(random, q, 0, n);
+
+        double[] ritzValues = null;
+        DMatrix ritzVectors = null;
+        int dim = 0;
+        while (dim < maxDim) {
+            int j = dim;
+            double[] w = product(s, q[j]);
+            alpha[j] = dot(q[j], w);
+            axpy(-alpha[j], q[j], w);
+            if (j > 0) {
+                axpy(-beta[j - 1], q[j - 1], w);
+            }
+            // two passes of classical Gram-Schmidt keep the basis orthogonal
+            orthogonalize(q, j + 1, w);
+            orthogonalize(q, j + 1, w);
+            beta[j] = Math.sqrt(dot(w, w));
+            dim = j + 1;
+
+            double scale = Math.max(Math.abs(alpha[0]), 1.0);
+            boolean breakdown = beta[j] <= MIN_TOL * scale;
+            if (dim >= len && (dim == maxDim || breakdown || (dim - len) % checkStep == 0)) {
+                EigenDecomposition evd = EigenDecomposition.from(tridiagonal(alpha, beta, dim));
+                ritzValues = evd.getRealEigenvalues();
+                ritzVectors = evd.getV();
+                double largest = Math.max(Math.abs(ritzValues[0]), Math.abs(ritzValues[dim - 1]));
+                boolean converged = true;
+                for (int i = dim - 1; i >= dim - len; i--) {
+                    // residual norm of a Ritz pair is beta times the last component of its vector
+                    if (Math.abs(beta[j] * ritzVectors.get(dim - 1, i)) > threshold * largest) {
+                        converged = false;
+                        break;
+                    }
+                }
+                if (converged || dim == maxDim) {
+                    break;
+                }
+            }
+            if (dim == maxDim) {
+                break;
+            }
+            if (breakdown) {
+                // invariant subspace found, continue with a new direction
+                beta[j] = 0;
+                q[dim] = randomUnit(random, q, dim, n);
+            } else {
+                double inv = 1.0 / beta[j];
+                for (int i = 0; i < n; i++) {
+                    w[i] *= inv;
+                }
+                q[dim] = w;
+            }
+        }
+
+        // Ritz values are sorted ascending, the largest ones are the last
+        DVector values = DVector.zeros(len);
+        double[][] vectors = new double[n][len];
+        for (int c = 0; c < len; c++) {
+            int col = dim - 1 - c;
+            values.set(c, ritzValues[col]);
+            for (int p = 0; p < dim; p++) {
+                double y = ritzVectors.get(p, col);
+                double[] basis = q[p];
+                for (int i = 0; i < n; i++) {
+                    vectors[i][c] += y * basis[i];
+                }
+            }
+        }
+        return EigenPair.from(values, DMatrix.wrap(vectors));
+    }
+
+    private static DMatrix tridiagonal(double[] alpha, double[] beta, int dim) {
+        DMatrix t = DMatrix.empty(dim, dim);
+        for (int i = 0; i < dim; i++) {
+            t.set(i, i, alpha[i]);
+            if (i + 1 < dim) {
+                t.set(i, i + 1, beta[i]);
+                t.set(i + 1, i, beta[i]);
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Computes {@code s*x}. Rows of symmetric dense matrices are equal with their
+     * columns, thus stored arrays are used directly regardless of storage order.
+     */
+    private static double[] product(DMatrix s, double[] x) {
+        int n = x.length;
+        if (s instanceof DMatrixDense dense) {
+            double[][] rows = dense.getElements();
+            double[] y = new double[n];
+            IntStream.range(0, (n + ROW_BLOCK - 1) / ROW_BLOCK).parallel().forEach(block -> {
+                int end = Math.min(n, (block + 1) * ROW_BLOCK);
+                for (int i = block * ROW_BLOCK; i < end; i++) {
+                    y[i] = dot(rows[i], x);
+                }
+            });
+            return y;
+        }
+        DVector y = s.dot(DVector.wrap(x));
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = y.get(i);
+        }
+        return result;
+    }
+
+    private static double[] randomUnit(SplittableRandom random, double[][] q, int count, int n) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble(-1, 1);
+        }
+        orthogonalize(q, count, x);
+        orthogonalize(q, count, x);
+        double inv = 1.0 / Math.sqrt(dot(x, x));
+        for (int i = 0; i < n; i++) {
+            x[i] *= inv;
+        }
+        return x;
+    }
+
+    private static void orthogonalize(double[][] q, int count, double[] x) {
+        double[] proj = IntStream.range(0, count).parallel().mapToDouble(p -> dot(q[p], x)).toArray();
+        for (int p = 0; p < count; p++) {
+            axpy(-proj[p], q[p], x);
+        }
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double s = 0.0;
+        for (int i = 0; i < b.length; i++) {
+            s += a[i] * b[i];
+        }
+        return s;
+    }
+
+    private static void axpy(double a, double[] x, double[] y) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] += a * x[i];
+        }
+    }
+}
@@ -23,9 +23,12 @@ package rapaio.math.linear.decomposition;
 
 import rapaio.math.linear.DMatrix;
 import rapaio.math.linear.DVector;
+import rapaio.math.linear.dense.DMatrixDense;
+import rapaio.math.linear.dense.DMatrixDenseC;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.stream.IntStream;
 
 /**
  * QR Decomposition.
@@ -36,19 +39,48 @@ import java.io.Serializable;
  * The QR decomposition always exists, even if the matrix does not have
  * full rank.  The primary use of the QR decomposition is in the least squares solution
  * of non square systems of simultaneous linear equations. This will fail if A is not of full rank.
+ * <p>
+ * Dense matrices with more than {@link #BLOCK_SIZE} columns and at least as many rows as columns
+ * are decomposed with a blocked algorithm. Householder reflections are computed on panels
+ * of {@link #BLOCK_SIZE} columns and each panel is applied to the trailing columns at once,
+ * in its compact form {@code I - V*T*V'}, in parallel over groups of columns. The reflections
+ * are the same as the ones of the column at a time algorithm, only the rounding errors differ.
  */
 public class QRDecomposition implements Serializable {
 
     public static QRDecomposition from(DMatrix A) {
+        if (A instanceof DMatrixDense && A.colCount() > BLOCK_SIZE && A.rowCount() >= A.colCount()) {
+            return blocked(A);
+        }
         return new QRDecomposition(A);
     }
 
     @Serial
     private static final long serialVersionUID = -8322866575684242727L;
 
+    /**
+     * Number of columns of a panel in the blocked algorithm.
+     */
+    static final int BLOCK_SIZE = 64;
+
+    /**
+     * Number of trailing columns updated by a single parallel task.
+     */
+    private static final int COL_CHUNK = 16;
+
+    /**
+     * Number of rows of a panel kept in cache while updating a group of trailing columns.
+     */
+    private static final int ROW_BLOCK = 512;
+
     private final DMatrix QR;
     private final DVector Rdiag;
 
+    private QRDecomposition(DMatrix QR, DVector Rdiag) {
+        this.QR = QR;
+        this.Rdiag = Rdiag;
+    }
+
     private QRDecomposition(DMatrix A) {
         // Initialize.
         QR = A.copy();
@@ -88,6 +120,187 @@ public class QRDecomposition implements Serializable {
         }
     }
 
+    private static QRDecomposition blocked(DMatrix A) {
+        int m = A.rowCount();
+        int n = A.colCount();
+
+        // the decomposition is computed in place on column arrays
+        double[][] qr = new double[n][];
+        IntStream.range(0, n).parallel().forEach(j -> {
+            double[] col = new double[m];
+            for (int i = 0; i < m; i++) {
+                col[i] = A.get(i, j);
+            }
+            qr[j] = col;
+        });
+        double[] rdiag = new double[n];
+
+        for (int k = 0; k < n; k += BLOCK_SIZE) {
+            int nb = Math.min(BLOCK_SIZE, n - k);
+            factorPanel(qr, rdiag, m, k, nb);
+            if (k + nb < n) {
+                updateTrailing(qr, m, n, k, nb, panelT(qr, m, k, nb));
+            }
+        }
+        return new QRDecomposition(new DMatrixDenseC(m, n, qr), DVector.wrap(rdiag));
+    }
+
+    /**
+     * Computes the Householder reflections of columns {@code [k, k+nb)} and applies them
+     * only to the columns of the same panel.
+     */
+    private static void factorPanel(double[][] qr, double[] rdiag, int m, int k, int nb) {
+        for (int c = k; c < k + nb; c++) {
+            double[] v = qr[c];
+            double nrm = norm(v, c, m);
+            if (nrm != 0.0) {
+                if (v[c] < 0) {
+                    nrm = -nrm;
+                }
+                for (int i = c; i < m; i++) {
+                    v[i] /= nrm;
+                }
+                v[c] += 1.0;
+
+                int fc = c;
+                IntStream.range(c + 1, k + nb).parallel().forEach(j -> {
+                    double[] a = qr[j];
+                    double s = 0.0;
+                    for (int i = fc; i < m; i++) {
+                        s += v[i] * a[i];
+                    }
+                    s = -s / v[fc];
+                    for (int i = fc; i < m; i++) {
+                        a[i] += s * v[i];
+                    }
+                });
+            }
+            rdiag[c] = -nrm;
+        }
+    }
+
+    /**
+     * Builds the upper triangular factor T of the panel, such that the product
+     * of panel reflections {@code H(k)*H(k+1)*...*H(k+nb-1)} equals {@code I - V*T*V'}.
+     * Each reflection of the panel is {@code I - tau*v*v'} with {@code tau = 1/v[c]}.
+     */
+    private static double[][] panelT(double[][] qr, int m, int k, int nb) {
+        double[][] t = new double[nb][nb];
+        for (int p = 0; p < nb; p++) {
+            int c = k + p;
+            double[] v = qr[c];
+            double tau = v[c] == 0 ? 0 : 1.0 / v[c];
+            t[p][p] = tau;
+            if (p == 0 || tau == 0) {
+                continue;
+            }
+            // z = V(:, 0:p)' * v, the previous reflections are zero above their diagonals
+            double[] z = IntStream.range(0, p).parallel().mapToDouble(q -> {
+                double[] u = qr[k + q];
+                double s = 0.0;
+                for (int i = c; i < m; i++) {
+                    s += u[i] * v[i];
+                }
+                return s;
+            }).toArray();
+            // T(0:p, p) = -tau * T(0:p, 0:p) * z
+            for (int i = 0; i < p; i++) {
+                double s = 0.0;
+                for (int j = i; j < p; j++) {
+                    s += t[i][j] * z[j];
+                }
+                t[i][p] = -tau * s;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Applies the transposed panel transformation {@code I - V*T'*V'} to columns
+     * {@code [k+nb, n)}. Groups of {@link #COL_CHUNK} columns are updated in parallel
+     * and rows are visited in blocks, thus the reflections are reused from cache.
+     */
+    private static void updateTrailing(double[][] qr, int m, int n, int k, int nb, double[][] t) {
+        int start = k + nb;
+        int chunks = (n - start + COL_CHUNK - 1) / COL_CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int j0 = start + chunk * COL_CHUNK;
+            int cw = Math.min(COL_CHUNK, n - j0);
+
+            // W = V' * A2
+            double[][] w = new double[nb][cw];
+            for (int r0 = k; r0 < m; r0 += ROW_BLOCK) {
+                int r1 = Math.min(m, r0 + ROW_BLOCK);
+                for (int p = 0; p < nb; p++) {
+                    int from = Math.max(r0, k + p);
+                    if (from >= r1) {
+                        continue;
+                    }
+                    double[] v = qr[k + p];
+                    for (int c = 0; c < cw; c++) {
+                        double[] a = qr[j0 + c];
+                        double s = 0.0;
+                        for (int i = from; i < r1; i++) {
+                            s += v[i] * a[i];
+                        }
+                        w[p][c] += s;
+                    }
+                }
+            }
+
+            // W = T' * W, T is upper triangular
+            for (int p = nb - 1; p >= 0; p--) {
+                for (int c = 0; c < cw; c++) {
+                    double s = 0.0;
+                    for (int q = 0; q <= p; q++) {
+                        s += t[q][p] * w[q][c];
+                    }
+                    w[p][c] = s;
+                }
+            }
+
+            // A2 = A2 - V * W
+            for (int r0 = k; r0 < m; r0 += ROW_BLOCK) {
+                int r1 = Math.min(m, r0 + ROW_BLOCK);
+                for (int c = 0; c < cw; c++) {
+                    double[] a = qr[j0 + c];
+                    for (int p = 0; p < nb; p++) {
+                        int from = Math.max(r0, k + p);
+                        double s = w[p][c];
+                        if (from >= r1 || s == 0) {
+                            continue;
+                        }
+                        double[] v = qr[k + p];
+                        for (int i = from; i < r1; i++) {
+                            a[i] -= s * v[i];
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the 2-norm of {@code x[from, to)}, values are scaled by the largest
+     * absolute value to avoid under/overflow.
+     */
+    private static double norm(double[] x, int from, int to) {
+        double scale = 0.0;
+        for (int i = from; i < to; i++) {
+            scale = Math.max(scale, Math.abs(x[i]));
+        }
+        if (scale == 0.0 || !Double.isFinite(scale)) {
+            return scale;
+        }
+        double inv = 1.0 / scale;
+        double ss = 0.0;
+        for (int i = from; i < to; i++) {
+            double y = x[i] * inv;
+            ss += y * y;
+        }
+        return scale * Math.sqrt(ss);
+    }
+
     /**
      * Is the matrix full rank?
      *
@@ -186,6 +399,9 @@ public class QRDecomposition implements Serializable {
         if (!isFullRank()) {
             throw new RuntimeException("Matrix is rank deficient.");
         }
+        if (QR instanceof DMatrixDenseC dense) {
+            return solveColumns(dense.getElements(), B);
+        }
 
         // Copy right hand side
         DMatrix X = B.copy();
@@ -217,4 +433,44 @@ public class QRDecomposition implements Serializable {
         }
         return X.rangeRows(0, QR.colCount()).rangeCols(0, B.colCount()).copy();
     }
+
+    /**
+     * Same algorithm as {@link #solve(DMatrix)} for column major storage,
+     * which works on arrays and solves each right hand side column in parallel.
+     */
+    private DMatrix solveColumns(double[][] qr, DMatrix B) {
+        int m = QR.rowCount();
+        int n = QR.colCount();
+        double[][] x = new double[B.colCount()][];
+        IntStream.range(0, B.colCount()).parallel().forEach(j -> {
+            double[] y = new double[m];
+            for (int i = 0; i < m; i++) {
+                y[i] = B.get(i, j);
+            }
+
+            // Compute Y = transpose(Q)*B
+            for (int k = 0; k < n; k++) {
+                double[] v = qr[k];
+                double s = 0.0;
+                for (int i = k; i < m; i++) {
+                    s += v[i] * y[i];
+                }
+                s = -s / v[k];
+                for (int i = k; i < m; i++) {
+                    y[i] += s * v[i];
+                }
+            }
+
+            // Solve R*X = Y;
+            for (int k = n - 1; k >= 0; k--) {
+                y[k] /= Rdiag.get(k);
+                double[] r = qr[k];
+                for (int i = 0; i < k; i++) {
+                    y[i] -= y[k] * r[i];
+                }
+            }
+            x[j] = y;
+        });
+        return new DMatrixDenseC(m, B.colCount(), x).rangeRows(0, n).copy();
+    }
 }
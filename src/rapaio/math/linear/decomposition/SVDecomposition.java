@@ -26,6 +26,7 @@ import rapaio.math.linear.DVector;
 import rapaio.math.linear.MType;
 
 import java.io.Serial;
+import java.util.Arrays;
 
 import static java.lang.StrictMath.hypot;
 
@@ -52,6 +53,77 @@ public class SVDecomposition implements java.io.Serializable {
         return new SVDecomposition(A);
     }
 
+    /**
+     * Computes a truncated singular value decomposition with the randomized algorithm
+     * of Halko, Martinsson and Tropp, with 10 oversampling columns and 2 power iterations.
+     *
+     * @param A matrix to decompose
+     * @param k number of singular values and vectors
+     * @return truncated decomposition
+     * @see #randomized(DMatrix, int, int, int)
+     */
+    public static SVDecomposition randomized(DMatrix A, int k) {
+        return randomized(A, k, 10, 2);
+    }
+
+    /**
+     * Computes a truncated singular value decomposition with the randomized algorithm
+     * of Halko, Martinsson and Tropp.
+     * <p>
+     * The range of A is sampled by multiplying A with a random gaussian matrix of
+     * {@code k + oversampling} columns. The sample is refined with power iterations,
+     * which are orthonormalized at each step, and the exact decomposition of A projected
+     * on the sampled range gives the first k singular values and vectors. Only products
+     * with A and decompositions of small matrices are computed. Unlike the full decomposition,
+     * A can have fewer rows than columns.
+     * <p>
+     * The result contains U with k columns, k singular values and V with k columns.
+     *
+     * @param A               matrix to decompose
+     * @param k               number of singular values and vectors
+     * @param oversampling    number of additional random samples
+     * @param powerIterations number of power iterations
+     * @return truncated decomposition
+     */
+    public static SVDecomposition randomized(DMatrix A, int k, int oversampling, int powerIterations) {
+        int m = A.rowCount();
+        int n = A.colCount();
+        if (k < 1 || k > Math.min(m, n)) {
+            throw new IllegalArgumentException("Number of singular values must be positive and at most the smallest dimension.");
+        }
+        if (oversampling < 0 || powerIterations < 0) {
+            throw new IllegalArgumentException("Oversampling and power iterations must be non negative.");
+        }
+        int l = Math.min(k + oversampling, Math.min(m, n));
+
+        DMatrix q = orthonormal(A.dot(DMatrix.random(n, l)));
+        for (int i = 0; i < powerIterations; i++) {
+            DMatrix z = orthonormal(A.t().dot(q));
+            q = orthonormal(A.dot(z));
+        }
+
+        // B = Q'A has few rows, its transpose is decomposed: B' = Ub*S*Vb', thus B = Vb*S*Ub'
+        SVDecomposition svd = new SVDecomposition(A.t().dot(q));
+        DMatrix u = q.dot(svd.getV());
+        DMatrix v = svd.getU();
+
+        double[][] uk = new double[m][k];
+        double[][] vk = new double[n][k];
+        for (int j = 0; j < k; j++) {
+            for (int i = 0; i < m; i++) {
+                uk[i][j] = u.get(i, j);
+            }
+            for (int i = 0; i < n; i++) {
+                vk[i][j] = v.get(i, j);
+            }
+        }
+        return new SVDecomposition(uk, vk, Arrays.copyOf(svd.getSingularValues(), k), m);
+    }
+
+    private static DMatrix orthonormal(DMatrix y) {
+        return QRDecomposition.from(y).getQ();
+    }
+
     private final double[][] u;
     private final double[][] v;
     private final double[] s;
@@ -62,6 +134,17 @@ public class SVDecomposition implements java.io.Serializable {
     private static final boolean wantv = true;
     private final int minCount;
 
+    private SVDecomposition(double[][] u, double[][] v, double[] s, int rowCount) {
+        this.u = u;
+        this.v = v;
+        this.s = s;
+        this.rowCount = rowCount;
+        this.colCount = s.length;
+        this.minCount = s.length;
+        this.nct = 0;
+        this.nrt = 0;
+    }
+
     private SVDecomposition(DMatrix Arg) {
 
         // Derived from LINPACK code.
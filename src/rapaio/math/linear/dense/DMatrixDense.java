@@ -24,6 +24,7 @@ package rapaio.math.linear.dense;
 import rapaio.math.linear.DMatrix;
 import rapaio.math.linear.MType;
 import rapaio.math.linear.base.AbstractDMatrix;
+import rapaio.math.linear.sparse.DMatrixSparse;
 import rapaio.util.function.Double2DoubleFunction;
 
 import java.io.Serial;
@@ -89,6 +90,21 @@ public abstract class DMatrixDense extends AbstractDMatrix {
         return values;
     }
 
+    /**
+     * Products of dense matrices are computed with a blocked and parallel algorithm.
+     */
+    @Override
+    public DMatrix dot(DMatrix b) {
+        if (b instanceof DMatrixDense bd && colCount == b.rowCount()) {
+            return DenseGemm.dot(this, bd);
+        }
+        if (b instanceof DMatrixSparse bs && colCount == b.rowCount()) {
+            // (A B)^T = B^T A^T, which visits only the stored values of the sparse matrix
+            return bs.t().dot(t()).t();
+        }
+        return super.dot(b);
+    }
+
     @Override
     public DMatrix apply(Double2DoubleFunction fun) {
         for (int i = 0; i < values.length; i++) {
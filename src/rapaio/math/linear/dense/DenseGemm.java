@@ -0,0 +1,251 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.dense;
+
+import rapaio.math.linear.MType;
+
+import java.util.stream.IntStream;
+
+/**
+ * General matrix multiplication for dense matrices.
+ * <p>
+ * The implementation follows the layout of blocked GEMM routines: the right hand
+ * matrix is split in blocks of {@link #KC} rows which are packed into contiguous
+ * panels of {@link #NR} columns, the left hand matrix is split in blocks of {@link #MC}
+ * rows which are packed into panels of {@link #MR} rows, and a micro kernel computes
+ * {@code MR x NR} tiles of the result with all values held in local variables.
+ * Blocks of the result are computed in parallel on the common fork join pool.
+ * <p>
+ * Both row major and column major dense storages are read directly,
+ * the result is always a row major dense matrix. Products are accumulated with
+ * fused multiply add, as in {@link DVectorDense#dot(rapaio.math.linear.DVector)}, thus when
+ * the inner dimension fits in a single block the results are the same as the ones
+ * computed with dot products of rows and columns.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+final class DenseGemm {
+
+    static final int MR = 4;
+    static final int NR = 4;
+    static final int MC = 64;
+    static final int KC = 256;
+    static final int NC = 4096;
+
+    /**
+     * Number of result columns computed by a single parallel task.
+     */
+    private static final int TASK_COLS = 512;
+
+    /**
+     * Below this number of multiplications the product is computed without packing.
+     */
+    private static final long SMALL_FLOPS = 32 * 32 * 32;
+
+    private DenseGemm() {
+    }
+
+    static DMatrixDenseR dot(DMatrixDense a, DMatrixDense b) {
+        int m = a.rowCount();
+        int k = a.colCount();
+        int n = b.colCount();
+        if (k != b.rowCount()) {
+            throw new IllegalArgumentException(
+                    String.format("Matrices not conformant for multiplication: (%d,%d) x (%d,%d)",
+                            m, k, b.rowCount(), n));
+        }
+        DMatrixDenseR c = new DMatrixDenseR(m, n);
+        if (m == 0 || n == 0 || k == 0) {
+            return c;
+        }
+        if ((long) m * n * k <= SMALL_FLOPS) {
+            small(a, b, c.values, m, n, k);
+            return c;
+        }
+        double[][] cv = c.values;
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            int panels = (nc + NR - 1) / NR;
+            int icBlocks = (m + MC - 1) / MC;
+            int jBlocks = (nc + TASK_COLS - 1) / TASK_COLS;
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                double[] bp = new double[panels * NR * kc];
+                int fjc = jc;
+                int fpc = pc;
+                IntStream.range(0, panels).parallel().forEach(jp -> packB(b, bp, fpc, kc, fjc, nc, jp));
+                IntStream.range(0, icBlocks * jBlocks).parallel().forEach(task -> {
+                    int ic = (task / jBlocks) * MC;
+                    int mc = Math.min(MC, m - ic);
+                    int jStart = (task % jBlocks) * TASK_COLS;
+                    int jEnd = Math.min(nc, jStart + TASK_COLS);
+                    double[] ap = new double[((mc + MR - 1) / MR) * MR * kc];
+                    packA(a, ap, ic, mc, fpc, kc);
+                    double[] tile = new double[MR * NR];
+                    for (int jr = jStart; jr < jEnd; jr += NR) {
+                        int nr = Math.min(NR, jEnd - jr);
+                        int bOff = (jr / NR) * NR * kc;
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            int mr = Math.min(MR, mc - ir);
+                            micro(kc, ap, ir * kc, bp, bOff, tile);
+                            for (int i = 0; i < mr; i++) {
+                                double[] row = cv[ic + ir + i];
+                                for (int j = 0; j < nr; j++) {
+                                    row[fjc + jr + j] += tile[i * NR + j];
+                                }
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Packs rows {@code [ic, ic+mc)} and columns {@code [pc, pc+kc)} of the left matrix
+     * into panels of {@link #MR} rows, each panel stored column after column.
+     * Missing rows of the last panel are left as zeros.
+     */
+    private static void packA(DMatrixDense a, double[] ap, int ic, int mc, int pc, int kc) {
+        double[][] v = a.values;
+        if (a.type == MType.RDENSE) {
+            for (int i = 0; i < mc; i++) {
+                double[] row = v[ic + i];
+                int off = (i / MR) * MR * kc + (i % MR);
+                for (int p = 0; p < kc; p++) {
+                    ap[off + p * MR] = row[pc + p];
+                }
+            }
+        } else {
+            for (int p = 0; p < kc; p++) {
+                double[] col = v[pc + p];
+                for (int i = 0; i < mc; i++) {
+                    ap[(i / MR) * MR * kc + p * MR + (i % MR)] = col[ic + i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs rows {@code [pc, pc+kc)} of panel {@code jp} of the right matrix block
+     * starting at column {@code jc}. Missing columns of the last panel are left as zeros.
+     */
+    private static void packB(DMatrixDense b, double[] bp, int pc, int kc, int jc, int nc, int jp) {
+        double[][] v = b.values;
+        int j0 = jp * NR;
+        int nr = Math.min(NR, nc - j0);
+        int off = jp * NR * kc;
+        if (b.type == MType.RDENSE) {
+            for (int p = 0; p < kc; p++) {
+                double[] row = v[pc + p];
+                System.arraycopy(row, jc + j0, bp, off + p * NR, nr);
+            }
+        } else {
+            for (int j = 0; j < nr; j++) {
+                double[] col = v[jc + j0 + j];
+                for (int p = 0; p < kc; p++) {
+                    bp[off + p * NR + j] = col[pc + p];
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes a {@code MR x NR} tile as the product of a packed panel from the left matrix
+     * and a packed panel from the right matrix. Accumulators are kept in local variables.
+     */
+    private static void micro(int kc, double[] ap, int aOff, double[] bp, int bOff, double[] tile) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        int ai = aOff;
+        int bi = bOff;
+        for (int p = 0; p < kc; p++, ai += MR, bi += NR) {
+            double a0 = ap[ai];
+            double a1 = ap[ai + 1];
+            double a2 = ap[ai + 2];
+            double a3 = ap[ai + 3];
+            double b0 = bp[bi];
+            double b1 = bp[bi + 1];
+            double b2 = bp[bi + 2];
+            double b3 = bp[bi + 3];
+            c00 = Math.fma(a0, b0, c00);
+            c01 = Math.fma(a0, b1, c01);
+            c02 = Math.fma(a0, b2, c02);
+            c03 = Math.fma(a0, b3, c03);
+            c10 = Math.fma(a1, b0, c10);
+            c11 = Math.fma(a1, b1, c11);
+            c12 = Math.fma(a1, b2, c12);
+            c13 = Math.fma(a1, b3, c13);
+            c20 = Math.fma(a2, b0, c20);
+            c21 = Math.fma(a2, b1, c21);
+            c22 = Math.fma(a2, b2, c22);
+            c23 = Math.fma(a2, b3, c23);
+            c30 = Math.fma(a3, b0, c30);
+            c31 = Math.fma(a3, b1, c31);
+            c32 = Math.fma(a3, b2, c32);
+            c33 = Math.fma(a3, b3, c33);
+        }
+        tile[0] = c00;
+        tile[1] = c01;
+        tile[2] = c02;
+        tile[3] = c03;
+        tile[4] = c10;
+        tile[5] = c11;
+        tile[6] = c12;
+        tile[7] = c13;
+        tile[8] = c20;
+        tile[9] = c21;
+        tile[10] = c22;
+        tile[11] = c23;
+        tile[12] = c30;
+        tile[13] = c31;
+        tile[14] = c32;
+        tile[15] = c33;
+    }
+
+    /**
+     * Plain product for small matrices, where packing does not pay off.
+     */
+    private static void small(DMatrixDense a, DMatrixDense b, double[][] c, int m, int n, int k) {
+        boolean ar = a.type == MType.RDENSE;
+        boolean br = b.type == MType.RDENSE;
+        for (int i = 0; i < m; i++) {
+            double[] row = c[i];
+            for (int p = 0; p < k; p++) {
+                double aip = ar ? a.values[i][p] : a.values[p][i];
+                if (br) {
+                    double[] brow = b.values[p];
+                    for (int j = 0; j < n; j++) {
+                        row[j] = Math.fma(aip, brow[j], row[j]);
+                    }
+                } else {
+                    for (int j = 0; j < n; j++) {
+                        row[j] = Math.fma(aip, b.values[j][p], row[j]);
+                    }
+                }
+            }
+        }
+    }
+}
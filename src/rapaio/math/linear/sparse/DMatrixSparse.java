@@ -0,0 +1,345 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.sparse;
+
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.base.AbstractDMatrix;
+import rapaio.math.linear.dense.DMatrixDenseR;
+import rapaio.math.linear.dense.DVectorDense;
+import rapaio.util.function.Double2DoubleFunction;
+
+import java.io.Serial;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse matrix which stores only non zero values in compressed form.
+ * Depending on the storage order, values are compressed by rows
+ * ({@link DMatrixSparseR}, also known as CSR) or by columns ({@link DMatrixSparseC},
+ * also known as CSC). A matrix and its transpose share the same storage.
+ * <p>
+ * Products with dense vectors and matrices visit only the stored values.
+ * Element access is done with binary search inside a row or column and setting
+ * a new non zero value requires shifting the following values, thus sparse matrices
+ * should be built in storage order whenever possible.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public abstract class DMatrixSparse extends AbstractDMatrix {
+
+    @Serial
+    private static final long serialVersionUID = -2946017286366357637L;
+
+    protected final MType type;
+    protected final int rowCount;
+    protected final int colCount;
+    protected final SparseStorage storage;
+
+    protected DMatrixSparse(MType type, int rowCount, int colCount, SparseStorage storage) {
+        this.type = type;
+        this.rowCount = rowCount;
+        this.colCount = colCount;
+        this.storage = storage;
+    }
+
+    private boolean byRows() {
+        return type == MType.RSPARSE;
+    }
+
+    @Override
+    public MType type() {
+        return type;
+    }
+
+    @Override
+    public MType innerType() {
+        return type;
+    }
+
+    @Override
+    public int rowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int colCount() {
+        return colCount;
+    }
+
+    /**
+     * @return number of stored values
+     */
+    public int nnz() {
+        return storage.nnz();
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return byRows() ? storage.get(row, col) : storage.get(col, row);
+    }
+
+    @Override
+    public void set(int row, int col, double value) {
+        if (byRows()) {
+            storage.set(row, col, value);
+        } else {
+            storage.set(col, row, value);
+        }
+    }
+
+    @Override
+    public void inc(int row, int col, double value) {
+        if (byRows()) {
+            storage.inc(row, col, value);
+        } else {
+            storage.inc(col, row, value);
+        }
+    }
+
+    /**
+     * Builds a sparse vector with the values from the given major index (row for
+     * compressed rows and column for compressed columns).
+     */
+    protected DVectorSparse majorVector(int major, int size) {
+        int start = storage.start(major);
+        int len = storage.end(major) - start;
+        int[] indexes = new int[Math.max(len, 1)];
+        double[] values = new double[Math.max(len, 1)];
+        System.arraycopy(storage.indexes, start, indexes, 0, len);
+        System.arraycopy(storage.values, start, values, 0, len);
+        return new DVectorSparse(size, indexes, values, len);
+    }
+
+    @Override
+    public DMatrix mult(double x) {
+        int nnz = storage.nnz();
+        for (int k = 0; k < nnz; k++) {
+            storage.values[k] *= x;
+        }
+        return this;
+    }
+
+    @Override
+    public DMatrix div(double x) {
+        int nnz = storage.nnz();
+        for (int k = 0; k < nnz; k++) {
+            storage.values[k] /= x;
+        }
+        return this;
+    }
+
+    @Override
+    public DMatrix apply(Double2DoubleFunction fun) {
+        if (fun.applyAsDouble(0) == 0) {
+            int nnz = storage.nnz();
+            for (int k = 0; k < nnz; k++) {
+                storage.values[k] = fun.applyAsDouble(storage.values[k]);
+            }
+            return this;
+        }
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < colCount; j++) {
+                set(i, j, fun.applyAsDouble(get(i, j)));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public DVector dot(DVector b) {
+        if (colCount != b.size()) {
+            throw new IllegalArgumentException(
+                    String.format("Matrices not conformant for multiplication: (%d,%d) x (%d,%d)",
+                            rowCount, colCount, b.size(), 1));
+        }
+        double[] x = b instanceof DVectorDense bd ? bd.elements() : b.valueStream().toArray();
+        double[] y = new double[rowCount];
+        int[] indexes = storage.indexes;
+        double[] values = storage.values;
+        if (byRows()) {
+            IntStream.range(0, rowCount).parallel().forEach(i -> {
+                double s = 0;
+                for (int k = storage.start(i); k < storage.end(i); k++) {
+                    s = Math.fma(values[k], x[indexes[k]], s);
+                }
+                y[i] = s;
+            });
+        } else {
+            for (int j = 0; j < colCount; j++) {
+                double xj = x[j];
+                if (xj == 0) {
+                    continue;
+                }
+                for (int k = storage.start(j); k < storage.end(j); k++) {
+                    y[indexes[k]] += values[k] * xj;
+                }
+            }
+        }
+        return new DVectorDense(y.length, y);
+    }
+
+    /**
+     * Computes the product with another matrix, the result being a dense
+     * row major matrix. If the other matrix is sparse, only the stored values
+     * of both matrices are visited.
+     */
+    @Override
+    public DMatrix dot(DMatrix b) {
+        if (colCount != b.rowCount()) {
+            throw new IllegalArgumentException(
+                    String.format("Matrices not conformant for multiplication: (%d,%d) x (%d,%d)",
+                            rowCount, colCount, b.rowCount(), b.colCount()));
+        }
+        DMatrixDenseR c = new DMatrixDenseR(rowCount, b.colCount());
+        double[][] cv = c.getElements();
+        int[] indexes = storage.indexes;
+        double[] values = storage.values;
+
+        if (b instanceof DMatrixSparse sb) {
+            SparseStorage bs = sb.byRows() ? sb.storage : sb.storage.transpose(sb.rowCount);
+            if (byRows()) {
+                IntStream.range(0, rowCount).parallel().forEach(i -> {
+                    for (int k = storage.start(i); k < storage.end(i); k++) {
+                        sparseAxpy(values[k], bs, indexes[k], cv[i]);
+                    }
+                });
+            } else {
+                for (int j = 0; j < colCount; j++) {
+                    for (int k = storage.start(j); k < storage.end(j); k++) {
+                        sparseAxpy(values[k], bs, j, cv[indexes[k]]);
+                    }
+                }
+            }
+            return c;
+        }
+
+        double[][] bv;
+        if (b instanceof DMatrixDenseR bd) {
+            bv = bd.getElements();
+        } else {
+            bv = new double[b.rowCount()][];
+            for (int i = 0; i < bv.length; i++) {
+                bv[i] = b.mapRowCopy(i).valueStream().toArray();
+            }
+        }
+        int n = b.colCount();
+        if (byRows()) {
+            IntStream.range(0, rowCount).parallel().forEach(i -> {
+                for (int k = storage.start(i); k < storage.end(i); k++) {
+                    denseAxpy(values[k], bv[indexes[k]], cv[i], n);
+                }
+            });
+        } else {
+            for (int j = 0; j < colCount; j++) {
+                for (int k = storage.start(j); k < storage.end(j); k++) {
+                    denseAxpy(values[k], bv[j], cv[indexes[k]], n);
+                }
+            }
+        }
+        return c;
+    }
+
+    private static void sparseAxpy(double a, SparseStorage x, int major, double[] y) {
+        for (int k = x.start(major); k < x.end(major); k++) {
+            y[x.indexes[k]] += a * x.values[k];
+        }
+    }
+
+    private static void denseAxpy(double a, double[] x, double[] y, int len) {
+        for (int j = 0; j < len; j++) {
+            y[j] += a * x[j];
+        }
+    }
+
+    /**
+     * Multiplies in place each column with the corresponding value from the diagonal vector.
+     */
+    @Override
+    public DMatrix dotDiag(DVector v) {
+        if (colCount != v.size()) {
+            throw new IllegalArgumentException("Matrix and diagonal vector are " +
+                    "not compatible for multiplication.");
+        }
+        scaleDiag(v, !byRows());
+        return this;
+    }
+
+    /**
+     * Multiplies in place each row with the corresponding value from the diagonal vector.
+     */
+    @Override
+    public DMatrix dotDiagT(DVector v) {
+        if (rowCount != v.size()) {
+            throw new IllegalArgumentException("Matrix and diagonal vector are " +
+                    "not compatible for multiplication.");
+        }
+        scaleDiag(v, byRows());
+        return this;
+    }
+
+    private void scaleDiag(DVector v, boolean major) {
+        for (int i = 0; i < storage.majorCount; i++) {
+            for (int k = storage.start(i); k < storage.end(i); k++) {
+                storage.values[k] *= v.get(major ? i : storage.indexes[k]);
+            }
+        }
+    }
+
+    @Override
+    public DMatrix scatter() {
+        SparseStorage rows = byRows() ? storage : storage.transpose(rowCount);
+        double[] mean = new double[colCount];
+        for (int k = 0; k < rows.nnz(); k++) {
+            mean[rows.indexes[k]] += rows.values[k];
+        }
+        for (int j = 0; j < colCount; j++) {
+            mean[j] /= rowCount;
+        }
+        DMatrixDenseR scatter = new DMatrixDenseR(colCount, colCount);
+        double[][] sv = scatter.getElements();
+        for (int i = 0; i < rowCount; i++) {
+            for (int k = rows.start(i); k < rows.end(i); k++) {
+                sparseAxpy(rows.values[k], rows, i, sv[rows.indexes[k]]);
+            }
+        }
+        for (int i = 0; i < colCount; i++) {
+            for (int j = 0; j < colCount; j++) {
+                sv[i][j] -= rowCount * mean[i] * mean[j];
+            }
+        }
+        return scatter;
+    }
+
+    @Override
+    public DoubleStream valueStream() {
+        int minorCount = byRows() ? colCount : rowCount;
+        return IntStream.range(0, storage.majorCount).boxed().flatMapToDouble(i -> {
+            double[] array = new double[minorCount];
+            for (int k = storage.start(i); k < storage.end(i); k++) {
+                array[storage.indexes[k]] = storage.values[k];
+            }
+            return DoubleStream.of(array);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.sparse;
+
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
+import rapaio.util.function.IntInt2DoubleBiFunction;
+
+import java.io.Serial;
+
+/**
+ * Sparse matrix with values stored in compressed sparse columns format (CSC).
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class DMatrixSparseC extends DMatrixSparse {
+
+    @Serial
+    private static final long serialVersionUID = -3380404906744372766L;
+
+    /**
+     * Builds a sparse matrix scanning values column by column, only non zero values being stored.
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param fun  function which gives the value for a row and column
+     * @return new sparse matrix
+     */
+    public static DMatrixSparseC from(int rows, int cols, IntInt2DoubleBiFunction fun) {
+        return new DMatrixSparseC(rows, cols, SparseStorage.build(cols, rows, (c, r) -> fun.applyIntIntAsDouble(r, c)));
+    }
+
+    public DMatrixSparseC(int rowCount, int colCount) {
+        this(rowCount, colCount, new SparseStorage(colCount, 16));
+    }
+
+    DMatrixSparseC(int rowCount, int colCount, SparseStorage storage) {
+        super(MType.CSPARSE, rowCount, colCount, storage);
+    }
+
+    /**
+     * Columns are returned as sparse vectors which are copies of the values.
+     */
+    @Override
+    public DVector mapCol(int col) {
+        return majorVector(col, rowCount);
+    }
+
+    @Override
+    public DVector mapColCopy(int col) {
+        return majorVector(col, rowCount);
+    }
+
+    /**
+     * @return new matrix with the same values stored in compressed rows format
+     */
+    public DMatrixSparseR toCSR() {
+        return new DMatrixSparseR(rowCount, colCount, storage.transpose(rowCount));
+    }
+
+    @Override
+    public DMatrix t() {
+        return new DMatrixSparseR(colCount, rowCount, storage);
+    }
+
+    @Override
+    public DMatrixSparseC copy() {
+        return new DMatrixSparseC(rowCount, colCount, storage.copy());
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.sparse;
+
+import rapaio.data.VarDouble;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.VType;
+import rapaio.math.linear.base.AbstractDVector;
+import rapaio.math.linear.dense.DMatrixDenseR;
+import rapaio.math.linear.dense.DVectorDense;
+import rapaio.util.collection.DoubleArrays;
+import rapaio.util.function.Double2DoubleFunction;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.stream.DoubleStream;
+
+/**
+ * Sparse vector which stores only non zero values, together with their
+ * positions sorted in increasing order.
+ * <p>
+ * Operations which read values or preserve zeros (dot products, scaling,
+ * sums, norms) iterate only over the stored values. Operations which produce
+ * non zero values in all positions are implemented, but the vector
+ * becomes dense in storage.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class DVectorSparse extends AbstractDVector {
+
+    @Serial
+    private static final long serialVersionUID = -4375301524858347207L;
+
+    /**
+     * Builds a sparse copy of the given vector.
+     *
+     * @param source source vector
+     * @return new sparse vector with non zero values from source
+     */
+    public static DVectorSparse from(DVector source) {
+        DVectorSparse v = new DVectorSparse(source.size());
+        for (int i = 0; i < source.size(); i++) {
+            double value = source.get(i);
+            if (value != 0) {
+                v.append(i, value);
+            }
+        }
+        return v;
+    }
+
+    private final int size;
+    private int[] indexes;
+    private double[] values;
+    private int nnz;
+
+    public DVectorSparse(int size) {
+        this(size, new int[4], new double[4], 0);
+    }
+
+    /**
+     * Builds a sparse vector which wraps the given arrays.
+     *
+     * @param size    size of the vector
+     * @param indexes positions of stored values, in increasing order
+     * @param values  stored values
+     * @param nnz     number of stored values
+     */
+    public DVectorSparse(int size, int[] indexes, double[] values, int nnz) {
+        this.size = size;
+        this.indexes = indexes;
+        this.values = values;
+        this.nnz = nnz;
+    }
+
+    @Override
+    public VType type() {
+        return VType.SPARSE;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of stored values
+     */
+    public int nnz() {
+        return nnz;
+    }
+
+    /**
+     * @param k position in storage, from 0 to {@link #nnz()} exclusive
+     * @return vector index of the k-th stored value
+     */
+    public int index(int k) {
+        return indexes[k];
+    }
+
+    /**
+     * @param k position in storage, from 0 to {@link #nnz()} exclusive
+     * @return k-th stored value
+     */
+    public double value(int k) {
+        return values[k];
+    }
+
+    private void append(int index, double value) {
+        if (nnz == values.length) {
+            grow(nnz + 1);
+        }
+        indexes[nnz] = index;
+        values[nnz] = value;
+        nnz++;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, values.length + (values.length >> 1) + 1);
+        indexes = Arrays.copyOf(indexes, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private double[] denseArray() {
+        double[] array = new double[size];
+        for (int k = 0; k < nnz; k++) {
+            array[indexes[k]] = values[k];
+        }
+        return array;
+    }
+
+    private void setAll(double[] array) {
+        nnz = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] != 0) {
+                append(i, array[i]);
+            }
+        }
+    }
+
+    @Override
+    public double get(int i) {
+        int pos = Arrays.binarySearch(indexes, 0, nnz, i);
+        return pos >= 0 ? values[pos] : 0;
+    }
+
+    @Override
+    public void set(int i, double value) {
+        int pos = Arrays.binarySearch(indexes, 0, nnz, i);
+        if (pos >= 0) {
+            values[pos] = value;
+        } else if (value != 0) {
+            insert(-pos - 1, i, value);
+        }
+    }
+
+    @Override
+    public void inc(int i, double value) {
+        int pos = Arrays.binarySearch(indexes, 0, nnz, i);
+        if (pos >= 0) {
+            values[pos] += value;
+        } else if (value != 0) {
+            insert(-pos - 1, i, value);
+        }
+    }
+
+    private void insert(int pos, int index, double value) {
+        if (nnz == values.length) {
+            grow(nnz + 1);
+        }
+        System.arraycopy(indexes, pos, indexes, pos + 1, nnz - pos);
+        System.arraycopy(values, pos, values, pos + 1, nnz - pos);
+        indexes[pos] = index;
+        values[pos] = value;
+        nnz++;
+    }
+
+    @Override
+    public DVectorDense mapCopy(int... idxs) {
+        double[] copy = new double[idxs.length];
+        for (int i = 0; i < idxs.length; i++) {
+            copy[i] = get(idxs[i]);
+        }
+        return new DVectorDense(copy.length, copy);
+    }
+
+    @Override
+    public DVectorDense copy() {
+        return new DVectorDense(size, denseArray());
+    }
+
+    /**
+     * @return a sparse copy of this vector
+     */
+    public DVectorSparse sparseCopy() {
+        return new DVectorSparse(size, Arrays.copyOf(indexes, Math.max(nnz, 1)), Arrays.copyOf(values, Math.max(nnz, 1)), nnz);
+    }
+
+    /**
+     * Applies element wise the given operation with values from the other vector.
+     * If the other vector is sparse and the operation maps two zeros into zero,
+     * only the union of stored positions is visited.
+     */
+    private DVector merge(DVector b, DoubleBinaryOperator op) {
+        checkConformance(b);
+        if (b instanceof DVectorSparse sb && op.applyAsDouble(0, 0) == 0) {
+            int[] newIndexes = new int[Math.max(nnz + sb.nnz, 1)];
+            double[] newValues = new double[Math.max(nnz + sb.nnz, 1)];
+            int len = 0;
+            int i = 0;
+            int j = 0;
+            while (i < nnz || j < sb.nnz) {
+                int index;
+                double value;
+                if (j == sb.nnz || (i < nnz && indexes[i] < sb.indexes[j])) {
+                    index = indexes[i];
+                    value = op.applyAsDouble(values[i++], 0);
+                } else if (i == nnz || sb.indexes[j] < indexes[i]) {
+                    index = sb.indexes[j];
+                    value = op.applyAsDouble(0, sb.values[j++]);
+                } else {
+                    index = indexes[i];
+                    value = op.applyAsDouble(values[i++], sb.values[j++]);
+                }
+                if (value != 0) {
+                    newIndexes[len] = index;
+                    newValues[len] = value;
+                    len++;
+                }
+            }
+            indexes = newIndexes;
+            values = newValues;
+            nnz = len;
+            return this;
+        }
+        double[] array = denseArray();
+        for (int i = 0; i < size; i++) {
+            array[i] = op.applyAsDouble(array[i], b.get(i));
+        }
+        setAll(array);
+        return this;
+    }
+
+    @Override
+    public DVector add(double x) {
+        if (x != 0) {
+            double[] array = denseArray();
+            DoubleArrays.add(array, 0, x, size);
+            setAll(array);
+        }
+        return this;
+    }
+
+    @Override
+    public DVector add(DVector y) {
+        return merge(y, Double::sum);
+    }
+
+    @Override
+    public DVector sub(double x) {
+        return add(-x);
+    }
+
+    @Override
+    public DVector sub(DVector y) {
+        return merge(y, (a, b) -> a - b);
+    }
+
+    @Override
+    public DVector mult(double scalar) {
+        for (int k = 0; k < nnz; k++) {
+            values[k] *= scalar;
+        }
+        return this;
+    }
+
+    @Override
+    public DVector mult(DVector y) {
+        checkConformance(y);
+        for (int k = 0; k < nnz; k++) {
+            values[k] *= y.get(indexes[k]);
+        }
+        return this;
+    }
+
+    @Override
+    public DVector div(double scalar) {
+        for (int k = 0; k < nnz; k++) {
+            values[k] /= scalar;
+        }
+        return this;
+    }
+
+    @Override
+    public DVector div(DVector y) {
+        return merge(y, (a, b) -> a / b);
+    }
+
+    @Override
+    public DVector axpyCopy(double a, DVector y) {
+        checkConformance(y);
+        double[] copy = new double[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = y.get(i);
+        }
+        for (int k = 0; k < nnz; k++) {
+            copy[indexes[k]] += a * values[k];
+        }
+        return new DVectorDense(copy.length, copy);
+    }
+
+    @Override
+    public double dot(DVector y) {
+        checkConformance(y);
+        double s = 0;
+        if (y instanceof DVectorSparse sy) {
+            int i = 0;
+            int j = 0;
+            while (i < nnz && j < sy.nnz) {
+                if (indexes[i] < sy.indexes[j]) {
+                    i++;
+                } else if (indexes[i] > sy.indexes[j]) {
+                    j++;
+                } else {
+                    s = Math.fma(values[i++], sy.values[j++], s);
+                }
+            }
+            return s;
+        }
+        if (y instanceof DVectorDense dy) {
+            double[] array = dy.elements();
+            for (int k = 0; k < nnz; k++) {
+                s = Math.fma(values[k], array[indexes[k]], s);
+            }
+            return s;
+        }
+        for (int k = 0; k < nnz; k++) {
+            s = Math.fma(values[k], y.get(indexes[k]), s);
+        }
+        return s;
+    }
+
+    @Override
+    public DMatrix diagDot(MType type, DMatrix m) {
+        if (size() != m.rowCount()) {
+            throw new IllegalArgumentException("Matrix not conform for multiplication.");
+        }
+        DMatrix result = DMatrix.empty(type, size(), m.colCount());
+        for (int k = 0; k < nnz; k++) {
+            int i = indexes[k];
+            for (int j = 0; j < m.colCount(); j++) {
+                result.set(i, j, m.get(i, j) * values[k]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public double dotBilinear(DMatrix m, DVector y) {
+        if (m.rowCount() != size() || m.colCount() != y.size()) {
+            throw new IllegalArgumentException("Bilinear matrix and vector are not conform for multiplication.");
+        }
+        double sum = 0.0;
+        for (int k = 0; k < nnz; k++) {
+            int i = indexes[k];
+            for (int j = 0; j < y.size(); j++) {
+                sum += values[k] * m.get(i, j) * y.get(j);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double dotBilinear(DMatrix m) {
+        if (m.rowCount() != size() || m.colCount() != size()) {
+            throw new IllegalArgumentException("Bilinear matrix is not conform for multiplication.");
+        }
+        double sum = 0.0;
+        for (int k = 0; k < nnz; k++) {
+            for (int l = 0; l < nnz; l++) {
+                sum += values[k] * m.get(indexes[k], indexes[l]) * values[l];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double norm(double p) {
+        if (p <= 0) {
+            return size;
+        }
+        if (p == Double.POSITIVE_INFINITY) {
+            double max = nnz < size ? 0 : Double.NaN;
+            for (int k = 0; k < nnz; k++) {
+                double value = values[k];
+                if (Double.isNaN(max)) {
+                    max = value;
+                    continue;
+                }
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+        double s = 0.0;
+        for (int k = 0; k < nnz; k++) {
+            s += Math.pow(Math.abs(values[k]), p);
+        }
+        return Math.pow(s, 1.0 / p);
+    }
+
+    @Override
+    public double sum() {
+        return DoubleArrays.sum(values, 0, nnz);
+    }
+
+    @Override
+    public double nansum() {
+        return DoubleArrays.nanSum(values, 0, nnz);
+    }
+
+    @Override
+    public DVector cumsum() {
+        double[] array = denseArray();
+        for (int i = 1; i < size; i++) {
+            array[i] += array[i - 1];
+        }
+        setAll(array);
+        return this;
+    }
+
+    @Override
+    public double prod() {
+        double prod = nnz < size ? 0 : 1;
+        for (int k = 0; k < nnz; k++) {
+            prod *= values[k];
+        }
+        return prod;
+    }
+
+    @Override
+    public double nanprod() {
+        double nanprod = nnz < size ? 0 : 1;
+        for (int k = 0; k < nnz; k++) {
+            double value = values[k];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            nanprod *= value;
+        }
+        return nanprod;
+    }
+
+    @Override
+    public DVector cumprod() {
+        double[] array = denseArray();
+        for (int i = 1; i < size; i++) {
+            array[i] = array[i - 1] * array[i];
+        }
+        setAll(array);
+        return this;
+    }
+
+    @Override
+    public int nancount() {
+        return size - nnz + DoubleArrays.nanCount(values, 0, nnz);
+    }
+
+    @Override
+    public double mean() {
+        return sum() / size;
+    }
+
+    @Override
+    public double nanmean() {
+        return nansum() / nancount();
+    }
+
+    @Override
+    public double variance() {
+        return DoubleArrays.variance(denseArray(), 0, size);
+    }
+
+    @Override
+    public double nanvariance() {
+        return DoubleArrays.nanVariance(denseArray(), 0, size);
+    }
+
+    @Override
+    public DVector apply(Double2DoubleFunction f) {
+        if (f.applyAsDouble(0) == 0) {
+            for (int k = 0; k < nnz; k++) {
+                values[k] = f.applyAsDouble(values[k]);
+            }
+            return this;
+        }
+        double[] array = denseArray();
+        for (int i = 0; i < size; i++) {
+            array[i] = f.applyAsDouble(array[i]);
+        }
+        setAll(array);
+        return this;
+    }
+
+    @Override
+    public DMatrix asMatrix(MType type) {
+        if (type == MType.CSPARSE || type == MType.RSPARSE) {
+            DMatrixSparseC m = new DMatrixSparseC(size, 1,
+                    new SparseStorage(1, nnz));
+            System.arraycopy(indexes, 0, m.storage.indexes, 0, nnz);
+            System.arraycopy(values, 0, m.storage.values, 0, nnz);
+            m.storage.pointers[1] = nnz;
+            return type == MType.CSPARSE ? m : m.toCSR();
+        }
+        double[][] array = new double[size][1];
+        for (int k = 0; k < nnz; k++) {
+            array[indexes[k]][0] = values[k];
+        }
+        DMatrix m = new DMatrixDenseR(size, 1, array);
+        return type == MType.RDENSE ? m : super.asMatrix(type);
+    }
+
+    @Override
+    public DoubleStream valueStream() {
+        return Arrays.stream(denseArray());
+    }
+
+    @Override
+    public VarDouble asVarDouble() {
+        return VarDouble.wrapArray(size, denseArray());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.sparse;
+
+import rapaio.util.function.IntInt2DoubleBiFunction;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Compressed storage for sparse matrices. Values are grouped by major index
+ * (rows for compressed sparse row, columns for compressed sparse column layout),
+ * and inside each group are sorted by minor index.
+ * <p>
+ * The storage is shared between a matrix and its transposed view.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+final class SparseStorage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2760460377372713566L;
+
+    final int majorCount;
+    final int[] pointers;
+    int[] indexes;
+    double[] values;
+
+    SparseStorage(int majorCount, int capacity) {
+        this.majorCount = majorCount;
+        this.pointers = new int[majorCount + 1];
+        this.indexes = new int[Math.max(capacity, 1)];
+        this.values = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Builds storage scanning values in major order and keeping only non zero values.
+     */
+    static SparseStorage build(int majorCount, int minorCount, IntInt2DoubleBiFunction fun) {
+        SparseStorage storage = new SparseStorage(majorCount, 16);
+        int len = 0;
+        for (int i = 0; i < majorCount; i++) {
+            for (int j = 0; j < minorCount; j++) {
+                double value = fun.applyIntIntAsDouble(i, j);
+                if (value != 0) {
+                    if (len == storage.values.length) {
+                        storage.grow(len + 1);
+                    }
+                    storage.indexes[len] = j;
+                    storage.values[len] = value;
+                    len++;
+                }
+            }
+            storage.pointers[i + 1] = len;
+        }
+        return storage;
+    }
+
+    int nnz() {
+        return pointers[majorCount];
+    }
+
+    int start(int major) {
+        return pointers[major];
+    }
+
+    int end(int major) {
+        return pointers[major + 1];
+    }
+
+    /**
+     * @return position of the stored value if found, otherwise {@code -(insertion point) - 1}
+     */
+    int find(int major, int minor) {
+        return Arrays.binarySearch(indexes, pointers[major], pointers[major + 1], minor);
+    }
+
+    double get(int major, int minor) {
+        int pos = find(major, minor);
+        return pos >= 0 ? values[pos] : 0;
+    }
+
+    void set(int major, int minor, double value) {
+        int pos = find(major, minor);
+        if (pos >= 0) {
+            values[pos] = value;
+        } else if (value != 0) {
+            insert(-pos - 1, major, minor, value);
+        }
+    }
+
+    void inc(int major, int minor, double value) {
+        int pos = find(major, minor);
+        if (pos >= 0) {
+            values[pos] += value;
+        } else if (value != 0) {
+            insert(-pos - 1, major, minor, value);
+        }
+    }
+
+    private void insert(int pos, int major, int minor, double value) {
+        int nnz = nnz();
+        if (nnz == values.length) {
+            grow(nnz + 1);
+        }
+        System.arraycopy(indexes, pos, indexes, pos + 1, nnz - pos);
+        System.arraycopy(values, pos, values, pos + 1, nnz - pos);
+        indexes[pos] = minor;
+        values[pos] = value;
+        for (int i = major + 1; i <= majorCount; i++) {
+            pointers[i]++;
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, values.length + (values.length >> 1) + 1);
+        indexes = Arrays.copyOf(indexes, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    SparseStorage copy() {
+        SparseStorage copy = new SparseStorage(majorCount, nnz());
+        System.arraycopy(pointers, 0, copy.pointers, 0, pointers.length);
+        System.arraycopy(indexes, 0, copy.indexes, 0, nnz());
+        System.arraycopy(values, 0, copy.values, 0, nnz());
+        return copy;
+    }
+
+    /**
+     * Builds the storage with the transposed layout, used to change between
+     * compressed row and compressed column layouts of the same matrix.
+     */
+    SparseStorage transpose(int minorCount) {
+        int nnz = nnz();
+        SparseStorage t = new SparseStorage(minorCount, nnz);
+        for (int k = 0; k < nnz; k++) {
+            t.pointers[indexes[k] + 1]++;
+        }
+        for (int i = 0; i < minorCount; i++) {
+            t.pointers[i + 1] += t.pointers[i];
+        }
+        int[] next = Arrays.copyOf(t.pointers, minorCount);
+        for (int i = 0; i < majorCount; i++) {
+            for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                int pos = next[indexes[k]]++;
+                t.indexes[pos] = i;
+                t.values[pos] = values[k];
+            }
+        }
+        return t;
+    }
+}
@@ -68,6 +68,9 @@ public class PCA extends ParamSet<PCA> implements Printable {
     public final ValueParam<Boolean, PCA> standardize = new ValueParam<>(this, false,
             "standardize", "Divide input by computed sample standard deviation.");
 
+    public final ValueParam<Integer, PCA> components = new ValueParam<>(this, 0,
+            "components", "Number of computed principal components, 0 for all components.", c -> c != null && c >= 0);
+
     private int inputRows;
     private int inputVars;
     private String[] inputNames;
@@ -111,11 +114,22 @@ public class PCA extends ParamSet<PCA> implements Printable {
             x.div(sd, 0);
         }
 
-        logger.fine("build scatter");
-        DMatrix s = x.scatter();
-
-        logger.fine("compute eigenvalues");
-        EigenPair ep = Linear.eigenDecomp(s, maxRuns.get(), eps.get());
+        EigenPair ep;
+        if (components.get() > 0 && components.get() < x.colCount()) {
+            logger.fine("build scatter");
+            // scatter of centered columns computed as a dense product
+            DMatrix xc = center.get() ? x : x.copy().sub(x.mean(0), 0);
+            DMatrix s = xc.t().dot(xc);
+
+            logger.fine("compute top eigenvalues");
+            ep = Linear.eigenDecomp(s, components.get(), maxRuns.get(), eps.get());
+        } else {
+            logger.fine("build scatter");
+            DMatrix s = x.scatter();
+
+            logger.fine("compute eigenvalues");
+            ep = Linear.eigenDecomp(s, maxRuns.get(), eps.get());
+        }
         eigenValues = ep.values().div(x.rowCount() - 1);
         eigenVectors = ep.vectors();
 
@@ -24,6 +24,7 @@ package rapaio.ml.classifier.bayes;
 import rapaio.core.tools.DensityVector;
 import rapaio.data.Frame;
 import rapaio.data.Var;
+import rapaio.data.VarDouble;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
 import rapaio.ml.classifier.AbstractClassifierModel;
@@ -39,6 +40,7 @@ import rapaio.printer.Printer;
 import rapaio.printer.opt.POption;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -161,6 +163,99 @@ public class NaiveBayes extends AbstractClassifierModel<NaiveBayes, ClassifierRe
         return true;
     }
 
+    /**
+     * Updates the model with a chunk of training data. Priors and estimators accumulate their
+     * sufficient statistics, thus fitting chunks one after another is equivalent with fitting the
+     * model once on the concatenated chunks. If the model is not fitted, this is equivalent with
+     * a {@link #fit(Frame, String...)} call.
+     *
+     * @param df         chunk of training data
+     * @param targetVars target variable names
+     * @return model instance
+     */
+    public NaiveBayes partialFit(Frame df, String... targetVars) {
+        return partialFit(df, VarDouble.fill(df.rowCount(), 1), targetVars);
+    }
+
+    /**
+     * Updates the model with a weighted chunk of training data.
+     *
+     * @param df         chunk of training data
+     * @param weights    weights of instances
+     * @param targetVars target variable names
+     * @return model instance
+     * @see #partialFit(Frame, String...)
+     */
+    public NaiveBayes partialFit(Frame df, Var weights, String... targetVars) {
+        if (!hasLearned()) {
+            return fit(df, weights, targetVars);
+        }
+        if (!VarRange.of(targetVars).parseVarNames(df).equals(Arrays.asList(targetNames))) {
+            throw new IllegalArgumentException("Target variables are different than the fitted target variables.");
+        }
+        capabilities().checkAtLearnPhase(df, weights, targetVars);
+        addTargetLevels(df.rvar(firstTargetName()).levels());
+
+        prior.get().partialFitPriors(df, weights, firstTargetName());
+        for (Estimator estimator : estimators.get()) {
+            if (!estimator.partialFit(df, weights, firstTargetName())) {
+                String message = "Estimator: " + estimator.fittedName() + " cannot be fitted.";
+                throw new IllegalStateException(message);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Merges into this model the statistics of another model fitted on a different part of the data.
+     * The other model must have the same type of prior and the same estimators, in the same order,
+     * but it must not share prior or estimator instances with this model.
+     *
+     * @param other model to be merged
+     * @return model instance
+     */
+    public NaiveBayes merge(NaiveBayes other) {
+        if (!other.hasLearned()) {
+            return this;
+        }
+        List<Estimator> otherEstimators = other.estimators.get();
+        if (other == this || prior.get() == other.prior.get()
+                || estimators.get().stream().anyMatch(otherEstimators::contains)) {
+            throw new IllegalArgumentException("Merged models must not share prior or estimator instances.");
+        }
+        if (otherEstimators.size() != estimators.get().size()) {
+            throw new IllegalArgumentException("Merged models must have the same estimators.");
+        }
+        if (!hasLearned()) {
+            targetNames = other.targetNames;
+            targetTypes = other.targetTypes;
+            inputNames = other.inputNames;
+            inputTypes = other.inputTypes;
+            targetLevels = new HashMap<>();
+            targetLevels.put(firstTargetName(), List.of("?"));
+        } else if (!Arrays.equals(targetNames, other.targetNames)) {
+            throw new IllegalArgumentException("Merged models must have the same target variables.");
+        }
+        addTargetLevels(other.firstTargetLevels());
+
+        prior.get().merge(other.prior.get());
+        for (int i = 0; i < otherEstimators.size(); i++) {
+            estimators.get().get(i).merge(otherEstimators.get(i));
+        }
+        learned = true;
+        return this;
+    }
+
+    private void addTargetLevels(List<String> levels) {
+        List<String> union = new ArrayList<>(firstTargetLevels());
+        for (String level : levels) {
+            if (!union.contains(level)) {
+                union.add(level);
+            }
+        }
+        targetLevels.put(firstTargetName(), union);
+    }
+
     @Override
     protected ClassifierResult corePredict(Frame df, final boolean withClasses, final boolean withDensities) {
 
@@ -43,4 +43,15 @@ public abstract class AbstractEstimator implements Estimator {
     public List<String> getTestNames() {
         return testVarNames;
     }
+
+    /**
+     * Checks if the other estimator can be merged into this one and returns it with the proper type.
+     */
+    @SuppressWarnings("unchecked")
+    protected <E extends Estimator> E mergeCandidate(Estimator other) {
+        if (other == null || other.getClass() != getClass() || !other.getTestNames().equals(getTestNames())) {
+            throw new IllegalArgumentException("Only estimators of the same type with the same test variables can be merged.");
+        }
+        return (E) other;
+    }
 }
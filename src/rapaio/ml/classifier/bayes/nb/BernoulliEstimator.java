@@ -26,6 +26,7 @@ import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
+import rapaio.data.index.IndexLabel;
 import rapaio.printer.Format;
 
 import java.io.Serial;
@@ -72,6 +73,7 @@ public class BernoulliEstimator extends AbstractEstimator {
     private final String testName;
     private final double laplaceSmoother;
 
+    private LevelCounts counts = new LevelCounts();
     private DensityTable<String, String> density;
 
     private BernoulliEstimator(String testName, double laplaceSmoother) {
@@ -111,20 +113,37 @@ public class BernoulliEstimator extends AbstractEstimator {
 
     @Override
     public boolean fit(Frame df, Var weights, String targetName) {
+        counts = new LevelCounts();
+        return partialFit(df, weights, targetName);
+    }
+
+    @Override
+    public boolean partialFit(Frame df, Var weights, String targetName) {
         if (!df.type(testName).equals(VarType.BINARY)) {
             return false;
         }
-        var density = DensityTable.fromLevelCounts(true, df, testName, targetName);
-        for (String targetLevel : density.colIndex().getValues()) {
-            for (String testLevel : density.rowIndex().getValues()) {
-                density.increment(testLevel, targetLevel, laplaceSmoother);
-            }
+        Var test = df.rvar(testName);
+        Var target = df.rvar(targetName);
+        counts.addLevels(IndexLabel.fromVarLevels(true, test).getValues(), IndexLabel.fromVarLevels(true, target).getValues());
+        for (int i = 0; i < df.rowCount(); i++) {
+            counts.increment(test.getLabel(i), target.getLabel(i), 1);
         }
-        this.density = density.normalizeOnRows();
-        this.hasLearned = true;
+        updateDensity();
         return true;
     }
 
+    @Override
+    public void merge(Estimator other) {
+        BernoulliEstimator estimator = mergeCandidate(other);
+        counts.merge(estimator.counts);
+        updateDensity();
+    }
+
+    private void updateDensity() {
+        this.density = counts.isEmpty() ? null : counts.toDensityTable(laplaceSmoother).normalizeOnRows();
+        this.hasLearned = density != null;
+    }
+
     @Override
     public double predict(Frame df, int row, String targetLevel) {
         String testLabel = df.getLabel(row, testName);
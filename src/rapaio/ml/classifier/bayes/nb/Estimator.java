@@ -64,6 +64,34 @@ public interface Estimator extends Serializable {
      */
     boolean fit(Frame df, Var weights, String targetName);
 
+    /**
+     * Updates the estimator with a chunk of data. Sufficient statistics are accumulated
+     * over successive calls, thus fitting chunks one after another is equivalent with
+     * fitting once on their concatenation. A call on an unfitted estimator starts from
+     * empty statistics, while {@link #fit(Frame, Var, String)} always discards previous statistics.
+     * <p>
+     * The default implementation does not support incremental fitting.
+     *
+     * @param df         frame with observations
+     * @param weights    vector of weights
+     * @param targetName target variable name
+     * @return true if estimator fit on data, false for failure
+     */
+    default boolean partialFit(Frame df, Var weights, String targetName) {
+        throw new UnsupportedOperationException("Estimator " + name() + " does not support partial fit.");
+    }
+
+    /**
+     * Merges into this estimator the sufficient statistics of another estimator
+     * of the same type and with the same test variables, fitted on other data.
+     * The default implementation does not support merging.
+     *
+     * @param other estimator to be merged
+     */
+    default void merge(Estimator other) {
+        throw new UnsupportedOperationException("Estimator " + name() + " does not support merge.");
+    }
+
     /**
      * Predicts p(x|target=targetLevel)
      *
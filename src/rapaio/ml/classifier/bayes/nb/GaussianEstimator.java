@@ -67,6 +67,7 @@ public class GaussianEstimator extends AbstractEstimator {
     @Serial
     private static final long serialVersionUID = -5974296887792054267L;
 
+    private final Map<String, OnlineStat> stats = new HashMap<>();
     private final Map<String, Normal> normals = new HashMap<>();
     private final String testName;
 
@@ -101,6 +102,12 @@ public class GaussianEstimator extends AbstractEstimator {
 
     @Override
     public boolean fit(Frame df, Var weights, String targetName) {
+        stats.clear();
+        return partialFit(df, weights, targetName);
+    }
+
+    @Override
+    public boolean partialFit(Frame df, Var weights, String targetName) {
 
         String[] varNames = df.varNames();
         boolean foundTest = false;
@@ -117,9 +124,6 @@ public class GaussianEstimator extends AbstractEstimator {
             return false;
         }
 
-        normals.clear();
-
-        Map<String, OnlineStat> stats = new HashMap<>();
         for (int i = 0; i < df.rowCount(); i++) {
             if (df.isMissing(i, targetName)) {
                 continue;
@@ -128,25 +132,34 @@ public class GaussianEstimator extends AbstractEstimator {
             stats.computeIfAbsent(label, key -> OnlineStat.empty())
                     .update(df.getDouble(i, testName));
         }
-        for (String label : df.levels(targetName)) {
-            if ("?".equals(label)) {
-                continue;
-            }
-            double mu = stats.get(label).mean();
-            double sd = stats.get(label).sd();
-            normals.put(label, Normal.of(mu, sd));
-        }
-        hasLearned = true;
+        updateNormals();
         return true;
     }
 
+    @Override
+    public void merge(Estimator other) {
+        GaussianEstimator estimator = mergeCandidate(other);
+        estimator.stats.forEach((label, stat) -> stats.put(label, stats.getOrDefault(label, OnlineStat.empty()).update(stat)));
+        updateNormals();
+    }
+
+    private void updateNormals() {
+        normals.clear();
+        stats.forEach((label, stat) -> normals.put(label, Normal.of(stat.mean(), stat.sd())));
+        hasLearned = !normals.isEmpty();
+    }
+
     @Override
     public double predict(Frame df, int row, String targetLevel) {
         Distribution normal = normals.get(targetLevel);
+        if (normal == null) {
+            // no rows were seen for target level, thus the test value brings no evidence
+            return 1.0;
+        }
         double testValue = df.getDouble(row, getTestNames().get(0));
         if (Math.abs(normal.var()) < 1e-20) {
             return (Math.abs(normal.mean() - testValue) < 1e-20) ? 1.0 : 0.0;
         }
-        return normals.get(targetLevel).pdf(testValue);
+        return normal.pdf(testValue);
     }
 }
@@ -26,12 +26,14 @@ import rapaio.core.distributions.empirical.KFunc;
 import rapaio.core.distributions.empirical.KFuncGaussian;
 import rapaio.data.Frame;
 import rapaio.data.Var;
+import rapaio.data.VarDouble;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
 import rapaio.printer.Format;
 
 import java.io.Serial;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -82,6 +84,7 @@ public class KernelEstimator extends AbstractEstimator {
     private final KFunc kfunc;
     private final double bandwidth;
 
+    private Map<String, VarDouble> values = new HashMap<>();
     private Map<String, KDE> kdes = new ConcurrentHashMap<>();
 
     private KernelEstimator(String testVarName, KFunc kfunc, double bandwidth) {
@@ -116,19 +119,51 @@ public class KernelEstimator extends AbstractEstimator {
 
     @Override
     public boolean fit(Frame df, Var weights, String targetName) {
-        kdes = new ConcurrentHashMap<>();
-        df.levels(targetName).parallelStream().forEach(
-                targetLevel -> {
-                    if ("?".equals(targetLevel)) {
-                        return;
-                    }
-                    Frame cond = df.stream().filter(s -> targetLevel.equals(s.getLabel(targetName))).toMappedFrame();
-                    Var v = cond.rvar(testVarName);
-                    kdes.put(targetLevel, KDE.of(v, kfunc, bandwidth == 0 ? KDE.silvermanBandwidth(v) : bandwidth));
-                });
+        values = new HashMap<>();
+        return partialFit(df, weights, targetName);
+    }
+
+    /**
+     * Kernel densities do not have a compact sufficient statistic, thus the values of the test
+     * variable are accumulated for each target level and densities are rebuilt after each update.
+     */
+    @Override
+    public boolean partialFit(Frame df, Var weights, String targetName) {
+        Var target = df.rvar(targetName);
+        Var test = df.rvar(testVarName);
+        for (String targetLevel : target.levels()) {
+            if (!"?".equals(targetLevel)) {
+                values.computeIfAbsent(targetLevel, level -> VarDouble.empty());
+            }
+        }
+        for (int i = 0; i < df.rowCount(); i++) {
+            if (!target.isMissing(i)) {
+                values.get(target.getLabel(i)).addDouble(test.getDouble(i));
+            }
+        }
+        updateKdes();
         return true;
     }
 
+    @Override
+    public void merge(Estimator other) {
+        KernelEstimator estimator = mergeCandidate(other);
+        estimator.values.forEach((level, v) -> {
+            VarDouble levelValues = values.computeIfAbsent(level, key -> VarDouble.empty());
+            for (int i = 0; i < v.size(); i++) {
+                levelValues.addDouble(v.getDouble(i));
+            }
+        });
+        updateKdes();
+    }
+
+    private void updateKdes() {
+        kdes = new ConcurrentHashMap<>();
+        values.entrySet().parallelStream().forEach(e ->
+                kdes.put(e.getKey(), KDE.of(e.getValue(), kfunc, bandwidth == 0 ? KDE.silvermanBandwidth(e.getValue()) : bandwidth)));
+        hasLearned = true;
+    }
+
     @Override
     public double predict(Frame df, int row, String targetLevel) {
         if (kdes.containsKey(targetLevel)) {
@@ -0,0 +1,91 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.ml.classifier.bayes.nb;
+
+import rapaio.core.tools.DensityTable;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts of test labels conditioned by target labels, used as sufficient statistics by discrete estimators.
+ * Labels are kept in order of their first appearance, thus counts can be accumulated from chunks of data
+ * which have different levels and can be merged with counts accumulated from other chunks.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+final class LevelCounts implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 6383519034583640124L;
+
+    private final List<String> rowLevels = new ArrayList<>();
+    private final List<String> colLevels = new ArrayList<>();
+    private final Map<String, Map<String, Double>> counts = new HashMap<>();
+
+    void addLevels(List<String> rows, List<String> cols) {
+        for (String row : rows) {
+            if (!counts.containsKey(row)) {
+                rowLevels.add(row);
+                counts.put(row, new HashMap<>());
+            }
+        }
+        for (String col : cols) {
+            if (!colLevels.contains(col)) {
+                colLevels.add(col);
+            }
+        }
+    }
+
+    void increment(String row, String col, double value) {
+        counts.get(row).merge(col, value, Double::sum);
+    }
+
+    void merge(LevelCounts other) {
+        addLevels(other.rowLevels, other.colLevels);
+        other.counts.forEach((row, cols) -> cols.forEach((col, value) -> increment(row, col, value)));
+    }
+
+    boolean isEmpty() {
+        return rowLevels.isEmpty();
+    }
+
+    /**
+     * Builds a density table with accumulated counts, each cell being incremented with a smoothing value.
+     */
+    DensityTable<String, String> toDensityTable(double smoother) {
+        DensityTable<String, String> dt = DensityTable.emptyByLabel(true, rowLevels, colLevels);
+        for (int i = 0; i < rowLevels.size(); i++) {
+            Map<String, Double> row = counts.get(rowLevels.get(i));
+            for (int j = 0; j < colLevels.size(); j++) {
+                dt.increment(i, j, row.getOrDefault(colLevels.get(j), 0.0));
+                dt.increment(i, j, smoother);
+            }
+        }
+        return dt;
+    }
+}
@@ -29,6 +29,7 @@ import rapaio.math.linear.DVector;
 import rapaio.printer.Format;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -90,6 +91,7 @@ public class MultinomialEstimator extends AbstractEstimator {
 
     private final double laplaceSmoother;
     private List<String> targetLevels;
+    private Map<String, DensityVector<String>> countDensities = new HashMap<>();
     private Map<String, DVector> densityMap;
 
     private MultinomialEstimator(double laplaceSmoother, List<String> testNames) {
@@ -134,11 +136,17 @@ public class MultinomialEstimator extends AbstractEstimator {
 
     @Override
     public boolean fit(Frame df, Var weights, String targetName) {
+        targetLevels = null;
+        countDensities = new HashMap<>();
+        return partialFit(df, weights, targetName);
+    }
+
+    @Override
+    public boolean partialFit(Frame df, Var weights, String targetName) {
         validateFit(df, weights, targetName);
 
-        targetLevels = df.levels(targetName).stream().skip(1).collect(Collectors.toList());
+        addTargetLevels(df.levels(targetName).stream().skip(1).collect(Collectors.toList()));
 
-        Map<String, DensityVector<String>> countDensities = new HashMap<>();
         for (int i = 0; i < df.rowCount(); i++) {
             // skip missing target
             if (df.isMissing(i, targetName)) {
@@ -146,25 +154,58 @@ public class MultinomialEstimator extends AbstractEstimator {
             }
             // update each test count conditioned on target level
             String targetLevel = df.getLabel(i, targetName);
-            var density = countDensities.computeIfAbsent(targetLevel, level -> {
-                DensityVector<String> d = DensityVector.emptyByLabels(true, getTestNames());
-                for (String testName : d.index().getValues()) {
-                    d.increment(testName, laplaceSmoother);
-                }
-                return d;
-            });
+            var density = countDensities.computeIfAbsent(targetLevel, level -> newCountDensity());
             for (final String testName : getTestNames()) {
                 density.increment(testName, df.getDouble(i, testName));
             }
         }
+        updateDensities();
+        return true;
+    }
+
+    @Override
+    public void merge(Estimator other) {
+        MultinomialEstimator estimator = mergeCandidate(other);
+        if (estimator.targetLevels == null) {
+            return;
+        }
+        addTargetLevels(estimator.targetLevels);
+        estimator.countDensities.forEach((level, density) -> {
+            var counts = countDensities.computeIfAbsent(level, key -> newCountDensity());
+            for (String testName : getTestNames()) {
+                // both count vectors contain the smoothing value
+                counts.increment(testName, density.get(testName) - laplaceSmoother);
+            }
+        });
+        updateDensities();
+    }
+
+    private void addTargetLevels(List<String> levels) {
+        if (targetLevels == null) {
+            targetLevels = new ArrayList<>();
+        }
+        for (String level : levels) {
+            if (!targetLevels.contains(level)) {
+                targetLevels.add(level);
+            }
+        }
+    }
 
+    private DensityVector<String> newCountDensity() {
+        DensityVector<String> d = DensityVector.emptyByLabels(true, getTestNames());
+        for (String testName : d.index().getValues()) {
+            d.increment(testName, laplaceSmoother);
+        }
+        return d;
+    }
+
+    private void updateDensities() {
         densityMap = new HashMap<>();
         countDensities.forEach((level, density) -> {
             // add normalized densities to prediction map
-            densityMap.put(level, DVector.wrapArray(density.index().size(), density.normalize().streamValues().toArray()));
+            densityMap.put(level, DVector.wrapArray(density.index().size(), density.copy().normalize().streamValues().toArray()));
         });
-
-        return false;
+        hasLearned = true;
     }
 
     private void validateFit(Frame df, Var weights, String targetName) {
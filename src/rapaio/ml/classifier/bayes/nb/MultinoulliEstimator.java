@@ -26,10 +26,10 @@ import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
+import rapaio.data.index.IndexLabel;
 import rapaio.printer.Format;
 
 import java.io.Serial;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -69,6 +69,7 @@ public class MultinoulliEstimator extends AbstractEstimator {
 
     // learning artifacts
     private int ourCase = -1; // 1 - single nominal, 2 - multiple binary
+    private LevelCounts counts = new LevelCounts();
     private DensityTable<String, String> density;
 
     private MultinoulliEstimator(List<String> varNames, double laplaceSmoother) {
@@ -112,9 +113,21 @@ public class MultinoulliEstimator extends AbstractEstimator {
 
     @Override
     public boolean fit(Frame df, Var weights, String targetName) {
+        ourCase = -1;
+        counts = new LevelCounts();
+        density = null;
+        return partialFit(df, weights, targetName);
+    }
+
+    @Override
+    public boolean partialFit(Frame df, Var weights, String targetName) {
         // validate variables
-        ourCase = validate(df, targetName);
-        return switch (ourCase) {
+        int chunkCase = validate(df, targetName);
+        if (ourCase != -1 && ourCase != chunkCase) {
+            throw new IllegalArgumentException("Data chunk does not have the same structure as previous data.");
+        }
+        ourCase = chunkCase;
+        boolean fitted = switch (ourCase) {
             case 1 ->
                     // one nominal variable
                     fitNominal(df, targetName);
@@ -123,6 +136,24 @@ public class MultinoulliEstimator extends AbstractEstimator {
                     fitBinary(df, targetName);
             default -> false;
         };
+        if (fitted) {
+            density = counts.toDensityTable(laplaceSmoother).normalizeOnCols();
+        }
+        return fitted;
+    }
+
+    @Override
+    public void merge(Estimator other) {
+        MultinoulliEstimator estimator = mergeCandidate(other);
+        if (estimator.ourCase == -1) {
+            return;
+        }
+        if (ourCase != -1 && ourCase != estimator.ourCase) {
+            throw new IllegalArgumentException("Estimators were fitted on data with different structure.");
+        }
+        ourCase = estimator.ourCase;
+        counts.merge(estimator.counts);
+        density = counts.toDensityTable(laplaceSmoother).normalizeOnCols();
     }
 
     private int validate(Frame df, String targetName) {
@@ -154,32 +185,22 @@ public class MultinoulliEstimator extends AbstractEstimator {
     }
 
     private boolean fitNominal(Frame df, String targetName) {
-        DensityTable<String, String> dt = DensityTable.fromLevelCounts(true, df, getTestNames().get(0), targetName);
-        for (int i = 0; i < dt.rowCount(); i++) {
-            for (int j = 0; j < dt.colCount(); j++) {
-                dt.increment(i, j, laplaceSmoother);
-            }
+        Var test = df.rvar(getTestNames().get(0));
+        Var target = df.rvar(targetName);
+        counts.addLevels(IndexLabel.fromVarLevels(true, test).getValues(), IndexLabel.fromVarLevels(true, target).getValues());
+        for (int i = 0; i < df.rowCount(); i++) {
+            counts.increment(test.getLabel(i), target.getLabel(i), 1);
         }
-        density = dt.normalizeOnCols();
         return true;
     }
 
     private boolean fitBinary(Frame df, String targetName) {
-        List<String> fullTestVarNames = new ArrayList<>(getTestNames());
-
-        DensityTable<String, String> dt = DensityTable.emptyByLabel(true, fullTestVarNames, df.levels(targetName));
-
-        // increment lapace smoother
-        for (int i = 0; i < dt.rowCount(); i++) {
-            for (int j = 0; j < dt.colCount(); j++) {
-                dt.increment(i, j, laplaceSmoother);
-            }
-        }
+        counts.addLevels(getTestNames(), df.levels(targetName));
 
         // increment with counts from data
         for (int i = 0; i < df.rowCount(); i++) {
             String testName = "";
-            for (String testVarName : dt.rowIndex().getValues()) {
+            for (String testVarName : getTestNames()) {
                 if (df.getInt(i, testVarName) == 1) {
                     testName = testVarName;
                     break;
@@ -188,9 +209,8 @@ public class MultinoulliEstimator extends AbstractEstimator {
             if (testName.isEmpty()) {
                 throw new IllegalArgumentException("No binary value equals 1, from all candidate values.");
             }
-            dt.increment(testName, df.getLabel(i, targetName), 1);
+            counts.increment(testName, df.getLabel(i, targetName), 1);
         }
-        density = dt.normalizeOnCols();
         return true;
     }
 
@@ -68,6 +68,8 @@ public class PoissonEstimator extends AbstractEstimator {
     private static final Logger LOGGER = Logger.getLogger(PoissonEstimator.class.getName());
 
     private final String testName;
+    private final HashMap<String, Double> counts = new HashMap<>();
+    private final HashMap<String, Double> sums = new HashMap<>();
     private final HashMap<String, Poisson> lambdaMap = new HashMap<>();
 
     private PoissonEstimator(String testName) {
@@ -110,6 +112,13 @@ public class PoissonEstimator extends AbstractEstimator {
 
     @Override
     public boolean fit(Frame df, Var weights, String targetName) {
+        counts.clear();
+        sums.clear();
+        return partialFit(df, weights, targetName);
+    }
+
+    @Override
+    public boolean partialFit(Frame df, Var weights, String targetName) {
         boolean valid = true;
         Var test = df.rvar(testName);
         for (int i = 0; i < test.size(); i++) {
@@ -123,19 +132,35 @@ public class PoissonEstimator extends AbstractEstimator {
             LOGGER.fine("Variable does not contain only positive integer values: Poisson estimator cannot be fitted.");
             return false;
         }
-        var counts = DensityVector.fromLevelCounts(false, df.rvar(targetName));
-        var sums = DensityVector.fromLevelWeights(false, df.rvar(targetName), df.rvar(testName));
-        for (String level : counts.index().getValues()) {
-            double count = counts.get(level);
-            double sum = sums.get(level);
-            double lambda = sum / count;
+        var chunkCounts = DensityVector.fromLevelCounts(false, df.rvar(targetName));
+        var chunkSums = DensityVector.fromLevelWeights(false, df.rvar(targetName), df.rvar(testName));
+        for (String level : chunkCounts.index().getValues()) {
+            counts.merge(level, chunkCounts.get(level), Double::sum);
+            sums.merge(level, chunkSums.get(level), Double::sum);
+        }
+        updateLambdas();
+        return true;
+    }
+
+    @Override
+    public void merge(Estimator other) {
+        PoissonEstimator estimator = mergeCandidate(other);
+        estimator.counts.forEach((level, count) -> counts.merge(level, count, Double::sum));
+        estimator.sums.forEach((level, sum) -> sums.merge(level, sum, Double::sum));
+        updateLambdas();
+    }
+
+    private void updateLambdas() {
+        lambdaMap.clear();
+        for (String level : counts.keySet()) {
+            double lambda = sums.get(level) / counts.get(level);
             if (Double.isFinite(lambda) && lambda > 0) {
                 lambdaMap.put(level, Poisson.of(lambda));
             } else {
                 lambdaMap.put(level, Poisson.of(1e-20));
             }
         }
-        return true;
+        hasLearned = true;
     }
 
     @Override
@@ -37,6 +37,26 @@ public interface Prior extends Serializable {
 
     void fitPriors(Frame df, Var weights, String targetVar);
 
+    /**
+     * Updates priors with a chunk of data, accumulating statistics from previous calls.
+     *
+     * @param df        frame with observations
+     * @param weights   vector of weights
+     * @param targetVar target variable name
+     */
+    default void partialFitPriors(Frame df, Var weights, String targetVar) {
+        throw new UnsupportedOperationException("Prior " + name() + " does not support partial fit.");
+    }
+
+    /**
+     * Merges into this prior the statistics of another prior of the same type fitted on other data.
+     *
+     * @param other prior to be merged
+     */
+    default void merge(Prior other) {
+        throw new UnsupportedOperationException("Prior " + name() + " does not support merge.");
+    }
+
     double computePrior(String category);
 
     Prior newInstance();
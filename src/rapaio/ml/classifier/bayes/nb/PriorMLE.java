@@ -28,6 +28,7 @@ import rapaio.printer.Format;
 
 import java.io.Serial;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -39,6 +40,7 @@ public class PriorMLE implements Prior {
     @Serial
     private static final long serialVersionUID = 2590209274166763951L;
 
+    private Map<String, Double> weightSums = new LinkedHashMap<>();
     private Map<String, Double> priors = new HashMap<>();
 
     @Override
@@ -62,12 +64,37 @@ public class PriorMLE implements Prior {
 
     @Override
     public void fitPriors(Frame df, Var weights, String targetVar) {
-        priors = new HashMap<>();
+        weightSums = new LinkedHashMap<>();
+        partialFitPriors(df, weights, targetVar);
+    }
+
+    @Override
+    public void partialFitPriors(Frame df, Var weights, String targetVar) {
         var target = df.rvar(targetVar);
         var dv = DensityVector.fromLevelWeights(false, target, weights);
-        dv.normalize();
         for (String targetLevel : dv.index().getValues()) {
-            priors.put(targetLevel, dv.get(targetLevel));
+            weightSums.merge(targetLevel, dv.get(targetLevel), Double::sum);
+        }
+        updatePriors();
+    }
+
+    @Override
+    public void merge(Prior other) {
+        if (!(other instanceof PriorMLE mle)) {
+            throw new IllegalArgumentException("Only priors of the same type can be merged.");
+        }
+        mle.weightSums.forEach((level, sum) -> weightSums.merge(level, sum, Double::sum));
+        updatePriors();
+    }
+
+    private void updatePriors() {
+        double total = 0;
+        for (double sum : weightSums.values()) {
+            total += sum;
+        }
+        priors = new HashMap<>();
+        for (Map.Entry<String, Double> e : weightSums.entrySet()) {
+            priors.put(e.getKey(), e.getValue() / total);
         }
     }
 
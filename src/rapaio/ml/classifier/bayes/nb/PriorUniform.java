@@ -63,12 +63,28 @@ public class PriorUniform implements Prior {
 
     @Override
     public void fitPriors(Frame df, Var weights, String targetVar) {
+        levels.clear();
+        uniformPrior = Double.NaN;
+        partialFitPriors(df, weights, targetVar);
+    }
+
+    @Override
+    public void partialFitPriors(Frame df, Var weights, String targetVar) {
         List<String> targetLevels = new ArrayList<>(df.levels(targetVar));
-        targetLevels = targetLevels.subList(1, targetLevels.size());
-        if (!df.levels(targetVar).isEmpty()) {
-            double degrees = df.levels(targetVar).size() - 1;
-            uniformPrior = 1.0 / degrees;
-            levels.addAll(targetLevels);
+        if (!targetLevels.isEmpty()) {
+            levels.addAll(targetLevels.subList(1, targetLevels.size()));
+            uniformPrior = 1.0 / levels.size();
+        }
+    }
+
+    @Override
+    public void merge(Prior other) {
+        if (!(other instanceof PriorUniform uniform)) {
+            throw new IllegalArgumentException("Only priors of the same type can be merged.");
+        }
+        levels.addAll(uniform.levels);
+        if (!levels.isEmpty()) {
+            uniformPrior = 1.0 / levels.size();
         }
     }
 
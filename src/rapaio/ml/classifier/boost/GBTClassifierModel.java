@@ -21,6 +21,7 @@
 
 package rapaio.ml.classifier.boost;
 
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarType;
@@ -31,6 +32,7 @@ import rapaio.ml.classifier.AbstractClassifierModel;
 import rapaio.ml.classifier.ClassifierResult;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.ValueParam;
+import rapaio.ml.common.tree.CompiledTree;
 import rapaio.ml.loss.KDevianceLoss;
 import rapaio.ml.loss.L2Loss;
 import rapaio.ml.regression.RegressionModel;
@@ -42,6 +44,10 @@ import java.io.Serial;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -104,6 +110,14 @@ public class GBTClassifierModel extends AbstractClassifierModel<GBTClassifierMod
         return trees;
     }
 
+    /**
+     * @return additive scores of the training instances, one row for each class,
+     * which are the scores predicted by the fitted trees
+     */
+    public DMatrix getFitScores() {
+        return f;
+    }
+
     @Override
     public boolean coreFit(Frame df, Var weights) {
 
@@ -123,51 +137,124 @@ public class GBTClassifierModel extends AbstractClassifierModel<GBTClassifierMod
             yk.set(df.getInt(i, firstTargetName()) - 1, i, 1);
         }
 
-        for (int m = 0; m < runs.get(); m++) {
-            buildAdditionalTree(df, weights, yk);
-            if (runningHook.get() != null) {
-                runningHook.get().accept(this, m);
+        // per class trees of a round are fitted sequentially if pool size is 0,
+        // on common pool if pool size is negative, otherwise on a dedicated pool
+
+        ForkJoinPool pool = poolSize.get() > 0 ? new ForkJoinPool(poolSize.get()) : null;
+        try {
+            runInPool(pool, () -> updateProbabilities(df, yk, List.of()));
+            for (int m = 0; m < runs.get(); m++) {
+                buildAdditionalTrees(pool, df, weights, yk);
+                if (runningHook.get() != null) {
+                    runningHook.get().accept(this, m);
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
             }
         }
         return true;
     }
 
-    private void buildAdditionalTree(Frame df, Var w, DMatrix yk) {
+    private void buildAdditionalTrees(ForkJoinPool pool, Frame df, Var w, DMatrix yk) {
 
-        // a) Set p_k(x)
-
-        DVector max = f.t().amax(1);
-
-        for (int i = 0; i < df.rowCount(); i++) {
-            double sum = 0;
-            for (int k = 0; k < K; k++) {
-                sum += Math.exp(f.get(k, i) - max.get(i));
-            }
-            for (int k = 0; k < K; k++) {
-                p.set(k, i, Math.exp(f.get(k, i) - max.get(i)) / sum);
-            }
-        }
-        residual = yk.copy().sub(p);
+        // a) p_k(x) and residuals were computed at the end of previous round
 
         // b)
 
         Frame x = df.removeVars(targetNames);
         RowSampler.Sample sample = rowSampler.get().nextSample(x, w);
 
+        List<RTree> roundTrees;
+        if (poolSize.get() == 0) {
+            roundTrees = IntStream.range(0, K)
+                    .mapToObj(k -> fitClassTree(k, df, yk, sample))
+                    .collect(Collectors.toList());
+        } else {
+            SplittableRandom[] streams = RandomSource.split(K);
+            roundTrees = runInPool(pool, () -> IntStream.range(0, K).parallel()
+                    .mapToObj(k -> RandomSource.callWith(streams[k], () -> fitClassTree(k, df, yk, sample)))
+                    .collect(Collectors.toList()));
+        }
         for (int k = 0; k < K; k++) {
+            trees.get(k).add(roundTrees.get(k));
+        }
 
-            Var residual_k = residual.mapRow(k).asVarDouble().mapRows(sample.mapping()).name("##tt##");
+        // c) add tree predictions and compute probabilities and residuals for next round
 
-            var tree = model.get().newInstance();
-            tree.fit(sample.df().bindVars(residual_k), sample.weights(), "##tt##");
-            tree.boostUpdate(df, yk.mapRow(k).asVarDouble(), p.mapRow(k).asVarDouble(), new KDevianceLoss(K));
+        runInPool(pool, () -> updateProbabilities(df, yk, roundTrees));
+    }
 
-            trees.get(k).add(tree);
+    private RTree fitClassTree(int k, Frame df, DMatrix yk, RowSampler.Sample sample) {
+        Var residual_k = residual.mapRow(k).asVarDouble().mapRows(sample.mapping()).name("##tt##");
 
-            var prediction = tree.predict(df, false).firstPrediction();
-            for (int i = 0; i < df.rowCount(); i++) {
-                f.inc(k, i, shrinkage.get() * prediction.getDouble(i));
+        var tree = model.get().newInstance();
+        tree.fit(sample.df().bindVars(residual_k), sample.weights(), "##tt##");
+        tree.boostUpdate(df, yk.mapRow(k).asVarDouble(), p.mapRow(k).asVarDouble(), new KDevianceLoss(K));
+        return tree;
+    }
+
+    /**
+     * Adds shrunk predictions of the given per class trees to the additive scores,
+     * and computes in the same pass over rows the class probabilities and residuals.
+     * Compiled trees predict missing values as the trees do, thus the additive scores
+     * are the same as the scores used for prediction.
+     */
+    private void updateProbabilities(Frame df, DMatrix yk, List<RTree> roundTrees) {
+        int len = df.rowCount();
+        CompiledTree[] compiled = new CompiledTree[roundTrees.size()];
+        CompiledTree.Features[] features = new CompiledTree.Features[roundTrees.size()];
+        double[][] bound = new double[roundTrees.size()][];
+        for (int k = 0; k < roundTrees.size(); k++) {
+            compiled[k] = roundTrees.get(k).compileTree();
+            features[k] = CompiledTree.features(df, compiled[k].featureNames());
+            bound[k] = compiled[k].bind(df);
+        }
+        double factor = shrinkage.get();
+        IntStream rows = IntStream.range(0, len);
+        if (poolSize.get() != 0) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> {
+            double[] weight = new double[1];
+            double max = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < K; k++) {
+                if (compiled.length > 0) {
+                    f.inc(k, i, factor * compiled[k].predictValue(features[k], bound[k], i, weight));
+                }
+                max = Math.max(max, f.get(k, i));
+            }
+            double sum = 0;
+            for (int k = 0; k < K; k++) {
+                sum += Math.exp(f.get(k, i) - max);
+            }
+            for (int k = 0; k < K; k++) {
+                double pki = Math.exp(f.get(k, i) - max) / sum;
+                p.set(k, i, pki);
+                residual.set(k, i, yk.get(k, i) - pki);
             }
+        });
+    }
+
+    private void runInPool(ForkJoinPool pool, Runnable task) {
+        runInPool(pool, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private <T> T runInPool(ForkJoinPool pool, Supplier<T> task) {
+        if (pool == null) {
+            return task.get();
+        }
+        try {
+            return pool.submit(task::get).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Boosting was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error while fitting boosted trees.", e.getCause());
         }
     }
 
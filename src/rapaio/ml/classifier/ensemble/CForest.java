@@ -21,6 +21,7 @@
 
 package rapaio.ml.classifier.ensemble;
 
+import rapaio.core.RandomSource;
 import rapaio.core.distributions.Distribution;
 import rapaio.core.distributions.Normal;
 import rapaio.core.stat.Maximum;
@@ -47,6 +48,8 @@ import rapaio.ml.classifier.tree.ctree.Node;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.ValueParam;
 import rapaio.ml.common.VarSelector;
+import rapaio.ml.common.tree.CompiledClassifier;
+import rapaio.ml.common.tree.CompiledTree;
 import rapaio.ml.eval.metric.Confusion;
 import rapaio.printer.Format;
 import rapaio.printer.Printer;
@@ -59,6 +62,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -219,13 +223,17 @@ public class CForest extends AbstractClassifierModel<CForest, ClassifierResult>
         // same moment when weak tree was built
         // for a real running hook behavior run without threading
         predictors = new ArrayList<>();
-        IntStream range = IntStream.range(0, runs.get());
-        if (poolSize.get() != 0) {
-            range = range.parallel();
+        List<Pair<ClassifierModel, Mapping>> list;
+        if (poolSize.get() == 0) {
+            list = IntStream.range(0, runs.get())
+                    .mapToObj(s -> buildWeakPredictor(df, weights))
+                    .collect(Collectors.toList());
+        } else {
+            SplittableRandom[] streams = RandomSource.split(runs.get());
+            list = IntStream.range(0, runs.get()).parallel()
+                    .mapToObj(s -> RandomSource.callWith(streams[s], () -> buildWeakPredictor(df, weights)))
+                    .collect(Collectors.toList());
         }
-        List<Pair<ClassifierModel, Mapping>> list = range
-                .mapToObj(s -> buildWeakPredictor(df, weights))
-                .collect(Collectors.toList());
         for (int i = 0; i < list.size(); i++) {
             Pair<ClassifierModel, Mapping> weak = list.get(i);
             predictors.add(weak.v1);
@@ -372,6 +380,26 @@ public class CForest extends AbstractClassifierModel<CForest, ClassifierResult>
         return cp;
     }
 
+    /**
+     * Builds a compiled form of the fitted forest, used for fast batch prediction.
+     * It is available only if all weak predictors are {@link CTree} models.
+     *
+     * @return compiled classifier
+     */
+    public CompiledClassifier compile() {
+        if (!hasLearned()) {
+            throw new IllegalStateException("Model was not trained/fitted on data.");
+        }
+        List<CompiledTree> trees = new ArrayList<>();
+        for (var predictor : predictors) {
+            if (!(predictor instanceof CTree tree)) {
+                throw new IllegalStateException("Only forests of CTree models can be compiled.");
+            }
+            trees.add(tree.compileTree());
+        }
+        return CompiledClassifier.forest(firstTargetLevels(), trees, baggingMode.get() == BaggingMode.VOTING);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -27,6 +27,7 @@ import rapaio.data.VarDouble;
 import rapaio.data.VarType;
 import rapaio.math.linear.DMatrix;
 import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
 import rapaio.ml.classifier.AbstractClassifierModel;
 import rapaio.ml.classifier.ClassifierResult;
 import rapaio.ml.classifier.linear.binarylogistic.BinaryLogisticIRLS;
@@ -97,6 +98,14 @@ public class BinaryLogistic extends AbstractClassifierModel<BinaryLogistic, Clas
             "eps",
             "Tolerance threshold used to signal when fit iterative procedure converged");
 
+    /**
+     * If true, the input features are stored in a compressed sparse rows matrix, which
+     * is much faster and smaller when most of the input values are zero.
+     */
+    public final ValueParam<Boolean, BinaryLogistic> sparse = new ValueParam<>(this, false,
+            "sparse",
+            "Stores input features in a compressed sparse matrix");
+
     // learning artifacts
 
     /**
@@ -215,7 +224,7 @@ public class BinaryLogistic extends AbstractClassifierModel<BinaryLogistic, Clas
         df.varStream()
                 .filter(v -> !firstTargetName().equals(v.name()))
                 .forEach(variables::add);
-        return DMatrix.copy(variables.toArray(Var[]::new));
+        return DMatrix.copy(sparse.get() ? MType.RSPARSE : MType.RDENSE, variables.toArray(Var[]::new));
     }
 
     @Override
@@ -128,13 +128,7 @@ public class BinaryLogisticIRLS extends ParamSet<BinaryLogisticIRLS> {
         DVector z = xw.add(y.get().copy().sub(p).div(pvars));
 
         // Xt(p(1-p)
-        DMatrix xpvar = x.get().copy();
-        for (int i = 0; i < xpvar.rowCount(); i++) {
-            double pvar = pvars.get(i);
-            for (int j = 0; j < xpvar.colCount(); j++) {
-                xpvar.set(i, j, xpvar.get(i, j) * pvar);
-            }
-        }
+        DMatrix xpvar = x.get().copy().dotDiagT(pvars);
 
         // XI(p(1-p))^T * X
         DMatrix mA = xpvar.t().dot(x.get());
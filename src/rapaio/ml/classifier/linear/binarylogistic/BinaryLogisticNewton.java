@@ -108,13 +108,7 @@ public class BinaryLogisticNewton extends ParamSet<BinaryLogisticNewton> {
         DVector pvars = p.copy().apply(value -> value * (1 - value));
 
         // Xt(p(1-p)
-        DMatrix xpvar = x.get().copy();
-        for (int i = 0; i < xpvar.rowCount(); i++) {
-            double pvar = pvars.get(i);
-            for (int j = 0; j < xpvar.colCount(); j++) {
-                xpvar.set(i, j, xpvar.get(i, j) * pvar);
-            }
-        }
+        DMatrix xpvar = x.get().copy().dotDiagT(pvars);
 
         // X^t * I(p(1-p))^T * X
         DMatrix mA = xpvar.t().dot(x.get());
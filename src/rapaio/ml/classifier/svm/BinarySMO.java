@@ -27,12 +27,16 @@ import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarType;
 import rapaio.math.MathTools;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
 import rapaio.ml.classifier.AbstractClassifierModel;
 import rapaio.ml.classifier.ClassifierResult;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.ValueParam;
 import rapaio.ml.common.kernel.Kernel;
 import rapaio.ml.common.kernel.PolyKernel;
+import rapaio.ml.common.kernel.cache.LRUKernelCache;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POption;
 
@@ -88,6 +92,9 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
             "solver", "Solver for problem with valid values: Keerthi1 and Keerthi2",
             x -> "Keerthi1".equals(x) || "Keerthi2".equals(x));
 
+    public final ValueParam<Long, BinarySMO> cacheBytes = new ValueParam<>(this, LRUKernelCache.DEFAULT_CACHE_BYTES,
+            "cacheBytes", "Memory budget in bytes for cached kernel rows", x -> x != null && x > 0);
+
     private static final double eps_delta = 1e-200;
 
     private double[] alpha; // Lagrange multipliers from dual
@@ -117,6 +124,19 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
      */
     private double[] linear_weights;
 
+    /**
+     * Kernel cache statistics collected during the last fit.
+     */
+    private long kernelCacheHits;
+    private long kernelCacheMisses;
+
+    /**
+     * Support vectors as dense rows and their coefficients y[i]*alpha[i]
+     * used for prediction of non linear machines.
+     */
+    private DMatrix supportMatrix;
+    private double[] supportCoefficients;
+
     private static final class State {
         double bLow;
         double bUp; // thresholds
@@ -154,6 +174,20 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
                 1, 1, List.of(VarType.NOMINAL), false);
     }
 
+    /**
+     * @return number of kernel evaluations answered from kernel cache during last fit
+     */
+    public long getKernelCacheHits() {
+        return kernelCacheHits;
+    }
+
+    /**
+     * @return number of kernel evaluations not found in kernel cache during last fit
+     */
+    public long getKernelCacheMisses() {
+        return kernelCacheMisses;
+    }
+
     private void convertWeightVector() {
         double[] sparseWeights = new double[linear_weights.length];
         int[] sparseIndices = new int[linear_weights.length];
@@ -249,6 +283,8 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
         b = (s.bLow + s.bUp) / 2.0;
 
         // Save memory
+        kernelCacheHits = kernel.get().kernelCache().hitCount();
+        kernelCacheMisses = kernel.get().kernelCache().missCount();
         kernel.get().clean();
 
         // If machine is linear, delete training data
@@ -265,6 +301,15 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
 
             // We don't need the alphas in the linear case
             alpha = null;
+        } else {
+
+            // Store support vectors as dense rows for batch kernel evaluation
+            int[] rows = supportVectors.stream().toArray();
+            supportCoefficients = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                supportCoefficients[i] = y[rows[i]] * alpha[rows[i]];
+            }
+            supportMatrix = rows.length == 0 ? null : buildInput(train.mapRows(rows));
         }
 
         return true;
@@ -387,7 +432,7 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
         sparseIndices = null;
 
         // init kernel
-        kernel.get().buildKernelCache(inputNames(), train);
+        kernel.get().buildKernelCache(inputNames(), train, cacheBytes.get());
 
         // Initialize error cache
         s.fCache = new double[n];
@@ -408,8 +453,9 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
     @Override
     protected ClassifierResult corePredict(Frame df, boolean withClasses, boolean withDistributions) {
         ClassifierResult cr = ClassifierResult.build(this, df, withClasses, withDistributions);
+        DMatrix x = kernel.get().isLinear() || supportMatrix == null ? null : buildInput(df);
         for (int i = 0; i < df.rowCount(); i++) {
-            double pred = predict(df, i);
+            double pred = x == null ? predict(df, i) : predict(x.mapRow(i));
 
             cr.firstClasses().setLabel(i, pred < 0 ? label1 : label2);
             cr.firstDensity().setDouble(i, label1, -pred);
@@ -418,6 +464,23 @@ public class BinarySMO extends AbstractClassifierModel<BinarySMO, ClassifierResu
         return cr;
     }
 
+    private DMatrix buildInput(Frame df) {
+        return DMatrix.copy(MType.RDENSE, df.mapVars(inputNames()));
+    }
+
+    /**
+     * Computes output of a non linear SVM for given instance, evaluating
+     * the kernel against all support vectors in a single batch.
+     */
+    private double predict(DVector row) {
+        DVector k = kernel.get().compute(row, supportMatrix);
+        double result = -b;
+        for (int i = 0; i < supportCoefficients.length; i++) {
+            result += supportCoefficients[i] * k.get(i);
+        }
+        return result;
+    }
+
     /**
      * Computes SVM output for given instance.
      */
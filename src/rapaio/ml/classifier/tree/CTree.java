@@ -37,8 +37,11 @@ import rapaio.ml.classifier.tree.ctree.Splitter;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.MultiParam;
 import rapaio.ml.common.ParametricEquals;
+import rapaio.ml.common.QuantileBins;
 import rapaio.ml.common.ValueParam;
 import rapaio.ml.common.VarSelector;
+import rapaio.ml.common.tree.CompiledClassifier;
+import rapaio.ml.common.tree.CompiledTree;
 import rapaio.printer.Format;
 import rapaio.printer.Printable;
 import rapaio.printer.Printer;
@@ -53,6 +56,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -158,12 +162,43 @@ public class CTree extends AbstractClassifierModel<CTree, ClassifierResult> impl
             "Pruning data frame",
             x -> true);
 
+    public final ValueParam<Integer, CTree> bins = new ValueParam<>(this, 256,
+            "bins",
+            "Maximum number of quantile bins used by histogram numeric search",
+            x -> x != null && x >= 2);
+
+    public final ValueParam<Boolean, CTree> sketchBins = new ValueParam<>(this, false,
+            "sketchBins",
+            "Estimate quantile bins with a quantile sketch instead of sorting values");
+
     private Node root;
+    private VarSelector activeVarSelector;
+    private final Map<String, QuantileBins> quantileBinsMap = new ConcurrentHashMap<>();
 
     public Node getRoot() {
         return root;
     }
 
+    /**
+     * Quantile bins of a numeric test variable, used by {@link Search#NumericHistogram}.
+     * During fit the bins are computed once on the whole training frame; outside fit
+     * they are computed from the frame received as parameter at each call.
+     *
+     * @param df      frame used to compute bins if they are not already available
+     * @param varName test variable name
+     * @return quantile bins of the test variable
+     */
+    public QuantileBins quantileBins(Frame df, String varName) {
+        QuantileBins cached = quantileBinsMap.get(varName);
+        return cached != null ? cached : computeQuantileBins(df, varName);
+    }
+
+    private QuantileBins computeQuantileBins(Frame df, String varName) {
+        return sketchBins.get()
+                ? QuantileBins.sketch(df.rvar(varName), bins.get())
+                : QuantileBins.of(df.rvar(varName), bins.get());
+    }
+
     @Override
     public CTree newInstance() {
         return new CTree().copyParameterValues(this);
@@ -188,10 +223,19 @@ public class CTree extends AbstractClassifierModel<CTree, ClassifierResult> impl
     protected boolean coreFit(Frame df, Var weights) {
 
         additionalValidation(df);
-        this.varSelector.get().withVarNames(inputNames());
+        // fitted models which share the parameter instance must not share its state
+        activeVarSelector = varSelector.get().newInstance().withVarNames(inputNames());
 
         int rows = df.rowCount();
 
+        // numeric features are binned only once for histogram searches
+        quantileBinsMap.clear();
+        for (String inputName : inputNames()) {
+            if (testMap.get().get(df.type(inputName)) == Search.NumericHistogram) {
+                quantileBinsMap.put(inputName, computeQuantileBins(df, inputName));
+            }
+        }
+
         // create the root node
         AtomicInteger idGenerator = new AtomicInteger();
         idGenerator.set(0);
@@ -229,6 +273,7 @@ public class CTree extends AbstractClassifierModel<CTree, ClassifierResult> impl
                 queue.add(new Triple(child, frames.v1.get(i), frames.v2.get(i)));
             }
         }
+        quantileBinsMap.clear();
 
         pruning.get().prune(this, (pruningDf.get() == null) ? df : pruningDf.get(), false);
         return true;
@@ -248,11 +293,11 @@ public class CTree extends AbstractClassifierModel<CTree, ClassifierResult> impl
             return;
         }
 
-        String[] nextVarNames = varSelector.get().nextVarNames();
+        String[] nextVarNames = activeVarSelector.nextVarNames();
         List<Candidate> candidateList = new ArrayList<>();
         Queue<String> exhaustList = new ConcurrentLinkedQueue<>();
 
-        int m = varSelector.get().mCount();
+        int m = activeVarSelector.mCount();
         for (String testCol : nextVarNames) {
             if (m <= 0) {
                 continue;
@@ -287,7 +332,7 @@ public class CTree extends AbstractClassifierModel<CTree, ClassifierResult> impl
 
         node.leaf = false;
         node.bestCandidate = candidateList.get(0);
-        varSelector.get().removeVarNames(exhaustList);
+        activeVarSelector.removeVarNames(exhaustList);
     }
 
     public void prune(Frame df) {
@@ -350,6 +395,47 @@ public class CTree extends AbstractClassifierModel<CTree, ClassifierResult> impl
         });
     }
 
+    /**
+     * Builds a compiled form of the fitted tree, used for fast batch prediction.
+     *
+     * @return compiled classifier
+     */
+    public CompiledClassifier compile() {
+        return CompiledClassifier.tree(firstTargetLevels(), compileTree());
+    }
+
+    /**
+     * Builds the flat array representation of the fitted tree. Leaf values
+     * are the normalized densities of the valid target levels.
+     *
+     * @return compiled tree
+     */
+    public CompiledTree compileTree() {
+        if (!hasLearned()) {
+            throw new IllegalStateException("Model was not trained/fitted on data.");
+        }
+        List<String> levels = firstTargetLevels();
+        var builder = CompiledTree.builder(inputNames(), levels.size() - 1);
+        LinkedList<Pair<Node, Integer>> queue = new LinkedList<>();
+        queue.addLast(Pair.from(root, -1));
+        while (!queue.isEmpty()) {
+            var pair = queue.pollFirst();
+            Node node = pair.v1;
+            double total = node.density.sum();
+            double[] values = new double[levels.size() - 1];
+            for (int i = 1; i < levels.size(); i++) {
+                values[i - 1] = total > 0 ? node.density.get(levels.get(i)) / total : 0;
+            }
+            int index = builder.addNode(pair.v2, node.predicate, total, levels.indexOf(node.bestLabel), values);
+            if (!node.leaf) {
+                for (Node child : node.children) {
+                    queue.addLast(Pair.from(child, index));
+                }
+            }
+        }
+        return builder.build();
+    }
+
     public int countNodes(boolean onlyLeaves) {
         int count = 0;
         LinkedList<Node> nodes = new LinkedList<>();
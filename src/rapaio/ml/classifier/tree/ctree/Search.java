@@ -27,6 +27,7 @@ import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.experiment.ml.common.predicate.RowPredicate;
 import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.common.QuantileBins;
 import rapaio.util.IntComparator;
 import rapaio.util.collection.IntArrays;
 
@@ -138,6 +139,75 @@ public enum Search implements Serializable {
             return best;
         }
     },
+    /**
+     * Binary numeric split search which uses quantile bins computed once per fit.
+     * Node instances are accumulated into a weighted histogram in a single pass,
+     * thus there is no sorting at node level and split thresholds are bin cut points.
+     */
+    NumericHistogram {
+        @Override
+        public Candidate computeCandidate(CTree c, Frame df, Var weights, String testName, String targetName, Purity function) {
+
+            QuantileBins bins = c.quantileBins(df, testName);
+            int testNameIndex = df.varIndex(testName);
+            int targetNameIndex = df.varIndex(targetName);
+            List<String> targetLevels = df.levels(targetName);
+            int levels = targetLevels.size() - 1;
+            int binCount = bins.binCount();
+
+            int[] counts = new int[binCount];
+            double[] hist = new double[binCount * levels];
+            int len = 0;
+            for (int i = 0; i < df.rowCount(); i++) {
+                if (df.isMissing(i, testNameIndex)) {
+                    continue;
+                }
+                int bin = bins.bin(df.getDouble(i, testNameIndex));
+                counts[bin]++;
+                hist[bin * levels + df.getInt(i, targetNameIndex) - 1] += weights.getDouble(i);
+                len++;
+            }
+
+            var dt = DensityTable.emptyByLabel(false, DensityTable.NUMERIC_DEFAULT_LABELS, targetLevels);
+            for (int bin = 0; bin < binCount; bin++) {
+                for (int j = 0; j < levels; j++) {
+                    dt.increment(1, j, hist[bin * levels + j]);
+                }
+            }
+
+            Candidate best = null;
+            double bestScore = 0.0;
+            int leftCount = 0;
+
+            for (int bin = 0; bin < binCount - 1; bin++) {
+                if (counts[bin] == 0) {
+                    continue;
+                }
+                for (int j = 0; j < levels; j++) {
+                    double w = hist[bin * levels + j];
+                    dt.increment(1, j, -w);
+                    dt.increment(0, j, +w);
+                }
+                leftCount += counts[bin];
+                if (leftCount < c.minCount.get() || len - leftCount < c.minCount.get()) {
+                    continue;
+                }
+
+                double currentScore = function.compute(dt);
+                if (best != null) {
+                    int comp = Double.compare(bestScore, currentScore);
+                    if (comp > 0) continue;
+                    if (comp == 0 && RandomSource.nextDouble() > 0.5) continue;
+                }
+                best = new Candidate(currentScore, testName);
+                best.addGroup(RowPredicate.numLessEqual(testName, bins.cut(bin)));
+                best.addGroup(RowPredicate.numGreater(testName, bins.cut(bin)));
+
+                bestScore = currentScore;
+            }
+            return best;
+        }
+    },
     BinaryBinary {
         @Override
         public Candidate computeCandidate(
@@ -25,13 +25,16 @@ import rapaio.core.RandomSource;
 import rapaio.core.stat.Mean;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
-import rapaio.data.Unique;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarInt;
 import rapaio.data.VarType;
 import rapaio.math.linear.DMatrix;
 import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.dense.DMatrixDenseR;
+import rapaio.math.linear.sparse.DMatrixSparse;
+import rapaio.math.linear.sparse.DVectorSparse;
 import rapaio.ml.clustering.AbstractClusteringModel;
 import rapaio.ml.clustering.ClusteringModel;
 import rapaio.ml.common.Capabilities;
@@ -41,6 +44,7 @@ import rapaio.printer.opt.POption;
 import rapaio.util.collection.IntArrays;
 
 import java.io.Serial;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -83,6 +87,12 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
 
         @Override
         public double distance(DVector u, DVector v) {
+            if (u instanceof DVectorSparse su && !(v instanceof DVectorSparse)) {
+                return Math.sqrt(sparseError(su, v));
+            }
+            if (v instanceof DVectorSparse sv && !(u instanceof DVectorSparse)) {
+                return Math.sqrt(sparseError(sv, u));
+            }
             double distance = 0;
             for (int i = 0; i < u.size(); i++) {
                 double delta = u.get(i) - v.get(i);
@@ -93,6 +103,9 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
 
         @Override
         public double observationError(DVector c, DVector v) {
+            if (v instanceof DVectorSparse sv && !(c instanceof DVectorSparse)) {
+                return sparseError(sv, c);
+            }
             double distance = 0;
             for (int i = 0; i < c.size(); i++) {
                 double delta = c.get(i) - v.get(i);
@@ -100,16 +113,56 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
             }
             return distance;
         }
+
+        /**
+         * Squared distance between a sparse and a dense vector computed as
+         * {@code ||c||^2 + sum_nz (x^2 - 2xc)}, where the sum is over stored values of x.
+         */
+        private static double sparseError(DVectorSparse x, DVector c) {
+            return sparseError(x, c, c.dot(c));
+        }
+
+        static double sparseError(DVectorSparse x, DVector c, double cnorm) {
+            double distance = cnorm;
+            for (int k = 0; k < x.nnz(); k++) {
+                double value = x.value(k);
+                distance += value * (value - 2 * c.get(x.index(k)));
+            }
+            return Math.max(0, distance);
+        }
+    }
+
+    /**
+     * Algorithm used to iterate the clustering.
+     */
+    public enum Method {
+        /**
+         * Standard iterations, computes distances from all observations to all centroids.
+         */
+        Lloyd,
+        /**
+         * Hamerly's accelerated iterations. For each observation it maintains an upper bound of the distance
+         * to the assigned centroid and a lower bound of the distance to the second closest centroid. Using
+         * the triangle inequality, distances to all centroids are computed only for observations where the
+         * bounds do not guarantee the assignment. Assignment and centroid recomputation run in parallel.
+         * It produces the same assignments as {@link #Lloyd}, but it can be used only with
+         * dense observations in {@link L2} space.
+         */
+        Hamerly
     }
 
     @Serial
     private static final long serialVersionUID = -1046184364541391871L;
 
+    private static final int BLOCK_SIZE = 1 << 10;
+
     public final ValueParam<Integer, KMeans> k = new ValueParam<>(this, 2, "k", "number of clusters");
     public final ValueParam<Integer, KMeans> nstart = new ValueParam<>(this, 1, "nstart", "Number of restarts", n -> n != null && n > 0);
     public final ValueParam<KMeansInit, KMeans> init = new ValueParam<>(this, KMeansInit.Forgy, "init", "Initialization algorithm");
     public final ValueParam<Space, KMeans> space = new ValueParam<>(this, new L2(), "L2 space", "L2 space");
     public final ValueParam<Double, KMeans> eps = new ValueParam<>(this, 1e-20, "eps", "Tolerance for convergence measures");
+    public final ValueParam<Boolean, KMeans> sparse = new ValueParam<>(this, false, "sparse", "Stores observations in a compressed sparse matrix");
+    public final ValueParam<Method, KMeans> method = new ValueParam<>(this, Method.Lloyd, "method", "Iteration algorithm");
 
     // clustering artifacts
 
@@ -153,12 +206,28 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
     @Override
     public ClusteringModel coreFit(Frame initialDf, Var weights) {
 
-        DMatrix m = DMatrix.copy(initialDf);
+        if (method.get() == Method.Hamerly && (sparse.get() || !(space.get() instanceof L2))) {
+            throw new IllegalArgumentException("Hamerly method can be used only with dense observations in L2 space.");
+        }
+
+        DMatrix m = copyInput(initialDf);
         c = initializeClusters(m);
+        if (c instanceof DMatrixSparse) {
+            // centroids are rarely sparse, thus we keep them dense
+            DMatrix sparseCentroids = c;
+            c = DMatrix.fill(c.rowCount(), c.colCount(), sparseCentroids::get);
+        }
 
         int[] assignment = IntArrays.newFill(m.rowCount(), -1);
         errors = VarDouble.empty().name("errors");
 
+        if (method.get() == Method.Hamerly) {
+            hamerlyFit(m, assignment);
+            centroids = SolidFrame.matrix(c, inputNames);
+            learned = true;
+            return this;
+        }
+
         assignToCentroids(m, assignment);
         repairEmptyClusters(m, assignment);
 
@@ -182,6 +251,10 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
         return this;
     }
 
+    private DMatrix copyInput(Frame df) {
+        return DMatrix.copy(sparse.get() ? MType.RSPARSE : MType.RDENSE, df);
+    }
+
     private DMatrix initializeClusters(DMatrix m) {
         DMatrix bestCentroids = init.get().init(space.get(), m, k.get());
         double bestError = computeInitError(m, bestCentroids);
@@ -219,6 +292,10 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
     }
 
     private void assignToCentroids(DMatrix m, int[] assignment) {
+        if (m instanceof DMatrixSparse && space.get() instanceof L2) {
+            assignSparseToCentroids(m, assignment);
+            return;
+        }
         double totalError = 0.0;
         for (int i = 0; i < m.rowCount(); i++) {
             DVector row = m.mapRow(i);
@@ -237,7 +314,39 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
         errors.addDouble(totalError);
     }
 
+    /**
+     * Assignment for sparse observations in L2 space. Squared centroid norms are computed once,
+     * thus the cost of each distance is proportional with the number of non zero values.
+     */
+    private void assignSparseToCentroids(DMatrix m, int[] assignment) {
+        double[] cnorms = new double[c.rowCount()];
+        for (int j = 0; j < cnorms.length; j++) {
+            DVector crow = c.mapRow(j);
+            cnorms[j] = crow.dot(crow);
+        }
+        double totalError = 0.0;
+        for (int i = 0; i < m.rowCount(); i++) {
+            DVectorSparse row = (DVectorSparse) m.mapRow(i);
+            double d = L2.sparseError(row, c.mapRow(0), cnorms[0]);
+            int cluster = 0;
+            for (int j = 1; j < c.rowCount(); j++) {
+                double dd = L2.sparseError(row, c.mapRow(j), cnorms[j]);
+                if (dd < d) {
+                    d = dd;
+                    cluster = j;
+                }
+            }
+            totalError += d;
+            assignment[i] = cluster;
+        }
+        errors.addDouble(totalError);
+    }
+
     private void recomputeCentroids(DMatrix m, int[] assignment) {
+        if (m instanceof DMatrixSparse) {
+            recomputeSparseCentroids(m, assignment);
+            return;
+        }
 
         // we compute mean for each feature separately
         for (int j = 0; j < m.colCount(); j++) {
@@ -254,49 +363,279 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
         }
     }
 
-    private void repairEmptyClusters(DMatrix df, int[] assignment) {
+    private void recomputeSparseCentroids(DMatrix m, int[] assignment) {
+        double[][] sums = new double[k.get()][m.colCount()];
+        int[] counts = new int[k.get()];
+        for (int i = 0; i < m.rowCount(); i++) {
+            DVectorSparse row = (DVectorSparse) m.mapRow(i);
+            double[] sum = sums[assignment[i]];
+            for (int p = 0; p < row.nnz(); p++) {
+                sum[row.index(p)] += row.value(p);
+            }
+            counts[assignment[i]]++;
+        }
+        for (int i = 0; i < k.get(); i++) {
+            for (int j = 0; j < m.colCount(); j++) {
+                c.set(i, j, counts[i] == 0 ? Double.NaN : sums[i][j] / counts[i]);
+            }
+        }
+    }
+
+    private void hamerlyFit(DMatrix m, int[] assignment) {
+        if (!(c instanceof DMatrixDenseR)) {
+            c = DMatrix.fill(c.rowCount(), c.colCount(), c::get);
+        }
+        double[][] x = ((DMatrixDenseR) m).getElements();
+        double[][] cs = ((DMatrixDenseR) c).getElements();
+
+        Hamerly state = new Hamerly(x, cs, assignment);
+        errors.addDouble(state.assign(true));
+        // bounds of moved observations are not valid after repair, thus all distances are computed
+        boolean repaired = repairEmptyClusters(m, assignment);
+
+        int rounds = runs.get();
+        while (rounds-- > 0) {
+            state.recomputeCentroids();
+            errors.addDouble(state.assign(repaired));
+            repaired = repairEmptyClusters(m, assignment);
+
+            if (runningHook != null) {
+                learned = true;
+                runningHook.get().accept(this, runs.get() - rounds);
+            }
+            int erc = errors.size();
+            if (erc > 1 && errors.getDouble(erc - 2) - errors.getDouble(erc - 1) < eps.get() && errors.getDouble(erc - 1) <= errors.getDouble(erc - 2)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * State of Hamerly's algorithm. Observations and centroids are accessed directly from dense row storage.
+     * Centroids can be changed between assignments, since the bounds are updated with the
+     * distances between current centroids and centroids used at previous assignment.
+     */
+    private static final class Hamerly {
+
+        private final double[][] x;
+        private final double[][] c;
+        private final int[] assignment;
+        private final double[][] previous;
+        private final double[] upper;
+        private final double[] lower;
+        private final double[] shift;
+        private final double[] half;
+
+        Hamerly(double[][] x, double[][] c, int[] assignment) {
+            this.x = x;
+            this.c = c;
+            this.assignment = assignment;
+            this.previous = new double[c.length][];
+            this.upper = new double[x.length];
+            this.lower = new double[x.length];
+            this.shift = new double[c.length];
+            this.half = new double[c.length];
+        }
+
+        /**
+         * Assigns observations to the closest centroids.
+         *
+         * @param full if true all distances are computed, otherwise bounds are used
+         * @return total error of the assignment
+         */
+        double assign(boolean full) {
+            int k = c.length;
+            if (!full) {
+                // move bounds with the centroid shifts
+                IntStream.range(0, k).parallel().forEach(j -> shift[j] = distance(previous[j], c[j]));
+                int max = 0;
+                for (int j = 1; j < k; j++) {
+                    if (shift[j] > shift[max]) {
+                        max = j;
+                    }
+                }
+                double second = 0;
+                for (int j = 0; j < k; j++) {
+                    if (j != max) {
+                        second = Math.max(second, shift[j]);
+                    }
+                }
+                final int maxIndex = max;
+                final double maxShift = shift[max];
+                final double secondShift = second;
+                IntStream.range(0, x.length).parallel().forEach(i -> {
+                    int a = assignment[i];
+                    upper[i] += shift[a];
+                    lower[i] -= (a == maxIndex) ? secondShift : maxShift;
+                });
+            }
+            // half of the distance to the closest other centroid
+            IntStream.range(0, k).parallel().forEach(j -> {
+                double min = Double.POSITIVE_INFINITY;
+                for (int l = 0; l < k; l++) {
+                    if (l != j) {
+                        min = Math.min(min, distance(c[j], c[l]));
+                    }
+                }
+                half[j] = min / 2;
+            });
+            for (int j = 0; j < k; j++) {
+                previous[j] = Arrays.copyOf(c[j], c[j].length);
+            }
+
+            int blocks = (x.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            double[] blockErrors = new double[blocks];
+            IntStream.range(0, blocks).parallel().forEach(block -> {
+                double error = 0;
+                int end = Math.min(x.length, (block + 1) * BLOCK_SIZE);
+                for (int i = block * BLOCK_SIZE; i < end; i++) {
+                    if (!full) {
+                        // distance to the assigned centroid is computed exactly, it tightens
+                        // the upper bound and gives the exact error contribution
+                        int a = assignment[i];
+                        upper[i] = distance(x[i], c[a]);
+                        if (upper[i] <= Math.max(half[a], lower[i])) {
+                            error += upper[i] * upper[i];
+                            continue;
+                        }
+                    }
+                    scan(i);
+                    error += upper[i] * upper[i];
+                }
+                blockErrors[block] = error;
+            });
+            double totalError = 0;
+            for (double error : blockErrors) {
+                totalError += error;
+            }
+            return totalError;
+        }
+
+        /**
+         * Computes distances to all centroids and updates assignment and bounds.
+         */
+        private void scan(int i) {
+            double best = distance(x[i], c[0]);
+            double second = Double.POSITIVE_INFINITY;
+            int cluster = 0;
+            for (int j = 1; j < c.length; j++) {
+                double d = distance(x[i], c[j]);
+                if (d < best) {
+                    second = best;
+                    best = d;
+                    cluster = j;
+                } else if (d < second) {
+                    second = d;
+                }
+            }
+            assignment[i] = cluster;
+            upper[i] = best;
+            lower[i] = second;
+        }
+
+        /**
+         * Recomputes centroids as means of assigned observations, in parallel over centroids.
+         * Observations of a cluster are summed in row order, thus the result does not depend on parallelism.
+         */
+        void recomputeCentroids() {
+            int k = c.length;
+            int[] start = new int[k + 1];
+            for (int a : assignment) {
+                start[a + 1]++;
+            }
+            for (int j = 0; j < k; j++) {
+                start[j + 1] += start[j];
+            }
+            int[] rows = new int[x.length];
+            int[] pos = Arrays.copyOf(start, k);
+            for (int i = 0; i < x.length; i++) {
+                rows[pos[assignment[i]]++] = i;
+            }
+            IntStream.range(0, k).parallel().forEach(j -> {
+                double[] centroid = c[j];
+                Arrays.fill(centroid, 0);
+                for (int p = start[j]; p < start[j + 1]; p++) {
+                    double[] row = x[rows[p]];
+                    for (int d = 0; d < centroid.length; d++) {
+                        centroid[d] += row[d];
+                    }
+                }
+                int count = start[j + 1] - start[j];
+                for (int d = 0; d < centroid.length; d++) {
+                    centroid[d] = count == 0 ? Double.NaN : centroid[d] / count;
+                }
+            });
+        }
+
+        private static double distance(double[] u, double[] v) {
+            double sum = 0;
+            for (int i = 0; i < u.length; i++) {
+                double delta = u[i] - v[i];
+                sum += delta * delta;
+            }
+            return Math.sqrt(sum);
+        }
+    }
+
+    /**
+     * Replaces the centroids of empty clusters with observations moved from clusters with
+     * more than one observation. Moved observations are different than the centroids of
+     * non-empty clusters. Centroids are recomputed from the updated assignment.
+     *
+     * @return true if empty clusters were found, false otherwise
+     */
+    private boolean repairEmptyClusters(DMatrix df, int[] assignment) {
         // check for empty clusters, if any is found then
         // select random points to be new clusters, different than
         // existing clusters
 
-        var unique = Unique.ofInt(VarInt.wrap(assignment));
-        if (unique.uniqueCount() == k.get()) {
-            return;
+        int[] counts = new int[k.get()];
+        for (int cluster : assignment) {
+            counts[cluster]++;
         }
-
         HashSet<Integer> emptyCentroids = new HashSet<>();
-        for (int i = 0; i < unique.uniqueCount(); i++) {
-            if (unique.rowList(i).isEmpty()) {
-                emptyCentroids.add(unique.uniqueValue(i));
+        for (int j = 0; j < counts.length; j++) {
+            if (counts[j] == 0) {
+                emptyCentroids.add(j);
             }
         }
+        if (emptyCentroids.isEmpty()) {
+            return false;
+        }
 
         // replace each empty cluster
 
         Iterator<Integer> it = emptyCentroids.iterator();
         while (it.hasNext()) {
             int next = it.next();
-            while (true) {
-                int selection = RandomSource.nextInt(df.rowCount());
-                boolean found = false;
+            int start = RandomSource.nextInt(df.rowCount());
+            for (int p = 0; p < df.rowCount(); p++) {
+                int selection = (start + p) % df.rowCount();
+                if (counts[assignment[selection]] < 2) {
+                    continue;
+                }
 
                 // check if it does not collide with existent valid clusters
 
+                boolean collide = false;
                 for (int i = 0; i < c.rowCount(); i++) {
-                    if (emptyCentroids.contains(i))
-                        continue;
-                    if (!checkIfEqual(c, i, df, next)) {
-                        found = true;
+                    if (!emptyCentroids.contains(i) && checkIfEqual(c, i, df, selection)) {
+                        collide = true;
                         break;
                     }
                 }
-                if (!found) continue;
+                if (collide) {
+                    continue;
+                }
 
-                // we found a valid centroid, it will be assigned
+                // we found a valid centroid, it will be assigned together with its observation
 
                 for (int j = 0; j < c.colCount(); j++) {
                     c.set(next, j, df.get(selection, j));
                 }
+                counts[assignment[selection]]--;
+                counts[next]++;
+                assignment[selection] = next;
                 break;
             }
 
@@ -305,12 +644,13 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
             it.remove();
         }
 
-        // rebuilt errors and cluster assignment
+        // rebuilt centroids from cluster assignment
         // if empty clusters happens again, then that is it, we did our best
         // the stopping criterion is given by a bound on error or a
         // maximum iteration
 
         recomputeCentroids(df, assignment);
+        return true;
     }
 
     private boolean checkIfEqual(DMatrix centroids, int c, DMatrix df, int i) {
@@ -326,7 +666,7 @@ public class KMeans extends AbstractClusteringModel<KMeans, KMeansResult> {
     @Override
     public KMeansResult corePredict(Frame df, boolean withScores) {
         int[] assignment = IntArrays.newFill(df.rowCount(), -1);
-        DMatrix m = DMatrix.copy(df);
+        DMatrix m = copyInput(df);
         assignToCentroids(m, assignment);
         return KMeansResult.valueOf(this, df, VarInt.wrap(assignment));
     }
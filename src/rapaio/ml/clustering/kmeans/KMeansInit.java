@@ -28,9 +28,13 @@ import rapaio.util.collection.DoubleArrays;
 import rapaio.util.collection.IntArrays;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 /**
  * Function which produces initial centroids for KMeans algorithm
@@ -80,7 +84,117 @@ public enum KMeansInit implements Serializable {
 
             return m.mapRows(centroids).copy();
         }
+    },
+    /**
+     * Scalable k-means++ initialization (k-means||), as described by B. Bahmani et al. in "Scalable K-Means++".
+     * Starting with a random observation, a few rounds of independent oversampling are performed, each
+     * observation being selected with probability proportional with its squared distance to the current
+     * candidates. Each candidate receives as weight the number of observations closest to it, after which
+     * the weighted candidates are reclustered with k-means++ into the final centroids.
+     * Passes over observations are executed in parallel.
+     */
+    Parallel {
+        @Override
+        public DMatrix init(KMeans.Space space, DMatrix m, int k) {
+            int n = m.rowCount();
+            double oversampling = 2.0 * k;
+
+            List<Integer> candidates = new ArrayList<>();
+            candidates.add(RandomSource.nextInt(n));
+            double[] d2 = DoubleArrays.newFill(n, Double.POSITIVE_INFINITY);
+            int[] nearest = new int[n];
+            updateDistances(space, m, candidates, 0, d2, nearest);
+
+            for (int round = 0; round < PARALLEL_ROUNDS; round++) {
+                double phi = sum(d2);
+                if (phi == 0) {
+                    break;
+                }
+                int from = candidates.size();
+                candidates.addAll(oversample(d2, oversampling / phi));
+                updateDistances(space, m, candidates, from, d2, nearest);
+            }
+
+            // weight candidates by the number of closest observations
+
+            double[] weights = new double[candidates.size()];
+            for (int i = 0; i < n; i++) {
+                weights[nearest[i]]++;
+            }
+
+            // recluster weighted candidates with k-means++
+
+            DMatrix c = m.mapRows(candidates.stream().mapToInt(Integer::intValue).toArray());
+            int[] centroids = new int[Math.min(k, c.rowCount())];
+            centroids[0] = SamplingTools.sampleWeightedWR(1, Arrays.copyOf(weights, weights.length))[0];
+            double[] cd2 = DoubleArrays.newFill(c.rowCount(), Double.POSITIVE_INFINITY);
+            double[] p = new double[c.rowCount()];
+            for (int i = 1; i < centroids.length; i++) {
+                for (int j = 0; j < c.rowCount(); j++) {
+                    double d = space.distance(c.mapRow(centroids[i - 1]), c.mapRow(j));
+                    cd2[j] = Math.min(cd2[j], d * d);
+                    p[j] = weights[j] * cd2[j];
+                }
+                if (sum(p) == 0) {
+                    // remaining candidates are duplicates of chosen centroids
+                    Arrays.fill(p, 1);
+                }
+                centroids[i] = SamplingTools.sampleWeightedWR(1, p)[0];
+            }
+            int[] rows = new int[k];
+            for (int i = 0; i < k; i++) {
+                // if there are not enough candidates, random observations are used
+                rows[i] = i < centroids.length ? candidates.get(centroids[i]) : RandomSource.nextInt(n);
+            }
+            return m.mapRows(rows).copy();
+        }
     };
 
+    private static final int PARALLEL_ROUNDS = 5;
+    private static final int BLOCK_SIZE = 1 << 10;
+
+    /**
+     * Updates squared distances to the closest candidate and the index of the closest candidate,
+     * using only the candidates starting from a given position.
+     */
+    private static void updateDistances(KMeans.Space space, DMatrix m, List<Integer> candidates, int from,
+                                        double[] d2, int[] nearest) {
+        IntStream.range(0, m.rowCount()).parallel().forEach(i -> {
+            for (int j = from; j < candidates.size(); j++) {
+                double d = space.distance(m.mapRow(candidates.get(j)), m.mapRow(i));
+                if (d * d < d2[i]) {
+                    d2[i] = d * d;
+                    nearest[i] = j;
+                }
+            }
+        });
+    }
+
+    /**
+     * Selects each observation independently with probability {@code min(1, factor * d2[i])}.
+     * Each block of rows uses its own random stream.
+     */
+    private static List<Integer> oversample(double[] d2, double factor) {
+        int blocks = (d2.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        SplittableRandom[] streams = RandomSource.split(blocks);
+        List<List<Integer>> selections = IntStream.range(0, blocks).parallel().mapToObj(block -> {
+            List<Integer> selection = new ArrayList<>();
+            int end = Math.min(d2.length, (block + 1) * BLOCK_SIZE);
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                if (streams[block].nextDouble() < factor * d2[i]) {
+                    selection.add(i);
+                }
+            }
+            return selection;
+        }).toList();
+        List<Integer> selected = new ArrayList<>();
+        selections.forEach(selected::addAll);
+        return selected;
+    }
+
+    private static double sum(double[] values) {
+        return DoubleArrays.sum(values, 0, values.length);
+    }
+
     public abstract DMatrix init(KMeans.Space space, DMatrix m, int k);
 }
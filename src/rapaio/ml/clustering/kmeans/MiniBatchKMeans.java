@@ -0,0 +1,357 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.ml.clustering.kmeans;
+
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarType;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.ml.clustering.AbstractClusteringModel;
+import rapaio.ml.clustering.ClusteringModel;
+import rapaio.ml.clustering.ClusteringResult;
+import rapaio.ml.common.Capabilities;
+import rapaio.ml.common.ValueParam;
+import rapaio.printer.Printer;
+import rapaio.printer.opt.POption;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Mini-batch KMeans clustering algorithm in L2 space, as described by D. Sculley in
+ * "Web-Scale K-Means Clustering". At each step a small batch of observations is assigned to the closest
+ * centroids and each centroid is moved towards its assigned observations with a per centroid learning rate,
+ * which is the inverse of the number of observations assigned to that centroid so far.
+ * <p>
+ * Beside {@link #fit(Frame)}, which samples mini-batches from an in memory frame, the model can be refined
+ * incrementally with {@link #partialFit(Frame)}, {@link #partialFit(Iterator)} or {@link #partialFit(Stream)}.
+ * The first chunk of data is used to initialize centroids, thus it must contain at least {@code k}
+ * observations. Input variables must not contain missing values.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public class MiniBatchKMeans extends AbstractClusteringModel<MiniBatchKMeans, ClusteringResult> {
+
+    public static MiniBatchKMeans newModel() {
+        return new MiniBatchKMeans();
+    }
+
+    @Serial
+    private static final long serialVersionUID = -3594017823529064318L;
+
+    private static final int BLOCK_SIZE = 1 << 10;
+
+    public final ValueParam<Integer, MiniBatchKMeans> k = new ValueParam<>(this, 2, "k", "number of clusters", n -> n != null && n > 0);
+    public final ValueParam<Integer, MiniBatchKMeans> batchSize = new ValueParam<>(this, 1024, "batchSize",
+            "Number of observations in a mini-batch", n -> n != null && n > 0);
+    public final ValueParam<KMeansInit, MiniBatchKMeans> init = new ValueParam<>(this, KMeansInit.Forgy, "init", "Initialization algorithm");
+
+    // clustering artifacts
+
+    private double[][] c;
+    private long[] counts;
+    private VarDouble errors;
+
+    @Override
+    public MiniBatchKMeans newInstance() {
+        return new MiniBatchKMeans().copyParameterValues(this);
+    }
+
+    @Override
+    public String name() {
+        return "MiniBatchKMeans";
+    }
+
+    @Override
+    public Capabilities capabilities() {
+        return new Capabilities(1, 10_000,
+                List.of(VarType.DOUBLE, VarType.INT, VarType.BINARY), false,
+                0, 0, List.of(), true);
+    }
+
+    public Frame getCentroids() {
+        return SolidFrame.matrix(getCentroidsMatrix(), inputNames);
+    }
+
+    public DMatrix getCentroidsMatrix() {
+        return DMatrix.copy(c);
+    }
+
+    /**
+     * @return number of observations assigned to each centroid since the first fit
+     */
+    public long[] getCounts() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+
+    /**
+     * @return error of each mini-batch, computed as the sum of squared distances to the
+     * closest centroids before centroids were updated with that mini-batch
+     */
+    public VarDouble getErrors() {
+        return errors;
+    }
+
+    /**
+     * Fits the model from scratch using {@link #runs} mini-batches sampled with replacement from the given frame.
+     * Initial centroids are computed on a random sample of three times the mini-batch size.
+     */
+    @Override
+    public ClusteringModel coreFit(Frame df, Var weights) {
+        int n = df.rowCount();
+        int[] cols = IntStream.range(0, inputNames.length).toArray();
+
+        int initSize = Math.min(n, Math.max(k.get(), 3 * batchSize.get()));
+        double[][] sample = new double[initSize][];
+        for (int i = 0; i < initSize; i++) {
+            sample[i] = row(df, cols, RandomSource.nextInt(n));
+        }
+        initialize(sample, initSize);
+
+        double[][] batch = new double[batchSize.get()][];
+        for (int run = 1; run <= runs.get(); run++) {
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = row(df, cols, RandomSource.nextInt(n));
+            }
+            update(batch, batch.length);
+            runningHook.get().accept(this, run);
+        }
+        return this;
+    }
+
+    /**
+     * Refines the centroids with a chunk of observations. The chunk is processed in consecutive
+     * mini-batches. If the model is not fitted, the chunk is used first to initialize centroids.
+     *
+     * @param df chunk of observations
+     * @return model instance
+     */
+    public MiniBatchKMeans partialFit(Frame df) {
+        if (!learned) {
+            prepareFit(df, VarDouble.fill(df.rowCount(), 1));
+        }
+        int[] cols = Arrays.stream(inputNames).mapToInt(df::varIndex).toArray();
+        double[][] rows = new double[df.rowCount()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = row(df, cols, i);
+        }
+        partialFit(rows, rows.length);
+        return this;
+    }
+
+    /**
+     * Refines the centroids with chunks of observations given by an iterator, in iteration order.
+     *
+     * @param chunks iterator over chunks of observations
+     * @return model instance
+     */
+    public MiniBatchKMeans partialFit(Iterator<Frame> chunks) {
+        while (chunks.hasNext()) {
+            partialFit(chunks.next());
+        }
+        return this;
+    }
+
+    /**
+     * Refines the centroids with a stream of observation vectors, consumed in mini-batches.
+     * If the model is not fitted, input variables are named {@code V1, V2, ...}.
+     *
+     * @param vectors stream of observations
+     * @return model instance
+     */
+    public MiniBatchKMeans partialFit(Stream<DVector> vectors) {
+        int size = learned ? batchSize.get() : Math.max(k.get(), batchSize.get());
+        double[][] buffer = new double[size][];
+        int len = 0;
+        Iterator<DVector> it = vectors.iterator();
+        while (it.hasNext()) {
+            DVector v = it.next();
+            if (!learned && len == 0) {
+                inputNames = IntStream.range(0, v.size()).mapToObj(i -> "V" + (i + 1)).toArray(String[]::new);
+                inputTypes = new VarType[v.size()];
+                Arrays.fill(inputTypes, VarType.DOUBLE);
+            }
+            if (v.size() != inputNames.length) {
+                throw new IllegalArgumentException("Vector size " + v.size() + " is different than number of inputs " + inputNames.length + ".");
+            }
+            double[] row = new double[v.size()];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = v.get(j);
+            }
+            buffer[len++] = row;
+            if (len == buffer.length) {
+                partialFit(buffer, len);
+                len = 0;
+            }
+        }
+        if (len > 0) {
+            partialFit(buffer, len);
+        }
+        return this;
+    }
+
+    private void partialFit(double[][] rows, int len) {
+        int start = 0;
+        if (!learned) {
+            if (len < k.get()) {
+                throw new IllegalArgumentException("First chunk must contain at least k=" + k.get() + " observations.");
+            }
+            initialize(rows, len);
+        }
+        double[][] batch = new double[batchSize.get()][];
+        while (start < len) {
+            int size = Math.min(batch.length, len - start);
+            System.arraycopy(rows, start, batch, 0, size);
+            update(batch, size);
+            start += size;
+        }
+    }
+
+    private void initialize(double[][] rows, int len) {
+        DMatrix m = DMatrix.copy(Arrays.copyOf(rows, len));
+        DMatrix centroids = init.get().init(new KMeans.L2(), m, k.get());
+        c = new double[centroids.rowCount()][centroids.colCount()];
+        for (int i = 0; i < c.length; i++) {
+            for (int j = 0; j < c[i].length; j++) {
+                c[i][j] = centroids.get(i, j);
+            }
+        }
+        counts = new long[k.get()];
+        errors = VarDouble.empty().name("errors");
+        learned = true;
+    }
+
+    /**
+     * Assigns a mini-batch to the closest centroids, in parallel, after which
+     * centroids are moved towards assigned observations in batch order.
+     */
+    private void update(double[][] batch, int len) {
+        int[] assignment = new int[len];
+        double[] distances = new double[len];
+        assign(batch, len, assignment, distances);
+
+        double error = 0;
+        for (int i = 0; i < len; i++) {
+            error += distances[i];
+            double[] centroid = c[assignment[i]];
+            double eta = 1.0 / ++counts[assignment[i]];
+            double[] row = batch[i];
+            for (int j = 0; j < centroid.length; j++) {
+                centroid[j] += eta * (row[j] - centroid[j]);
+            }
+        }
+        errors.addDouble(error);
+    }
+
+    private void assign(double[][] rows, int len, int[] assignment, double[] distances) {
+        int blocks = (len + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int end = Math.min(len, (block + 1) * BLOCK_SIZE);
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                double best = Double.POSITIVE_INFINITY;
+                int cluster = 0;
+                for (int j = 0; j < c.length; j++) {
+                    double d = squaredDistance(rows[i], c[j]);
+                    if (d < best) {
+                        best = d;
+                        cluster = j;
+                    }
+                }
+                assignment[i] = cluster;
+                distances[i] = best;
+            }
+        });
+    }
+
+    private static double squaredDistance(double[] u, double[] v) {
+        double sum = 0;
+        for (int i = 0; i < u.length; i++) {
+            double delta = u[i] - v[i];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    private static double[] row(Frame df, int[] cols, int row) {
+        double[] values = new double[cols.length];
+        for (int j = 0; j < cols.length; j++) {
+            values[j] = df.getDouble(row, cols[j]);
+        }
+        return values;
+    }
+
+    @Override
+    public ClusteringResult corePredict(Frame df, boolean withScores) {
+        int[] cols = Arrays.stream(inputNames).mapToInt(df::varIndex).toArray();
+        double[][] rows = new double[df.rowCount()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = row(df, cols, i);
+        }
+        int[] assignment = new int[rows.length];
+        assign(rows, rows.length, assignment, new double[rows.length]);
+        return new ClusteringResult(this, df, VarInt.wrap(assignment));
+    }
+
+    @Override
+    public String toString() {
+        return fullName() + ", fitted=" + hasLearned();
+    }
+
+    @Override
+    public String toSummary(Printer printer, POption<?>... options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(fullName()).append("\n");
+        sb.append("Model fitted=").append(hasLearned()).append("\n");
+        if (learned) {
+            sb.append("Mini-batches:").append(errors.size()).append("\n");
+            sb.append("Observations:").append(Arrays.stream(counts).sum()).append("\n");
+            sb.append("Learned clusters:").append(c.length).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toContent(Printer printer, POption<?>... options) {
+        return toSummary(printer, options);
+    }
+
+    @Override
+    public String toFullContent(Printer printer, POption<?>... options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(toSummary(printer, options));
+        if (hasLearned()) {
+            sb.append("Centroids:\n");
+            sb.append(getCentroids().toFullContent(printer, options));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common;
+
+import rapaio.core.stat.QuantileSketch;
+import rapaio.data.Var;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Discretization of a numeric variable into a bounded number of quantile bins.
+ * <p>
+ * Cut points are distinct values from the variable, chosen at equally spaced
+ * ranks of the sorted non missing values. A value {@code x} falls into bin {@code k}
+ * if {@code cut[k-1] < x <= cut[k]}, the last bin being unbounded at right.
+ * <p>
+ * It is used by histogram based split searches, which sort a numeric feature
+ * only once per fit and afterwards need a single pass over node instances
+ * to compute split statistics.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public final class QuantileBins implements Serializable {
+
+    public static QuantileBins of(Var var, int maxBins) {
+        if (maxBins < 2) {
+            throw new IllegalArgumentException("Number of bins must be at least 2.");
+        }
+        double[] values = new double[var.size()];
+        int len = 0;
+        for (int i = 0; i < var.size(); i++) {
+            if (!var.isMissing(i)) {
+                values[len++] = var.getDouble(i);
+            }
+        }
+        Arrays.sort(values, 0, len);
+
+        double[] cuts = new double[Math.max(0, Math.min(maxBins, len) - 1)];
+        int cutLen = 0;
+        for (int i = 1; i <= cuts.length; i++) {
+            int pos = (int) ((long) i * len / (cuts.length + 1)) - 1;
+            double value = values[Math.max(pos, 0)];
+            // last value is excluded since it would produce an empty last bin
+            if (value >= values[len - 1]) {
+                break;
+            }
+            if (cutLen == 0 || value > cuts[cutLen - 1]) {
+                cuts[cutLen++] = value;
+            }
+        }
+        return new QuantileBins(Arrays.copyOf(cuts, cutLen));
+    }
+
+    /**
+     * Builds quantile bins from cut points estimated with a {@link QuantileSketch},
+     * thus values are not copied and sorted. Cut points are still values from the variable,
+     * but ranks of cut points are only approximately equally spaced. The sketch size grows
+     * with the number of bins, such that the rank error is below the bin width.
+     *
+     * @param var     numeric variable
+     * @param maxBins maximum number of bins
+     * @return quantile bins
+     */
+    public static QuantileBins sketch(Var var, int maxBins) {
+        if (maxBins < 2) {
+            throw new IllegalArgumentException("Number of bins must be at least 2.");
+        }
+        QuantileSketch sketch = QuantileSketch.of(var, Math.max(QuantileSketch.DEFAULT_K, 4 * maxBins));
+        long len = sketch.count();
+        double[] cuts = new double[(int) Math.max(0, Math.min(maxBins, len) - 1)];
+        int cutLen = 0;
+        for (int i = 1; i <= cuts.length; i++) {
+            double value = sketch.quantile((double) i / (cuts.length + 1));
+            // last value is excluded since it would produce an empty last bin
+            if (value >= sketch.max()) {
+                break;
+            }
+            if (cutLen == 0 || value > cuts[cutLen - 1]) {
+                cuts[cutLen++] = value;
+            }
+        }
+        return new QuantileBins(Arrays.copyOf(cuts, cutLen));
+    }
+
+    @Serial
+    private static final long serialVersionUID = 2914795226424366873L;
+
+    private final double[] cuts;
+
+    private QuantileBins(double[] cuts) {
+        this.cuts = cuts;
+    }
+
+    /**
+     * @return number of bins, which is the number of cut points plus one
+     */
+    public int binCount() {
+        return cuts.length + 1;
+    }
+
+    /**
+     * Upper inclusive bound of a bin. The last bin has no upper bound.
+     *
+     * @param bin bin index
+     * @return cut value which bounds the bin at right
+     */
+    public double cut(int bin) {
+        return cuts[bin];
+    }
+
+    /**
+     * Finds the bin of a value using binary search on cut points.
+     *
+     * @param value non missing value
+     * @return bin index
+     */
+    public int bin(double value) {
+        int pos = Arrays.binarySearch(cuts, value);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
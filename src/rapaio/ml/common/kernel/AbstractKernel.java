@@ -22,10 +22,13 @@
 package rapaio.ml.common.kernel;
 
 import rapaio.data.Frame;
+import rapaio.math.linear.DMatrix;
 import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.dense.DMatrixDenseR;
+import rapaio.math.linear.dense.DVectorDense;
 import rapaio.ml.common.kernel.cache.KernelCache;
-import rapaio.ml.common.kernel.cache.MapKernelCache;
-import rapaio.ml.common.kernel.cache.SolidKernelCache;
+import rapaio.ml.common.kernel.cache.LRUKernelCache;
 
 import java.io.Serial;
 import java.util.Arrays;
@@ -35,27 +38,77 @@ import java.util.Arrays;
  */
 public abstract class AbstractKernel implements Kernel {
 
+    /**
+     * Describes how a kernel value depends on the two instances. Kernels which are functions
+     * of the dot product or of the squared euclidean distance compute rows of kernel values
+     * directly over dense storage, with {@link #transform(double)} applied on each result.
+     */
+    protected enum Form {
+        GENERAL,
+        DOT,
+        DISTANCE
+    }
+
     @Serial
     private static final long serialVersionUID = -2216556261751685749L;
 
     protected String[] varNames;
     private KernelCache cache;
 
+    /**
+     * Dense rows of the frame used to build the cache, stored once to avoid
+     * variable name lookups at each kernel evaluation.
+     */
+    private transient Frame rowsFrame;
+    private transient DVector[] rows;
+    private transient double[][] rowValues;
+
     @Override
     public void buildKernelCache(String[] varNames, Frame df) {
+        buildKernelCache(varNames, df, LRUKernelCache.DEFAULT_CACHE_BYTES);
+    }
+
+    @Override
+    public void buildKernelCache(String[] varNames, Frame df, long cacheBytes) {
         this.varNames = Arrays.copyOf(varNames, varNames.length);
-        if (df.rowCount() <= 10_000) {
-            cache = new SolidKernelCache(df);
-        } else {
-            cache = new MapKernelCache();
+        cache = new LRUKernelCache(df, cacheBytes);
+        DMatrixDenseR m = (DMatrixDenseR) DMatrix.copy(MType.RDENSE, df.mapVars(varNames));
+        rowsFrame = df;
+        rowValues = m.getElements();
+        rows = new DVector[df.rowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = m.mapRow(i);
         }
     }
 
+    @Override
+    public KernelCache kernelCache() {
+        return cache;
+    }
+
     @Override
     public boolean isLinear() {
         return false;
     }
 
+    /**
+     * @return form of the kernel function, general by default
+     */
+    protected Form form() {
+        return Form.GENERAL;
+    }
+
+    /**
+     * Computes the kernel value from the dot product or from the squared euclidean distance
+     * of two instances. It is used only by kernels which declares such a form.
+     *
+     * @param value dot product or squared distance
+     * @return kernel value
+     */
+    protected double transform(double value) {
+        throw new UnsupportedOperationException("Kernel " + name() + " is not a function of dot product or distance.");
+    }
+
     protected double dotProd(Frame df1, int row1, Frame df2, int row2) {
         double result = 0;
         for (String varName : varNames) {
@@ -64,6 +117,25 @@ public abstract class AbstractKernel implements Kernel {
         return result;
     }
 
+    /**
+     * Dot product of two vectors. Dense vectors are multiplied in the same order as
+     * dense vector dot product, such that single values and rows of values are the same.
+     */
+    protected double dotProd(DVector u, DVector v) {
+        if (u.isDense() && v.isDense()) {
+            return dotProd(u.asDense().elements(), v.asDense().elements(), u.size());
+        }
+        return u.dot(v);
+    }
+
+    protected double dotProd(double[] u, double[] v, int len) {
+        double s = 0;
+        for (int i = 0; i < len; i++) {
+            s = Math.fma(u[i], v[i], s);
+        }
+        return s;
+    }
+
     protected double deltaSumSquares(Frame df1, int row1, Frame df2, int row2) {
         double result = 0;
         for (String varName : varNames) {
@@ -74,6 +146,9 @@ public abstract class AbstractKernel implements Kernel {
     }
 
     protected double deltaSumSquares(DVector u, DVector v) {
+        if (u.isDense() && v.isDense()) {
+            return deltaSumSquares(u.asDense().elements(), v.asDense().elements(), u.size());
+        }
         double result = 0;
         for (int i = 0; i < u.size(); i++) {
             double delta = u.get(i) - v.get(i);
@@ -82,22 +157,97 @@ public abstract class AbstractKernel implements Kernel {
         return result;
     }
 
+    protected double deltaSumSquares(double[] u, double[] v, int len) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int bound = len & ~3;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            double d0 = u[i] - v[i];
+            double d1 = u[i + 1] - v[i + 1];
+            double d2 = u[i + 2] - v[i + 2];
+            double d3 = u[i + 3] - v[i + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < len; i++) {
+            double d = u[i] - v[i];
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
     @Override
     public double compute(Frame df1, int row1, Frame df2, int row2) {
         Double value = cache.retrieve(df1, row1, df2, row2);
         if (value == null) {
-            value = eval(df1, row1, df2, row2);
+            if (rows != null && df1 == rowsFrame && df2 == rowsFrame) {
+                if (cache.storesRows()) {
+                    // compute and cache the whole row of kernel values at once
+                    double[] row = computeRow(rowValues[row1], rowValues, rows[row1].size());
+                    cache.storeRow(df1, row1, row);
+                    return row[row2];
+                }
+                value = compute(rows[row1], rows[row2]);
+            } else {
+                value = eval(df1, row1, df2, row2);
+            }
             cache.store(df1, row1, df2, row2, value);
         }
         return value;
     }
 
+    @Override
+    public DVector compute(DVector u, DMatrix x) {
+        if (!u.isDense()) {
+            u = DVector.copy(u);
+        }
+        if (!(x instanceof DMatrixDenseR)) {
+            DMatrix source = x;
+            x = DMatrix.fill(MType.RDENSE, source.rowCount(), source.colCount(), source::get);
+        }
+        return DVector.wrap(computeRow(u.asDense().elements(), ((DMatrixDenseR) x).getElements(), u.size()));
+    }
+
+    /**
+     * Computes kernel values between an instance and all rows, given as dense arrays.
+     */
+    private double[] computeRow(double[] u, double[][] x, int len) {
+        double[] out = new double[x.length];
+        switch (form()) {
+            case DOT -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = transform(dotProd(u, x[i], len));
+                }
+            }
+            case DISTANCE -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = transform(deltaSumSquares(u, x[i], len));
+                }
+            }
+            default -> {
+                DVector vu = new DVectorDense(len, u);
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = compute(vu, new DVectorDense(len, x[i]));
+                }
+            }
+        }
+        return out;
+    }
+
 
     public abstract double eval(Frame df1, int row1, Frame df2, int row2);
 
     @Override
     public void clean() {
         cache.clear();
+        rowsFrame = null;
+        rows = null;
+        rowValues = null;
     }
 }
 
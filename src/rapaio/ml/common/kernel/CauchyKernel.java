@@ -64,8 +64,18 @@ public class CauchyKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double value = deltaSumSquares(u, v) / sigma;
-        return 1.0 / (1.0 + value * value);
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        double ratio = value / sigma;
+        return 1.0 / (1.0 + ratio * ratio);
     }
 
     @Override
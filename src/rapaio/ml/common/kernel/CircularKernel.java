@@ -63,11 +63,20 @@ public class CircularKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double dot = deltaSumSquares(u, v);
-        if (dot < sigma) {
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        if (value < sigma) {
             return 0;
         }
-        double f = dot / sigma;
+        double f = value / sigma;
         return 2 * (Math.acos(-f) - f * Math.sqrt(1 - f * f)) / Math.PI;
     }
 
@@ -60,7 +60,16 @@ public class ExponentialKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double value = deltaSumSquares(v, u);
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
         return Math.exp(factor * value);
     }
 
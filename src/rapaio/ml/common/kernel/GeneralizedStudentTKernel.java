@@ -56,8 +56,17 @@ public class GeneralizedStudentTKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double dot = deltaSumSquares(u, v);
-        return 1.0 / (1.0 + Math.pow(dot, degree));
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        return 1.0 / (1.0 + Math.pow(value, degree));
     }
 
     @Override
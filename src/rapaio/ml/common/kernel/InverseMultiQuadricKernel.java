@@ -59,8 +59,17 @@ public class InverseMultiQuadricKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double dot = deltaSumSquares(u, v);
-        return 1.0 / Math.sqrt(dot * dot + c_square);
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        return 1.0 / Math.sqrt(value * value + c_square);
     }
 
     @Override
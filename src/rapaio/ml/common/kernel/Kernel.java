@@ -22,7 +22,9 @@
 package rapaio.ml.common.kernel;
 
 import rapaio.data.Frame;
+import rapaio.math.linear.DMatrix;
 import rapaio.math.linear.DVector;
+import rapaio.ml.common.kernel.cache.KernelCache;
 
 import java.io.Serializable;
 
@@ -41,10 +43,32 @@ public interface Kernel extends Serializable {
 
     void buildKernelCache(String[] varNames, Frame df);
 
+    /**
+     * Builds the kernel cache for the given frame, using at most the given
+     * amount of memory for cached kernel values.
+     *
+     * @param varNames   names of the variables used by kernel
+     * @param df         frame used for training
+     * @param cacheBytes memory budget in bytes
+     */
+    void buildKernelCache(String[] varNames, Frame df, long cacheBytes);
+
+    KernelCache kernelCache();
+
     double compute(Frame df1, int row1, Frame df2, int row2);
 
     double compute(DVector v, DVector u);
 
+    /**
+     * Computes kernel values between a vector and each row of a matrix.
+     * Matrices which are not dense row major are copied once before evaluation.
+     *
+     * @param u vector
+     * @param x matrix with rows of the same size as the vector
+     * @return vector of kernel values, one for each row of the matrix
+     */
+    DVector compute(DVector u, DMatrix x);
+
     default void clean() {
     }
 }
@@ -66,6 +66,16 @@ public class LinearKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        return v.dot(u) + c;
+        return transform(dotProd(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DOT;
+    }
+
+    @Override
+    protected double transform(double value) {
+        return value + c;
     }
 }
@@ -55,7 +55,17 @@ public class LogKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        return -Math.log1p(Math.pow(deltaSumSquares(v, u), degree));
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        return -Math.log1p(Math.pow(value, degree));
     }
 
     @Override
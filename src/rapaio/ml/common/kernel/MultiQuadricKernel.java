@@ -57,8 +57,17 @@ public class MultiQuadricKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double dot = deltaSumSquares(u, v);
-        return Math.sqrt(dot * dot + c_square);
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        return Math.sqrt(value * value + c_square);
     }
 
     @Override
@@ -103,9 +103,19 @@ public class PolyKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
+        return transform(dotProd(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DOT;
+    }
+
+    @Override
+    protected double transform(double value) {
         if (isLinear()) {
-            return slope * v.dot(u) + bias;
+            return slope * value + bias;
         }
-        return Math.pow(slope * v.dot(u) + bias, exponent);
+        return Math.pow(slope * value + bias, exponent);
     }
 }
\ No newline at end of file
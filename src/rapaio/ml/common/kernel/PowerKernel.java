@@ -54,7 +54,17 @@ public class PowerKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        return -Math.pow(deltaSumSquares(u, v), degree);
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        return -Math.pow(value, degree);
     }
 
     @Override
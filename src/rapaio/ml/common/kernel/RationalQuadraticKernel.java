@@ -55,8 +55,17 @@ public class RationalQuadraticKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double dot = deltaSumSquares(u, v);
-        double square = dot * dot;
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        double square = value * value;
         return 1.0 - square / (square + c);
     }
 
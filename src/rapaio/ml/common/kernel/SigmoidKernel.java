@@ -70,7 +70,17 @@ public class SigmoidKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        return Math.atan(alpha * u.dot(v) + c);
+        return transform(dotProd(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DOT;
+    }
+
+    @Override
+    protected double transform(double value) {
+        return Math.atan(alpha * value + c);
     }
 
     @Override
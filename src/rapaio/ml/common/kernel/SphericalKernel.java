@@ -60,10 +60,19 @@ public class SphericalKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double dot = deltaSumSquares(u, v);
-        if (dot < sigma)
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        if (value < sigma)
             return 0;
-        double f = dot / sigma;
+        double f = value / sigma;
         return 1 - 3 * f / 2 + f * f * f / 2;
     }
 
@@ -73,11 +73,20 @@ public class WaveKernel extends AbstractKernel {
 
     @Override
     public double compute(DVector v, DVector u) {
-        double dot = deltaSumSquares(v, u);
-        if (dot <= 0) {
+        return transform(deltaSumSquares(v, u));
+    }
+
+    @Override
+    protected Form form() {
+        return Form.DISTANCE;
+    }
+
+    @Override
+    protected double transform(double value) {
+        if (value <= 0) {
             return 0;
         }
-        return theta * Math.sin(dot / theta) / dot;
+        return theta * Math.sin(value / theta) / value;
     }
 
     @Override
@@ -39,4 +39,38 @@ public interface KernelCache extends Serializable {
     void store(Frame df1, int row1, Frame df2, int row2, double value);
 
     void clear();
+
+    /**
+     * @return true if the cache keeps whole rows of kernel values, which are filled with {@link #storeRow(Frame, int, double[])}
+     */
+    default boolean storesRows() {
+        return false;
+    }
+
+    /**
+     * Stores kernel values of an instance with all the instances of the same frame.
+     *
+     * @param df     frame
+     * @param row    instance row
+     * @param values kernel values, one for each row of the frame
+     */
+    default void storeRow(Frame df, int row, double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            store(df, row, df, i, values[i]);
+        }
+    }
+
+    /**
+     * @return number of lookups answered from cache
+     */
+    default long hitCount() {
+        return 0;
+    }
+
+    /**
+     * @return number of lookups which were not found in cache
+     */
+    default long missCount() {
+        return 0;
+    }
 }
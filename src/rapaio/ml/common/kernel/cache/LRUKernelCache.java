@@ -0,0 +1,210 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel.cache;
+
+import rapaio.data.Frame;
+
+import java.io.Serial;
+import java.util.Arrays;
+
+/**
+ * Kernel cache which keeps full rows of kernel values computed on a single frame,
+ * in the spirit of libsvm. Rows are stored as primitive arrays and the number of rows
+ * kept in memory is bounded by a byte budget. When the budget is exhausted the least
+ * recently used row is evicted and its storage is reused for the new row.
+ * <p>
+ * Kernel values which are not yet computed are marked with {@link Double#NaN}.
+ * Since kernels are symmetric, a value is also looked up in the row of the second
+ * instance. Lookups on other frames are not cached and are not counted.
+ *
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class LRUKernelCache implements KernelCache {
+
+    @Serial
+    private static final long serialVersionUID = 3358209164937440528L;
+
+    /**
+     * Default memory budget for cached kernel rows, 128MB.
+     */
+    public static final long DEFAULT_CACHE_BYTES = 128L << 20;
+
+    private final transient Frame df;
+    private final int n;
+    private final int capacity;
+
+    private double[][] rows;
+    // doubly linked list of cached rows in recently used order, head sentinel is n
+    private int[] prev;
+    private int[] next;
+    private int size;
+
+    private long hits;
+    private long misses;
+
+    public LRUKernelCache(Frame df) {
+        this(df, DEFAULT_CACHE_BYTES);
+    }
+
+    public LRUKernelCache(Frame df, long cacheBytes) {
+        if (cacheBytes <= 0) {
+            throw new IllegalArgumentException("Cache size in bytes must be positive.");
+        }
+        this.df = df;
+        this.n = df.rowCount();
+        this.capacity = (int) Math.max(Math.min(2, n), Math.min(n, cacheBytes / (8L * Math.max(1, n))));
+        this.rows = new double[n][];
+        this.prev = new int[n + 1];
+        this.next = new int[n + 1];
+        prev[n] = n;
+        next[n] = n;
+    }
+
+    /**
+     * @return maximum number of kernel rows kept in memory
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of kernel rows currently kept in memory
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Double retrieve(Frame df1, int row1, Frame df2, int row2) {
+        if (rows == null || df1 != df || df2 != df) {
+            return null;
+        }
+        double[] row = rows[row1];
+        if (row != null && !Double.isNaN(row[row2])) {
+            touch(row1);
+            hits++;
+            return row[row2];
+        }
+        row = rows[row2];
+        if (row != null && !Double.isNaN(row[row1])) {
+            touch(row2);
+            hits++;
+            return row[row1];
+        }
+        misses++;
+        return null;
+    }
+
+    @Override
+    public void store(Frame df1, int row1, Frame df2, int row2, double value) {
+        if (rows == null || df1 != df || df2 != df) {
+            return;
+        }
+        double[] row = rows[row1];
+        if (row == null) {
+            row = allocate(row1);
+        } else {
+            touch(row1);
+        }
+        row[row2] = value;
+        if (rows[row2] != null) {
+            rows[row2][row1] = value;
+        }
+    }
+
+    @Override
+    public boolean storesRows() {
+        return true;
+    }
+
+    @Override
+    public void storeRow(Frame df1, int row1, double[] values) {
+        if (rows == null || df1 != df) {
+            return;
+        }
+        double[] row = rows[row1];
+        if (row == null) {
+            row = allocate(row1);
+        } else {
+            touch(row1);
+        }
+        System.arraycopy(values, 0, row, 0, n);
+    }
+
+    private double[] allocate(int r) {
+        double[] row;
+        if (size == capacity) {
+            int lru = prev[n];
+            row = rows[lru];
+            rows[lru] = null;
+            unlink(lru);
+            size--;
+        } else {
+            row = new double[n];
+        }
+        Arrays.fill(row, Double.NaN);
+        rows[r] = row;
+        linkFirst(r);
+        size++;
+        return row;
+    }
+
+    private void touch(int r) {
+        if (next[n] != r) {
+            unlink(r);
+            linkFirst(r);
+        }
+    }
+
+    private void unlink(int r) {
+        next[prev[r]] = next[r];
+        prev[next[r]] = prev[r];
+    }
+
+    private void linkFirst(int r) {
+        prev[r] = n;
+        next[r] = next[n];
+        prev[next[n]] = r;
+        next[n] = r;
+    }
+
+    @Override
+    public long hitCount() {
+        return hits;
+    }
+
+    @Override
+    public long missCount() {
+        return misses;
+    }
+
+    /**
+     * Releases the cached rows. Hit and miss counters are preserved.
+     */
+    @Override
+    public void clear() {
+        rows = null;
+        prev = null;
+        next = null;
+        size = 0;
+    }
+}
@@ -51,7 +51,7 @@ public class MapKernelCache implements KernelCache {
     @Override
     public Double retrieve(Frame df1, int row1, Frame df2, int row2) {
         if (cache.containsKey(df1) && cache.get(df1).containsKey(df2)) {
-            cache.get(df1).get(df2).get((((long) row1) << 32) | (row2 & 0xffffffffL));
+            return cache.get(df1).get(df2).get((((long) row1) << 32) | (row2 & 0xffffffffL));
         }
         return null;
     }
@@ -0,0 +1,200 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.tree;
+
+import rapaio.data.Frame;
+import rapaio.math.linear.DMatrix;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compiled form of a classification tree or of a forest of classification trees.
+ * <p>
+ * Predictions are written into primitive buffers supplied by the caller. Classes are
+ * stored as level indexes (the first valid level has index 1, as in nominal variables)
+ * and densities are stored in row major order, with one value for each valid level.
+ * Rows are processed in parallel blocks and no objects are allocated for each row.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public final class CompiledClassifier implements Serializable {
+
+    /**
+     * Compiled classifier for a single tree, the predicted class being the best label of the leaf node.
+     */
+    public static CompiledClassifier tree(List<String> levels, CompiledTree tree) {
+        return new CompiledClassifier(levels, new CompiledTree[]{tree}, false, true);
+    }
+
+    /**
+     * Compiled classifier for a forest of trees.
+     *
+     * @param levels target levels, including the missing level
+     * @param trees  compiled trees
+     * @param voting if true each tree votes with its predicted class, otherwise tree densities are averaged
+     */
+    public static CompiledClassifier forest(List<String> levels, List<CompiledTree> trees, boolean voting) {
+        return new CompiledClassifier(levels, trees.toArray(CompiledTree[]::new), voting, false);
+    }
+
+    @Serial
+    private static final long serialVersionUID = 3260936958707546221L;
+    private static final int BLOCK_SIZE = 1024;
+
+    private final List<String> levels;
+    private final CompiledTree[] trees;
+    private final boolean voting;
+    private final boolean single;
+    private final int classCount;
+
+    private CompiledClassifier(List<String> levels, CompiledTree[] trees, boolean voting, boolean single) {
+        this.levels = List.copyOf(levels);
+        this.trees = trees;
+        this.voting = voting;
+        this.single = single;
+        this.classCount = levels.size() - 1;
+        for (CompiledTree tree : trees) {
+            if (tree.width() != classCount) {
+                throw new IllegalArgumentException("Compiled tree width does not match the number of classes.");
+            }
+        }
+    }
+
+    public List<String> levels() {
+        return levels;
+    }
+
+    public int classCount() {
+        return classCount;
+    }
+
+    public int treeCount() {
+        return trees.length;
+    }
+
+    /**
+     * Predicts classes and densities for all rows of a frame.
+     *
+     * @param df        frame with features
+     * @param classes   buffer for predicted classes, of length at least row count, ignored if null
+     * @param densities buffer for densities, of length at least row count times class count, ignored if null
+     */
+    public void predict(Frame df, int[] classes, double[] densities) {
+        double[][] bound = new double[trees.length][];
+        for (int i = 0; i < trees.length; i++) {
+            bound[i] = trees[i].bind(df);
+        }
+        predict(CompiledTree.features(df, trees[0].featureNames()), bound, df.rowCount(), classes, densities);
+    }
+
+    /**
+     * Predicts classes and densities for all rows of a matrix, where columns
+     * are features in the order of model input variables.
+     *
+     * @param x         matrix with features
+     * @param classes   buffer for predicted classes, of length at least row count, ignored if null
+     * @param densities buffer for densities, of length at least row count times class count, ignored if null
+     */
+    public void predict(DMatrix x, int[] classes, double[] densities) {
+        double[][] bound = new double[trees.length][];
+        for (int i = 0; i < trees.length; i++) {
+            bound[i] = trees[i].bind();
+        }
+        predict(CompiledTree.features(x), bound, x.rowCount(), classes, densities);
+    }
+
+    private void predict(CompiledTree.Features x, double[][] bound, int rows, int[] classes, double[] densities) {
+        int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            double[] sum = new double[classCount];
+            double[] buff = new double[classCount];
+            int end = Math.min(rows, (block + 1) * BLOCK_SIZE);
+            for (int row = block * BLOCK_SIZE; row < end; row++) {
+                predictRow(x, bound, row, sum, buff, classes, densities);
+            }
+        });
+    }
+
+    private void predictRow(CompiledTree.Features x, double[][] bound, int row,
+                            double[] sum, double[] buff, int[] classes, double[] densities) {
+        if (single) {
+            clear(sum);
+            int leaf = trees[0].accumulate(x, bound[0], row, 1, sum, 0);
+            write(row, leaf >= 0 ? trees[0].best(leaf) : argmax(sum) + 1, sum, classes, densities);
+            return;
+        }
+        clear(sum);
+        for (int t = 0; t < trees.length; t++) {
+            clear(buff);
+            trees[t].accumulate(x, bound[t], row, 1, buff, 0);
+            if (voting) {
+                sum[argmax(buff)] += 1;
+            } else {
+                double total = 0;
+                for (double v : buff) {
+                    total += v;
+                }
+                for (int i = 0; i < classCount; i++) {
+                    sum[i] += buff[i] / total;
+                }
+            }
+        }
+        double total = 0;
+        for (double v : sum) {
+            total += v;
+        }
+        if (total > 0) {
+            for (int i = 0; i < classCount; i++) {
+                sum[i] /= total;
+            }
+        }
+        write(row, argmax(sum) + 1, sum, classes, densities);
+    }
+
+    private void write(int row, int best, double[] sum, int[] classes, double[] densities) {
+        if (classes != null) {
+            classes[row] = best;
+        }
+        if (densities != null) {
+            System.arraycopy(sum, 0, densities, row * classCount, classCount);
+        }
+    }
+
+    private static void clear(double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 0;
+        }
+    }
+
+    private static int argmax(double[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.tree;
+
+import rapaio.data.Frame;
+import rapaio.data.VarDouble;
+import rapaio.math.linear.DMatrix;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compiled form of an additive model of regression trees. The prediction
+ * of an instance is an intercept plus the weighted sum of tree predictions.
+ * It describes a single regression tree, a regression forest (trees averaged)
+ * or a gradient boosting model (trees scaled by shrinkage).
+ * <p>
+ * Predictions are written into primitive buffers supplied by the caller.
+ * Rows are processed in parallel blocks and no objects are allocated for each row.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public final class CompiledRegression implements Serializable {
+
+    public static CompiledRegression tree(CompiledTree tree) {
+        return new CompiledRegression(0, new CompiledTree[]{tree}, new double[]{1});
+    }
+
+    public static CompiledRegression additive(double intercept, List<CompiledTree> trees, double[] factors) {
+        if (trees.size() != factors.length) {
+            throw new IllegalArgumentException("Number of trees must be equal with the number of factors.");
+        }
+        return new CompiledRegression(intercept, trees.toArray(CompiledTree[]::new), factors);
+    }
+
+    @Serial
+    private static final long serialVersionUID = -3452094116409591178L;
+    private static final int BLOCK_SIZE = 1024;
+
+    private final double intercept;
+    private final CompiledTree[] trees;
+    private final double[] factors;
+
+    private CompiledRegression(double intercept, CompiledTree[] trees, double[] factors) {
+        this.intercept = intercept;
+        this.trees = trees;
+        this.factors = factors;
+    }
+
+    public double intercept() {
+        return intercept;
+    }
+
+    public int treeCount() {
+        return trees.length;
+    }
+
+    /**
+     * Predicts values for all rows of a frame.
+     *
+     * @param df  frame with features
+     * @param out buffer for predicted values, of length at least row count
+     */
+    public void predict(Frame df, double[] out) {
+        double[][] bound = new double[trees.length][];
+        for (int i = 0; i < trees.length; i++) {
+            bound[i] = trees[i].bind(df);
+        }
+        predict(CompiledTree.features(df, featureNames()), bound, df.rowCount(), out);
+    }
+
+    /**
+     * Predicts values for all rows of a frame into a new variable.
+     *
+     * @param df frame with features
+     * @return variable with predicted values
+     */
+    public VarDouble predict(Frame df) {
+        double[] out = new double[df.rowCount()];
+        predict(df, out);
+        return VarDouble.wrap(out);
+    }
+
+    /**
+     * Predicts values for all rows of a matrix, where columns are features
+     * in the order of model input variables.
+     *
+     * @param x   matrix with features
+     * @param out buffer for predicted values, of length at least row count
+     */
+    public void predict(DMatrix x, double[] out) {
+        double[][] bound = new double[trees.length][];
+        for (int i = 0; i < trees.length; i++) {
+            bound[i] = trees[i].bind();
+        }
+        predict(CompiledTree.features(x), bound, x.rowCount(), out);
+    }
+
+    private String[] featureNames() {
+        return trees.length == 0 ? new String[0] : trees[0].featureNames();
+    }
+
+    private void predict(CompiledTree.Features x, double[][] bound, int rows, double[] out) {
+        int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            double[] weight = new double[1];
+            int end = Math.min(rows, (block + 1) * BLOCK_SIZE);
+            for (int row = block * BLOCK_SIZE; row < end; row++) {
+                double value = intercept;
+                for (int t = 0; t < trees.length; t++) {
+                    value += factors[t] * trees[t].predictValue(x, bound[t], row, weight);
+                }
+                out[row] = value;
+            }
+        });
+    }
+}
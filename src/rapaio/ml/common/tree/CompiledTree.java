@@ -0,0 +1,413 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.tree;
+
+import rapaio.data.Frame;
+import rapaio.data.Var;
+import rapaio.experiment.ml.common.predicate.RowPredicate;
+import rapaio.math.linear.DMatrix;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flat array representation of a fitted decision tree, used for fast inference.
+ * <p>
+ * Nodes are stored in breadth first order, such that the children of a node are
+ * stored contiguously. For each node we keep the test which routes an instance
+ * from its parent into it (kind of test, feature index and value), the offsets of
+ * its children, its weight and, for leaf nodes, a fixed width vector of values
+ * (the class densities for a classification tree or the predicted value for
+ * a regression tree).
+ * <p>
+ * When no child test is satisfied (the test value is missing), the prediction
+ * is the weighted combination of the predictions of all children, as it is
+ * done by the tree models.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public final class CompiledTree implements Serializable {
+
+    /**
+     * Builds a compiled tree.
+     *
+     * @param featureNames names of the features, feature indexes refer to this array
+     * @param width        number of leaf values
+     * @return compiled tree builder
+     */
+    public static Builder builder(String[] featureNames, int width) {
+        return new Builder(featureNames, width);
+    }
+
+    /**
+     * Reads feature values of an instance.
+     */
+    @FunctionalInterface
+    public interface Features {
+
+        /**
+         * @param row     instance row
+         * @param feature feature index
+         * @return feature value as double, missing values are {@code NaN} and missing nominal values are 0
+         */
+        double get(int row, int feature);
+    }
+
+    /**
+     * Builds a reader over frame variables, having features in the same order as the given names.
+     */
+    public static Features features(Frame df, String[] featureNames) {
+        Var[] vars = new Var[featureNames.length];
+        for (int i = 0; i < featureNames.length; i++) {
+            int index = df.varIndex(featureNames[i]);
+            if (index < 0) {
+                throw new IllegalArgumentException("Feature " + featureNames[i] + " is not present in frame.");
+            }
+            vars[i] = df.rvar(index);
+        }
+        return (row, feature) -> vars[feature].getDouble(row);
+    }
+
+    /**
+     * Builds a reader over the rows of a matrix, feature indexes being matrix column indexes.
+     */
+    public static Features features(DMatrix x) {
+        return x::get;
+    }
+
+    @Serial
+    private static final long serialVersionUID = -8204513117713839457L;
+
+    private static final byte ALL = 0;
+    private static final byte NUM_LESS_EQUAL = 1;
+    private static final byte NUM_LESS = 2;
+    private static final byte NUM_GREATER_EQUAL = 3;
+    private static final byte NUM_GREATER = 4;
+    private static final byte BIN_EQUAL = 5;
+    private static final byte BIN_NOT_EQUAL = 6;
+    private static final byte NOM_EQUAL = 7;
+    private static final byte NOM_NOT_EQUAL = 8;
+
+    private final String[] featureNames;
+    private final int width;
+    private final byte[] ops;
+    private final int[] features;
+    private final double[] values;
+    private final String[] labels;
+    private final int[] childStart;
+    private final int[] childCount;
+    private final double[] weights;
+    private final int[] best;
+    private final double[] leafValues;
+    private final boolean hasNominal;
+
+    private CompiledTree(Builder builder) {
+        int n = builder.ops.size();
+        this.featureNames = builder.featureNames;
+        this.width = builder.width;
+        this.ops = new byte[n];
+        this.features = new int[n];
+        this.values = new double[n];
+        this.labels = new String[n];
+        this.childStart = new int[n];
+        this.childCount = new int[n];
+        this.weights = new double[n];
+        this.best = new int[n];
+        this.leafValues = new double[n * width];
+        boolean nominal = false;
+        for (int i = 0; i < n; i++) {
+            ops[i] = builder.ops.get(i);
+            features[i] = builder.features.get(i);
+            values[i] = builder.values.get(i);
+            labels[i] = builder.labels.get(i);
+            childStart[i] = builder.childStart.get(i);
+            childCount[i] = builder.childCount.get(i);
+            weights[i] = builder.weights.get(i);
+            best[i] = builder.best.get(i);
+            System.arraycopy(builder.leafValues.get(i), 0, leafValues, i * width, width);
+            nominal |= ops[i] == NOM_EQUAL || ops[i] == NOM_NOT_EQUAL;
+        }
+        this.hasNominal = nominal;
+    }
+
+    public String[] featureNames() {
+        return featureNames;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int nodeCount() {
+        return ops.length;
+    }
+
+    /**
+     * Test values bound to a frame. Nominal test labels are replaced with
+     * the indexes of the labels in the levels of frame variables.
+     *
+     * @param df frame used for prediction
+     * @return array of test values for each node
+     */
+    public double[] bind(Frame df) {
+        if (!hasNominal) {
+            return values;
+        }
+        double[] bound = Arrays.copyOf(values, values.length);
+        for (int i = 0; i < ops.length; i++) {
+            if (ops[i] == NOM_EQUAL || ops[i] == NOM_NOT_EQUAL) {
+                bound[i] = df.levels(featureNames[features[i]]).indexOf(labels[i]);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Test values used for prediction on matrices. Since matrices do not have
+     * nominal levels, the trees with nominal tests cannot be used on matrices.
+     *
+     * @return array of test values for each node
+     */
+    public double[] bind() {
+        if (hasNominal) {
+            throw new IllegalArgumentException("Compiled tree with nominal tests cannot predict from matrix.");
+        }
+        return values;
+    }
+
+    /**
+     * Adds the leaf values which corresponds to an instance, multiplied by a factor,
+     * into an output buffer.
+     *
+     * @param x      feature reader
+     * @param bound  test values obtained with one of the bind methods
+     * @param row    instance row
+     * @param factor multiplication factor
+     * @param out    output buffer
+     * @param offset offset in the output buffer
+     * @return index of the leaf node reached, or -1 if the prediction combined multiple leaves
+     */
+    public int accumulate(Features x, double[] bound, int row, double factor, double[] out, int offset) {
+        return accumulate(x, bound, row, 0, factor, out, offset);
+    }
+
+    private int accumulate(Features x, double[] bound, int row, int node, double factor, double[] out, int offset) {
+        while (true) {
+            int count = childCount[node];
+            if (count == 0) {
+                int base = node * width;
+                for (int i = 0; i < width; i++) {
+                    out[offset + i] += factor * leafValues[base + i];
+                }
+                return node;
+            }
+            int start = childStart[node];
+            int next = -1;
+            for (int c = start; c < start + count; c++) {
+                if (test(ops[c], x.get(row, features[c]), bound[c])) {
+                    next = c;
+                    break;
+                }
+            }
+            if (next < 0) {
+                double total = 0;
+                for (int c = start; c < start + count; c++) {
+                    total += weights[c];
+                }
+                for (int c = start; c < start + count; c++) {
+                    accumulate(x, bound, row, c, factor * weights[c] / total, out, offset);
+                }
+                return -1;
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Best index stored for a node at build time, used for leaf nodes of classification trees.
+     */
+    public int best(int node) {
+        return best[node];
+    }
+
+    /**
+     * Computes the first leaf value for an instance. When the test value is missing,
+     * the predicted value is the weighted mean of children predictions, where the
+     * weights are the predicted weights of children, and the predicted weight is
+     * the mean of children predicted weights.
+     *
+     * @param x      feature reader
+     * @param bound  test values obtained with one of the bind methods
+     * @param row    instance row
+     * @param weight buffer of length at least one where the predicted weight is stored
+     * @return predicted value
+     */
+    public double predictValue(Features x, double[] bound, int row, double[] weight) {
+        return predictValue(x, bound, row, 0, weight);
+    }
+
+    private double predictValue(Features x, double[] bound, int row, int node, double[] weight) {
+        while (true) {
+            int count = childCount[node];
+            if (count == 0) {
+                weight[0] = weights[node];
+                return leafValues[node * width];
+            }
+            int start = childStart[node];
+            int next = -1;
+            for (int c = start; c < start + count; c++) {
+                if (test(ops[c], x.get(row, features[c]), bound[c])) {
+                    next = c;
+                    break;
+                }
+            }
+            if (next < 0) {
+                double sum = 0;
+                double wsum = 0;
+                for (int c = start; c < start + count; c++) {
+                    double value = predictValue(x, bound, row, c, weight);
+                    sum += value * weight[0];
+                    wsum += weight[0];
+                }
+                weight[0] = wsum / count;
+                return sum / wsum;
+            }
+            node = next;
+        }
+    }
+
+    private static boolean test(byte op, double x, double value) {
+        return switch (op) {
+            case ALL -> true;
+            case NUM_LESS_EQUAL -> x <= value;
+            case NUM_LESS -> x < value;
+            case NUM_GREATER_EQUAL -> x >= value;
+            case NUM_GREATER -> x > value;
+            case BIN_EQUAL, NOM_EQUAL -> x == value;
+            case BIN_NOT_EQUAL -> !Double.isNaN(x) && x != value;
+            case NOM_NOT_EQUAL -> x > 0 && x != value;
+            default -> throw new IllegalStateException("Unknown test type.");
+        };
+    }
+
+    private static byte code(RowPredicate.Op op) {
+        return switch (op) {
+            case ALL -> ALL;
+            case NUM_LESS_EQUAL -> NUM_LESS_EQUAL;
+            case NUM_LESS -> NUM_LESS;
+            case NUM_GREATER_EQUAL -> NUM_GREATER_EQUAL;
+            case NUM_GREATER -> NUM_GREATER;
+            case BIN_EQUAL -> BIN_EQUAL;
+            case BIN_NOT_EQUAL -> BIN_NOT_EQUAL;
+            case NOM_EQUAL -> NOM_EQUAL;
+            case NOM_NOT_EQUAL -> NOM_NOT_EQUAL;
+        };
+    }
+
+    /**
+     * Builder for compiled trees. Nodes have to be added in breadth first order,
+     * the root first, such that children of the same parent are added one after another.
+     */
+    public static final class Builder {
+
+        private final String[] featureNames;
+        private final int width;
+        private final List<Byte> ops = new ArrayList<>();
+        private final List<Integer> features = new ArrayList<>();
+        private final List<Double> values = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<Integer> childStart = new ArrayList<>();
+        private final List<Integer> childCount = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private final List<Integer> best = new ArrayList<>();
+        private final List<double[]> leafValues = new ArrayList<>();
+
+        private Builder(String[] featureNames, int width) {
+            this.featureNames = featureNames;
+            this.width = width;
+        }
+
+        /**
+         * Adds a node.
+         *
+         * @param parent    index of the parent node, -1 for root
+         * @param predicate predicate which routes instances from parent to this node, ignored for root
+         * @param weight    node weight, used to combine children predictions for missing values
+         * @param best      best index, used for classification leaves
+         * @param values    leaf values
+         * @return index of the added node
+         */
+        public int addNode(int parent, RowPredicate predicate, double weight, int best, double[] values) {
+            if (values.length != width) {
+                throw new IllegalArgumentException("Leaf values does not have the compiled tree width.");
+            }
+            int index = ops.size();
+            if (parent < 0) {
+                if (index != 0) {
+                    throw new IllegalArgumentException("Root node must be the first node added.");
+                }
+                ops.add(ALL);
+                features.add(-1);
+                this.values.add(Double.NaN);
+                labels.add(null);
+            } else {
+                RowPredicate.Spec spec = predicate.spec();
+                if (spec == null) {
+                    throw new IllegalArgumentException("Predicate " + predicate + " cannot be compiled.");
+                }
+                int feature = -1;
+                if (spec.op() != RowPredicate.Op.ALL) {
+                    feature = Arrays.asList(featureNames).indexOf(spec.testName());
+                    if (feature < 0) {
+                        throw new IllegalArgumentException("Test variable " + spec.testName() + " is not a feature.");
+                    }
+                }
+                if (childCount.get(parent) == 0) {
+                    childStart.set(parent, index);
+                } else if (childStart.get(parent) + childCount.get(parent) != index) {
+                    throw new IllegalArgumentException("Children of a node must be added in sequence.");
+                }
+                childCount.set(parent, childCount.get(parent) + 1);
+                ops.add(code(spec.op()));
+                features.add(feature);
+                this.values.add(spec.testValue());
+                labels.add(spec.testLabel());
+            }
+            childStart.add(0);
+            childCount.add(0);
+            weights.add(weight);
+            this.best.add(best);
+            leafValues.add(Arrays.copyOf(values, width));
+            return index;
+        }
+
+        public CompiledTree build() {
+            if (ops.isEmpty()) {
+                throw new IllegalStateException("Compiled tree must have at least one node.");
+            }
+            return new CompiledTree(this);
+        }
+    }
+}
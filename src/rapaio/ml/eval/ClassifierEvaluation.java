@@ -21,6 +21,7 @@
 
 package rapaio.ml.eval;
 
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.ml.classifier.ClassifierModel;
@@ -40,6 +41,7 @@ import java.io.Serial;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -102,14 +104,18 @@ public class ClassifierEvaluation extends ParamSet<ClassifierEvaluation> {
 
         List<Split> splits = splitStrategy.get().generateSplits(data.get(), weights.get());
 
-        for (Split split : splits) {
-            Future<Run> futureRun = executorService.submit(() -> {
+        SplittableRandom[] streams = RandomSource.split(splits.size());
+
+        for (int i = 0; i < splits.size(); i++) {
+            Split split = splits.get(i);
+            SplittableRandom stream = streams[i];
+            Future<Run> futureRun = executorService.submit(() -> RandomSource.callWith(stream, () -> {
                 var m = model.get().newInstance();
                 m.fit(split.trainDf(), targetName.get());
                 var trainResult = m.predict(split.trainDf(), true, true);
                 var testResult = m.predict(split.testDf(), true, true);
                 return new Run(split, trainResult, testResult);
-            });
+            }));
             futures.add(futureRun);
         }
 
@@ -21,6 +21,7 @@
 
 package rapaio.ml.eval;
 
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.ml.common.ListParam;
@@ -37,6 +38,7 @@ import java.io.Serial;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -88,9 +90,10 @@ public class RegressionEvaluation extends ParamSet<RegressionEvaluation> {
         // create features for parallel execution
 
         List<Split> splits = splitStrategy.get().generateSplits(df.get(), weights.get());
+        SplittableRandom[] streams = RandomSource.split(splits.size());
 
-        for (Split split : splits) {
-            tasks.add(new Task(model.get(), targetName.get(), split));
+        for (int i = 0; i < splits.size(); i++) {
+            tasks.add(new Task(model.get(), targetName.get(), splits.get(i), streams[i]));
         }
 
         RegressionEvaluationResult result = new RegressionEvaluationResult(this);
@@ -144,15 +147,18 @@ public class RegressionEvaluation extends ParamSet<RegressionEvaluation> {
     private record Run(Split split, RegressionResult trainResult, RegressionResult testResult) {
     }
 
-    private record Task(RegressionModel model, String targetName, Split split) implements Callable<RegressionEvaluation.Run> {
+    private record Task(RegressionModel model, String targetName, Split split, SplittableRandom stream)
+            implements Callable<RegressionEvaluation.Run> {
 
         @Override
-        public Run call() throws Exception {
-            var m = model.newInstance();
-            m.fit(split.trainDf(), targetName);
-            var trainResult = m.predict(split.trainDf());
-            var testResult = m.predict(split.testDf());
-            return new RegressionEvaluation.Run(split, trainResult, testResult);
+        public Run call() {
+            return RandomSource.callWith(stream, () -> {
+                var m = model.newInstance();
+                m.fit(split.trainDf(), targetName);
+                var trainResult = m.predict(split.trainDf());
+                var testResult = m.predict(split.testDf());
+                return new RegressionEvaluation.Run(split, trainResult, testResult);
+            });
         }
     }
 }
@@ -66,6 +66,13 @@ public class L2Loss implements Loss, RTreeLoss {
         return VarDouble.from(y.size(), row -> y.getDouble(row) - y_hat.getDouble(row));
     }
 
+    @Override
+    public void gradient(Var y, Var y_hat, VarDouble gradient) {
+        for (int i = 0; i < y.size(); i++) {
+            gradient.setDouble(i, y.getDouble(i) - y_hat.getDouble(i));
+        }
+    }
+
     @Override
     public VarDouble error(Var y, Var y_hat) {
         int len = Math.min(y.size(), y_hat.size());
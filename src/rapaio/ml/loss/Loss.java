@@ -80,6 +80,21 @@ public interface Loss extends ParametricEquals<Loss>, Serializable {
      */
     VarDouble gradient(Var y, Var y_hat);
 
+    /**
+     * Computes the gradient of the loss function into an existing vector.
+     * It avoids allocations when the gradient is computed repeatedly.
+     *
+     * @param y        true target values
+     * @param y_hat    fitted values
+     * @param gradient vector where computed gradients are stored
+     */
+    default void gradient(Var y, Var y_hat, VarDouble gradient) {
+        VarDouble values = gradient(y, y_hat);
+        for (int i = 0; i < values.size(); i++) {
+            gradient.setDouble(i, values.getDouble(i));
+        }
+    }
+
     /**
      * Computes loss errors.
      * <p>
@@ -30,13 +30,18 @@ import rapaio.data.VarType;
 import rapaio.experiment.ml.regression.tree.GBTRtree;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.ValueParam;
+import rapaio.ml.common.tree.CompiledRegression;
+import rapaio.ml.common.tree.CompiledTree;
 import rapaio.ml.loss.L2Loss;
 import rapaio.ml.loss.Loss;
 import rapaio.ml.regression.AbstractRegressionModel;
 import rapaio.ml.regression.RegressionModel;
 import rapaio.ml.regression.RegressionResult;
+import rapaio.ml.regression.simple.ConstantRegression;
+import rapaio.ml.regression.simple.L1Regression;
 import rapaio.ml.regression.simple.L2Regression;
 import rapaio.ml.regression.tree.RTree;
+import rapaio.ml.regression.tree.rtree.Node;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POption;
 
@@ -86,8 +91,17 @@ public class GBTRegression extends AbstractRegressionModel<GBTRegression, Regres
             "Threshold to stop growing trees if gain is not met.",
             Double::isFinite);
 
+    public final ValueParam<Integer, GBTRegression> earlyStoppingRounds = new ValueParam<>(this, 0,
+            "earlyStoppingRounds",
+            "Number of fitted trees without improvement of validation score after which boosting stops, 0 disables early stopping",
+            x -> x >= 0);
+
+    private transient Frame validation;
+
     private VarDouble fitValues;
 
+    private VarDouble validationScores;
+
     private List<GBTRtree<? extends RegressionModel, ? extends RegressionResult>> trees;
 
     @Override
@@ -108,10 +122,35 @@ public class GBTRegression extends AbstractRegressionModel<GBTRegression, Regres
                 1, 1, List.of(VarType.DOUBLE), false);
     }
 
+    /**
+     * Sets a held-out validation frame. If a validation frame is set, after each fitted tree
+     * the validation score is computed and, if early stopping is enabled, boosting stops when
+     * the validation score is not improved for a given number of trees. In that case the
+     * trees fitted after the best validation score are dropped.
+     * <p>
+     * The validation frame is not a parameter of the model, so it is not copied into new instances.
+     *
+     * @param validation validation frame, null to disable validation
+     * @return model instance
+     */
+    public GBTRegression withValidation(Frame validation) {
+        this.validation = validation;
+        return this;
+    }
+
     public VarDouble getFitValues() {
         return fitValues;
     }
 
+    /**
+     * @return validation scores, the first value is the score of the initial model and the
+     * next values are the scores after each fitted tree, or an empty variable if no validation
+     * frame was used
+     */
+    public VarDouble getValidationScores() {
+        return validationScores;
+    }
+
     public List<GBTRtree<? extends RegressionModel, ? extends RegressionResult>> getTrees() {
         return trees;
     }
@@ -119,7 +158,12 @@ public class GBTRegression extends AbstractRegressionModel<GBTRegression, Regres
     @Override
     protected boolean coreFit(Frame df, Var weights) {
 
+        if (earlyStoppingRounds.get() > 0 && validation == null) {
+            throw new IllegalStateException("Early stopping requires a validation frame, see withValidation.");
+        }
+
         trees = new ArrayList<>();
+        validationScores = VarDouble.empty().name("validation");
 
         Var y = df.rvar(firstTargetName());
         Frame x = df.removeVars(VarRange.of(firstTargetName()));
@@ -127,12 +171,36 @@ public class GBTRegression extends AbstractRegressionModel<GBTRegression, Regres
         initModel.get().fit(df, weights, firstTargetName());
         fitValues = initModel.get().predict(df, false).firstPrediction().copy();
 
+        // gradient and fit values buffers are allocated once and updated in place,
+        // next fit values are computed in a second buffer which is swapped when the tree is kept
+
+        VarDouble nextFit = fitValues.copy();
+        VarDouble gradient = VarDouble.fill(df.rowCount(), 0).name("target");
+        Frame xm = x.bindVars(gradient);
+        double score = loss.get().errorScore(y, fitValues);
+
+        Var validationY = null;
+        VarDouble validationFit = null;
+        int bestCount = 0;
+        // fit values of the model with the best validation score, restored when trees are dropped
+        VarDouble bestFit = null;
+        if (validation != null) {
+            validationY = validation.rvar(firstTargetName());
+            validationFit = initModel.get().predict(validation, false).firstPrediction().copy();
+            validationScores.addDouble(loss.get().errorScore(validationY, validationFit));
+            if (earlyStoppingRounds.get() > 0) {
+                bestFit = fitValues.copy();
+            }
+        }
+
         for (int i = 1; i <= runs.get(); i++) {
 
-            Var gradient = loss.get().gradient(y, fitValues).name("target");
+            loss.get().gradient(y, fitValues, gradient);
 
-            Frame xm = x.bindVars(gradient);
             var tree = (GBTRtree<? extends RegressionModel, ? extends RegressionResult>) model.get().newInstance();
+            if (tree instanceof RTree rtree) {
+                rtree.keepFitLeaves(true);
+            }
 
             // frame sampling
 
@@ -148,26 +216,110 @@ public class GBTRegression extends AbstractRegressionModel<GBTRegression, Regres
             tree.boostUpdate(xmLearn, y.mapRows(sampleRows), fitValues.mapRows(sampleRows), loss.get());
 
             // add next prediction to the predict values
-            var pred = tree.predict(df, false).firstPrediction();
-            VarDouble nextFit = fitValues.copy().op().plus(pred.op().mult(shrinkage.get()));
 
-            double initScore = loss.get().errorScore(y, fitValues);
+            Node[] leaves = tree instanceof RTree rtree ? rtree.takeFitLeaves() : null;
+            boostStep(tree, df, sampleRows, leaves, fitValues, nextFit, shrinkage.get());
             double nextScore = loss.get().errorScore(y, nextFit);
 
-            if (Math.abs(initScore - nextScore) < eps.get()) {
+            if (Math.abs(score - nextScore) < eps.get()) {
                 break;
             }
 
-            if (initScore > nextScore) {
+            if (score > nextScore) {
+                VarDouble swap = fitValues;
                 fitValues = nextFit;
+                nextFit = swap;
+                score = nextScore;
                 // add tree in the predictors list
                 trees.add(tree);
+
+                if (validation != null) {
+                    boostStep(tree, validation, null, null, validationFit, validationFit, shrinkage.get());
+                    validationScores.addDouble(loss.get().errorScore(validationY, validationFit));
+                    if (validationScores.getDouble(trees.size()) < validationScores.getDouble(bestCount)) {
+                        bestCount = trees.size();
+                        if (bestFit != null) {
+                            System.arraycopy(fitValues.elements(), 0, bestFit.elements(), 0, fitValues.size());
+                        }
+                    }
+                    if (earlyStoppingRounds.get() > 0 && trees.size() - bestCount >= earlyStoppingRounds.get()) {
+                        dropTrees(bestCount, bestFit);
+                        runningHook.get().accept(this, i);
+                        break;
+                    }
+                }
             }
             runningHook.get().accept(this, i);
         }
+        if (bestFit != null) {
+            // with early stopping the model ends with the best validation score on every exit
+            dropTrees(bestCount, bestFit);
+        }
         return true;
     }
 
+    /**
+     * Drops the trees fitted after a given count and restores the fit values of the remaining model.
+     */
+    private void dropTrees(int count, VarDouble fit) {
+        if (trees.size() > count) {
+            trees.subList(count, trees.size()).clear();
+            fitValues = fit;
+        }
+    }
+
+    /**
+     * Adds the shrunk tree predictions to fit values. Rows with a known leaf from tree fit
+     * are updated directly from the leaf value. The other rows, which were not sampled or
+     * were routed by missing values, are predicted with the compiled form of {@link RTree}
+     * models, thus the fit values are the same as the model predictions.
+     *
+     * @param tree   fitted tree
+     * @param df     frame with instances
+     * @param sample rows of the frame used to fit the tree, null if leaves are not available
+     * @param leaves leaf of each sample row, null for rows without a leaf, or null if not available
+     * @param from   fit values to be updated
+     * @param to     buffer for updated fit values, it can be the same as {@code from}
+     * @param factor multiplication factor of tree predictions
+     */
+    private void boostStep(GBTRtree<? extends RegressionModel, ? extends RegressionResult> tree,
+                           Frame df, Mapping sample, Node[] leaves, VarDouble from, VarDouble to, double factor) {
+        int len = df.rowCount();
+        double[] in = from.elements();
+        double[] out = to.elements();
+        boolean[] updated = new boolean[len];
+        int count = 0;
+        if (leaves != null) {
+            for (int i = 0; i < leaves.length; i++) {
+                int row = sample.get(i);
+                if (leaves[i] != null && !updated[row]) {
+                    out[row] = in[row] + leaves[i].value * factor;
+                    updated[row] = true;
+                    count++;
+                }
+            }
+        }
+        if (count == len) {
+            return;
+        }
+        if (tree instanceof RTree rtree) {
+            CompiledTree compiled = rtree.compileTree();
+            CompiledTree.Features features = CompiledTree.features(df, compiled.featureNames());
+            double[] bound = compiled.bind(df);
+            double[] weight = new double[1];
+            for (int i = 0; i < len; i++) {
+                if (!updated[i]) {
+                    out[i] = in[i] + compiled.predictValue(features, bound, i, weight) * factor;
+                }
+            }
+            return;
+        }
+        Var prediction = tree.predict(df, false).firstPrediction();
+        for (int i = 0; i < len; i++) {
+            to.setDouble(i, from.getDouble(i) + prediction.getDouble(i) * factor);
+        }
+    }
+
     @Override
     protected RegressionResult corePredict(final Frame df, final boolean withResiduals, double[] quantiles) {
         RegressionResult result = RegressionResult.build(this, df, withResiduals, quantiles);
@@ -182,6 +334,41 @@ public class GBTRegression extends AbstractRegressionModel<GBTRegression, Regres
         return result;
     }
 
+    /**
+     * Builds a compiled form of the fitted model, used for fast batch prediction.
+     * It is available only if the initial model is a constant model
+     * ({@link L2Regression}, {@link L1Regression} or {@link ConstantRegression})
+     * and all boosted trees are {@link RTree} models.
+     *
+     * @return compiled regression
+     */
+    public CompiledRegression compile() {
+        if (!isFitted()) {
+            throw new IllegalStateException("Model was not trained/fitted on data.");
+        }
+        double intercept;
+        RegressionModel init = initModel.get();
+        if (init instanceof L2Regression l2) {
+            intercept = l2.getMeans()[0];
+        } else if (init instanceof L1Regression l1) {
+            intercept = l1.getMedians()[0];
+        } else if (init instanceof ConstantRegression constant) {
+            intercept = constant.constant.get();
+        } else {
+            throw new IllegalStateException("Initial model " + init.name() + " cannot be compiled.");
+        }
+        List<CompiledTree> compiledTrees = new ArrayList<>();
+        for (var tree : trees) {
+            if (!(tree instanceof RTree rtree)) {
+                throw new IllegalStateException("Only boosted RTree models can be compiled.");
+            }
+            compiledTrees.add(rtree.compileTree());
+        }
+        double[] factors = new double[compiledTrees.size()];
+        Arrays.fill(factors, shrinkage.get());
+        return CompiledRegression.additive(intercept, compiledTrees, factors);
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(fullName()).append("; fitted=").append(isFitted());
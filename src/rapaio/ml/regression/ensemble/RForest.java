@@ -21,6 +21,7 @@
 
 package rapaio.ml.regression.ensemble;
 
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
@@ -30,6 +31,8 @@ import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.Param;
 import rapaio.ml.common.ValueParam;
 import rapaio.ml.common.VarSelector;
+import rapaio.ml.common.tree.CompiledRegression;
+import rapaio.ml.common.tree.CompiledTree;
 import rapaio.ml.regression.AbstractRegressionModel;
 import rapaio.ml.regression.RegressionModel;
 import rapaio.ml.regression.RegressionResult;
@@ -42,11 +45,9 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Queue;
+import java.util.SplittableRandom;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
@@ -117,30 +118,28 @@ public class RForest extends AbstractRegressionModel<RForest, RegressionResult>
     @Override
     protected boolean coreFit(Frame df, Var weights) {
         regressions.clear();
-        int threads = poolSize.get() < 0 ? Runtime.getRuntime().availableProcessors() - 1 : poolSize.get();
-        Queue<Future<RegressionModel>> futures = new LinkedList<>();
+
+        // row samples are drawn sequentially, models are fitted in parallel
+        SplittableRandom[] streams = RandomSource.split(runs.get());
+        List<Future<RegressionModel>> futures = new ArrayList<>();
         for (int i = 0; i < runs.get(); i++) {
             RowSampler.Sample sample = rowSampler.get().nextSample(df, weights);
-            RegressionModel m = model.get().newInstance();
-            Future<RegressionModel> future = ForkJoinPool.commonPool().submit(new FitTask(sample, m, targetNames));
-            futures.add(future);
+            FitTask task = new FitTask(sample, model.get().newInstance(), targetNames);
+            SplittableRandom stream = streams[i];
+            if (poolSize.get() == 0) {
+                regressions.add(RandomSource.callWith(stream, task::call));
+                runningHook.get().accept(this, i + 1);
+            } else {
+                futures.add(ForkJoinPool.commonPool().submit(() -> RandomSource.callWith(stream, task::call)));
+            }
         }
-
-        int run = 1;
-        while (!futures.isEmpty()) {
-            Iterator<Future<RegressionModel>> it = futures.iterator();
-            while (it.hasNext()) {
-                Future<RegressionModel> future = it.next();
-                if (future.isDone()) {
-                    try {
-                        RegressionModel m = future.get();
-                        regressions.add(m);
-                        runningHook.get().accept(this, run++);
-                        it.remove();
-                    } catch (InterruptedException | ExecutionException ignored) {
-                    }
-                }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                regressions.add(futures.get(i).get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Could not fit forest regression model.", e);
             }
+            runningHook.get().accept(this, i + 1);
         }
         return true;
     }
@@ -149,6 +148,28 @@ public class RForest extends AbstractRegressionModel<RForest, RegressionResult>
         return regressions;
     }
 
+    /**
+     * Builds a compiled form of the fitted forest, used for fast batch prediction.
+     * It is available only if all fitted models are {@link RTree} models.
+     *
+     * @return compiled regression
+     */
+    public CompiledRegression compile() {
+        if (!isFitted()) {
+            throw new IllegalStateException("Model was not trained/fitted on data.");
+        }
+        List<CompiledTree> trees = new ArrayList<>();
+        for (RegressionModel regression : regressions) {
+            if (!(regression instanceof RTree tree)) {
+                throw new IllegalStateException("Only forests of RTree models can be compiled.");
+            }
+            trees.add(tree.compileTree());
+        }
+        double[] factors = new double[trees.size()];
+        Arrays.fill(factors, 1.0 / trees.size());
+        return CompiledRegression.additive(0, trees, factors);
+    }
+
     @Override
     protected RegressionResult corePredict(Frame df, boolean withResiduals, final double[] quantiles) {
         RegressionResult fit = RegressionResult.build(this, df, withResiduals, quantiles);
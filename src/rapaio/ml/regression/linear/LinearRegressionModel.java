@@ -25,10 +25,14 @@ import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.filter.FIntercept;
 import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.decomposition.CholeskyDecomposition;
 import rapaio.math.linear.decomposition.QRDecomposition;
+import rapaio.ml.common.ValueParam;
 import rapaio.ml.regression.linear.impl.BaseLinearRegressionModel;
 
 import java.io.Serial;
+import java.util.Objects;
 
 /**
  * User: Aurelian Tutuianu <padreati@yahoo.com>
@@ -47,6 +51,11 @@ public class LinearRegressionModel extends BaseLinearRegressionModel<LinearRegre
     @Serial
     private static final long serialVersionUID = 8595413796946622895L;
 
+    public final ValueParam<Boolean, LinearRegressionModel> sparse = new ValueParam<>(this, false,
+            "sparse",
+            "Stores input features in a compressed sparse matrix and solves the normal equations",
+            Objects::nonNull);
+
     @Override
     public LinearRegressionModel newInstance() {
         return new LinearRegressionModel().copyParameterValues(this);
@@ -69,8 +78,17 @@ public class LinearRegressionModel extends BaseLinearRegressionModel<LinearRegre
 
     @Override
     protected boolean coreFit(Frame df, Var weights) {
-        DMatrix X = DMatrix.copy(df.mapVars(inputNames()));
         DMatrix Y = DMatrix.copy(df.mapVars(targetNames()));
+        if (sparse.get()) {
+            // X^T X and X^T Y visit only the non zero values, QR is used only when X^T X is singular
+            DMatrix X = DMatrix.copy(MType.RSPARSE, df.mapVars(inputNames()));
+            DMatrix xtx = X.t().dot(X);
+            DMatrix xty = X.t().dot(Y);
+            CholeskyDecomposition chol = CholeskyDecomposition.from(xtx);
+            beta = chol.isSPD() ? chol.solve(xty) : QRDecomposition.from(xtx).solve(xty);
+            return true;
+        }
+        DMatrix X = DMatrix.copy(df.mapVars(inputNames()));
         beta = QRDecomposition.from(X).solve(Y);
         return true;
     }
@@ -25,6 +25,7 @@ import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.data.filter.FIntercept;
 import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.decomposition.CholeskyDecomposition;
 import rapaio.math.linear.decomposition.QRDecomposition;
 import rapaio.ml.common.ValueParam;
 import rapaio.ml.regression.linear.impl.BaseLinearRegressionModel;
@@ -167,7 +168,9 @@ public class RidgeRegressionModel extends BaseLinearRegressionModel<RidgeRegress
         DMatrix l = DMatrix.identity(X.colCount()).mult(lambda.get());
         DMatrix A = X.t().dot(X).add(l);
         DMatrix B = X.t().dot(Y);
-        DMatrix scaledBeta = QRDecomposition.from(A).solve(B);
+        // the regularized system is symmetric positive definite, QR is used only if Cholesky fails
+        CholeskyDecomposition chol = CholeskyDecomposition.from(A);
+        DMatrix scaledBeta = chol.isSPD() ? chol.solve(B) : QRDecomposition.from(A).solve(B);
 
         if (intercept.get()) {
             beta = DMatrix.fill(scaledBeta.rowCount() + 1, scaledBeta.colCount(), 0);
@@ -123,7 +123,7 @@ public class RVMRegression extends AbstractRegressionModel<RVMRegression, Regres
                             String.format("RBF sigma:%s, index: %d", Format.floatFlex(sigmas.getDouble(i)), jj),
                             jj,
                             x.mapRowCopy(jj),
-                            () -> DVector.from(x.rowCount(), r -> kernel.compute(x.mapRow(jj), x.mapRow(r))),
+                            () -> kernel.compute(x.mapRow(jj), x),
                             vector -> kernel.compute(vector, x.mapRow(jj))
                     );
                 }
@@ -155,7 +155,7 @@ public class RVMRegression extends AbstractRegressionModel<RVMRegression, Regres
                     String.format("RBF sigma:%s, index: %s", Format.floatFlex(sigma), out),
                     -1,
                     out,
-                    () -> DVector.from(x.rowCount(), r -> kernel.compute(out, x.mapRow(r))),
+                    () -> kernel.compute(out, x),
                     vector -> kernel.compute(vector, out)
             );
         }
@@ -21,6 +21,7 @@
 
 package rapaio.ml.regression.tree;
 
+import rapaio.core.RandomSource;
 import rapaio.core.stat.Mean;
 import rapaio.core.stat.Sum;
 import rapaio.core.stat.WeightedMean;
@@ -29,12 +30,16 @@ import rapaio.data.Mapping;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarType;
+import rapaio.data.mapping.ArrayMapping;
 import rapaio.experiment.ml.common.predicate.RowPredicate;
 import rapaio.experiment.ml.regression.tree.GBTRtree;
 import rapaio.ml.common.Capabilities;
 import rapaio.ml.common.MultiParam;
+import rapaio.ml.common.QuantileBins;
 import rapaio.ml.common.ValueParam;
 import rapaio.ml.common.VarSelector;
+import rapaio.ml.common.tree.CompiledRegression;
+import rapaio.ml.common.tree.CompiledTree;
 import rapaio.ml.loss.L2Loss;
 import rapaio.ml.loss.Loss;
 import rapaio.ml.regression.AbstractRegressionModel;
@@ -46,17 +51,20 @@ import rapaio.ml.regression.tree.rtree.Splitter;
 import rapaio.printer.Printer;
 import rapaio.printer.opt.POption;
 import rapaio.util.DoublePair;
+import rapaio.util.collection.IntArrays;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 import static rapaio.printer.Format.floatFlex;
 
@@ -154,10 +162,33 @@ public class RTree extends AbstractRegressionModel<RTree, RegressionResult> impl
             "Map with test method for each variable type",
             Objects::nonNull);
 
+    public final ValueParam<Integer, RTree> bins = new ValueParam<>(this, 256,
+            "bins",
+            "Maximum number of quantile bins used by histogram numeric search",
+            x -> x != null && x >= 2);
+
+    public final ValueParam<Boolean, RTree> sketchBins = new ValueParam<>(this, false,
+            "sketchBins",
+            "Estimate quantile bins with a quantile sketch instead of sorting values");
+
     // tree root node
 
     private Node root;
 
+    // quantile bins computed once per fit for histogram numeric search
+
+    private final Map<String, QuantileBins> quantileBinsMap = new ConcurrentHashMap<>();
+
+    // variable selector used during fit
+
+    private VarSelector activeVarSelector;
+
+    // leaf reached by each fitted row, kept only on request, used by boosting to update fit values
+
+    private boolean keepFitLeaves = false;
+    private transient Node[] fitLeaves;
+    private transient boolean[] routedRows;
+
     private RTree() {
     }
 
@@ -183,58 +214,164 @@ public class RTree extends AbstractRegressionModel<RTree, RegressionResult> impl
         return root;
     }
 
-    @Override
-    protected boolean coreFit(Frame df, Var weights) {
-
-        capabilities().checkAtLearnPhase(df, weights, targetNames);
-
-        int id = 1;
+    /**
+     * Quantile bins of a numeric test variable, used by {@link Search#NumericHistogram}.
+     * During fit the bins are computed once on the whole training frame; outside fit
+     * they are computed from the frame received as parameter at each call.
+     *
+     * @param df      frame used to compute bins if they are not already available
+     * @param varName test variable name
+     * @return quantile bins of the test variable
+     */
+    public QuantileBins quantileBins(Frame df, String varName) {
+        QuantileBins cached = quantileBinsMap.get(varName);
+        return cached != null ? cached : computeQuantileBins(df, varName);
+    }
 
-        HashMap<Integer, Frame> frameMap = new HashMap<>();
-        HashMap<Integer, Var> weightsMap = new HashMap<>();
+    private QuantileBins computeQuantileBins(Frame df, String varName) {
+        return sketchBins.get()
+                ? QuantileBins.sketch(df.rvar(varName), bins.get())
+                : QuantileBins.of(df.rvar(varName), bins.get());
+    }
 
-        this.varSelector.get().withVarNames(inputNames());
-        root = new Node(null, id++, "root", (row, frame) -> true, 1);
+    /**
+     * Enables or disables keeping the leaf reached by each fitted row after the next fit.
+     * The leaves are kept until they are taken with {@link #takeFitLeaves()}.
+     *
+     * @param keep true if the leaves of fitted rows are kept
+     * @return tree instance
+     */
+    public RTree keepFitLeaves(boolean keep) {
+        this.keepFitLeaves = keep;
+        return this;
+    }
 
-        // prepare data for root
-        frameMap.put(root.id, df);
-        weightsMap.put(root.id, weights);
+    /**
+     * Returns the leaves reached by the rows of the last fitted frame and releases them
+     * from the tree. A row has a leaf only if it was assigned to it by node predicates on
+     * the whole path. Rows with missing values for a test variable on the path, which are
+     * assigned by the splitter, have no leaf since their prediction mixes multiple leaves.
+     *
+     * @return array with leaf node for each fitted row, null for rows without leaf, or null
+     * if leaves were not kept at fit time
+     */
+    public Node[] takeFitLeaves() {
+        Node[] leaves = fitLeaves;
+        fitLeaves = null;
+        return leaves;
+    }
 
-        // make queue and initialize it
+    @Override
+    protected boolean coreFit(Frame df, Var weights) {
 
-        Queue<Node> queue = new ConcurrentLinkedQueue<>();
-        queue.add(root);
+        capabilities().checkAtLearnPhase(df, weights, targetNames);
+        fitLeaves = keepFitLeaves ? new Node[df.rowCount()] : null;
+        routedRows = keepFitLeaves ? new boolean[df.rowCount()] : null;
 
-        while (!queue.isEmpty()) {
-            Node last = queue.poll();
-            int lastId = last.id;
-            Frame lastDf = frameMap.get(lastId);
-            Var lastWeights = weightsMap.get(lastId);
-            learnNode(last, lastDf, lastWeights);
+        // fitted models which share the parameter instance must not share its state
+        activeVarSelector = varSelector.get().newInstance().withVarNames(inputNames());
+        root = new Node(null, 1, "root", (row, frame) -> true, 1);
 
-            if (last.leaf) {
-                continue;
+        quantileBinsMap.clear();
+        for (String inputName : inputNames()) {
+            if (search.get(df.type(inputName)) == Search.NumericHistogram) {
+                quantileBinsMap.put(inputName, computeQuantileBins(df, inputName));
             }
-            // now that we have a best candidate,do the effective split
+        }
 
-            List<RowPredicate> predicates = last.bestCandidate.getGroupPredicates();
-            List<Mapping> mappings = splitter.get().performSplitMapping(lastDf, lastWeights, predicates);
+        // nodes are learned level by level, each node owns a contiguous range of
+        // a single array of row indexes, which is partitioned in place between
+        // its children; node frames and weights are views over the fitted data
+
+        int[] rows = IntArrays.newSeq(0, df.rowCount());
+        int id = 2;
+        List<NodeRange> level = List.of(new NodeRange(root, 0, rows.length));
+        while (!level.isEmpty()) {
+            List<NodeRange> current = level;
+            List<int[]> bounds;
+            if (runs.get() > 1) {
+                SplittableRandom[] streams = RandomSource.split(current.size());
+                bounds = IntStream.range(0, current.size()).parallel()
+                        .mapToObj(i -> RandomSource.callWith(streams[i], () -> learnAndSplit(current.get(i), df, weights, rows)))
+                        .collect(Collectors.toList());
+            } else {
+                bounds = current.stream().map(range -> learnAndSplit(range, df, weights, rows)).collect(Collectors.toList());
+            }
 
-            for (int i = 0; i < predicates.size(); i++) {
-                RowPredicate predicate = predicates.get(i);
-                Node child = new Node(last, id++, predicate.toString(), predicate, last.depth + 1);
-                last.children.add(child);
+            // children are created after each level, to keep node ids in breadth first order
+            List<NodeRange> next = new ArrayList<>();
+            for (int i = 0; i < current.size(); i++) {
+                Node last = current.get(i).node;
+                if (last.leaf) {
+                    if (fitLeaves != null) {
+                        for (int j = current.get(i).start; j < current.get(i).end; j++) {
+                            if (!routedRows[rows[j]]) {
+                                fitLeaves[rows[j]] = last;
+                            }
+                        }
+                    }
+                    continue;
+                }
+                List<RowPredicate> predicates = last.bestCandidate.getGroupPredicates();
+                for (int j = 0; j < predicates.size(); j++) {
+                    RowPredicate predicate = predicates.get(j);
+                    Node child = new Node(last, id++, predicate.toString(), predicate, last.depth + 1);
+                    last.children.add(child);
+                    next.add(new NodeRange(child, bounds.get(i)[j], bounds.get(i)[j + 1]));
+                }
+            }
+            level = next;
+        }
+        quantileBinsMap.clear();
+        routedRows = null;
+        return true;
+    }
 
-                frameMap.put(child.id, lastDf.mapRows(mappings.get(i)));
-                weightsMap.put(child.id, lastWeights.mapRows(mappings.get(i)).copy());
+    /**
+     * Range of positions from the array of row indexes which contains the rows of a node.
+     */
+    private record NodeRange(Node node, int start, int end) {
+    }
 
-                queue.add(child);
+    /**
+     * Learns a node and, if the node is split, partitions its range of row indexes
+     * between children in the order given by the splitter.
+     *
+     * @return range bounds for each child, child i having range {@code [bounds[i], bounds[i+1])}
+     */
+    private int[] learnAndSplit(NodeRange range, Frame df, Var weights, int[] rows) {
+        Frame nodeDf = df;
+        Var nodeWeights = weights;
+        Mapping mapping = null;
+        if (range.node != root) {
+            mapping = new ArrayMapping(rows, range.start, range.end);
+            nodeDf = df.mapRows(mapping);
+            nodeWeights = weights.mapRows(mapping);
+        }
+        learnNode(range.node, nodeDf, nodeWeights);
+        if (range.node.leaf) {
+            return null;
+        }
+        List<Mapping> mappings = splitter.get()
+                .performSplitMapping(nodeDf, nodeWeights, range.node.bestCandidate.getGroupPredicates());
+        int[] bounds = new int[mappings.size() + 1];
+        int pos = range.start;
+        bounds[0] = pos;
+        String testName = range.node.bestCandidate.getTestName();
+        for (int i = 0; i < mappings.size(); i++) {
+            Mapping childMapping = mappings.get(i);
+            for (int j = 0; j < childMapping.size(); j++) {
+                int local = childMapping.get(j);
+                int row = mapping == null ? local : mapping.get(local);
+                // predicates do not match missing values, those rows are assigned by splitter
+                if (routedRows != null && df.isMissing(row, testName)) {
+                    routedRows[row] = true;
+                }
+                rows[pos++] = row;
             }
-
-            frameMap.remove(last.id);
-            weightsMap.remove(last.id);
+            bounds[i + 1] = pos;
         }
-        return true;
+        return bounds;
     }
 
     private void learnNode(Node node, Frame df, Var weights) {
@@ -252,18 +389,21 @@ public class RTree extends AbstractRegressionModel<RTree, RegressionResult> impl
             return;
         }
 
-        Stream<String> stream = Arrays.stream(varSelector.get().nextVarNames());
+        String[] testNames = activeVarSelector.nextVarNames();
+        List<Candidate> candidates;
         if (runs.get() > 1) {
-            stream = stream.parallel();
+            SplittableRandom[] streams = RandomSource.split(testNames.length);
+            candidates = IntStream.range(0, testNames.length).parallel()
+                    .mapToObj(i -> RandomSource.callWith(streams[i], () -> computeCandidate(df, weights, testNames[i])))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } else {
+            candidates = Arrays.stream(testNames)
+                    .map(testCol -> computeCandidate(df, weights, testCol))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
         }
 
-        List<Candidate> candidates = stream
-                .map(testCol -> search.get(df.type(testCol))
-                        .computeCandidate(this, df, weights, testCol, firstTargetName())
-                        .orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
         Candidate bestCandidate = null;
         for (Candidate candidate : candidates) {
             if (bestCandidate == null || candidate.getScore() >= bestCandidate.getScore()) {
@@ -280,6 +420,12 @@ public class RTree extends AbstractRegressionModel<RTree, RegressionResult> impl
         node.leaf = false;
     }
 
+    private Candidate computeCandidate(Frame df, Var weights, String testName) {
+        return search.get(df.type(testName))
+                .computeCandidate(this, df, weights, testName, firstTargetName())
+                .orElse(null);
+    }
+
     @Override
     protected RegressionResult corePredict(Frame df, boolean withResiduals, final double... quantiles) {
         RegressionResult prediction = RegressionResult.build(this, df, withResiduals, quantiles);
@@ -317,6 +463,42 @@ public class RTree extends AbstractRegressionModel<RTree, RegressionResult> impl
         return DoublePair.of(WeightedMean.of(values, weights).value(), Mean.of(weights).value());
     }
 
+    /**
+     * Builds a compiled form of the fitted tree, used for fast batch prediction.
+     *
+     * @return compiled regression
+     */
+    public CompiledRegression compile() {
+        return CompiledRegression.tree(compileTree());
+    }
+
+    /**
+     * Builds the flat array representation of the fitted tree.
+     *
+     * @return compiled tree
+     */
+    public CompiledTree compileTree() {
+        if (!hasLearned) {
+            throw new IllegalStateException("Model was not trained/fitted on data.");
+        }
+        var builder = CompiledTree.builder(inputNames(), 1);
+        LinkedList<Node> nodes = new LinkedList<>();
+        LinkedList<Integer> parents = new LinkedList<>();
+        nodes.addLast(root);
+        parents.addLast(-1);
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pollFirst();
+            int index = builder.addNode(parents.pollFirst(), node.predicate, node.weight, 0, new double[]{node.value});
+            if (!node.leaf) {
+                for (Node child : node.children) {
+                    nodes.addLast(child);
+                    parents.addLast(index);
+                }
+            }
+        }
+        return builder.build();
+    }
+
     @Override
     public String toSummary(Printer printer, POption<?>... options) {
         StringBuilder sb = new StringBuilder();
@@ -26,6 +26,7 @@ import rapaio.core.stat.WeightedOnlineStat;
 import rapaio.data.Frame;
 import rapaio.data.Var;
 import rapaio.experiment.ml.common.predicate.RowPredicate;
+import rapaio.ml.common.QuantileBins;
 import rapaio.ml.regression.tree.RTree;
 
 import java.io.Serializable;
@@ -125,6 +126,82 @@ public enum Search implements Serializable {
             return (best != null) ? Optional.of(best) : Optional.empty();
         }
     },
+    /**
+     * Selects the best candidate which splits instances in two child nodes
+     * based on quantile bins of the test variable computed once per fit.
+     * Node instances are accumulated into weighted bin statistics in a single
+     * pass, without sorting, and split thresholds are bin cut points.
+     */
+    NumericHistogram {
+        @Override
+        public Optional<Candidate> computeCandidate(RTree c, Frame df, Var weights, String testName, String targetName) {
+
+            QuantileBins bins = c.quantileBins(df, testName);
+            int testIndex = df.varIndex(testName);
+            int targetIndex = df.varIndex(targetName);
+            int binCount = bins.binCount();
+
+            WeightedOnlineStat[] binStats = IntStream.range(0, binCount)
+                    .mapToObj(i -> new WeightedOnlineStat())
+                    .toArray(WeightedOnlineStat[]::new);
+            int[] counts = new int[binCount];
+            int len = 0;
+            for (int i = 0; i < df.rowCount(); i++) {
+                if (df.isMissing(i, testIndex)) {
+                    continue;
+                }
+                int bin = bins.bin(df.getDouble(i, testIndex));
+                binStats[bin].update(df.getDouble(i, targetIndex), weights.getDouble(i));
+                counts[bin]++;
+                len++;
+            }
+
+            // right statistics are accumulated from the last bin backwards
+            WeightedOnlineStat[] rightStats = new WeightedOnlineStat[binCount];
+            rightStats[binCount - 1] = WeightedOnlineStat.of(binStats[binCount - 1]);
+            for (int i = binCount - 2; i >= 0; i--) {
+                rightStats[i] = WeightedOnlineStat.of(rightStats[i + 1], binStats[i]);
+            }
+
+            Candidate best = null;
+            double bestScore = -1e100;
+
+            SearchPayload p = new SearchPayload(2);
+            p.totalVar = rightStats[0].variance();
+            p.totalWeight = rightStats[0].weightSum();
+
+            WeightedOnlineStat left = WeightedOnlineStat.empty();
+            int leftCount = 0;
+            for (int i = 0; i < binCount - 1; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                left.update(binStats[i]);
+                leftCount += counts[i];
+                if (leftCount < c.minCount.get() || len - leftCount < c.minCount.get()) {
+                    continue;
+                }
+
+                p.splitVar[0] = left.variance();
+                p.splitWeight[0] = left.weightSum();
+                p.splitVar[1] = rightStats[i + 1].variance();
+                p.splitWeight[1] = rightStats[i + 1].weightSum();
+
+                double score = c.loss.get().computeSplitLossScore(p);
+                if (score < bestScore) {
+                    continue;
+                }
+                if (score == bestScore && RandomSource.nextDouble() < 0.5) {
+                    continue;
+                }
+                bestScore = score;
+                best = new Candidate(score, testName);
+                best.addGroup(RowPredicate.numLessEqual(testName, bins.cut(i)));
+                best.addGroup(RowPredicate.numGreater(testName, bins.cut(i)));
+            }
+            return (best != null) ? Optional.of(best) : Optional.empty();
+        }
+    },
     /**
      * Builds one node for each label of the test variable, if at least
      * two of them have enough instances, empty list otherwise.
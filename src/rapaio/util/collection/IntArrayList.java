@@ -194,7 +194,7 @@ public class IntArrayList implements RandomAccess, Cloneable, java.io.Serializab
 
     private void grow(int capacity) {
         if (capacity <= data.length) return;
-        if (size == 0) {
+        if (data.length > 0) {
             capacity = (int) Math.max(Math.min((long) data.length + (data.length >> 1), TArrays.MAX_ARRAY_SIZE), capacity);
         } else if (capacity < DEFAULT_INITIAL_CAPACITY) {
             capacity = DEFAULT_INITIAL_CAPACITY;
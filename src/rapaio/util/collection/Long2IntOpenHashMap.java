@@ -0,0 +1,188 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.util.collection;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Open addressing hash map from primitive long keys to primitive int values.
+ * <p>
+ * Capacity is a power of two and collisions are resolved by linear probing.
+ * The hash function does not depend on a random seed, thus the iteration
+ * order and the performance are reproducible between runs. Keys can take any
+ * long value, while values must not be {@link #MISSING}, since that value
+ * marks the empty slots.
+ * <p>
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public class Long2IntOpenHashMap implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3441284380813658231L;
+
+    public static final int MISSING = Integer.MIN_VALUE;
+    public static final int DEFAULT_ALLOCATION = 16;
+    public static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private final double loadFactor;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public Long2IntOpenHashMap() {
+        this(DEFAULT_LOAD_FACTOR, DEFAULT_ALLOCATION);
+    }
+
+    /**
+     * Builds a map with enough capacity to store the given number of keys without rehashing.
+     *
+     * @param loadFactor maximum ratio between size and capacity
+     * @param allocation expected number of keys
+     */
+    public Long2IntOpenHashMap(double loadFactor, int allocation) {
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be in interval (0,1).");
+        }
+        this.loadFactor = loadFactor;
+        allocate(capacity(Math.max(allocation, 1), loadFactor));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * @param key key value
+     * @return value associated with key or {@link #MISSING} if the key is not present
+     */
+    public int get(long key) {
+        int pos = (int) mix(key) & mask;
+        while (values[pos] != MISSING) {
+            if (keys[pos] == key) {
+                return values[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (value == MISSING) {
+            throw new IllegalArgumentException("Value cannot be equal with MISSING.");
+        }
+        int pos = find(key);
+        if (values[pos] == MISSING) {
+            insert(pos, key, value);
+        } else {
+            values[pos] = value;
+        }
+    }
+
+    /**
+     * Associates a value with a key only if the key is not already present.
+     *
+     * @param key   key value
+     * @param value value to be associated with key
+     * @return previous value associated with the key, or {@link #MISSING} if the value was added
+     */
+    public int putIfAbsent(long key, int value) {
+        if (value == MISSING) {
+            throw new IllegalArgumentException("Value cannot be equal with MISSING.");
+        }
+        int pos = find(key);
+        if (values[pos] != MISSING) {
+            return values[pos];
+        }
+        insert(pos, key, value);
+        return MISSING;
+    }
+
+    private int find(long key) {
+        int pos = (int) mix(key) & mask;
+        while (values[pos] != MISSING && keys[pos] != key) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private void insert(int pos, long key, int value) {
+        keys[pos] = key;
+        values[pos] = value;
+        size++;
+        if (size > threshold) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int pos = find(oldKeys[i]);
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = IntArrays.newFill(capacity, MISSING);
+        mask = capacity - 1;
+        threshold = (int) Math.min(capacity - 1, (long) (capacity * loadFactor));
+    }
+
+    private static int capacity(int allocation, double loadFactor) {
+        long needed = (long) Math.ceil(allocation / loadFactor) + 1;
+        if (needed > (1 << 30)) {
+            throw new IllegalArgumentException("Too many keys for an open hash map.");
+        }
+        return Math.max(2, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * Finalization mix of 64 bit MurmurHash3, which spreads key bits over the whole hash.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -25,7 +25,10 @@ import org.junit.jupiter.api.Test;
 import rapaio.data.Var;
 import rapaio.data.VarInt;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 7/1/16.
@@ -48,4 +51,37 @@ public class RandomSourceTest {
             assertEquals(n1, n2);
         }
     }
+
+    @Test
+    void splitReproducibleTest() {
+        RandomSource.setSeed(42);
+        SplittableRandom[] first = RandomSource.split(4);
+        RandomSource.setSeed(42);
+        SplittableRandom[] second = RandomSource.split(4);
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i].nextLong(), second[i].nextLong());
+        }
+        assertNotEquals(first[0].nextLong(), first[1].nextLong());
+    }
+
+    @Test
+    void taskStreamTest() {
+        RandomSource.setSeed(42);
+        SplittableRandom[] streams = RandomSource.split(16);
+        int global = RandomSource.nextInt(1000);
+
+        // tasks run in parallel do not consume values from the global sequence
+        RandomSource.setSeed(42);
+        SplittableRandom[] tasks = RandomSource.split(16);
+        int[] parallel = IntStream.range(0, tasks.length).parallel()
+                .map(i -> RandomSource.callWith(tasks[i], () -> RandomSource.nextInt(1000)))
+                .toArray();
+        assertEquals(global, RandomSource.nextInt(1000));
+
+        // the outcome of a task depends only on its stream, not on the order tasks are run
+        for (int i = streams.length - 1; i >= 0; i--) {
+            SplittableRandom stream = streams[i];
+            assertEquals(parallel[i], RandomSource.callWith(stream, () -> RandomSource.nextInt(1000)));
+        }
+    }
 }
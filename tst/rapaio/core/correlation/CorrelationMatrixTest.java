@@ -0,0 +1,148 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.core.correlation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.core.stat.Covariance;
+import rapaio.core.tools.DistanceMatrix;
+import rapaio.data.Var;
+import rapaio.data.VarDouble;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public class CorrelationMatrixTest {
+
+    private static final double TOL = 1e-10;
+
+    @BeforeEach
+    void setUp() {
+        RandomSource.setSeed(123);
+    }
+
+    private Var[] sample(int count, int rows, double missing) {
+        Normal normal = Normal.std();
+        Var[] vars = new Var[count];
+        for (int i = 0; i < count; i++) {
+            VarDouble x = VarDouble.from(rows, row -> normal.sampleNext()).name("x" + i);
+            if (i > 0) {
+                // add some dependency between variables
+                Var prev = vars[i - 1];
+                x = VarDouble.from(rows, row -> prev.isMissing(row) ? normal.sampleNext() : prev.getDouble(row) + normal.sampleNext())
+                        .name("x" + i);
+            }
+            for (int j = 0; j < rows; j++) {
+                if (RandomSource.nextDouble() < missing) {
+                    x.setMissing(j);
+                }
+            }
+            vars[i] = x;
+        }
+        // constant variable
+        vars[count - 1] = VarDouble.fill(rows, 3.0).name("c");
+        return vars;
+    }
+
+    @Test
+    void testPearson() {
+        for (double missing : new double[] {0, 0.2}) {
+            Var[] vars = sample(20, 500, missing);
+            DistanceMatrix m = CorrelationMatrix.pearson(vars);
+            DistanceMatrix cp = CorrPearson.of(vars).matrix();
+            for (int i = 0; i < vars.length; i++) {
+                assertEquals(1, m.get(i, i));
+                for (int j = 0; j < i; j++) {
+                    double expected = CorrPearson.of(vars[i], vars[j]).singleValue();
+                    if (Double.isNaN(expected)) {
+                        assertTrue(Double.isNaN(m.get(i, j)));
+                        assertTrue(Double.isNaN(cp.get(i, j)));
+                    } else {
+                        assertEquals(expected, m.get(i, j), TOL);
+                        assertEquals(expected, cp.get(i, j), TOL);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCovariance() {
+        for (double missing : new double[] {0, 0.2}) {
+            Var[] vars = sample(10, 300, missing);
+            DistanceMatrix m = CorrelationMatrix.covariance(vars);
+            for (int i = 0; i < vars.length; i++) {
+                for (int j = 0; j <= i; j++) {
+                    assertEquals(Covariance.of(vars[i], vars[j]).value(), m.get(i, j), TOL);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSpearman() {
+        Var[] vars = sample(20, 400, 0.01);
+        // rounded values produce ties
+        for (int i = 0; i < 5; i++) {
+            Var x = vars[i];
+            vars[i] = VarDouble.from(x.size(), row -> x.isMissing(row) ? Double.NaN : Math.rint(x.getDouble(row))).name(x.name());
+        }
+        DistanceMatrix m = CorrelationMatrix.spearman(vars);
+        DistanceMatrix cs = CorrSpearman.of(vars).matrix();
+
+        // reference values with the same listwise complete rows
+        int[] complete = IntStream.range(0, 400).filter(row -> {
+            for (Var var : vars) {
+                if (var.isMissing(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }).toArray();
+        for (int i = 0; i < vars.length; i++) {
+            assertEquals(1, m.get(i, i));
+            for (int j = 0; j < i; j++) {
+                double expected = CorrSpearman.of(vars[i].mapRows(complete), vars[j].mapRows(complete)).singleValue();
+                if (Double.isNaN(expected)) {
+                    assertTrue(Double.isNaN(m.get(i, j)));
+                } else {
+                    assertEquals(expected, m.get(i, j), TOL);
+                    assertEquals(expected, cs.get(i, j), TOL);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testInvalid() {
+        var ex = assertThrows(IllegalArgumentException.class,
+                () -> CorrelationMatrix.pearson(VarDouble.seq(10), VarDouble.seq(11)));
+        assertEquals("Variables does not have the same size.", ex.getMessage());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.core.stat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.data.Mapping;
+import rapaio.data.VarDouble;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+
+    private static final double[] P = new double[] {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(123);
+    }
+
+    @Test
+    void testStream() {
+        Normal normal = Normal.std();
+        VarDouble x = VarDouble.from(300_000, normal::sampleNext);
+
+        QuantileSketch sketch = QuantileSketch.empty();
+        for (int i = 0; i < x.size(); i++) {
+            sketch.update(x.getDouble(i));
+        }
+        assertEquals(x.size(), sketch.count());
+        assertTrue(sketch.retained() <= 3 * sketch.k() + 64);
+        assertEquals(Minimum.of(x).value(), sketch.min());
+        assertEquals(Maximum.of(x).value(), sketch.max());
+        assertEquals(Minimum.of(x).value(), sketch.quantile(0));
+        assertEquals(Maximum.of(x).value(), sketch.quantile(1));
+        assertRankErrors(x, sketch);
+    }
+
+    @Test
+    void testMergeAndVar() {
+        Normal normal = Normal.std();
+        VarDouble x = VarDouble.from(400_000, normal::sampleNext);
+        x.setMissing(10);
+        x.setMissing(200_000);
+
+        // chunks are sketched separately and merged
+        QuantileSketch merged = QuantileSketch.empty();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            merged.merge(QuantileSketch.empty().update(x.mapRows(Mapping.range(chunk * 100_000, (chunk + 1) * 100_000))));
+        }
+        assertEquals(x.size() - 2, merged.count());
+        assertRankErrors(x, merged);
+
+        QuantileSketch parallel = QuantileSketch.of(x);
+        assertEquals(x.size() - 2, parallel.count());
+        assertRankErrors(x, parallel);
+
+        // parallel sketches are reproducible
+        RandomSource.setSeed(123);
+        double[] q1 = QuantileSketch.of(x).quantiles(P);
+        RandomSource.setSeed(123);
+        double[] q2 = QuantileSketch.of(x).quantiles(P);
+        assertArrayEquals(q1, q2);
+
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(merged));
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(QuantileSketch.empty(100)));
+    }
+
+    @Test
+    void testSmall() {
+        // small streams are retained completely, thus quantiles are exact
+        QuantileSketch sketch = QuantileSketch.empty();
+        for (int i = 10; i >= 1; i--) {
+            sketch.update(i);
+        }
+        sketch.update(Double.NaN);
+        assertEquals(10, sketch.count());
+        assertEquals(1, sketch.quantile(0.1));
+        assertEquals(5, sketch.quantile(0.5));
+        assertEquals(6, sketch.quantile(0.55));
+        assertEquals(0.5, sketch.rank(5));
+        assertEquals(0.5, sketch.rank(5.5));
+        assertEquals(0, sketch.rank(0));
+        assertEquals(1, sketch.rank(11));
+
+        QuantileSketch empty = QuantileSketch.empty();
+        assertEquals(0, empty.count());
+        assertTrue(Double.isNaN(empty.quantile(0.5)));
+        assertTrue(Double.isNaN(empty.rank(0.5)));
+        assertEquals(10, empty.merge(sketch).count());
+        assertEquals(5, empty.quantile(0.5));
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.1));
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.empty(2));
+    }
+
+    private void assertRankErrors(VarDouble x, QuantileSketch sketch) {
+        double[] sorted = new double[x.size()];
+        int len = 0;
+        for (int i = 0; i < x.size(); i++) {
+            if (!x.isMissing(i)) {
+                sorted[len++] = x.getDouble(i);
+            }
+        }
+        sorted = Arrays.copyOf(sorted, len);
+        Arrays.sort(sorted);
+        for (double p : P) {
+            double q = sketch.quantile(p);
+            int pos = Arrays.binarySearch(sorted, q);
+            assertTrue(pos >= 0, "quantile must be a stream value");
+            double rank = (pos + 1.0) / sorted.length;
+            assertEquals(p, rank, sketch.normalizedRankError());
+            assertEquals(rank, sketch.rank(q), sketch.normalizedRankError());
+        }
+    }
+}
@@ -28,6 +28,7 @@ import rapaio.core.distributions.Normal;
 import rapaio.data.VarDouble;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 10/10/18.
@@ -84,4 +85,23 @@ public class QuantilesTest {
         // aprox 1.96
         assertEquals(1.9615708871881077, qq[3], TOL);
     }
+
+    @Test
+    void testSketch() {
+
+        Normal normal = Normal.std();
+        VarDouble x = VarDouble.from(1_000_000, normal::sampleNext);
+        x.setMissing(0);
+
+        Quantiles exact = Quantiles.of(x, 0, 0.025, 0.5, 0.975, 1);
+        Quantiles sketch = Quantiles.of(x, Quantiles.Type.SKETCH, 0, 0.025, 0.5, 0.975, 1);
+
+        assertEquals(exact.values()[0], sketch.values()[0], TOL);
+        assertEquals(exact.values()[4], sketch.values()[4], TOL);
+        // rank error of 1.3% is about 0.035 around median and 0.1 in tails
+        assertEquals(exact.values()[1], sketch.values()[1], 0.1);
+        assertEquals(exact.values()[2], sketch.values()[2], 0.05);
+        assertEquals(exact.values()[3], sketch.values()[3], 0.1);
+        assertTrue(sketch.toContent().contains("total rows: 1000000 (complete: 999999, missing: 1)"));
+    }
 }
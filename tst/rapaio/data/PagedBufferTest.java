@@ -0,0 +1,107 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class PagedBufferTest {
+
+    @Test
+    void testMultiplePages(@TempDir Path dir) throws IOException {
+        int rows = 1_000;
+        try (FileChannel channel = FileChannel.open(dir.resolve("buffer.bin"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            // pages of 64 bytes, values must never span two pages
+            PagedBuffer buffer = PagedBuffer.map(channel, FileChannel.MapMode.READ_WRITE, 16, rows * 8L, 6);
+            assertEquals(rows * 8L, buffer.byteSize());
+
+            VarDoubleOffHeap x = VarDoubleOffHeap.wrap(buffer, rows).name("x");
+            for (int i = 0; i < rows; i++) {
+                x.setDouble(i, i / 10.0);
+            }
+            x.setMissing(10);
+            for (int i = 0; i < rows; i++) {
+                if (i == 10) {
+                    assertTrue(x.isMissing(i));
+                    assertEquals("?", x.getLabel(i));
+                    continue;
+                }
+                assertEquals(i / 10.0, x.getDouble(i));
+                assertEquals(buffer.getDouble(i * 8L), x.getDouble(i));
+            }
+
+            // the same region viewed with different widths
+            VarIntOffHeap y = VarIntOffHeap.wrap(buffer, rows * 2);
+            y.setInt(1, 7);
+            y.setMissing(3);
+            assertEquals(7, y.getInt(1));
+            assertEquals(7.0, y.getDouble(1));
+            assertTrue(y.isMissing(3));
+            assertTrue(Double.isNaN(y.getDouble(3)));
+
+            VarLongOffHeap z = VarLongOffHeap.wrap(buffer, rows);
+            z.setLong(5, Long.MIN_VALUE);
+            z.setLabel(6, "?");
+            assertEquals(Long.MIN_VALUE, z.getLong(5));
+            assertTrue(z.isMissing(6));
+
+            VarBinaryOffHeap b = VarBinaryOffHeap.wrap(buffer, rows * 8);
+            b.setLabel(0, "true");
+            b.setInt(1, 0);
+            b.setDouble(2, 2.0);
+            assertEquals(1, b.getInt(0));
+            assertEquals("0", b.getLabel(1));
+            assertTrue(b.isMissing(2));
+
+            PagedBuffer codes = PagedBuffer.map(channel, FileChannel.MapMode.READ_WRITE, 16 + rows * 8L, rows * 2L, 6);
+            VarNominalOffHeap n = VarNominalOffHeap.wrap(codes, rows, List.of("a", "b"));
+            n.setLabel(0, "b");
+            n.setLabel(1, "c");
+            n.setMissing(2);
+            assertEquals("b", n.getLabel(0));
+            assertEquals(3, n.getInt(1));
+            assertEquals(List.of("?", "a", "b", "c"), n.levels());
+            assertTrue(n.isMissing(2));
+            n.setLevels("x", "y", "z");
+            assertEquals("y", n.getLabel(0));
+            assertEquals("z", n.getLabel(1));
+
+            assertThrows(IllegalArgumentException.class, () -> VarDoubleOffHeap.wrap(buffer, rows + 1));
+            assertThrows(OperationNotAvailableException.class, () -> x.addDouble(1));
+            assertEquals(VarType.DOUBLE, x.copy().type());
+            assertTrue(x.copy() instanceof VarDouble);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class VarDoubleOffHeapTest {
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(1234);
+    }
+
+    @Test
+    void testBuilders() {
+        VarDoubleOffHeap empty = VarDoubleOffHeap.empty();
+        assertEquals(0, empty.size());
+        assertTrue(empty.buffer().isDirect());
+
+        VarDoubleOffHeap missing = VarDoubleOffHeap.empty(10);
+        assertEquals(10, missing.stream().incomplete().count());
+
+        VarDoubleOffHeap fill = VarDoubleOffHeap.fill(10, 3.5);
+        assertEquals(35, fill.op().nansum(), 1e-12);
+
+        VarDouble source = VarDouble.from(100, RandomSource::nextDouble).name("x");
+        source.setMissing(3);
+        VarDoubleOffHeap copy = VarDoubleOffHeap.copy(source);
+        assertTrue(source.deepEquals(copy));
+        assertEquals(VarType.DOUBLE, copy.type());
+        assertTrue(copy.copy() instanceof VarDouble);
+    }
+
+    @Test
+    void testGrowAcrossPages() {
+        // pages of 64 bytes hold 8 values each
+        VarDoubleOffHeap x = VarDoubleOffHeap.wrap(PagedBuffer.allocate(0, 6), 0);
+        VarDouble ref = VarDouble.empty();
+        for (int i = 0; i < 1_000; i++) {
+            double value = RandomSource.nextDouble();
+            x.addDouble(value);
+            ref.addDouble(value);
+        }
+        x.addMissing();
+        ref.addMissing();
+        x.addLabel("Inf");
+        ref.addLabel("Inf");
+        x.addInt(7);
+        ref.addInt(7);
+        x.addRows(3);
+        ref.addRows(3);
+        assertTrue(ref.deepEquals(x));
+        assertEquals(1_006, x.size());
+        assertTrue(x.buffer().byteSize() >= 1_006 * 8);
+
+        for (int row : new int[]{0, 100, 1_002}) {
+            x.removeRow(row);
+            ref.removeRow(row);
+        }
+        assertTrue(ref.deepEquals(x));
+
+        x.clearRows();
+        assertEquals(0, x.size());
+        x.addDouble(1);
+        assertEquals(1, x.getDouble(0));
+    }
+
+    @Test
+    void testFrameAndOperations() {
+        VarDoubleOffHeap x = VarDoubleOffHeap.copy(VarDouble.seq(1, 10).name("x"));
+        VarIntOffHeap y = VarIntOffHeap.copy(VarInt.seq(1, 10).name("y"));
+        Frame df = SolidFrame.byVars(x, y);
+
+        df.addRows(2);
+        assertEquals(12, df.rowCount());
+        assertTrue(df.isMissing(10, "x"));
+        assertTrue(df.isMissing(11, "y"));
+
+        x.op().plus(y).op().mult(2);
+        assertEquals(4, x.getDouble(0));
+        assertEquals(40, x.getDouble(9));
+        assertEquals(22, x.op().nanmean(), 1e-12);
+
+        VarDoubleOffHeap sorted = x.op().sort(false);
+        assertTrue(VarDouble.copy(x).op().sort(false).deepEquals(sorted));
+    }
+
+    @Test
+    void testSerialization() throws IOException, ClassNotFoundException {
+        VarDoubleOffHeap x = VarDoubleOffHeap.copy(VarDouble.seq(1, 10).name("x"));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+            out.writeObject(x);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            Var restored = (Var) in.readObject();
+            assertTrue(restored instanceof VarDouble);
+            assertTrue(x.deepEquals(restored));
+        }
+    }
+}
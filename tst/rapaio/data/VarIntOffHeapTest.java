@@ -0,0 +1,81 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class VarIntOffHeapTest {
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(1234);
+    }
+
+    @Test
+    void testBuilders() {
+        assertEquals(0, VarIntOffHeap.empty().size());
+        assertEquals(10, VarIntOffHeap.empty(10).stream().incomplete().count());
+
+        VarIntOffHeap fill = VarIntOffHeap.fill(10, 3);
+        assertEquals(30, fill.op().nansum(), 1e-12);
+        assertEquals("3", fill.getLabel(9));
+
+        VarInt source = VarInt.from(100, row -> RandomSource.nextInt(10)).name("y");
+        source.setMissing(5);
+        VarIntOffHeap copy = VarIntOffHeap.copy(source);
+        assertTrue(source.deepEquals(copy));
+        assertTrue(copy.copy() instanceof VarInt);
+        assertTrue(Double.isNaN(copy.getDouble(5)));
+    }
+
+    @Test
+    void testGrowAcrossPages() {
+        // pages of 64 bytes hold 16 values each
+        VarIntOffHeap x = VarIntOffHeap.wrap(PagedBuffer.allocate(0, 6), 0);
+        VarInt ref = VarInt.empty();
+        for (int i = 0; i < 1_000; i++) {
+            int value = RandomSource.nextInt(1_000);
+            x.addInt(value);
+            ref.addInt(value);
+        }
+        x.addMissing();
+        ref.addMissing();
+        x.addLabel("17");
+        ref.addLabel("17");
+        x.addDouble(2.7);
+        ref.addDouble(2.7);
+        assertTrue(ref.deepEquals(x));
+
+        x.removeRow(0);
+        ref.removeRow(0);
+        assertTrue(ref.deepEquals(x));
+        assertThrows(NumberFormatException.class, () -> x.addLabel("x"));
+        assertEquals(ref.size(), x.size());
+    }
+}
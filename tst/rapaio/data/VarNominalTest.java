@@ -77,6 +77,24 @@ public class VarNominalTest {
         assertEquals("v", v.levels().get(2));
     }
 
+    @Test
+    void testWrap() {
+        VarNominal v = VarNominal.wrap(List.of("?", "a", "b"), new short[]{2, 0, 1, 2});
+        assertEquals(4, v.size());
+        assertEquals(List.of("?", "a", "b"), v.levels());
+        assertEquals("b", v.getLabel(0));
+        assertTrue(v.isMissing(1));
+        assertEquals("a", v.getLabel(2));
+        assertEquals(2, v.getInt(3));
+
+        v.addLabel("c");
+        assertEquals(5, v.size());
+        assertEquals(3, v.getInt(4));
+
+        assertThrows(IllegalArgumentException.class, () -> VarNominal.wrap(List.of("a", "b"), new short[0]));
+        assertThrows(IllegalArgumentException.class, () -> VarNominal.wrap(List.of("?", "a", "a"), new short[0]));
+    }
+
     @Test
     void testSetterGetter() {
         Var v = VarNominal.empty(4, "a", "b", "c");
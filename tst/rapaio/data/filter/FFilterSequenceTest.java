@@ -22,6 +22,9 @@
 package rapaio.data.filter;
 
 import org.junit.jupiter.api.Test;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
 import rapaio.data.VarRange;
 import rapaio.data.VarType;
 import rapaio.datasets.Datasets;
@@ -60,4 +63,60 @@ public class FFilterSequenceTest {
         Set<String> names = new HashSet<>(Arrays.asList(filters.varNames()));
         assertEquals(names, new HashSet<>(Arrays.asList(iris.varNames())));
     }
+
+    @Test
+    void lazyTest() {
+        var iris = Datasets.loadIrisDataset();
+        var filters = FFilterSequence.lazy(
+                FApply.onLabel(cl -> cl + "-x", VarRange.of("class")),
+                FToDouble.on(VarRange.onlyTypes(VarType.DOUBLE)),
+                FApply.onDouble(x -> x + 10, VarRange.onlyTypes(VarType.DOUBLE)),
+                FTransformBoxCox.on(0.5, 1, VarRange.of("sepal-length", "petal-width")),
+                FStandardize.on(VarRange.onlyTypes(VarType.DOUBLE)),
+                FOneHotEncoding.on("class"),
+                FApply.onDouble(x -> x * 2, VarRange.of("sepal-width"))
+        );
+        assertTrue(filters.isLazy());
+        assertTrue(filters.newInstance() instanceof FFilterSequence sequence && sequence.isLazy());
+
+        var lazy = iris.copy().fapply(filters);
+        var eager = iris.copy().fapply(FFilterSequence.of(
+                FApply.onLabel(cl -> cl + "-x", VarRange.of("class")),
+                FToDouble.on(VarRange.onlyTypes(VarType.DOUBLE)),
+                FApply.onDouble(x -> x + 10, VarRange.onlyTypes(VarType.DOUBLE)),
+                FTransformBoxCox.on(0.5, 1, VarRange.of("sepal-length", "petal-width")),
+                FStandardize.on(VarRange.onlyTypes(VarType.DOUBLE)),
+                FOneHotEncoding.on("class"),
+                FApply.onDouble(x -> x * 2, VarRange.of("sepal-width"))
+        ));
+
+        assertTrue(eager.deepEquals(lazy));
+    }
+
+    @Test
+    void lazyFallbackTest() {
+        var df = SolidFrame.byVars(
+                VarDouble.from(10_000, row -> row / 100.0).name("x"),
+                VarInt.from(10_000, row -> row % 7).name("y")
+        );
+        df.setMissing(3, "x");
+
+        // non double variables are transformed eagerly
+        var lazy = df.copy().fapply(FFilterSequence.lazy(FApply.onDouble(x -> x + 0.5, VarRange.all())));
+        var eager = df.copy().fapply(FFilterSequence.of(FApply.onDouble(x -> x + 0.5, VarRange.all())));
+        assertTrue(eager.deepEquals(lazy));
+        assertEquals(VarType.INT, lazy.rvar("y").type());
+
+        // fused filters do not alter the input frame
+        var original = df.copy();
+        lazy = df.fapply(FFilterSequence.lazy(FApply.onDouble(x -> x + 0.5, VarRange.of("x"))));
+        assertTrue(original.deepEquals(df));
+        assertTrue(lazy.isMissing(3, "x"));
+        for (int i = 0; i < df.rowCount(); i++) {
+            if (i != 3) {
+                assertEquals(df.getDouble(i, "x") + 0.5, lazy.getDouble(i, "x"), TOL);
+            }
+        }
+        assertSame(df.rvar("y"), lazy.rvar("y"));
+    }
 }
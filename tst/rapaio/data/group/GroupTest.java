@@ -26,15 +26,21 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import rapaio.core.RandomSource;
+import rapaio.core.stat.OnlineStat;
 import rapaio.data.Frame;
 import rapaio.data.Group;
 import rapaio.data.SolidFrame;
+import rapaio.data.Var;
+import rapaio.data.VarBinary;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
 import rapaio.data.VarNominal;
 import rapaio.data.VarRange;
 import rapaio.datasets.Datasets;
 import rapaio.sys.WS;
 import rapaio.util.StringBag;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -249,4 +255,106 @@ public class GroupTest {
             assertEquals((int) counts.get(sb), count);
         }
     }
+
+    @Test
+    void testLargeGroups() {
+        // groups larger than aggregation chunks and many small groups
+        int n = 200_000;
+        VarInt big = VarInt.from(n, row -> row % 3);
+        VarInt small = VarInt.from(n, row -> row % 20_000);
+        VarDouble x = VarDouble.from(n, row -> row % 7 == 0 ? Double.NaN : RandomSource.nextDouble() * 100);
+        Frame df = SolidFrame.byVars(big.name("big"), small.name("small"), x.name("x"));
+
+        for (String key : new String[]{"big", "small"}) {
+            Group group = Group.from(df, key);
+            Frame agg = group.aggregate(mean("x"), std("x"), skewness("x"), count("x")).toFrame();
+            assertEquals(group.getGroupCount(), agg.rowCount());
+
+            OnlineStat[] stats = new OnlineStat[group.getGroupCount()];
+            for (int i = 0; i < n; i++) {
+                int groupId = df.getInt(i, key);
+                if (stats[groupId] == null) {
+                    stats[groupId] = OnlineStat.empty();
+                }
+                if (!x.isMissing(i)) {
+                    stats[groupId].update(x.getDouble(i));
+                }
+            }
+            for (int i = 0; i < agg.rowCount(); i++) {
+                OnlineStat stat = stats[agg.getInt(i, key)];
+                assertEquals(stat.mean(), agg.getDouble(i, "x_mean"), 1e-9);
+                assertEquals(stat.sd(), agg.getDouble(i, "x_std"), 1e-9);
+                assertEquals(stat.skewness(), agg.getDouble(i, "x_skewness"), 1e-9);
+                assertEquals((int) stat.n(), agg.getInt(i, "x_count"));
+            }
+        }
+    }
+
+    @Test
+    void testManyKeys() {
+        // composite key codes do not fit into a long and must be compacted
+        int n = 100_000;
+        Var[] keys = new Var[4];
+        for (int j = 0; j < keys.length; j++) {
+            final int shift = j;
+            keys[j] = VarInt.from(n, row -> (row + shift) % n).name("k" + j);
+        }
+        Frame df = SolidFrame.byVars(keys).bindVars(VarInt.from(n, row -> row % 2).name("x"));
+
+        Group group = Group.from(df, "k0", "k1", "k2", "k3");
+        assertEquals(n, group.getGroupCount());
+        VarInt sorted = group.getSortedGroupIds();
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, df.getInt(group.getRowsForGroupId(sorted.getInt(i)).get(0), "k0"));
+            assertEquals(i, group.getGroupId(i));
+        }
+        Frame agg = group.aggregate(sum("x")).toFrame();
+        assertEquals(n, agg.rowCount());
+        assertEquals(n / 2.0, agg.rvar("x_sum").op().nansum(), 1e-9);
+    }
+
+    @Test
+    void testNominalBinaryMaxMin() {
+        // nominal and binary aggregates share internal structures and are not written concurrently
+        int n = 200_000;
+        String[] levels = new String[5_000];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = "l" + i;
+        }
+        VarInt key = VarInt.from(n, row -> row % 50_000).name("k");
+        VarNominal nom = VarNominal.from(n, row -> levels[RandomSource.nextInt(levels.length)], levels).name("n");
+        VarBinary bin = VarBinary.fromIndex(n, row -> row % 11 == 0 ? VarInt.MISSING_VALUE : RandomSource.nextInt(2)).name("b");
+        Frame df = SolidFrame.byVars(key, nom, bin);
+
+        Frame agg = Group.from(df, "k").aggregate(max("n"), min("n"), max("b"), min("b")).toFrame();
+        assertEquals(50_000, agg.rowCount());
+
+        String[] maxLabels = new String[50_000];
+        String[] minLabels = new String[50_000];
+        int[] maxBin = new int[50_000];
+        int[] minBin = new int[50_000];
+        Arrays.fill(maxBin, -1);
+        Arrays.fill(minBin, 2);
+        for (int i = 0; i < n; i++) {
+            int k = key.getInt(i);
+            String label = nom.getLabel(i);
+            if (maxLabels[k] == null || maxLabels[k].compareTo(label) < 0) {
+                maxLabels[k] = label;
+            }
+            if (minLabels[k] == null || minLabels[k].compareTo(label) > 0) {
+                minLabels[k] = label;
+            }
+            if (!bin.isMissing(i)) {
+                maxBin[k] = Math.max(maxBin[k], bin.getInt(i));
+                minBin[k] = Math.min(minBin[k], bin.getInt(i));
+            }
+        }
+        for (int i = 0; i < agg.rowCount(); i++) {
+            int k = agg.getInt(i, "k");
+            assertEquals(maxLabels[k], agg.getLabel(i, "n_max"));
+            assertEquals(minLabels[k], agg.getLabel(i, "n_min"));
+            assertEquals(maxBin[k], agg.getInt(i, "b_max"));
+            assertEquals(minBin[k], agg.getInt(i, "b_min"));
+        }
+    }
 }
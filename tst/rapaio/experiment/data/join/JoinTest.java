@@ -23,6 +23,7 @@ package rapaio.experiment.data.join;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarDouble;
@@ -83,4 +84,54 @@ public class JoinTest {
         assertTrue(Join.rightJoin(df1, df2).deepEquals(Join.leftJoin(df2, df1)));
     }
 
+    @Test
+    void multipleKeysTest() {
+        RandomSource.setSeed(42);
+        for (int[] sizes : new int[][]{{200, 1_000}, {1_000, 200}}) {
+            Frame left = randomFrame(sizes[0], "x");
+            Frame right = randomFrame(sizes[1], "y");
+
+            // brute force
+            int count = 0;
+            double sum = 0;
+            for (int i = 0; i < left.rowCount(); i++) {
+                int matches = 0;
+                for (int j = 0; j < right.rowCount(); j++) {
+                    if (left.getInt(i, "k1") == right.getInt(j, "k1") && left.getLabel(i, "k2").equals(right.getLabel(j, "k2"))) {
+                        matches++;
+                        sum += left.getDouble(i, "x") * right.getDouble(j, "y");
+                    }
+                }
+                count += Math.max(1, matches);
+            }
+
+            Frame join = Join.leftJoin(left, right, VarRange.of("k1", "k2"));
+            assertEquals(count, join.rowCount());
+            assertArrayEquals(new String[]{"k1", "k2", "x", "y"}, join.varNames());
+
+            double joinSum = 0;
+            for (int i = 0; i < join.rowCount(); i++) {
+                if (!join.isMissing(i, "y")) {
+                    joinSum += join.getDouble(i, "x") * join.getDouble(i, "y");
+                }
+            }
+            assertEquals(sum, joinSum, 1e-6);
+            assertTrue(join.deepEquals(join.copy()));
+
+            Frame rightJoin = Join.rightJoin(right, left, VarRange.of("k1", "k2"));
+            assertEquals(count, rightJoin.rowCount());
+        }
+    }
+
+    private Frame randomFrame(int len, String name) {
+        VarInt k1 = VarInt.empty().name("k1");
+        VarNominal k2 = VarNominal.empty(0, "a", "b", "c").name("k2");
+        VarDouble x = VarDouble.empty().name(name);
+        for (int i = 0; i < len; i++) {
+            k1.addInt(RandomSource.nextInt(100));
+            k2.addLabel(String.valueOf((char) ('a' + RandomSource.nextInt(3))));
+            x.addDouble(RandomSource.nextDouble());
+        }
+        return SolidFrame.byVars(k1, k2, x);
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.io;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarBinary;
+import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
+import rapaio.data.VarLong;
+import rapaio.data.VarNominal;
+import rapaio.data.VarString;
+import rapaio.data.VarType;
+import rapaio.datasets.Datasets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class ColumnarIOTest {
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(42);
+    }
+
+    @Test
+    void testStoreRestore(@TempDir Path dir) throws IOException {
+        int rows = 1_000;
+        VarDouble x = VarDouble.from(rows, RandomSource::nextDouble).name("x");
+        VarInt y = VarInt.from(rows, row -> RandomSource.nextInt(100)).name("y");
+        VarLong z = VarLong.from(rows, row -> (long) row * Integer.MAX_VALUE).name("z");
+        VarBinary b = VarBinary.from(rows, row -> row % 3 == 0).name("b");
+        VarNominal n = VarNominal.from(rows, row -> String.valueOf((char) ('a' + row % 5)), "e", "d").name("n");
+        for (int i = 0; i < rows; i += 7) {
+            x.setMissing(i);
+            y.setMissing(i);
+            z.setMissing(i);
+            b.setMissing(i);
+            n.setMissing(i);
+        }
+        Frame df = SolidFrame.byVars(x, y, z, b, n);
+
+        File file = dir.resolve("df.col").toFile();
+        ColumnarIO.storeToFile(df, file);
+        Frame restored = ColumnarIO.restoreFromFile(file);
+
+        assertTrue(df.deepEquals(restored));
+        assertEquals(List.of("?", "e", "d", "a", "b", "c"), restored.levels("n"));
+        assertEquals(VarType.NOMINAL, restored.type("n"));
+        assertThrows(RuntimeException.class, () -> restored.setDouble(0, "x", 1));
+
+        // a copy is a regular heap frame
+        Frame copy = restored.copy();
+        copy.setDouble(0, "x", 1);
+        assertEquals(1, copy.getDouble(0, "x"));
+    }
+
+    @Test
+    void testStoreRestoreDataset(@TempDir Path dir) throws IOException {
+        Frame iris = Datasets.loadIrisDataset();
+        File file = dir.resolve("iris.col").toFile();
+        ColumnarIO.storeToFile(iris, file);
+        assertTrue(iris.deepEquals(ColumnarIO.restoreFromFile(file)));
+
+        Frame empty = iris.mapRows();
+        ColumnarIO.storeToFile(empty, file);
+        Frame restored = ColumnarIO.restoreFromFile(file);
+        assertEquals(0, restored.rowCount());
+        assertArrayEquals(iris.varNames(), restored.varNames());
+    }
+
+    @Test
+    void testInvalid(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("invalid.col").toFile();
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnarIO.storeToFile(SolidFrame.byVars(VarString.copy("a", "b").name("s")), file));
+
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("x,y,z");
+        }
+        assertThrows(IOException.class, () -> ColumnarIO.restoreFromFile(file));
+    }
+}
@@ -23,15 +23,21 @@ package rapaio.io;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import rapaio.data.Frame;
 import rapaio.data.Var;
+import rapaio.data.VarRange;
 import rapaio.data.VarType;
 import rapaio.datasets.Datasets;
 import rapaio.util.IntRule;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -244,4 +250,135 @@ public class CsvTest {
         Frame na4 = Csv.instance().naValues.set("virginica", "5").types.add(VarType.NOMINAL, "sepal-length").read(Datasets.class, "iris-r.csv");
         assertEquals(89, na4.stream().complete().count());
     }
+
+    @Test
+    void testReadHeaderOnly(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("header.csv").toFile();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("x,cat,y");
+        }
+
+        // variables are named from header and typed as if data lines would follow
+        Frame df = Csv.instance().types.add(VarType.NOMINAL, "cat").types.add(VarType.INT, "y").read(file);
+        assertEquals(0, df.rowCount());
+        assertArrayEquals(new String[]{"x", "cat", "y"}, df.varNames());
+        assertEquals(VarType.BINARY, df.type("x"));
+        assertEquals(VarType.NOMINAL, df.type("cat"));
+        assertEquals(VarType.INT, df.type("y"));
+    }
+
+    @Test
+    void testReadParallel() throws Exception {
+        File csvTest = new File(getClass().getResource("csv-test.csv").toURI());
+        Csv csv = Csv.instance().quotes.set(true);
+        assertTrue(csv.read(csvTest).deepEquals(csv.readParallel(csvTest)));
+
+        File defaults = new File(getClass().getResource("defaults-test.csv").toURI());
+        csv = Csv.instance().quotes.set(true).defaultTypes.set(VarType.BINARY, VarType.INT, VarType.DOUBLE, VarType.NOMINAL);
+        assertTrue(csv.read(defaults).deepEquals(csv.readParallel(defaults)));
+
+        File iris = new File(Datasets.class.getResource("iris-r.csv").toURI());
+        csv = Csv.instance().types.add(VarType.NOMINAL, "sepal-length").skipCols.set(IntRule.from(1));
+        assertTrue(csv.read(iris).deepEquals(csv.readParallel(iris)));
+
+        Frame template = Csv.instance().read(iris);
+        csv = Csv.instance().template.set(template);
+        assertTrue(template.deepEquals(csv.readParallel(iris)));
+    }
+
+    @Test
+    void testReadParallelChunks(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("chunks.csv").toFile();
+        Random random = new Random(42);
+        String[] labels = new String[]{"a", "b", "\"c, d\"", "e", "?"};
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.print("id,flag,x,cat,late\r\n");
+            for (int i = 0; i < 3_000; i++) {
+                String flag = random.nextInt(10) == 0 ? "" : random.nextBoolean() ? "true" : "False";
+                String x = switch (random.nextInt(5)) {
+                    case 0 -> String.valueOf(random.nextGaussian());
+                    case 1 -> String.valueOf(random.nextInt(1000) / 100.0);
+                    case 2 -> random.nextInt(100) + "e-3";
+                    case 3 -> "NaN";
+                    default -> "-Inf";
+                };
+                String late = i < 2_500 ? String.valueOf(random.nextInt(100)) : random.nextInt(100) + ".5";
+                writer.print(i + "," + flag + ", " + x + "," + labels[random.nextInt(labels.length)] + "," + late);
+                if (i == 2_900) {
+                    writer.print(",extra");
+                }
+                writer.print(i % 2 == 0 ? "\n" : "\r\n");
+            }
+        }
+
+        Csv csv = Csv.instance().quotes.set(true).sampleRows.set(100)
+                .defaultTypes.set(VarType.BINARY, VarType.INT, VarType.LONG, VarType.DOUBLE, VarType.NOMINAL, VarType.STRING);
+        Frame expected = csv.read(file);
+        Frame df = new ParallelCsvReader(csv, 4, 512).read(file);
+
+        // sequential reader does not keep the value which creates a new column
+        assertTrue(expected.removeVars(VarRange.of("V6")).deepEquals(df.removeVars(VarRange.of("V6"))));
+        assertEquals(3_000, df.rowCount());
+        assertArrayEquals(new String[]{"id", "flag", "x", "cat", "late", "V6"}, df.varNames());
+        assertEquals(VarType.INT, df.type("id"));
+        assertEquals(VarType.BINARY, df.type("flag"));
+        assertEquals(VarType.DOUBLE, df.type("x"));
+        assertEquals(VarType.NOMINAL, df.type("cat"));
+        assertEquals(VarType.DOUBLE, df.type("late"));
+        assertEquals("extra", df.getLabel(2_900, "V6"));
+    }
+
+    @Test
+    void testReadParallelNaValues(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("na.csv").toFile();
+        Random random = new Random(42);
+        String[] tokens = new String[]{"?", "", "na", "NULL", "-"};
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("x,cat,flag,text");
+            for (int i = 0; i < 2_000; i++) {
+                String x = random.nextInt(4) == 0 ? tokens[random.nextInt(tokens.length)] : String.valueOf(random.nextInt(100));
+                String cat = random.nextInt(4) == 0 ? tokens[random.nextInt(tokens.length)] : "c" + random.nextInt(20);
+                String flag = random.nextInt(4) == 0 ? tokens[random.nextInt(tokens.length)] : String.valueOf(random.nextInt(2));
+                String text = random.nextInt(4) == 0 ? tokens[random.nextInt(tokens.length)] : "t" + random.nextInt(1000);
+                writer.println(x + "," + cat + "," + flag + "," + text);
+            }
+        }
+
+        Csv csv = Csv.instance().naValues.set("NULL", "-", "na", "")
+                .types.add(VarType.DOUBLE, "x").types.add(VarType.NOMINAL, "cat")
+                .types.add(VarType.BINARY, "flag").types.add(VarType.STRING, "text");
+        assertTrue(csv.read(file).deepEquals(new ParallelCsvReader(csv, 4, 512).read(file)));
+
+        csv = Csv.instance().naValues.set("NULL").types.add(VarType.NOMINAL, "x", "flag")
+                .types.add(VarType.NOMINAL, "cat").types.add(VarType.STRING, "text");
+        Frame expected = csv.read(file);
+        Frame df = new ParallelCsvReader(csv, 4, 512).read(file);
+        assertTrue(expected.deepEquals(df));
+        assertTrue(df.levels("cat").contains("na"));
+    }
+
+    @Test
+    void testReadParallelHeaderOnly(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("header.csv").toFile();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("x,cat,y");
+        }
+        Csv csv = Csv.instance().types.add(VarType.NOMINAL, "cat").types.add(VarType.INT, "y");
+        Frame df = csv.readParallel(file);
+
+        assertArrayEquals(new String[]{"x", "cat", "y"}, df.varNames());
+        assertTrue(csv.read(file).deepEquals(df));
+    }
+
+    @Test
+    void testReadParallelInvalidValue(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("invalid.csv").toFile();
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("x");
+            writer.println("1");
+            writer.println("y");
+        }
+        Csv csv = Csv.instance().types.add(VarType.DOUBLE, "x");
+        assertThrows(IllegalArgumentException.class, () -> csv.readParallel(file));
+    }
 }
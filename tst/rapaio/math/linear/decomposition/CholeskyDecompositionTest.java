@@ -25,6 +25,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import rapaio.core.RandomSource;
 import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.MType;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -52,6 +53,29 @@ public class CholeskyDecompositionTest {
         }
     }
 
+    @Test
+    void testBlocked() {
+        // dense matrices larger than a block use the blocked algorithm, base matrices do not
+        int n = 3 * CholeskyDecomposition.BLOCK_SIZE + 7;
+        DMatrix a = DMatrix.random(n + 10, n);
+        DMatrix b = a.t().dot(a);
+        DMatrix base = DMatrix.fill(MType.BASE, n, n, b::get);
+        DMatrix y = DMatrix.random(n, 2);
+
+        CholeskyDecomposition blocked = CholeskyDecomposition.from(b);
+        CholeskyDecomposition simple = CholeskyDecomposition.from(base);
+
+        assertTrue(blocked.isSPD());
+        assertTrue(simple.getL().deepEquals(blocked.getL(), 1e-10));
+        assertTrue(b.deepEquals(blocked.getL().dot(blocked.getL().t()), 1e-10));
+        assertTrue(simple.solve(y).deepEquals(blocked.solve(y), 1e-8));
+
+        DMatrix c = b.copy();
+        c.set(0, n - 1, c.get(0, n - 1) + 1);
+        assertFalse(CholeskyDecomposition.from(c).isSPD());
+        assertFalse(CholeskyDecomposition.from(DMatrix.random(n, n)).isSPD());
+    }
+
     @Test
     void testNonSPD() {
         for (int i = 0; i < TIMES; i++) {
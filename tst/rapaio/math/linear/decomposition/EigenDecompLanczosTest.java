@@ -0,0 +1,88 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.math.linear.decomposition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.EigenPair;
+import rapaio.math.linear.Linear;
+import rapaio.math.linear.MType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EigenDecompLanczosTest {
+
+    private static final double TOL = 1e-8;
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(1234);
+    }
+
+    @Test
+    void testTopEigenPairs() {
+        DMatrix a = DMatrix.random(200, 150);
+        DMatrix s = a.t().dot(a);
+
+        EigenPair full = new EigenDecompStatistics().getEigenDecomp(s, 1000, 1e-12);
+        for (DMatrix m : new DMatrix[] {s, DMatrix.fill(MType.BASE, 150, 150, s::get)}) {
+            EigenPair top = Linear.eigenDecomp(m, 5, 1000, 1e-12);
+
+            assertEquals(5, top.values().size());
+            assertEquals(150, top.vectors().rowCount());
+            assertEquals(5, top.vectors().colCount());
+            double scale = full.values().get(0);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(full.values().get(i), top.values().get(i), TOL * scale);
+                // eigen vectors are equal up to sign
+                assertEquals(1.0, Math.abs(full.vector(i).dot(top.vector(i))), TOL);
+            }
+            assertTrue(s.dot(top.vectors()).deepEquals(top.vectors().dot(top.expandedValues()), TOL * scale));
+        }
+    }
+
+    @Test
+    void testInvariantSubspace() {
+        // diagonal matrix with repeated values, the Krylov space of a single vector does not contain all eigen vectors
+        DMatrix s = DMatrix.fill(10, 10, 0);
+        double[] diag = {5, 5, 4, 4, 3, 3, 2, 2, 1, 1};
+        for (int i = 0; i < diag.length; i++) {
+            s.set(i, i, diag[i]);
+        }
+        EigenPair top = new EigenDecompLanczos(4).getEigenDecomp(s, 100, 1e-12);
+        assertTrue(s.dot(top.vectors()).deepEquals(top.vectors().dot(top.expandedValues()), TOL));
+
+        // after the first invariant subspace the basis continues with new directions
+        EigenPair all = new EigenDecompLanczos(20).getEigenDecomp(s, 100, 1e-12);
+        assertArrayEquals(diag, all.values().valueStream().toArray(), TOL);
+        assertTrue(DMatrix.identity(10).deepEquals(all.vectors().t().dot(all.vectors()), TOL));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new EigenDecompLanczos(0));
+        assertThrows(IllegalArgumentException.class, () -> new EigenDecompLanczos(2).getEigenDecomp(DMatrix.random(3, 4), 10, 1e-10));
+    }
+}
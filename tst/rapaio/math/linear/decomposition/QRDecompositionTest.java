@@ -28,6 +28,7 @@ import rapaio.core.RandomSource;
 import rapaio.core.distributions.Normal;
 import rapaio.core.distributions.Uniform;
 import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.MType;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -143,6 +144,23 @@ public class QRDecompositionTest {
         }
     }
 
+    @Test
+    void testBlocked() {
+        // dense matrices larger than a panel use the blocked algorithm, base matrices do not
+        DMatrix a = DMatrix.random(300, 3 * QRDecomposition.BLOCK_SIZE + 7);
+        DMatrix base = DMatrix.fill(MType.BASE, a.rowCount(), a.colCount(), a::get);
+        DMatrix b = DMatrix.random(300, 2);
+
+        QRDecomposition blocked = QRDecomposition.from(a);
+        QRDecomposition simple = QRDecomposition.from(base);
+
+        assertTrue(simple.getR().deepEquals(blocked.getR(), 1e-10));
+        assertTrue(simple.getH().deepEquals(blocked.getH(), 1e-10));
+        assertTrue(simple.getQ().deepEquals(blocked.getQ(), 1e-10));
+        assertTrue(simple.solve(b).deepEquals(blocked.solve(b), 1e-10));
+        assertTrue(a.deepEquals(blocked.getQ().dot(blocked.getR()), 1e-10));
+    }
+
     @Test
     void testIncompatible() {
         assertThrows(IllegalArgumentException.class, () -> QRDecomposition.from(DMatrix.random(10, 10)).solve(DMatrix.random(12, 1)));
@@ -68,6 +68,37 @@ public class SVDecompositionTest {
         }
     }
 
+    @Test
+    void testRandomized() {
+        // matrices of rank 8 are fully captured by the sampled range
+        DMatrix tall = DMatrix.random(200, 8).dot(DMatrix.random(8, 120));
+        DMatrix wide = tall.t().copy();
+
+        double[] expected = SVDecomposition.from(tall).getSingularValues();
+        for (DMatrix a : new DMatrix[] {tall, wide}) {
+            SVDecomposition svd = SVDecomposition.randomized(a, 5);
+            double[] sv = svd.getSingularValues();
+            assertEquals(5, sv.length);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(expected[i], sv[i], 1e-8 * expected[0]);
+            }
+            assertEquals(a.rowCount(), svd.getU().rowCount());
+            assertEquals(5, svd.getU().colCount());
+            assertEquals(a.colCount(), svd.getV().rowCount());
+            assertEquals(5, svd.getV().colCount());
+            assertTrue(DMatrix.identity(5).deepEquals(svd.getU().t().dot(svd.getU()), 1e-10));
+            assertTrue(DMatrix.identity(5).deepEquals(svd.getV().t().dot(svd.getV()), 1e-10));
+
+            // A*v = s*u for each singular triple
+            DMatrix av = a.dot(svd.getV());
+            DMatrix us = svd.getU().dot(svd.getS());
+            assertTrue(av.deepEquals(us, 1e-8 * expected[0]));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> SVDecomposition.randomized(tall, 0));
+        assertThrows(IllegalArgumentException.class, () -> SVDecomposition.randomized(tall, 121));
+    }
+
     @Test
     void testDimension() {
         assertThrows(IllegalArgumentException.class, () -> SVDecomposition.from(DMatrix.random(10, 50)));
@@ -0,0 +1,91 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.dense;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.decomposition.MatrixMultiplication;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class DenseGemmTest {
+
+    private static final double TOL = 1e-10;
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(42);
+    }
+
+    private DMatrix random(MType type, int rows, int cols) {
+        Normal normal = Normal.std();
+        return DMatrix.fill(type, rows, cols, (r, c) -> normal.sampleNext());
+    }
+
+    @Test
+    void testShapesAndStorages() {
+        int[][] shapes = new int[][]{
+                {1, 1, 1}, {3, 5, 2}, {17, 33, 9}, {65, 257, 67}, {130, 300, 5}, {7, 600, 530}, {70, 3, 1030}
+        };
+        MType[] types = new MType[]{MType.RDENSE, MType.CDENSE};
+        for (int[] shape : shapes) {
+            for (MType ta : types) {
+                for (MType tb : types) {
+                    DMatrix a = random(ta, shape[0], shape[1]);
+                    DMatrix b = random(tb, shape[1], shape[2]);
+                    DMatrix c = a.dot(b);
+                    assertTrue(c instanceof DMatrixDenseR);
+                    assertEquals(shape[0], c.rowCount());
+                    assertEquals(shape[2], c.colCount());
+                    assertTrue(c.deepEquals(MatrixMultiplication.jama(a, b), TOL));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTransposedViews() {
+        DMatrix x = random(MType.RDENSE, 150, 40);
+        DMatrix xtx = x.t().dot(x);
+        assertTrue(xtx.deepEquals(MatrixMultiplication.jama(x.t(), x), TOL));
+        for (int i = 0; i < xtx.rowCount(); i++) {
+            for (int j = 0; j < xtx.colCount(); j++) {
+                assertEquals(xtx.get(i, j), xtx.get(j, i), TOL);
+            }
+        }
+    }
+
+    @Test
+    void testNonConformant() {
+        DMatrix a = random(MType.RDENSE, 3, 4);
+        DMatrix b = random(MType.CDENSE, 3, 4);
+        var ex = assertThrows(IllegalArgumentException.class, () -> a.dot(b));
+        assertEquals("Matrices not conformant for multiplication: (3,4) x (3,4)", ex.getMessage());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.math.linear.sparse;
+
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.core.distributions.Normal;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
+import rapaio.math.linear.StandardDMatrixTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DMatrixSparseRTest extends StandardDMatrixTest {
+
+    @Override
+    protected DMatrix generateSequential(int n, int m) {
+        return DMatrix.fill(MType.RSPARSE, n, m, (i, j) -> i * m + j);
+    }
+
+    @Override
+    protected DMatrix generateIdentity(int n) {
+        return DMatrix.identity(MType.RSPARSE, n);
+    }
+
+    @Override
+    protected DMatrix generateFill(int n, int m, double fill) {
+        return DMatrix.fill(MType.RSPARSE, n, m, fill);
+    }
+
+    @Override
+    protected DMatrix generateCopy(double[][] values) {
+        return DMatrix.fill(MType.RSPARSE, values.length, values[0].length, (i, j) -> values[i][j]);
+    }
+
+    @Override
+    protected String className() {
+        return "DMatrixSparseR";
+    }
+
+    private DMatrix sparseRandom(MType type, int rows, int cols) {
+        Normal normal = Normal.std();
+        return DMatrix.fill(type, rows, cols, (i, j) -> RandomSource.nextDouble() < 0.1 ? normal.sampleNext() : 0);
+    }
+
+    private DMatrix dense(DMatrix m) {
+        return DMatrix.fill(m.rowCount(), m.colCount(), m::get);
+    }
+
+    @Test
+    void sparseProductsTest() {
+        RandomSource.setSeed(42);
+        Normal normal = Normal.std();
+        DMatrix a = sparseRandom(MType.RSPARSE, 40, 30);
+        DMatrix b = sparseRandom(MType.CSPARSE, 30, 20);
+        DMatrix d = DMatrix.random(MType.RDENSE, 30, 20);
+        DVector v = DVector.from(30, i -> normal.sampleNext());
+
+        assertTrue(((DMatrixSparse) a).nnz() < 40 * 30 / 5);
+
+        assertTrue(dense(a).dot(v).deepEquals(a.dot(v), 1e-12));
+        DVector u = DVector.from(40, i -> normal.sampleNext());
+        assertTrue(dense(a).t().dot(u).deepEquals(a.t().dot(u), 1e-12));
+        assertTrue(dense(a).dot(dense(b)).deepEquals(a.dot(b), 1e-12));
+        assertTrue(dense(a).dot(d).deepEquals(a.dot(d), 1e-12));
+        assertTrue(dense(a).t().dot(dense(a)).deepEquals(a.t().dot(a), 1e-12));
+        assertTrue(d.t().dot(dense(a).t()).deepEquals(d.t().dot(a.t()), 1e-12));
+        assertTrue(dense(a).scatter().deepEquals(a.scatter(), 1e-10));
+        assertTrue(dense(b).scatter().deepEquals(b.scatter(), 1e-10));
+
+        DVector diag = DVector.from(30, i -> normal.sampleNext());
+        assertTrue(dense(a).dotDiag(diag).deepEquals(a.copy().dotDiag(diag), 1e-12));
+        DVector diagT = DVector.from(40, i -> normal.sampleNext());
+        assertTrue(dense(a).dotDiagT(diagT).deepEquals(a.copy().dotDiagT(diagT), 1e-12));
+    }
+
+    @Test
+    void storageConversionTest() {
+        RandomSource.setSeed(42);
+        DMatrixSparseR a = (DMatrixSparseR) sparseRandom(MType.RSPARSE, 20, 10);
+        DMatrixSparseC c = a.toCSC();
+        assertEquals(MType.CSPARSE, c.type());
+        assertEquals(a.nnz(), c.nnz());
+        assertTrue(a.deepEquals(c));
+        assertTrue(a.deepEquals(c.toCSR()));
+
+        // transpose is a view over the same storage
+        DMatrix t = a.t();
+        assertEquals(MType.CSPARSE, t.type());
+        t.set(3, 5, 100);
+        assertEquals(100, a.get(5, 3));
+
+        DVector row = a.mapRow(5);
+        assertTrue(row instanceof DVectorSparse);
+        assertTrue(dense(a).mapRow(5).deepEquals(row));
+    }
+}
@@ -121,6 +121,31 @@ public class PCATest {
         assertTrue(acc1 < acc2);
     }
 
+    @Test
+    void componentsTest() {
+        Frame x = Datasets.loadIrisDataset().removeVars(VarRange.of("class"));
+
+        for (boolean center : new boolean[] {true, false}) {
+            PCA full = PCA.newModel().center.set(center).standardize.set(true).fit(x);
+            PCA top = PCA.newModel().center.set(center).standardize.set(true).components.set(2).fit(x);
+
+            assertEquals(2, top.getValues().size());
+            assertEquals(4, top.getVectors().rowCount());
+            assertEquals(2, top.getVectors().colCount());
+            for (int i = 0; i < 2; i++) {
+                assertEquals(full.getValues().get(i), top.getValues().get(i), TOL);
+                for (int j = 0; j < 4; j++) {
+                    assertEquals(Math.abs(full.getVectors().get(j, i)), Math.abs(top.getVectors().get(j, i)), 1e-6);
+                }
+            }
+            Frame t1 = full.transform(x, 2);
+            Frame t2 = top.transform(x, 2);
+            for (int i = 0; i < 2; i++) {
+                assertEquals(Math.abs(t1.getDouble(10, i)), Math.abs(t2.getDouble(10, i)), 1e-6);
+            }
+        }
+    }
+
     @Test
     void testPrint() {
         PCA pca = PCA.newModel().fit(df);
@@ -22,22 +22,31 @@
 package rapaio.ml.classifier.bayes;
 
 import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
+import rapaio.data.Mapping;
 import rapaio.data.SolidFrame;
 import rapaio.data.Var;
+import rapaio.data.VarBinary;
 import rapaio.data.VarDouble;
+import rapaio.data.VarInt;
 import rapaio.data.VarNominal;
 import rapaio.data.VarType;
 import rapaio.datasets.Datasets;
 import rapaio.ml.classifier.ClassifierResult;
+import rapaio.ml.classifier.bayes.nb.BernoulliEstimator;
 import rapaio.ml.classifier.bayes.nb.Estimator;
 import rapaio.ml.classifier.bayes.nb.GaussianEstimator;
 import rapaio.ml.classifier.bayes.nb.KernelEstimator;
+import rapaio.ml.classifier.bayes.nb.MultinomialEstimator;
+import rapaio.ml.classifier.bayes.nb.MultinoulliEstimator;
+import rapaio.ml.classifier.bayes.nb.PoissonEstimator;
 import rapaio.ml.classifier.bayes.nb.PriorUniform;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -258,6 +267,77 @@ public class NaiveBayesTest {
         assertEquals(model.toFullContent(), model.toContent());
 
     }
-}
 
+    @Test
+    void testPartialFitAndMerge() {
+        RandomSource.setSeed(123);
+        int n = 600;
+        Frame df = SolidFrame.byVars(
+                VarNominal.from(n, row -> String.valueOf((char) ('a' + row % 3))).name("y"),
+                VarDouble.from(n, row -> row % 3 + RandomSource.nextDouble()).name("g"),
+                VarDouble.from(n, row -> row % 3 * 2 + RandomSource.nextDouble()).name("k"),
+                VarBinary.from(n, row -> RandomSource.nextDouble() < 0.3 * (row % 3)).name("b"),
+                VarNominal.from(n, row -> RandomSource.nextDouble() < 0.5 ? "x" : (row % 3 == 0 ? "y" : "z")).name("nom"),
+                VarInt.from(n, row -> row % 3 + RandomSource.nextInt(3)).name("p"),
+                VarInt.from(n, row -> RandomSource.nextInt(5) + row % 3).name("m1"),
+                VarInt.from(n, row -> RandomSource.nextInt(5)).name("m2"));
+
+        Supplier<NaiveBayes> builder = () -> NaiveBayes.newModel()
+                .estimators.add(GaussianEstimator.forName("g"))
+                .estimators.add(KernelEstimator.forName("k"))
+                .estimators.add(BernoulliEstimator.forName("b"))
+                .estimators.add(MultinoulliEstimator.forName("nom"))
+                .estimators.add(PoissonEstimator.forName("p"))
+                .estimators.add(MultinomialEstimator.fromNames("m1", "m2"));
+
+        NaiveBayes full = builder.get().fit(df, "y");
+
+        NaiveBayes partial = builder.get();
+        for (int i = 0; i < n; i += 150) {
+            partial.partialFit(df.mapRows(Mapping.range(i, i + 150)), "y");
+        }
 
+        NaiveBayes left = builder.get().fit(df.mapRows(Mapping.range(0, 200)), "y");
+        NaiveBayes right = builder.get().partialFit(df.mapRows(Mapping.range(200, 400)), "y")
+                .partialFit(df.mapRows(Mapping.range(400, n)), "y");
+        NaiveBayes merged = left.merge(right);
+
+        Frame expected = full.predict(df).firstDensity();
+        assertTrue(expected.rvar("a").stream().mapToDouble().allMatch(Double::isFinite));
+        for (NaiveBayes model : List.of(partial, merged)) {
+            Frame density = model.predict(df).firstDensity();
+            assertArrayEquals(expected.varNames(), density.varNames());
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < expected.varCount(); j++) {
+                    assertEquals(expected.getDouble(i, j), density.getDouble(i, j), 1e-9);
+                }
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> left.merge(left));
+    }
+
+    @Test
+    void testPartialFitMissingLevel() {
+        RandomSource.setSeed(123);
+        int n = 300;
+        Frame df = SolidFrame.byVars(
+                VarNominal.from(n, row -> row < 200 ? "a" : "b").name("y"),
+                VarDouble.from(n, row -> (row < 200 ? 0 : 3) + RandomSource.nextDouble()).name("g"));
+
+        // first chunk does not contain level b
+        NaiveBayes model = NaiveBayes.newModel().estimators.add(GaussianEstimator.forName("g"))
+                .partialFit(df.mapRows(Mapping.range(0, 100)), "y");
+        ClassifierResult result = model.predict(df);
+        for (int i = 0; i < n; i++) {
+            assertEquals("a", result.firstClasses().getLabel(i));
+            assertEquals(1.0, result.firstDensity().getDouble(i, "a"), TOLERANCE);
+        }
+
+        model.partialFit(df.mapRows(Mapping.range(100, n)), "y");
+        result = model.predict(df);
+        for (int i = 0; i < n; i++) {
+            assertEquals(i < 200 ? "a" : "b", result.firstClasses().getLabel(i));
+        }
+    }
+}
@@ -121,4 +121,24 @@ public class GaussianEstimatorTest {
         assertEquals(4.049691346263317, estimator2.getFittedNormal("b").sd(), TOL);
     }
 
+    @Test
+    void testPartialFitMissingLevel() {
+        // first chunk contains only rows of level a
+        GaussianEstimator estimator = GaussianEstimator.forName("x");
+        estimator.partialFit(df.mapRows(0, 1, 2, 3, 4), VarDouble.fill(5, 1), "t");
+
+        assertEquals(Collections.singletonList("a"), estimator.getTargetLevels());
+        assertNull(estimator.getFittedNormal("b"));
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(1.0, estimator.predict(df, i, "b"), TOL);
+        }
+
+        estimator.partialFit(df.mapRows(5, 6, 7, 8, 9), VarDouble.fill(5, 1), "t");
+        GaussianEstimator full = GaussianEstimator.forName("x");
+        full.fit(df, VarDouble.fill(df.rowCount(), 1), "t");
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(full.predict(df, i, "a"), estimator.predict(df, i, "a"), TOL);
+            assertEquals(full.predict(df, i, "b"), estimator.predict(df, i, "b"), TOL);
+        }
+    }
 }
@@ -93,6 +93,70 @@ public class GBTClassifierModelTest {
         assertEquals(spam.rvar("spam").levels().size(), result.firstDensity().varCount());
     }
 
+    @Test
+    void parallelClassTreesTest() {
+
+        var iris = Datasets.loadIrisDataset();
+        var model = GBTClassifierModel.newModel()
+                .model.set(RTree.newCART().maxDepth.set(3).varSelector.set(VarSelector.fixed(2)))
+                .runs.set(20);
+
+        var sequential = model.newInstance();
+        sequential.fit(iris, "class");
+
+        RandomSource.setSeed(42);
+        var parallel1 = model.newInstance().poolSize.set(2);
+        parallel1.fit(iris, "class");
+
+        RandomSource.setSeed(42);
+        var parallel2 = model.newInstance().poolSize.set(-1);
+        parallel2.fit(iris, "class");
+
+        // same seed gives the same model for any pool size
+        var d1 = parallel1.predict(iris, true, true).firstDensity();
+        var d2 = parallel2.predict(iris, true, true).firstDensity();
+        assertTrue(d1.deepEquals(d2));
+
+        assertEquals(3, parallel1.getTrees().size());
+        assertEquals(20, parallel1.getTrees().get(0).size());
+        double accSequential = Accuracy.newMetric().compute(iris.rvar("class"), sequential.predict(iris)).getScore().value();
+        double accParallel = Accuracy.newMetric().compute(iris.rvar("class"), parallel1.predict(iris)).getScore().value();
+        assertTrue(accSequential > 0.95);
+        assertTrue(accParallel > 0.95);
+    }
+
+    @Test
+    void fitScoresWithMissingTest() {
+
+        var iris = Datasets.loadIrisDataset();
+        for (int i = 0; i < iris.rowCount(); i++) {
+            for (int j = 0; j < 4; j++) {
+                if (RandomSource.nextDouble() < 0.3) {
+                    iris.setMissing(i, j);
+                }
+            }
+        }
+        var model = GBTClassifierModel.newModel()
+                .model.set(RTree.newCART().maxDepth.set(3))
+                .shrinkage.set(0.5)
+                .runs.set(5);
+        model.fit(iris, "class");
+
+        // training scores are the scores predicted by trees
+        for (int k = 0; k < model.getTrees().size(); k++) {
+            double[] scores = new double[iris.rowCount()];
+            for (RTree tree : model.getTrees().get(k)) {
+                var prediction = tree.predict(iris, false).firstPrediction();
+                for (int i = 0; i < iris.rowCount(); i++) {
+                    scores[i] += 0.5 * prediction.getDouble(i);
+                }
+            }
+            for (int i = 0; i < iris.rowCount(); i++) {
+                assertEquals(scores[i], model.getFitScores().get(k, i), 1e-12);
+            }
+        }
+    }
+
     @Test
     void newInstanceTest() {
         var model = GBTClassifierModel.newModel()
@@ -28,6 +28,7 @@ import rapaio.data.Frame;
 import rapaio.datasets.Datasets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 8/14/20.
@@ -208,4 +209,15 @@ public class CForestTest {
 
                 """, model.toFullContent());
     }
+
+    @Test
+    void reproducibleParallelTest() {
+        RandomSource.setSeed(42);
+        var first = CForest.newModel().runs.set(20).poolSize.set(-1).fit(iris, "class").predict(iris, true, true);
+        for (int i = 0; i < 3; i++) {
+            RandomSource.setSeed(42);
+            var parallel = CForest.newModel().runs.set(20).poolSize.set(-1).fit(iris, "class").predict(iris, true, true);
+            assertTrue(first.firstDensity().deepEquals(parallel.firstDensity()));
+        }
+    }
 }
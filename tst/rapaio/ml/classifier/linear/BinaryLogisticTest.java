@@ -22,6 +22,7 @@
 package rapaio.ml.classifier.linear;
 
 import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
 import rapaio.data.Frame;
 import rapaio.data.SolidFrame;
 import rapaio.data.VarDouble;
@@ -118,4 +119,21 @@ public class BinaryLogisticTest {
         assertTrue(result2.firstClasses().deepEquals(y));
     }
 
+    @Test
+    void testSparseInput() {
+        RandomSource.setSeed(42);
+        VarDouble x1 = VarDouble.from(200, row -> RandomSource.nextDouble() < 0.2 ? RandomSource.nextDouble() * 4 - 2 : 0.0).name("x1");
+        VarDouble x2 = VarDouble.from(200, row -> RandomSource.nextDouble() < 0.2 ? RandomSource.nextDouble() * 4 - 2 : 0.0).name("x2");
+        VarNominal y = VarNominal.from(200, row -> x1.getDouble(row) - x2.getDouble(row) + RandomSource.nextDouble() - 0.5 > 0 ? "1" : "0").name("y");
+        Frame df = SolidFrame.byVars(x1, x2, y);
+
+        for (var method : BinaryLogistic.Method.values()) {
+            var dense = BinaryLogistic.newModel().solver.set(method).runs.set(100).fit(df, "y");
+            var sparse = dense.newInstance().sparse.set(true).fit(df, "y");
+            var wd = dense.getIterationWeights().get(dense.getIterationWeights().size() - 1);
+            var ws = sparse.getIterationWeights().get(sparse.getIterationWeights().size() - 1);
+            assertTrue(wd.deepEquals(ws, 1e-9));
+            assertTrue(dense.predict(df).firstClasses().deepEquals(sparse.predict(df).firstClasses()));
+        }
+    }
 }
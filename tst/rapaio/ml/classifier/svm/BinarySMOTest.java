@@ -72,6 +72,22 @@ public class BinarySMOTest {
         RandomSource.setSeed(42);
     }
 
+    @Test
+    void testKernelCacheBudget() throws IOException {
+        Frame df = Datasets.loadSonar();
+        df.copy().fapply(FStandardize.on(VarRange.all()));
+
+        BinarySMO full = BinarySMO.newModel().kernel.set(new RBFKernel(2)).fit(df, "Class");
+        // budget for only a few kernel rows
+        BinarySMO small = BinarySMO.newModel().kernel.set(new RBFKernel(2))
+                .cacheBytes.set(4L * 8 * df.rowCount()).fit(df, "Class");
+
+        assertTrue(full.getKernelCacheHits() > 0);
+        assertTrue(full.getKernelCacheHits() > small.getKernelCacheHits());
+        assertTrue(full.getKernelCacheMisses() < small.getKernelCacheMisses());
+        assertTrue(full.predict(df).firstClasses().deepEquals(small.predict(df).firstClasses()));
+    }
+
     @Test
     void testLinear() throws IOException {
         Frame df = Datasets.loadSonar();
@@ -30,8 +30,10 @@ import rapaio.data.SolidFrame;
 import rapaio.data.VarBinary;
 import rapaio.data.VarDouble;
 import rapaio.data.VarNominal;
+import rapaio.data.VarType;
 import rapaio.datasets.Datasets;
 import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.eval.metric.Confusion;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,6 +75,39 @@ public class SearchTest {
         assertEquals("temp<=70.5", candidate.groupPredicates().get(0).toString());
     }
 
+    @Test
+    void numericHistogramTest() {
+
+        CTree tree = CTree.newDecisionStump().minCount.set(2);
+        var candidate = Search.NumericHistogram.computeCandidate(
+                tree, play, VarDouble.fill(play.rowCount(), 1.0), "temp", "class", Purity.GiniGain);
+
+        assertEquals("temp", candidate.testName());
+        assertEquals("temp<=70", candidate.groupPredicates().get(0).toString());
+        assertEquals("temp>70", candidate.groupPredicates().get(1).toString());
+
+        // outside fit bins are computed from the given frame, not reused from previous calls
+        Frame shifted = play.copy();
+        shifted.rvar("temp").op().plus(100);
+        candidate = Search.NumericHistogram.computeCandidate(tree, shifted,
+                VarDouble.fill(play.rowCount(), 1.0), "temp", "class", Purity.GiniGain);
+        assertEquals("temp<=170", candidate.groupPredicates().get(0).toString());
+    }
+
+    @Test
+    void numericHistogramFitTest() {
+        Frame iris = Datasets.loadIrisDataset();
+        CTree tree = CTree.newCART()
+                .testMap.add(VarType.DOUBLE, Search.NumericHistogram)
+                .bins.set(16)
+                .maxDepth.set(3);
+        tree.fit(iris, "class");
+
+        var result = tree.predict(iris);
+        double accuracy = Confusion.from(iris.rvar("class"), result.firstClasses()).accuracy();
+        assertTrue(accuracy > 0.9);
+    }
+
     @Test
     void binaryBinaryTest() {
         var df = SolidFrame.byVars(
@@ -92,6 +92,21 @@ public class KMeansTest {
 
     }
 
+    @Test
+    void testEmptyClusters() {
+        // most observations are equal, thus initial centroids are equal and only one cluster is not empty
+        Frame df = SolidFrame.byVars(VarDouble.from(102, row -> row < 100 ? 0.0 : (row - 99) * 5.0).name("x"));
+        for (KMeans.Method method : KMeans.Method.values()) {
+            RandomSource.setSeed(42);
+            KMeans clustering = KMeans.newModel().k.set(3).method.set(method).fit(df);
+
+            Frame c = clustering.getCentroids().refSort("x");
+            assertTrue(c.deepEquals(SolidFrame.byVars(VarDouble.copy(0, 5, 10).name("x"))));
+            assertEquals(0, clustering.getInertia());
+            assertEquals(3, clustering.predict(df).getAssignment().stream().mapToInt().distinct().count());
+        }
+    }
+
     @Test
     void printingTest() {
         var df = Datasets.loadOldFaithful();
@@ -135,4 +150,72 @@ public class KMeansTest {
                 """, model.toFullContent());
 
     }
+
+    @Test
+    void testSparseInput() {
+        Frame df = SolidFrame.byVars(
+                VarDouble.from(300, row -> row % 3 == 0 ? 10 + RandomSource.nextDouble() : 0.0).name("x"),
+                VarDouble.from(300, row -> row % 3 == 1 ? 10 + RandomSource.nextDouble() : 0.0).name("y"),
+                VarDouble.from(300, row -> RandomSource.nextDouble() < 0.05 ? 1.0 : 0.0).name("z"));
+
+        RandomSource.setSeed(1);
+        KMeans dense = KMeans.newModel().k.set(3).runs.set(20).fit(df);
+        RandomSource.setSeed(1);
+        KMeans sparse = KMeans.newModel().k.set(3).runs.set(20).sparse.set(true).fit(df);
+
+        assertTrue(dense.getCentroidsMatrix().deepEquals(sparse.getCentroidsMatrix(), 1e-9));
+        assertEquals(dense.getInertia(), sparse.getInertia(), 1e-9);
+        assertTrue(dense.predict(df).getAssignment().deepEquals(sparse.predict(df).getAssignment()));
+    }
+
+    @Test
+    void testHamerly() {
+        Frame df = SolidFrame.byVars(
+                VarDouble.from(5_000, row -> (row % 7) * 3 + RandomSource.nextDouble()).name("x"),
+                VarDouble.from(5_000, row -> (row % 5) * 2 + RandomSource.nextDouble()).name("y"),
+                VarDouble.from(5_000, row -> RandomSource.nextDouble()).name("z"));
+
+        RandomSource.setSeed(7);
+        KMeans lloyd = KMeans.newModel().k.set(20).runs.set(100).fit(df);
+        RandomSource.setSeed(7);
+        KMeans hamerly = KMeans.newModel().k.set(20).runs.set(100).method.set(KMeans.Method.Hamerly).fit(df);
+
+        assertEquals(lloyd.getErrors().size(), hamerly.getErrors().size());
+        assertEquals(lloyd.getInertia(), hamerly.getInertia(), 1e-6);
+        assertTrue(lloyd.getCentroidsMatrix().deepEquals(hamerly.getCentroidsMatrix(), 1e-9));
+        assertTrue(lloyd.predict(df).getAssignment().deepEquals(hamerly.predict(df).getAssignment()));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> KMeans.newModel().method.set(KMeans.Method.Hamerly).sparse.set(true).fit(df));
+    }
+
+    @Test
+    void testParallelInit() {
+        double[][] centers = {{0, 0}, {10, 0}, {0, 10}, {10, 10}};
+        Frame df = SolidFrame.byVars(
+                VarDouble.from(4_000, row -> centers[row % 4][0] + RandomSource.nextDouble()).name("x"),
+                VarDouble.from(4_000, row -> centers[row % 4][1] + RandomSource.nextDouble()).name("y"));
+        DMatrix m = DMatrix.copy(df);
+
+        for (int k : new int[]{1, 4, 10}) {
+            DMatrix c = KMeansInit.Parallel.init(new KMeans.L2(), m, k);
+            assertEquals(k, c.rowCount());
+            assertEquals(2, c.colCount());
+        }
+
+        // with 4 centroids each natural cluster receives one centroid
+        for (int run = 0; run < 10; run++) {
+            DMatrix c = KMeansInit.Parallel.init(new KMeans.L2(), m, 4);
+            boolean[] covered = new boolean[4];
+            for (int i = 0; i < 4; i++) {
+                covered[((int) Math.round(c.get(i, 0) / 10)) + 2 * ((int) Math.round(c.get(i, 1) / 10))] = true;
+            }
+            for (boolean b : covered) {
+                assertTrue(b);
+            }
+        }
+
+        KMeans model = KMeans.newModel().k.set(4).init.set(KMeansInit.Parallel).fit(df);
+        assertEquals(4_000 * 2 / 12.0, model.getInertia(), 50);
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.ml.clustering.kmeans;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.Mapping;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public class MiniBatchKMeansTest {
+
+    private static final double[][] CENTERS = {{0, 0}, {10, 0}, {0, 10}};
+
+    private Frame df;
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(42);
+        df = SolidFrame.byVars(
+                VarDouble.from(6_000, row -> CENTERS[row % 3][0] + RandomSource.nextDouble()).name("x"),
+                VarDouble.from(6_000, row -> CENTERS[row % 3][1] + RandomSource.nextDouble()).name("y"));
+    }
+
+    @Test
+    void fitTest() {
+        MiniBatchKMeans model = MiniBatchKMeans.newModel().k.set(3).batchSize.set(100).runs.set(100)
+                .init.set(KMeansInit.PlusPlus).fit(df);
+
+        assertEquals(100, model.getErrors().size());
+        assertEquals(10_000, Arrays.stream(model.getCounts()).sum());
+        assertCenters(model.getCentroidsMatrix());
+
+        var assignment = model.predict(df).getAssignment();
+        for (int i = 3; i < df.rowCount(); i++) {
+            assertEquals(assignment.getInt(i % 3), assignment.getInt(i));
+        }
+    }
+
+    @Test
+    void partialFitTest() {
+        List<Frame> chunks = new ArrayList<>();
+        for (int i = 0; i < df.rowCount(); i += 1_000) {
+            chunks.add(df.mapRows(Mapping.range(i, i + 1_000)));
+        }
+        MiniBatchKMeans model = MiniBatchKMeans.newModel().k.set(3).batchSize.set(200).init.set(KMeansInit.PlusPlus);
+        model.partialFit(chunks.iterator());
+
+        assertEquals(30, model.getErrors().size());
+        assertArrayEquals(new String[]{"x", "y"}, model.inputNames());
+        assertCenters(model.getCentroidsMatrix());
+
+        // further refinement keeps the model
+        model.partialFit(chunks.get(0));
+        assertEquals(35, model.getErrors().size());
+        assertEquals(7_000, Arrays.stream(model.getCounts()).sum());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> MiniBatchKMeans.newModel().k.set(3).partialFit(df.mapRows(Mapping.range(0, 2))));
+    }
+
+    @Test
+    void streamTest() {
+        MiniBatchKMeans model = MiniBatchKMeans.newModel().k.set(3).batchSize.set(500).init.set(KMeansInit.PlusPlus);
+        model.partialFit(IntStream.range(0, df.rowCount()).mapToObj(i -> DVector.wrap(df.getDouble(i, 0), df.getDouble(i, 1))));
+
+        assertArrayEquals(new String[]{"V1", "V2"}, model.inputNames());
+        assertEquals(12, model.getErrors().size());
+        assertCenters(model.getCentroidsMatrix());
+    }
+
+    private void assertCenters(DMatrix c) {
+        for (double[] center : CENTERS) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < c.rowCount(); i++) {
+                best = Math.min(best, Math.hypot(c.get(i, 0) - center[0] - 0.5, c.get(i, 1) - center[1] - 0.5));
+            }
+            assertTrue(best < 0.1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common;
+
+import org.junit.jupiter.api.Test;
+import rapaio.data.VarDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileBinsTest {
+
+    @Test
+    void testBuilder() {
+        VarDouble x = VarDouble.seq(1, 100);
+        QuantileBins bins = QuantileBins.of(x, 4);
+
+        assertEquals(4, bins.binCount());
+        assertEquals(25, bins.cut(0));
+        assertEquals(50, bins.cut(1));
+        assertEquals(75, bins.cut(2));
+
+        assertEquals(0, bins.bin(-10));
+        assertEquals(0, bins.bin(25));
+        assertEquals(1, bins.bin(25.5));
+        assertEquals(3, bins.bin(100));
+        assertEquals(3, bins.bin(1000));
+
+        assertThrows(IllegalArgumentException.class, () -> QuantileBins.of(x, 1));
+    }
+
+    @Test
+    void testDuplicatesAndMissing() {
+        VarDouble x = VarDouble.copy(1, 1, 1, 1, 1, 1, 2, 3, Double.NaN, Double.NaN);
+        QuantileBins bins = QuantileBins.of(x, 8);
+
+        // cuts are distinct values and the maximum is never a cut
+        assertEquals(3, bins.binCount());
+        assertEquals(1, bins.cut(0));
+        assertEquals(2, bins.cut(1));
+
+        assertEquals(1, QuantileBins.of(VarDouble.fill(10, 7), 8).binCount());
+        assertEquals(1, QuantileBins.of(VarDouble.empty(), 8).binCount());
+    }
+
+    @Test
+    void testSketch() {
+        VarDouble x = VarDouble.seq(1, 100);
+        QuantileBins bins = QuantileBins.sketch(x, 4);
+
+        // small variables are retained completely by the sketch
+        assertEquals(4, bins.binCount());
+        assertEquals(25, bins.cut(0));
+        assertEquals(50, bins.cut(1));
+        assertEquals(75, bins.cut(2));
+
+        VarDouble y = VarDouble.copy(1, 1, 1, 1, 1, 1, 2, 3, Double.NaN, Double.NaN);
+        QuantileBins duplicates = QuantileBins.sketch(y, 8);
+        assertEquals(3, duplicates.binCount());
+        assertEquals(1, duplicates.cut(0));
+        assertEquals(2, duplicates.cut(1));
+
+        // for large variables cut ranks are close to equally spaced
+        VarDouble z = VarDouble.seq(0, 199_999);
+        QuantileBins large = QuantileBins.sketch(z, 10);
+        assertEquals(10, large.binCount());
+        for (int i = 0; i < 9; i++) {
+            assertEquals((i + 1) * 20_000, large.cut(i), 2_000);
+        }
+        assertThrows(IllegalArgumentException.class, () -> QuantileBins.sketch(x, 1));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+import rapaio.math.linear.DMatrix;
+import rapaio.math.linear.DVector;
+import rapaio.math.linear.MType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class KernelBatchTest {
+
+    private static final double TOL = 1e-12;
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(42);
+    }
+
+    private Frame randomFrame(int rows) {
+        return SolidFrame.byVars(
+                VarDouble.from(rows, RandomSource::nextDouble).name("a"),
+                VarDouble.from(rows, RandomSource::nextDouble).name("b"),
+                VarDouble.from(rows, RandomSource::nextDouble).name("c"),
+                VarDouble.from(rows, RandomSource::nextDouble).name("d"),
+                VarDouble.from(rows, RandomSource::nextDouble).name("e"),
+                VarDouble.from(rows, () -> 0.0).name("ignored")
+        );
+    }
+
+    @Test
+    void testFrameRowsMatchEval() {
+        Frame df = randomFrame(30);
+        String[] names = new String[]{"a", "b", "c", "d", "e"};
+        List<AbstractKernel> kernels = List.of(new RBFKernel(1.5), new PolyKernel(2), new CauchyKernel(2),
+                new MinKernel(), new SplineKernel(), new SigmoidKernel(0.5, 1));
+        for (AbstractKernel kernel : kernels) {
+            kernel.buildKernelCache(names, df);
+            for (int i = 0; i < df.rowCount(); i++) {
+                for (int j = 0; j < df.rowCount(); j++) {
+                    assertEquals(kernel.eval(df, i, df, j), kernel.compute(df, i, df, j), TOL, kernel.name());
+                }
+            }
+            kernel.clean();
+        }
+    }
+
+    @Test
+    void testBatchRows() {
+        Frame df = randomFrame(13);
+        DMatrix rows = DMatrix.copy(MType.RDENSE, df.mapVars("a,b,c,d,e"));
+        DMatrix cols = DMatrix.copy(MType.CDENSE, df.mapVars("a,b,c,d,e"));
+        DVector u = rows.mapRowCopy(3);
+
+        List<Kernel> kernels = List.of(new RBFKernel(0.7), new PolyKernel(3, 1, 0.5), new ExponentialKernel(),
+                new MinKernel(), new WaveKernel(1.2), new LinearKernel(1), new SigmoidKernel(0.5, 1),
+                new CauchyKernel(2), new CircularKernel(0.1), new GeneralizedStudentTKernel(1.5),
+                new InverseMultiQuadricKernel(1), new MultiQuadricKernel(1), new LogKernel(2), new PowerKernel(2),
+                new RationalQuadraticKernel(1), new SphericalKernel(0.1));
+        for (Kernel kernel : kernels) {
+            DVector batch = kernel.compute(u, rows);
+            DVector batchCols = kernel.compute(u, cols);
+            assertEquals(rows.rowCount(), batch.size());
+            for (int i = 0; i < rows.rowCount(); i++) {
+                double expected = kernel.compute(u, rows.mapRowCopy(i));
+                assertEquals(expected, batch.get(i), TOL, kernel.name());
+                assertEquals(expected, batchCols.get(i), TOL, kernel.name());
+            }
+        }
+    }
+
+    @Test
+    void testCachedRows() {
+        Frame df = randomFrame(20);
+        String[] names = new String[]{"a", "b", "c", "d", "e"};
+        RBFKernel kernel = new RBFKernel(1.5);
+        kernel.buildKernelCache(names, df);
+
+        // the first lookup computes the whole row, the next lookups from the same row are hits
+        for (int j = 0; j < df.rowCount(); j++) {
+            assertEquals(kernel.eval(df, 4, df, j), kernel.compute(df, 4, df, j), TOL);
+        }
+        assertEquals(1, kernel.kernelCache().missCount());
+        assertEquals(df.rowCount() - 1, kernel.kernelCache().hitCount());
+        kernel.clean();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.kernel.cache;
+
+import org.junit.jupiter.api.Test;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.VarDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>
+ */
+public class LRUKernelCacheTest {
+
+    @Test
+    void testStoreRetrieve() {
+        Frame df = SolidFrame.byVars(VarDouble.seq(9).name("x"));
+        LRUKernelCache cache = new LRUKernelCache(df);
+        assertEquals(10, cache.capacity());
+
+        assertNull(cache.retrieve(df, 1, df, 2));
+        cache.store(df, 1, df, 2, 3.0);
+        assertEquals(3.0, cache.retrieve(df, 1, df, 2));
+        // symmetric lookup
+        assertEquals(3.0, cache.retrieve(df, 2, df, 1));
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        // other frames are not cached and not counted
+        Frame other = df.copy();
+        cache.store(other, 1, df, 2, 7.0);
+        assertNull(cache.retrieve(other, 1, df, 2));
+        assertEquals(1, cache.missCount());
+
+        cache.clear();
+        assertNull(cache.retrieve(df, 1, df, 2));
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    void testEviction() {
+        Frame df = SolidFrame.byVars(VarDouble.seq(99).name("x"));
+        // budget for 3 rows of 100 values
+        LRUKernelCache cache = new LRUKernelCache(df, 3 * 8 * 100);
+        assertEquals(3, cache.capacity());
+
+        cache.store(df, 0, df, 10, 0);
+        cache.store(df, 1, df, 10, 1);
+        cache.store(df, 2, df, 10, 2);
+        assertEquals(3, cache.size());
+
+        // row 0 becomes most recently used, row 1 is the eldest
+        assertEquals(0.0, cache.retrieve(df, 0, df, 10));
+        cache.store(df, 3, df, 10, 3);
+        assertEquals(3, cache.size());
+
+        assertNull(cache.retrieve(df, 1, df, 10));
+        assertEquals(0.0, cache.retrieve(df, 0, df, 10));
+        assertEquals(2.0, cache.retrieve(df, 2, df, 10));
+        assertEquals(3.0, cache.retrieve(df, 3, df, 10));
+        // reused storage does not leak values of the evicted row
+        assertNull(cache.retrieve(df, 3, df, 11));
+    }
+
+    @Test
+    void testInvalidBudget() {
+        Frame df = SolidFrame.byVars(VarDouble.seq(9).name("x"));
+        var ex = assertThrows(IllegalArgumentException.class, () -> new LRUKernelCache(df, 0));
+        assertEquals("Cache size in bytes must be positive.", ex.getMessage());
+    }
+}
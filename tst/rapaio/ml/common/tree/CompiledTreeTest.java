@@ -0,0 +1,151 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package rapaio.ml.common.tree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+import rapaio.data.Frame;
+import rapaio.datasets.Datasets;
+import rapaio.math.linear.DMatrix;
+import rapaio.ml.classifier.ClassifierResult;
+import rapaio.ml.classifier.ensemble.CForest;
+import rapaio.ml.classifier.tree.CTree;
+import rapaio.ml.regression.boost.GBTRegression;
+import rapaio.ml.regression.ensemble.RForest;
+import rapaio.ml.regression.tree.RTree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledTreeTest {
+
+    private static final double TOL = 1e-12;
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(42);
+    }
+
+    @Test
+    void testCTreeWithNominalAndMissing() {
+        Frame play = Datasets.loadPlay();
+        CTree tree = CTree.newC45().minCount.set(1).fit(play, "class");
+
+        Frame test = play.copy();
+        for (int i = 0; i < test.rowCount(); i += 3) {
+            test.setMissing(i, "outlook");
+            test.setMissing(i + 1, "temp");
+        }
+        assertClassifierEquals(tree.predict(test), tree.compile(), test);
+    }
+
+    @Test
+    void testCTreeMatrix() {
+        Frame iris = Datasets.loadIrisDataset();
+        CTree tree = CTree.newCART().fit(iris, "class");
+        CompiledClassifier compiled = tree.compile();
+
+        DMatrix x = DMatrix.copy(iris.mapVars(tree.inputNames()));
+        int[] classes = new int[iris.rowCount()];
+        compiled.predict(x, classes, null);
+
+        ClassifierResult result = tree.predict(iris);
+        for (int i = 0; i < iris.rowCount(); i++) {
+            assertEquals(result.firstClasses().getInt(i), classes[i]);
+        }
+
+        CompiledClassifier nominal = CTree.newC45().fit(Datasets.loadPlay(), "class").compile();
+        assertThrows(IllegalArgumentException.class, () -> nominal.predict(DMatrix.empty(1, 4), null, null));
+    }
+
+    @Test
+    void testCForest() {
+        Frame iris = Datasets.loadIrisDataset();
+        CForest rf = CForest.newModel().runs.set(20).fit(iris, "class");
+        CompiledClassifier compiled = rf.compile();
+        assertEquals(20, compiled.treeCount());
+
+        double[] densities = new double[iris.rowCount() * compiled.classCount()];
+        compiled.predict(iris, null, densities);
+
+        ClassifierResult result = rf.predict(iris);
+        for (int i = 0; i < iris.rowCount(); i++) {
+            for (int j = 1; j < compiled.levels().size(); j++) {
+                assertEquals(result.firstDensity().getDouble(i, j), densities[i * compiled.classCount() + j - 1], TOL);
+            }
+        }
+    }
+
+    @Test
+    void testRegressionModels() {
+        Frame df = Datasets.loadISLAdvertising();
+
+        RTree tree = RTree.newCART().maxDepth.set(6).fit(df, "Sales");
+        Frame test = df.copy();
+        for (int i = 0; i < test.rowCount(); i += 5) {
+            test.setMissing(i, "TV");
+        }
+        assertRegressionEquals(tree.predict(test, false).firstPrediction().elements(), tree.compile(), test);
+
+        RForest rf = RForest.newRF().runs.set(10).fit(df, "Sales");
+        assertRegressionEquals(rf.predict(df, false).firstPrediction().elements(), rf.compile(), df);
+
+        GBTRegression gbt = GBTRegression.newModel().runs.set(20).shrinkage.set(0.1).fit(df, "Sales");
+        CompiledRegression compiled = gbt.compile();
+        assertRegressionEquals(gbt.predict(df, false).firstPrediction().elements(), compiled, df);
+
+        double[] out = new double[df.rowCount()];
+        compiled.predict(DMatrix.copy(df.mapVars(gbt.inputNames())), out);
+        assertRegressionEquals(out, compiled, df);
+    }
+
+    @Test
+    void testBuilderValidation() {
+        var builder = CompiledTree.builder(new String[]{"x"}, 1);
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalArgumentException.class, () -> builder.addNode(-1, null, 1, 0, new double[2]));
+        int root = builder.addNode(-1, null, 1, 0, new double[1]);
+        assertThrows(IllegalArgumentException.class, () -> builder.addNode(root, (row, df) -> true, 1, 0, new double[1]));
+        assertEquals(1, builder.build().nodeCount());
+        assertThrows(IllegalArgumentException.class, () -> CompiledTree.features(Datasets.loadPlay(), new String[]{"y"}));
+    }
+
+    private void assertClassifierEquals(ClassifierResult expected, CompiledClassifier compiled, Frame df) {
+        int[] classes = new int[df.rowCount()];
+        double[] densities = new double[df.rowCount() * compiled.classCount()];
+        compiled.predict(df, classes, densities);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(expected.firstClasses().getInt(i), classes[i]);
+            for (int j = 1; j < compiled.levels().size(); j++) {
+                assertEquals(expected.firstDensity().getDouble(i, j), densities[i * compiled.classCount() + j - 1], TOL);
+            }
+        }
+    }
+
+    private void assertRegressionEquals(double[] expected, CompiledRegression compiled, Frame df) {
+        double[] out = new double[df.rowCount()];
+        compiled.predict(df, out);
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(expected[i], out[i], 1e-9);
+        }
+    }
+}
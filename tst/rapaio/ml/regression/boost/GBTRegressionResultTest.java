@@ -24,8 +24,13 @@ package rapaio.ml.regression.boost;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import rapaio.core.RandomSource;
+import rapaio.core.SamplingTools;
+import rapaio.core.distributions.Normal;
+import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
 import rapaio.data.Var;
 import rapaio.data.VarDouble;
+import rapaio.data.sample.RowSampler;
 import rapaio.datasets.Datasets;
 import rapaio.ml.loss.L2Loss;
 import rapaio.ml.regression.tree.RTree;
@@ -75,6 +80,104 @@ public class GBTRegressionResultTest {
         assertTrue(err2.getDouble(err2.size() - 1) < 1e-1);
     }
 
+    @Test
+    void earlyStoppingTest() {
+        var advertise = Datasets.loadISLAdvertising().removeVars("ID");
+        var frames = SamplingTools.randomSampleSlices(advertise, 0.7, 0.3);
+        var model = GBTRegression.newModel()
+                .runs.set(1000)
+                .shrinkage.set(0.5)
+                .earlyStoppingRounds.set(10)
+                .model.set(RTree.newCART().maxDepth.set(4).minCount.set(2))
+                .withValidation(frames[1]);
+        model.fit(frames[0], "Sales");
+
+        int count = model.getTrees().size();
+        VarDouble scores = model.getValidationScores();
+        assertTrue(count < 1000);
+        assertEquals(count + 11, scores.size());
+        for (int i = 0; i < scores.size(); i++) {
+            assertTrue(scores.getDouble(count) <= scores.getDouble(i));
+        }
+
+        // fit values correspond to the remaining trees
+        var prediction = model.predict(frames[0]).firstPrediction();
+        for (int i = 0; i < prediction.size(); i++) {
+            assertEquals(prediction.getDouble(i), model.getFitValues().getDouble(i), 1e-10);
+        }
+
+        // early stopping without validation is not allowed
+        var invalid = model.newInstance();
+        var ex = assertThrows(IllegalStateException.class, () -> invalid.fit(frames[0], "Sales"));
+        assertEquals("Early stopping requires a validation frame, see withValidation.", ex.getMessage());
+
+        // without validation all scores are empty
+        model = model.newInstance().earlyStoppingRounds.set(0);
+        model.fit(frames[0], "Sales");
+        assertEquals(0, model.getValidationScores().size());
+    }
+
+    @Test
+    void fitValuesWithMissingTest() {
+        int n = 500;
+        Normal normal = Normal.std();
+        VarDouble x1 = VarDouble.from(n, row -> normal.sampleNext()).name("x1");
+        VarDouble x2 = VarDouble.from(n, row -> normal.sampleNext()).name("x2");
+        VarDouble y = VarDouble.from(n, row -> x1.getDouble(row) * 2 - x2.getDouble(row) + normal.sampleNext() * 0.1).name("y");
+        for (int i = 0; i < n; i++) {
+            if (RandomSource.nextDouble() < 0.3) {
+                x1.setMissing(i);
+            }
+            if (RandomSource.nextDouble() < 0.3) {
+                x2.setMissing(i);
+            }
+        }
+        Frame df = SolidFrame.byVars(x1, x2, y);
+
+        // fit values are updated from leaves of sampled rows and predicted for the other rows
+        for (RowSampler sampler : new RowSampler[]{RowSampler.identity(), RowSampler.bootstrap(0.8), RowSampler.subsampler(0.5)}) {
+            for (Splitter splitter : Splitter.values()) {
+                var model = GBTRegression.newModel()
+                        .runs.set(5)
+                        .shrinkage.set(0.5)
+                        .rowSampler.set(sampler)
+                        .model.set(RTree.newCART().maxDepth.set(3).splitter.set(splitter));
+                model.fit(df, "y");
+
+                // fit values used to compute residuals are the predictions of the model
+                var prediction = model.predict(df).firstPrediction();
+                for (int i = 0; i < n; i++) {
+                    assertEquals(prediction.getDouble(i), model.getFitValues().getDouble(i), 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    void earlyStoppingOnRunsTest() {
+        var advertise = Datasets.loadISLAdvertising().removeVars("ID");
+        var frames = SamplingTools.randomSampleSlices(advertise, 0.7, 0.3);
+        var model = GBTRegression.newModel()
+                .runs.set(100)
+                .shrinkage.set(0.5)
+                .earlyStoppingRounds.set(1000)
+                .model.set(RTree.newCART().maxDepth.set(4).minCount.set(2))
+                .withValidation(frames[1]);
+        model.fit(frames[0], "Sales");
+
+        // loop ends on runs before early stopping triggers, model still ends at the best validation score
+        int count = model.getTrees().size();
+        VarDouble scores = model.getValidationScores();
+        assertTrue(count < scores.size() - 1);
+        for (int i = 0; i < scores.size(); i++) {
+            assertTrue(scores.getDouble(count) <= scores.getDouble(i));
+        }
+        var prediction = model.predict(frames[0]).firstPrediction();
+        for (int i = 0; i < prediction.size(); i++) {
+            assertEquals(prediction.getDouble(i), model.getFitValues().getDouble(i), 1e-10);
+        }
+    }
+
     @Test
     void printingTest() throws IOException {
         var advertise = Datasets.loadISLAdvertising().removeVars("ID");
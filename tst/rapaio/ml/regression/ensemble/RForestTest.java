@@ -23,6 +23,7 @@ package rapaio.ml.regression.ensemble;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
 import rapaio.core.SamplingTools;
 import rapaio.data.Frame;
 import rapaio.data.VarDouble;
@@ -34,6 +35,7 @@ import rapaio.ml.regression.tree.RTree;
 import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a> on 7/27/20.
@@ -85,4 +87,15 @@ public class RForestTest {
         RegressionResult result = rf.predict(test, true);
         assertEquals(test.rowCount(), result.firstPrediction().size());
     }
+
+    @Test
+    void reproducibleParallelTest() {
+        RandomSource.setSeed(42);
+        var sequential = RForest.newRF().runs.set(20).poolSize.set(0).fit(advertising, "Sales").predict(advertising);
+        for (int i = 0; i < 3; i++) {
+            RandomSource.setSeed(42);
+            var parallel = RForest.newRF().runs.set(20).fit(advertising, "Sales").predict(advertising);
+            assertTrue(sequential.firstPrediction().deepEquals(parallel.firstPrediction()));
+        }
+    }
 }
@@ -26,6 +26,8 @@ import rapaio.core.RandomSource;
 import rapaio.core.distributions.Normal;
 import rapaio.data.BoundFrame;
 import rapaio.data.Frame;
+import rapaio.data.SolidFrame;
+import rapaio.data.Var;
 import rapaio.data.VarDouble;
 import rapaio.data.VarRange;
 import rapaio.datasets.Datasets;
@@ -269,4 +271,31 @@ public class LinearRegressionResultResultModelTest {
             assertEquals(betas.get(i, 1), secondBetas.get(i), TOL);
         }
     }
+
+    @Test
+    void testSparseInput() {
+        RandomSource.setSeed(42);
+        Normal normal = Normal.std();
+        VarDouble[] vars = new VarDouble[11];
+        for (int i = 0; i < 10; i++) {
+            vars[i] = VarDouble.from(200, row -> RandomSource.nextDouble() < 0.1 ? normal.sampleNext() : 0.0).name("x" + i);
+        }
+        vars[10] = VarDouble.from(200, row -> {
+            double sum = normal.sampleNext() / 10;
+            for (int i = 0; i < 10; i++) {
+                sum += (i + 1) * vars[i].getDouble(row);
+            }
+            return sum;
+        }).name("y");
+        Frame df = SolidFrame.byVars(vars);
+
+        LinearRegressionModel dense = LinearRegressionModel.newModel().fit(df, "y");
+        LinearRegressionModel sparse = LinearRegressionModel.newModel().sparse.set(true).fit(df, "y");
+        assertTrue(dense.firstCoefficients().deepEquals(sparse.firstCoefficients(), 1e-9));
+        Var densePred = dense.predict(df).firstPrediction();
+        Var sparsePred = sparse.predict(df).firstPrediction();
+        for (int i = 0; i < df.rowCount(); i++) {
+            assertEquals(densePred.getDouble(i), sparsePred.getDouble(i), 1e-9);
+        }
+    }
 }
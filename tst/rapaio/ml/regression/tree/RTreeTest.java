@@ -266,4 +266,28 @@ public class RTreeTest {
 
         assertTrue(dsRSquare < treeRSquare);
     }
+
+    @Test
+    void testParallelLevels() {
+        Frame df = Datasets.loadISLAdvertising().removeVars(VarRange.of("ID"));
+
+        RTree sequential = RTree.newCART().maxDepth.set(8).minCount.set(2);
+        RandomSource.setSeed(123);
+        sequential.fit(df, "Sales");
+
+        RTree parallel1 = sequential.newInstance().runs.set(4);
+        RandomSource.setSeed(123);
+        parallel1.fit(df, "Sales");
+
+        RTree parallel2 = sequential.newInstance().runs.set(4);
+        RandomSource.setSeed(123);
+        parallel2.fit(df, "Sales");
+
+        // parallel fits are reproducible
+        assertEquals(parallel1.toContent(), parallel2.toContent());
+        assertTrue(parallel1.predict(df).firstPrediction().deepEquals(parallel2.predict(df).firstPrediction()));
+
+        // without random variable selection the same tree is built
+        assertTrue(sequential.predict(df).firstPrediction().deepEquals(parallel1.predict(df).firstPrediction()));
+    }
 }
@@ -111,4 +111,22 @@ public class SearchTest {
         assertEquals("temp>69.5", c.get().getGroupPredicates().get(1).toString());
     }
 
+    @Test
+    void numericHistogramTest() {
+        Optional<Candidate> c = Search.NumericHistogram.computeCandidate(tree, df, w, NUM_TEST, TARGET);
+
+        assertTrue(c.isPresent());
+        assertEquals(32.657653061224515, c.get().getScore(), 1e-12);
+        assertEquals("temp", c.get().getTestName());
+        assertEquals(2, c.get().getGroupPredicates().size());
+        assertEquals("temp<=69", c.get().getGroupPredicates().get(0).toString());
+        assertEquals("temp>69", c.get().getGroupPredicates().get(1).toString());
+
+        // outside fit bins are computed from the given frame, not reused from previous calls
+        Frame shifted = df.copy();
+        shifted.rvar(NUM_TEST).op().plus(100);
+        c = Search.NumericHistogram.computeCandidate(tree, shifted, w, NUM_TEST, TARGET);
+        assertTrue(c.isPresent());
+        assertEquals("temp<=169", c.get().getGroupPredicates().get(0).toString());
+    }
 }
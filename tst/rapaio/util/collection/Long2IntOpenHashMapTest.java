@@ -0,0 +1,85 @@
+/*
+ * Apache License
+ * Version 2.0, January 2004
+ * http://www.apache.org/licenses/
+ *
+ * Copyright 2013 - 2021 Aurelian Tutuianu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package rapaio.util.collection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rapaio.core.RandomSource;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by <a href="mailto:padreati@yahoo.com">Aurelian Tutuianu</a>.
+ */
+public class Long2IntOpenHashMapTest {
+
+    private static final int N = 100_000;
+
+    @BeforeEach
+    void beforeEach() {
+        RandomSource.setSeed(42);
+    }
+
+    @Test
+    void smokeTest() {
+        Long2IntOpenHashMap map = new Long2IntOpenHashMap();
+        HashMap<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < N; i++) {
+            long key = RandomSource.nextLong() % (N / 2);
+            int value = RandomSource.nextInt(N);
+            map.put(key, value);
+            expected.put(key, value);
+            assertTrue(map.containsKey(key));
+            assertEquals(value, map.get(key));
+        }
+        assertEquals(expected.size(), map.size());
+        for (var e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+        assertEquals(Long2IntOpenHashMap.MISSING, map.get(N));
+        assertFalse(map.containsKey(Long.MIN_VALUE));
+    }
+
+    @Test
+    void putIfAbsentTest() {
+        Long2IntOpenHashMap map = new Long2IntOpenHashMap(0.75, 2);
+        assertEquals(Long2IntOpenHashMap.MISSING, map.putIfAbsent(Long.MIN_VALUE, 0));
+        assertEquals(Long2IntOpenHashMap.MISSING, map.putIfAbsent(Long.MAX_VALUE, 1));
+        assertEquals(Long2IntOpenHashMap.MISSING, map.putIfAbsent(0, 2));
+        assertEquals(0, map.putIfAbsent(Long.MIN_VALUE, 10));
+        assertEquals(1, map.putIfAbsent(Long.MAX_VALUE, 11));
+        assertEquals(2, map.putIfAbsent(0, 12));
+        assertEquals(3, map.size());
+        assertEquals(0, map.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    void invalidTest() {
+        Long2IntOpenHashMap map = new Long2IntOpenHashMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, Long2IntOpenHashMap.MISSING));
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(1, Long2IntOpenHashMap.MISSING));
+        assertThrows(IllegalArgumentException.class, () -> new Long2IntOpenHashMap(1.5, 10));
+    }
+}